@@ -75,8 +75,10 @@ public class GatewayRecoveryStatus {
 
     final long recoveredTranslogOperations;
 
+    final double translogOperationsPerSecond;
+
     public GatewayRecoveryStatus(Stage stage, long startTime, long time, long indexSize, long reusedIndexSize,
-                                 long recoveredIndexSize, long recoveredTranslogOperations) {
+                                 long recoveredIndexSize, long recoveredTranslogOperations, double translogOperationsPerSecond) {
         this.stage = stage;
         this.startTime = startTime;
         this.time = time;
@@ -84,6 +86,7 @@ public class GatewayRecoveryStatus {
         this.reusedIndexSize = reusedIndexSize;
         this.recoveredIndexSize = recoveredIndexSize;
         this.recoveredTranslogOperations = recoveredTranslogOperations;
+        this.translogOperationsPerSecond = translogOperationsPerSecond;
     }
 
     public Stage getStage() {
@@ -130,4 +133,11 @@ public class GatewayRecoveryStatus {
     public long getRecoveredTranslogOperations() {
         return recoveredTranslogOperations;
     }
+
+    /**
+     * The rate at which translog operations have been replayed.
+     */
+    public double getTranslogOperationsPerSecond() {
+        return translogOperationsPerSecond;
+    }
 }
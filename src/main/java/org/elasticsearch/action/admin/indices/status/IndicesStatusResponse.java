@@ -259,6 +259,7 @@ public class IndicesStatusResponse extends BroadcastOperationResponse implements
 
                         builder.startObject(Fields.TRANSLOG);
                         builder.field(Fields.RECOVERED, gatewayRecoveryStatus.getRecoveredTranslogOperations());
+                        builder.field(Fields.OPERATIONS_PER_SECOND, gatewayRecoveryStatus.getTranslogOperationsPerSecond());
                         builder.endObject();
 
                         builder.endObject();
@@ -330,6 +331,7 @@ public class IndicesStatusResponse extends BroadcastOperationResponse implements
         static final XContentBuilderString RECOVERED_SIZE = new XContentBuilderString("recovered_size");
         static final XContentBuilderString RECOVERED_SIZE_IN_BYTES = new XContentBuilderString("recovered_size_in_bytes");
         static final XContentBuilderString RECOVERED = new XContentBuilderString("recovered");
+        static final XContentBuilderString OPERATIONS_PER_SECOND = new XContentBuilderString("operations_per_second");
         static final XContentBuilderString GATEWAY_RECOVERY = new XContentBuilderString("gateway_recovery");
         static final XContentBuilderString GATEWAY_SNAPSHOT = new XContentBuilderString("gateway_snapshot");
         static final XContentBuilderString EXPECTED_OPERATIONS = new XContentBuilderString("expected_operations");
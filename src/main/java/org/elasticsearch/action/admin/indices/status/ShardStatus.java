@@ -205,6 +205,7 @@ public class ShardStatus extends BroadcastShardOperationResponse {
             out.writeVLong(gatewayRecoveryStatus.reusedIndexSize);
             out.writeVLong(gatewayRecoveryStatus.recoveredIndexSize);
             out.writeVLong(gatewayRecoveryStatus.recoveredTranslogOperations);
+            out.writeDouble(gatewayRecoveryStatus.translogOperationsPerSecond);
         }
 
         if (gatewaySnapshotStatus == null) {
@@ -261,7 +262,7 @@ public class ShardStatus extends BroadcastShardOperationResponse {
 
         if (in.readBoolean()) {
             gatewayRecoveryStatus = new GatewayRecoveryStatus(GatewayRecoveryStatus.Stage.fromValue(in.readByte()),
-                    in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong());
+                    in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong(), in.readVLong(), in.readDouble());
         }
 
         if (in.readBoolean()) {
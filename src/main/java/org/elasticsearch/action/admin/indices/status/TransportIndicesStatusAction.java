@@ -230,7 +230,8 @@ public class TransportIndicesStatusAction extends TransportBroadcastOperationAct
                         stage = GatewayRecoveryStatus.Stage.INIT;
                 }
                 shardStatus.gatewayRecoveryStatus = new GatewayRecoveryStatus(stage, gatewayRecoveryStatus.startTime(), gatewayRecoveryStatus.time(),
-                        gatewayRecoveryStatus.index().totalSize(), gatewayRecoveryStatus.index().reusedTotalSize(), gatewayRecoveryStatus.index().currentFilesSize(), gatewayRecoveryStatus.translog().currentTranslogOperations());
+                        gatewayRecoveryStatus.index().totalSize(), gatewayRecoveryStatus.index().reusedTotalSize(), gatewayRecoveryStatus.index().currentFilesSize(), gatewayRecoveryStatus.translog().currentTranslogOperations(),
+                        gatewayRecoveryStatus.translog().operationsPerSecond());
             }
         }
 
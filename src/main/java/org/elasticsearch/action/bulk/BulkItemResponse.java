@@ -19,12 +19,15 @@
 
 package org.elasticsearch.action.bulk;
 
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.ActionResponse;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
 
 import java.io.IOException;
 
@@ -44,12 +47,32 @@ public class BulkItemResponse implements Streamable {
         private final String type;
         private final String id;
         private final String message;
+        private final RestStatus status;
+        private final boolean rejected;
 
         public Failure(String index, String type, String id, String message) {
+            this(index, type, id, message, RestStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        public Failure(String index, String type, String id, String message, RestStatus status) {
+            this(index, type, id, message, status, false);
+        }
+
+        public Failure(String index, String type, String id, String message, RestStatus status, boolean rejected) {
             this.index = index;
             this.type = type;
             this.id = id;
             this.message = message;
+            this.status = status;
+            this.rejected = rejected;
+        }
+
+        /**
+         * The failure of the action caused by the provided exception.
+         */
+        public Failure(String index, String type, String id, Throwable t) {
+            this(index, type, id, ExceptionsHelper.detailedMessage(t), ExceptionsHelper.status(t),
+                    ExceptionsHelper.unwrapCause(t) instanceof EsRejectedExecutionException);
         }
 
         /**
@@ -79,6 +102,21 @@ public class BulkItemResponse implements Streamable {
         public String getMessage() {
             return this.message;
         }
+
+        /**
+         * The rest status of the failure.
+         */
+        public RestStatus getStatus() {
+            return this.status;
+        }
+
+        /**
+         * Whether the action was rejected because the thread pool executing it was full, in which case
+         * it can be retried later.
+         */
+        public boolean isRejected() {
+            return this.rejected;
+        }
     }
 
     private int id;
@@ -232,7 +270,7 @@ public class BulkItemResponse implements Streamable {
         }
 
         if (in.readBoolean()) {
-            failure = new Failure(in.readString(), in.readString(), in.readString(), in.readString());
+            failure = new Failure(in.readString(), in.readString(), in.readString(), in.readString(), RestStatus.readFrom(in), in.readBoolean());
         }
     }
 
@@ -258,6 +296,8 @@ public class BulkItemResponse implements Streamable {
             out.writeString(failure.getType());
             out.writeString(failure.getId());
             out.writeString(failure.getMessage());
+            RestStatus.writeTo(out, failure.getStatus());
+            out.writeBoolean(failure.isRejected());
         }
     }
 }
@@ -19,20 +19,34 @@
 
 package org.elasticsearch.action.bulk;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.internal.InternalClient;
+import org.elasticsearch.client.transport.TransportClient;
+import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -79,6 +93,9 @@ public class BulkProcessor {
         private int bulkActions = 1000;
         private ByteSizeValue bulkSize = new ByteSizeValue(5, ByteSizeUnit.MB);
         private TimeValue flushInterval = null;
+        private boolean perNodeDispatch = false;
+        private int maxRetries = 0;
+        private TimeValue retryBackoff = TimeValue.timeValueMillis(50);
 
         /**
          * Creates a builder of bulk processor with the client to use and the listener that will be used
@@ -136,11 +153,33 @@ public class BulkProcessor {
             return this;
         }
 
+        /**
+         * Sets if the bulk actions should be grouped by the node holding their primary shard, and each group
+         * executed as its own bulk request, with {@link #setConcurrentRequests(int)} applying per node. Only has
+         * an effect with a routing aware {@link TransportClient} (<tt>client.transport.routing_aware</tt>), the
+         * listener is then called for each per node bulk request. Defaults to <tt>false</tt>.
+         */
+        public Builder setPerNodeDispatch(boolean perNodeDispatch) {
+            this.perNodeDispatch = perNodeDispatch;
+            return this;
+        }
+
+        /**
+         * Sets how many times bulk actions rejected because the executing thread pool is full should be retried,
+         * waiting with an exponential backoff starting at the provided delay between attempts. Defaults to
+         * <tt>0</tt>, failing rejected actions right away.
+         */
+        public Builder setBackoff(int maxRetries, TimeValue retryBackoff) {
+            this.maxRetries = maxRetries;
+            this.retryBackoff = retryBackoff;
+            return this;
+        }
+
         /**
          * Builds a new bulk processor.
          */
         public BulkProcessor build() {
-            return new BulkProcessor(client, listener, name, concurrentRequests, bulkActions, bulkSize, flushInterval);
+            return new BulkProcessor(client, listener, name, concurrentRequests, bulkActions, bulkSize, flushInterval, perNodeDispatch, maxRetries, retryBackoff);
         }
     }
 
@@ -157,8 +196,13 @@ public class BulkProcessor {
     private final int bulkActions;
     private final int bulkSize;
     private final TimeValue flushInterval;
+    private final boolean perNodeDispatch;
+    private final int maxRetries;
+    private final TimeValue retryBackoff;
 
     private final Semaphore semaphore;
+    // per node semaphores when dispatching per node, acquired outside of the lock
+    private final ConcurrentMap<String, Semaphore> nodeSemaphores = ConcurrentCollections.newConcurrentMap();
     private final ScheduledThreadPoolExecutor scheduler;
     private final ScheduledFuture scheduledFuture;
 
@@ -168,13 +212,17 @@ public class BulkProcessor {
 
     private volatile boolean closed = false;
 
-    BulkProcessor(Client client, Listener listener, @Nullable String name, int concurrentRequests, int bulkActions, ByteSizeValue bulkSize, @Nullable TimeValue flushInterval) {
+    BulkProcessor(Client client, Listener listener, @Nullable String name, int concurrentRequests, int bulkActions, ByteSizeValue bulkSize, @Nullable TimeValue flushInterval,
+                  boolean perNodeDispatch, int maxRetries, TimeValue retryBackoff) {
         this.client = client;
         this.listener = listener;
         this.name = name;
         this.concurrentRequests = concurrentRequests;
         this.bulkActions = bulkActions;
         this.bulkSize = bulkSize.bytesAsInt();
+        this.perNodeDispatch = perNodeDispatch && client instanceof TransportClient && ((TransportClient) client).routingAware();
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
 
         this.semaphore = new Semaphore(concurrentRequests);
         this.bulkRequest = new BulkRequest();
@@ -194,9 +242,13 @@ public class BulkProcessor {
     /**
      * Closes the processor. If flushing by time is enabled, then its shutdown. Any remaining bulk actions are flushed.
      */
-    public synchronized void close() {
+    public void close() {
+        executePerNode(internalClose());
+    }
+
+    private synchronized BulkRequest internalClose() {
         if (closed) {
-            return;
+            return null;
         }
         closed = true;
         if (this.scheduledFuture != null) {
@@ -204,8 +256,9 @@ public class BulkProcessor {
             this.scheduler.shutdown();
         }
         if (bulkRequest.numberOfActions() > 0) {
-            execute();
+            return execute();
         }
+        return null;
     }
 
     /**
@@ -231,47 +284,108 @@ public class BulkProcessor {
     }
 
     public BulkProcessor add(ActionRequest request, @Nullable Object payload) {
-        internalAdd(request, payload);
+        executePerNode(internalAdd(request, payload));
         return this;
     }
 
-    private synchronized void internalAdd(ActionRequest request, @Nullable Object payload) {
+    private synchronized BulkRequest internalAdd(ActionRequest request, @Nullable Object payload) {
         bulkRequest.add(request, payload);
-        executeIfNeeded();
+        return executeIfNeeded();
     }
 
     public BulkProcessor add(BytesReference data, boolean contentUnsafe, @Nullable String defaultIndex, @Nullable String defaultType) throws Exception {
         return add(data, contentUnsafe, defaultIndex, defaultType, null);
     }
 
-    public synchronized BulkProcessor add(BytesReference data, boolean contentUnsafe, @Nullable String defaultIndex, @Nullable String defaultType, @Nullable Object payload) throws Exception {
-        bulkRequest.add(data, contentUnsafe, defaultIndex, defaultType, payload);
-        executeIfNeeded();
+    public BulkProcessor add(BytesReference data, boolean contentUnsafe, @Nullable String defaultIndex, @Nullable String defaultType, @Nullable Object payload) throws Exception {
+        executePerNode(internalAdd(data, contentUnsafe, defaultIndex, defaultType, payload));
         return this;
     }
 
-    private void executeIfNeeded() {
+    private synchronized BulkRequest internalAdd(BytesReference data, boolean contentUnsafe, @Nullable String defaultIndex, @Nullable String defaultType, @Nullable Object payload) throws Exception {
+        bulkRequest.add(data, contentUnsafe, defaultIndex, defaultType, payload);
+        return executeIfNeeded();
+    }
+
+    private BulkRequest executeIfNeeded() {
         if (closed) {
             throw new ElasticSearchIllegalStateException("bulk process already closed");
         }
         if (!isOverTheLimit()) {
-            return;
+            return null;
         }
-        execute();
+        return execute();
     }
 
-    // (currently) needs to be executed under a lock
-    private void execute() {
+    /**
+     * (currently) needs to be executed under a lock. When dispatching per node, the pending actions are returned
+     * to be split and executed by {@link #executePerNode(BulkRequest)} once the lock is released, so a node with
+     * no permits left doesn't block adding actions headed to other nodes.
+     */
+    private BulkRequest execute() {
         final BulkRequest bulkRequest = this.bulkRequest;
-        final long executionId = executionIdGen.incrementAndGet();
-
         this.bulkRequest = new BulkRequest();
 
+        if (!perNodeDispatch) {
+            execute(bulkRequest, semaphore);
+            return null;
+        }
+        if (concurrentRequests == 0) {
+            // blocking execution, keep it under the lock so only a single request executes at a time
+            executePerNode(bulkRequest);
+            return null;
+        }
+        return bulkRequest;
+    }
+
+    /**
+     * Splits the actions by node and executes each group, without holding the lock. Groups headed to nodes with
+     * a free permit are sent first, and only then do we wait on the nodes that are busy.
+     */
+    private void executePerNode(@Nullable BulkRequest bulkRequest) {
+        if (bulkRequest == null) {
+            return;
+        }
+        List<Tuple<BulkRequest, Semaphore>> pending = null;
+        for (Map.Entry<String, BulkRequest> entry : splitByNode(bulkRequest).entrySet()) {
+            Semaphore semaphore = this.semaphore;
+            if (entry.getKey() != null) {
+                semaphore = nodeSemaphores.get(entry.getKey());
+                if (semaphore == null) {
+                    Semaphore newSemaphore = new Semaphore(concurrentRequests);
+                    semaphore = nodeSemaphores.putIfAbsent(entry.getKey(), newSemaphore);
+                    if (semaphore == null) {
+                        semaphore = newSemaphore;
+                    }
+                }
+            }
+            if (concurrentRequests == 0) {
+                execute(entry.getValue(), semaphore);
+            } else if (semaphore.tryAcquire()) {
+                executeAcquired(entry.getValue(), semaphore);
+            } else {
+                if (pending == null) {
+                    pending = Lists.newArrayList();
+                }
+                pending.add(new Tuple<BulkRequest, Semaphore>(entry.getValue(), semaphore));
+            }
+        }
+        if (pending != null) {
+            for (Tuple<BulkRequest, Semaphore> tuple : pending) {
+                execute(tuple.v1(), tuple.v2());
+            }
+        }
+    }
+
+    private void execute(final BulkRequest bulkRequest, final Semaphore semaphore) {
         if (concurrentRequests == 0) {
+            final long executionId = executionIdGen.incrementAndGet();
             // execute in a blocking fashion...
             try {
                 listener.beforeBulk(executionId, bulkRequest);
-                listener.afterBulk(executionId, bulkRequest, client.bulk(bulkRequest).actionGet());
+                PlainActionFuture<BulkResponse> future = PlainActionFuture.newFuture();
+                new RetryingBulk(bulkRequest, future).execute();
+                listener.afterBulk(executionId, bulkRequest, future.actionGet());
             } catch (Exception e) {
                 listener.afterBulk(executionId, bulkRequest, e);
             }
@@ -279,28 +393,187 @@ public class BulkProcessor {
             try {
                 semaphore.acquire();
             } catch (InterruptedException e) {
-                listener.afterBulk(executionId, bulkRequest, e);
+                listener.afterBulk(executionIdGen.incrementAndGet(), bulkRequest, e);
                 return;
             }
-            listener.beforeBulk(executionId, bulkRequest);
-            client.bulk(bulkRequest, new ActionListener<BulkResponse>() {
-                @Override
-                public void onResponse(BulkResponse response) {
-                    try {
-                        listener.afterBulk(executionId, bulkRequest, response);
-                    } finally {
-                        semaphore.release();
+            executeAcquired(bulkRequest, semaphore);
+        }
+    }
+
+    /**
+     * Executes the bulk request asynchronously, releasing the already acquired permit once done.
+     */
+    private void executeAcquired(final BulkRequest bulkRequest, final Semaphore semaphore) {
+        final long executionId = executionIdGen.incrementAndGet();
+        listener.beforeBulk(executionId, bulkRequest);
+        new RetryingBulk(bulkRequest, new ActionListener<BulkResponse>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+                try {
+                    listener.afterBulk(executionId, bulkRequest, response);
+                } finally {
+                    semaphore.release();
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                try {
+                    listener.afterBulk(executionId, bulkRequest, e);
+                } finally {
+                    semaphore.release();
+                }
+            }
+        }).execute();
+    }
+
+    /**
+     * Groups the bulk actions by the id of the node holding their primary shard, actions that can't be resolved
+     * locally are grouped under <tt>null</tt>.
+     */
+    private Map<String, BulkRequest> splitByNode(BulkRequest bulkRequest) {
+        TransportClient transportClient = (TransportClient) client;
+        Map<String, BulkRequest> requests = Maps.newHashMap();
+        List<ActionRequest> items = bulkRequest.requests();
+        List<Object> payloads = bulkRequest.payloads();
+        for (int i = 0; i < items.size(); i++) {
+            ActionRequest item = items.get(i);
+            DiscoveryNode node = null;
+            if (item instanceof IndexRequest) {
+                IndexRequest indexRequest = (IndexRequest) item;
+                node = transportClient.primaryShardNode(indexRequest.index(), indexRequest.type(), indexRequest.id(), indexRequest.routing());
+            } else if (item instanceof DeleteRequest) {
+                DeleteRequest deleteRequest = (DeleteRequest) item;
+                node = transportClient.primaryShardNode(deleteRequest.index(), deleteRequest.type(), deleteRequest.id(), deleteRequest.routing());
+            }
+            String nodeId = node == null ? null : node.id();
+            BulkRequest nodeRequest = requests.get(nodeId);
+            if (nodeRequest == null) {
+                nodeRequest = new BulkRequest();
+                requests.put(nodeId, nodeRequest);
+            }
+            nodeRequest.add(item, payloads == null ? null : payloads.get(i));
+        }
+        return requests;
+    }
+
+    private static boolean isRejection(Throwable e) {
+        return ExceptionsHelper.unwrapCause(e) instanceof EsRejectedExecutionException;
+    }
+
+    private static boolean isRejection(BulkItemResponse item) {
+        // other failures, like unavailable shards, share the service unavailable status of rejections
+        return item.isFailed() && item.getFailure().isRejected();
+    }
+
+    /**
+     * Executes a bulk request, retrying the actions rejected because of a full thread pool with an exponential
+     * backoff, and notifies the listener with the merged response once done.
+     */
+    private class RetryingBulk implements ActionListener<BulkResponse> {
+
+        private final BulkRequest bulkRequest;
+        private final ActionListener<BulkResponse> listener;
+
+        private BulkItemResponse[] responses;
+        private long tookInMillis;
+        private int retries;
+
+        // the positions within the original request of the actions sent by the current attempt
+        private List<Integer> positions;
+        private BulkRequest currentRequest;
+
+        RetryingBulk(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+            this.bulkRequest = bulkRequest;
+            this.listener = listener;
+            this.currentRequest = bulkRequest;
+        }
+
+        void execute() {
+            try {
+                client.bulk(currentRequest, this);
+            } catch (Throwable e) {
+                onFailure(e);
+            }
+        }
+
+        @Override
+        public void onResponse(BulkResponse response) {
+            tookInMillis += response.getTookInMillis();
+            if (responses == null) {
+                responses = response.items();
+            }
+            List<Integer> rejected = Lists.newArrayList();
+            BulkItemResponse[] items = response.items();
+            for (int i = 0; i < items.length; i++) {
+                BulkItemResponse item = items[i];
+                int position = item.getItemId();
+                if (positions != null) {
+                    position = positions.get(position);
+                    if (item.isFailed()) {
+                        responses[position] = new BulkItemResponse(position, item.getOpType(), item.getFailure());
+                    } else {
+                        responses[position] = new BulkItemResponse(position, item.getOpType(), item.<ActionResponse>getResponse());
                     }
                 }
+                if (isRejection(item)) {
+                    rejected.add(position);
+                }
+            }
+            if (!rejected.isEmpty() && retries < maxRetries) {
+                retry(rejected);
+            } else {
+                listener.onResponse(new BulkResponse(responses, tookInMillis));
+            }
+        }
 
-                @Override
-                public void onFailure(Throwable e) {
-                    try {
-                        listener.afterBulk(executionId, bulkRequest, e);
-                    } finally {
-                        semaphore.release();
+        @Override
+        public void onFailure(Throwable e) {
+            if (isRejection(e) && retries < maxRetries) {
+                List<Integer> all = positions;
+                if (all == null) {
+                    all = Lists.newArrayListWithCapacity(bulkRequest.numberOfActions());
+                    for (int i = 0; i < bulkRequest.numberOfActions(); i++) {
+                        all.add(i);
                     }
                 }
+                retry(all);
+                return;
+            }
+            if (responses == null) {
+                listener.onFailure(e);
+                return;
+            }
+            // an earlier attempt succeeded for some of the actions, only fail the ones still pending
+            for (Integer position : positions) {
+                ActionRequest item = bulkRequest.requests().get(position);
+                if (item instanceof IndexRequest) {
+                    IndexRequest indexRequest = (IndexRequest) item;
+                    responses[position] = new BulkItemResponse(position, indexRequest.opType().toString().toLowerCase(Locale.ENGLISH),
+                            new BulkItemResponse.Failure(indexRequest.index(), indexRequest.type(), indexRequest.id(), e));
+                } else if (item instanceof DeleteRequest) {
+                    DeleteRequest deleteRequest = (DeleteRequest) item;
+                    responses[position] = new BulkItemResponse(position, "delete",
+                            new BulkItemResponse.Failure(deleteRequest.index(), deleteRequest.type(), deleteRequest.id(), e));
+                }
+            }
+            listener.onResponse(new BulkResponse(responses, tookInMillis));
+        }
+
+        private void retry(List<Integer> positions) {
+            BulkRequest retryRequest = new BulkRequest();
+            for (Integer position : positions) {
+                retryRequest.add(bulkRequest.requests().get(position));
+            }
+            TimeValue delay = TimeValue.timeValueMillis(retryBackoff.millis() << retries);
+            retries++;
+            this.positions = positions;
+            this.currentRequest = retryRequest;
+            ((InternalClient) client).threadPool().schedule(delay, ThreadPool.Names.SAME, new Runnable() {
+                @Override
+                public void run() {
+                    execute();
+                }
             });
         }
     }
@@ -319,6 +592,7 @@ public class BulkProcessor {
 
         @Override
         public void run() {
+            BulkRequest perNodeRequest;
             synchronized (BulkProcessor.this) {
                 if (closed) {
                     return;
@@ -326,8 +600,9 @@ public class BulkProcessor {
                 if (bulkRequest.numberOfActions() == 0) {
                     return;
                 }
-                execute();
+                perNodeRequest = execute();
             }
+            executePerNode(perNodeRequest);
         }
     }
 }
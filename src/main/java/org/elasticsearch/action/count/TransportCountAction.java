@@ -162,7 +162,7 @@ public class TransportCountAction extends TransportBroadcastOperationAction<Coun
             if (querySource != null && querySource.length() > 0) {
                 try {
                     QueryParseContext.setTypes(request.getTypes());
-                    context.parsedQuery(indexService.queryParserService().parse(querySource));
+                    context.parsedQuery(indexService.queryParserService().parseCached(querySource));
                 } finally {
                     QueryParseContext.removeTypes();
                 }
@@ -308,6 +308,15 @@ public class SearchRequestBuilder extends ActionRequestBuilder<SearchRequest, Se
         return this;
     }
 
+    /**
+     * Restricts the search to slice <tt>id</tt> out of <tt>max</tt> disjoint slices of the docs, allowing
+     * to scan an index with several consumers in parallel, each with its own scroll.
+     */
+    public SearchRequestBuilder setSlice(int id, int max) {
+        sourceBuilder().slice(id, max);
+        return this;
+    }
+
     /**
      * From index to start the search from. Defaults to <tt>0</tt>.
      */
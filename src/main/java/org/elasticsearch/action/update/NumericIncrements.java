@@ -0,0 +1,118 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.update;
+
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Helpers to apply numeric field increments to a document source.
+ */
+public final class NumericIncrements {
+
+    private NumericIncrements() {
+    }
+
+    /**
+     * Adds the two numbers, keeping the result integral if both are integral.
+     */
+    public static Number add(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return a.longValue() + b.longValue();
+        }
+        return a.doubleValue() + b.doubleValue();
+    }
+
+    /**
+     * Applies all the increments to the source, see {@link #apply(java.util.Map, String, Number)}.
+     */
+    public static void apply(Map<String, Object> source, Map<String, Number> increments) {
+        for (Map.Entry<String, Number> entry : increments.entrySet()) {
+            apply(source, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Checks that the increments can be applied to the source, without modifying it.
+     *
+     * @throws ElasticSearchIllegalArgumentException if one of the incremented paths holds a value that is not a number,
+     *                                               or goes through a value that is not an object
+     */
+    @SuppressWarnings("unchecked")
+    public static void validate(Map<String, Object> source, Map<String, Number> increments) throws ElasticSearchIllegalArgumentException {
+        for (String path : increments.keySet()) {
+            String[] pathElements = path.split("\\.");
+            Object current = source;
+            for (int i = 0; i < pathElements.length && current != null; i++) {
+                if (!(current instanceof Map)) {
+                    throw new ElasticSearchIllegalArgumentException("can't increment [" + path + "], [" + pathElements[i - 1] + "] is not an object");
+                }
+                current = ((Map<String, Object>) current).get(pathElements[i]);
+            }
+            if (current != null && !(current instanceof Number)) {
+                throw new ElasticSearchIllegalArgumentException("can't increment [" + path + "], current value [" + current + "] is not a number");
+            }
+        }
+    }
+
+    /**
+     * Increments the value under the (dot separated) path in the source, setting it to the delta if it does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public static void apply(Map<String, Object> source, String path, Number delta) {
+        String[] pathElements = path.split("\\.");
+        Map<String, Object> current = source;
+        for (int i = 0; i < pathElements.length - 1; i++) {
+            Object inner = current.get(pathElements[i]);
+            if (inner == null) {
+                inner = new HashMap<String, Object>();
+                current.put(pathElements[i], inner);
+            } else if (!(inner instanceof Map)) {
+                throw new ElasticSearchIllegalArgumentException("can't increment [" + path + "], [" + pathElements[i] + "] is not an object");
+            }
+            current = (Map<String, Object>) inner;
+        }
+        String field = pathElements[pathElements.length - 1];
+        Object value = current.get(field);
+        if (value == null) {
+            current.put(field, normalize(delta));
+        } else if (value instanceof Number) {
+            current.put(field, add((Number) value, delta));
+        } else {
+            throw new ElasticSearchIllegalArgumentException("can't increment [" + path + "], current value [" + value + "] is not a number");
+        }
+    }
+
+    /**
+     * Converts the number to either a long or a double, so it can be streamed and added.
+     */
+    public static Number normalize(Number number) {
+        if (isIntegral(number)) {
+            return number.longValue();
+        }
+        return number.doubleValue();
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+}
@@ -19,7 +19,9 @@
 
 package org.elasticsearch.action.update;
 
+import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.ExceptionsHelper;
@@ -50,6 +52,7 @@ import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.engine.DocumentAlreadyExistsException;
@@ -58,6 +61,9 @@ import org.elasticsearch.index.engine.DocumentSourceMissingException;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.get.GetField;
 import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.core.NumberFieldMapper;
 import org.elasticsearch.index.mapper.internal.ParentFieldMapper;
 import org.elasticsearch.index.mapper.internal.RoutingFieldMapper;
 import org.elasticsearch.index.mapper.internal.SourceFieldMapper;
@@ -76,7 +82,11 @@ import org.elasticsearch.transport.TransportService;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
 
@@ -96,6 +106,10 @@ public class TransportUpdateAction extends TransportInstanceSingleOperationActio
 
     private final TransportCreateIndexAction createIndexAction;
 
+    private final TimeValue incrementCoalesceWindow;
+
+    private final ConcurrentMap<String, CoalescedIncrements> coalescedIncrements = ConcurrentCollections.newConcurrentMap();
+
     @Inject
     public TransportUpdateAction(Settings settings, ThreadPool threadPool, ClusterService clusterService, TransportService transportService,
                                  IndicesService indicesService, TransportIndexAction indexAction, TransportDeleteAction deleteAction, ScriptService scriptService, TransportCreateIndexAction createIndexAction) {
@@ -106,6 +120,7 @@ public class TransportUpdateAction extends TransportInstanceSingleOperationActio
         this.scriptService = scriptService;
         this.createIndexAction = createIndexAction;
         this.autoCreateIndex = new AutoCreateIndex(settings);
+        this.incrementCoalesceWindow = componentSettings.getAsTime("increment_coalesce_window", TimeValue.timeValueMillis(0));
     }
 
     @Override
@@ -212,6 +227,10 @@ public class TransportUpdateAction extends TransportInstanceSingleOperationActio
     }
 
     protected void shardOperation(final UpdateRequest request, final ActionListener<UpdateResponse> listener, final int retryCount) throws ElasticSearchException {
+        if (request.increments() != null) {
+            coalesceIncrement(request, listener);
+            return;
+        }
         IndexService indexService = indicesService.indexServiceSafe(request.index());
         IndexShard indexShard = indexService.shardSafe(request.shardId());
 
@@ -448,4 +467,354 @@ public class TransportUpdateAction extends TransportInstanceSingleOperationActio
 
         return new GetResult(request.index(), request.type(), request.id(), version, true, sourceRequested ? sourceAsBytes : null, fields);
     }
+
+    /**
+     * Increment updates are coalesced per document: while a reindex of the document is in flight (or, when a
+     * coalesce window is set, until the window elapses), increments to the same document are buffered and then
+     * applied together in a single get and reindex.
+     */
+    private void coalesceIncrement(UpdateRequest request, ActionListener<UpdateResponse> listener) {
+        String key = request.index() + '/' + request.shardId() + '/' + request.type() + '/' + request.id();
+        PendingIncrement pendingIncrement = new PendingIncrement(request, listener);
+        while (true) {
+            CoalescedIncrements coalesced = coalescedIncrements.get(key);
+            if (coalesced == null) {
+                CoalescedIncrements newCoalesced = new CoalescedIncrements(key);
+                coalesced = coalescedIncrements.putIfAbsent(key, newCoalesced);
+                if (coalesced == null) {
+                    coalesced = newCoalesced;
+                }
+            }
+            Boolean startFlush = coalesced.add(pendingIncrement);
+            if (startFlush == null) {
+                // got removed in the meantime, try again with a new one
+                continue;
+            }
+            if (startFlush) {
+                if (incrementCoalesceWindow.millis() > 0) {
+                    final CoalescedIncrements fCoalesced = coalesced;
+                    threadPool.schedule(incrementCoalesceWindow, executor(), new Runnable() {
+                        @Override
+                        public void run() {
+                            flushIncrements(fCoalesced, fCoalesced.drain(), 0);
+                        }
+                    });
+                } else {
+                    flushIncrements(coalesced, coalesced.drain(), 0);
+                }
+            }
+            return;
+        }
+    }
+
+    private void flushIncrements(final CoalescedIncrements coalesced, final List<PendingIncrement> pending, final int retryCount) {
+        final UpdateRequest request = pending.get(0).request;
+        try {
+            IndexService indexService = indicesService.indexServiceSafe(request.index());
+            final IndexShard indexShard = indexService.shardSafe(request.shardId());
+
+            // each request is validated on its own, an invalid one only fails its own listener
+            DocumentMapper docMapper = indexService.mapperService().documentMapper(request.type());
+            List<PendingIncrement> valid = new ArrayList<PendingIncrement>(pending.size());
+            for (PendingIncrement pendingIncrement : pending) {
+                String invalidField = nonNumericField(docMapper, pendingIncrement.request.increments());
+                if (invalidField != null) {
+                    notifyFailure(pendingIncrement, new ElasticSearchIllegalArgumentException("can't increment [" + invalidField + "], it is not mapped as a numeric field"));
+                } else {
+                    valid.add(pendingIncrement);
+                }
+            }
+            if (valid.isEmpty()) {
+                flushNextIncrements(coalesced);
+                return;
+            }
+
+            long getDate = System.currentTimeMillis();
+            final GetResult getResult = indexShard.getService().get(request.type(), request.id(),
+                    new String[]{SourceFieldMapper.NAME, RoutingFieldMapper.NAME, ParentFieldMapper.NAME, TTLFieldMapper.NAME}, true);
+
+            // the requests whose increments got applied, and which are part of the reindex
+            final List<PendingIncrement> batch = new ArrayList<PendingIncrement>(valid.size());
+            final IndexRequest indexRequest;
+            if (!getResult.isExists()) {
+                // the first request providing an upsert doc creates it, the increments of the others are applied on top of it
+                PendingIncrement upsert = null;
+                IndexRequest upsertRequest = null;
+                Tuple<XContentType, Map<String, Object>> sourceAndContent = null;
+                for (Iterator<PendingIncrement> it = valid.iterator(); it.hasNext(); ) {
+                    PendingIncrement pendingIncrement = it.next();
+                    if (pendingIncrement.request.upsertRequest() != null) {
+                        try {
+                            sourceAndContent = XContentHelper.convertToMap(pendingIncrement.request.upsertRequest().source(), true);
+                        } catch (Exception e) {
+                            // failed on its own, its increments must not be applied to another upsert doc
+                            it.remove();
+                            notifyFailure(pendingIncrement, e);
+                            continue;
+                        }
+                        upsert = pendingIncrement;
+                        upsertRequest = pendingIncrement.request.upsertRequest();
+                        break;
+                    }
+                }
+                if (upsert == null) {
+                    failIncrements(coalesced, valid, new DocumentMissingException(new ShardId(request.index(), request.shardId()), request.type(), request.id()));
+                    return;
+                }
+                Map<String, Object> upsertSource = sourceAndContent.v2();
+                batch.add(upsert);
+                for (PendingIncrement pendingIncrement : valid) {
+                    if (pendingIncrement != upsert && applyIncrements(upsertSource, pendingIncrement)) {
+                        batch.add(pendingIncrement);
+                    }
+                }
+                indexRequest = Requests.indexRequest(request.index()).type(request.type()).id(request.id())
+                        .routing(request.routing()).parent(upsertRequest.parent()).timestamp(upsertRequest.timestamp())
+                        .source(upsertSource, sourceAndContent.v1())
+                        // it has to be a "create!"
+                        .create(true);
+                if (upsertRequest.ttl() > 0) {
+                    indexRequest.ttl(upsertRequest.ttl());
+                }
+            } else {
+                if (getResult.internalSourceRef() == null) {
+                    failIncrements(coalesced, valid, new DocumentSourceMissingException(new ShardId(request.index(), request.shardId()), request.type(), request.id()));
+                    return;
+                }
+                Tuple<XContentType, Map<String, Object>> sourceAndContent = XContentHelper.convertToMap(getResult.internalSourceRef(), true);
+                Map<String, Object> updatedSource = sourceAndContent.v2();
+                for (PendingIncrement pendingIncrement : valid) {
+                    if (applyIncrements(updatedSource, pendingIncrement)) {
+                        batch.add(pendingIncrement);
+                    }
+                }
+                if (batch.isEmpty()) {
+                    flushNextIncrements(coalesced);
+                    return;
+                }
+
+                String routing = getResult.getFields().containsKey(RoutingFieldMapper.NAME) ? getResult.field(RoutingFieldMapper.NAME).getValue().toString() : null;
+                String parent = getResult.getFields().containsKey(ParentFieldMapper.NAME) ? getResult.field(ParentFieldMapper.NAME).getValue().toString() : null;
+                Long ttl = getResult.getFields().containsKey(TTLFieldMapper.NAME) ? (Long) getResult.field(TTLFieldMapper.NAME).getValue() : null;
+                if (ttl != null) {
+                    ttl = ttl - (System.currentTimeMillis() - getDate); // It is an approximation of exact TTL value, could be improved
+                }
+                indexRequest = Requests.indexRequest(request.index()).type(request.type()).id(request.id()).routing(routing).parent(parent)
+                        .source(updatedSource, sourceAndContent.v1())
+                        .version(getResult.getVersion()).ttl(ttl);
+            }
+            int maxRetryOnConflict = 0;
+            boolean refresh = false;
+            for (PendingIncrement pendingIncrement : batch) {
+                maxRetryOnConflict = Math.max(maxRetryOnConflict, pendingIncrement.request.retryOnConflict());
+                refresh |= pendingIncrement.request.refresh();
+            }
+            // batches only hold requests with the same replication type, consistency level and percolate options
+            indexRequest.replicationType(request.replicationType()).consistencyLevel(request.consistencyLevel())
+                    .percolate(request.percolate())
+                    .refresh(refresh);
+            indexRequest.operationThreaded(false);
+            final BytesReference updateSourceBytes = indexRequest.source();
+            final int fMaxRetryOnConflict = maxRetryOnConflict;
+            indexAction.execute(indexRequest, new ActionListener<IndexResponse>() {
+                @Override
+                public void onResponse(IndexResponse response) {
+                    indexShard.indexingService().postCounterUpdate(request.type(), batch.size());
+                    Map<String, Object> updatedSourceAsMap = null;
+                    XContentType updatedSourceContentType = null;
+                    for (PendingIncrement pendingIncrement : batch) {
+                        UpdateResponse update = new UpdateResponse(response.index(), response.type(), response.id(), response.version());
+                        update.matches(response.matches());
+                        if (pendingIncrement.request.fields() != null && pendingIncrement.request.fields().length > 0) {
+                            if (updatedSourceAsMap == null) {
+                                Tuple<XContentType, Map<String, Object>> sourceAndContent = XContentHelper.convertToMap(updateSourceBytes, true);
+                                updatedSourceContentType = sourceAndContent.v1();
+                                updatedSourceAsMap = sourceAndContent.v2();
+                            }
+                            update.getResult(extractGetResult(pendingIncrement.request, response.version(), updatedSourceAsMap, updatedSourceContentType, updateSourceBytes));
+                        }
+                        notifyResponse(pendingIncrement, update);
+                    }
+                    flushNextIncrements(coalesced);
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    e = ExceptionsHelper.unwrapCause(e);
+                    if (e instanceof VersionConflictEngineException || e instanceof DocumentAlreadyExistsException) {
+                        if (retryCount < fMaxRetryOnConflict) {
+                            threadPool.executor(executor()).execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    flushIncrements(coalesced, batch, retryCount + 1);
+                                }
+                            });
+                            return;
+                        }
+                    }
+                    failIncrements(coalesced, batch, e);
+                }
+            });
+        } catch (Exception e) {
+            // requests that already got failed on their own are skipped
+            failIncrements(coalesced, pending, e);
+        }
+    }
+
+    /**
+     * Returns the first incremented field that is mapped, but not as a numeric field, or <tt>null</tt> if there is none.
+     */
+    @Nullable
+    private String nonNumericField(@Nullable DocumentMapper docMapper, Map<String, Number> increments) {
+        if (docMapper == null) {
+            return null;
+        }
+        for (String field : increments.keySet()) {
+            FieldMapper fieldMapper = docMapper.mappers().smartNameFieldMapper(field);
+            if (fieldMapper != null && !(fieldMapper instanceof NumberFieldMapper)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Applies the increments of the request to the source, or fails the request (leaving the source untouched) if
+     * they can't be applied to it.
+     */
+    private boolean applyIncrements(Map<String, Object> source, PendingIncrement pendingIncrement) {
+        try {
+            NumericIncrements.validate(source, pendingIncrement.request.increments());
+        } catch (ElasticSearchIllegalArgumentException e) {
+            notifyFailure(pendingIncrement, e);
+            return false;
+        }
+        NumericIncrements.apply(source, pendingIncrement.request.increments());
+        return true;
+    }
+
+    private void notifyResponse(PendingIncrement pendingIncrement, UpdateResponse response) {
+        if (!pendingIncrement.markNotified()) {
+            return;
+        }
+        try {
+            pendingIncrement.listener.onResponse(response);
+        } catch (Exception e) {
+            logger.warn("failed to notify listener of increment update", e);
+        }
+    }
+
+    private void notifyFailure(PendingIncrement pendingIncrement, Throwable e) {
+        if (!pendingIncrement.markNotified()) {
+            return;
+        }
+        try {
+            pendingIncrement.listener.onFailure(e);
+        } catch (Exception e1) {
+            logger.warn("failed to notify listener of increment update failure", e1);
+        }
+    }
+
+    private void failIncrements(CoalescedIncrements coalesced, List<PendingIncrement> pending, Throwable e) {
+        for (PendingIncrement pendingIncrement : pending) {
+            notifyFailure(pendingIncrement, e);
+        }
+        flushNextIncrements(coalesced);
+    }
+
+    private void flushNextIncrements(final CoalescedIncrements coalesced) {
+        final List<PendingIncrement> next = coalesced.drainOrRemove(coalescedIncrements);
+        if (next == null) {
+            return;
+        }
+        // increments got buffered while flushing, fork so we don't execute them on the thread that completed the reindex
+        threadPool.executor(executor()).execute(new Runnable() {
+            @Override
+            public void run() {
+                flushIncrements(coalesced, next, 0);
+            }
+        });
+    }
+
+    static class PendingIncrement {
+        final UpdateRequest request;
+        final ActionListener<UpdateResponse> listener;
+        private final AtomicBoolean notified = new AtomicBoolean();
+
+        PendingIncrement(UpdateRequest request, ActionListener<UpdateResponse> listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+
+        /**
+         * Marks the listener as notified, returning <tt>false</tt> if it already was.
+         */
+        boolean markNotified() {
+            return notified.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * The increments buffered for a single document, flushed one batch at a time.
+     */
+    static class CoalescedIncrements {
+        final String key;
+        private List<PendingIncrement> pending = new ArrayList<PendingIncrement>();
+        private boolean flushing;
+        private boolean removed;
+
+        CoalescedIncrements(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Adds the increment, returning <tt>true</tt> if the caller should start flushing, <tt>false</tt> if it will
+         * be flushed by the ongoing flush, and <tt>null</tt> if this instance is not in use anymore.
+         */
+        synchronized Boolean add(PendingIncrement pendingIncrement) {
+            if (removed) {
+                return null;
+            }
+            pending.add(pendingIncrement);
+            if (flushing) {
+                return false;
+            }
+            flushing = true;
+            return true;
+        }
+
+        /**
+         * Drains the next batch: the oldest pending increment, along with the pending increments that can be
+         * reindexed with the same replication type, consistency level and percolate options. The others are
+         * left for the next batch.
+         */
+        synchronized List<PendingIncrement> drain() {
+            UpdateRequest first = pending.get(0).request;
+            List<PendingIncrement> drained = new ArrayList<PendingIncrement>(pending.size());
+            for (Iterator<PendingIncrement> it = pending.iterator(); it.hasNext(); ) {
+                PendingIncrement pendingIncrement = it.next();
+                UpdateRequest request = pendingIncrement.request;
+                if (request.replicationType() == first.replicationType() && request.consistencyLevel() == first.consistencyLevel()
+                        && Objects.equal(request.percolate(), first.percolate())) {
+                    drained.add(pendingIncrement);
+                    it.remove();
+                }
+            }
+            return drained;
+        }
+
+        /**
+         * Called once a flush is done, returns the next increments to flush, or <tt>null</tt> if there are none, in
+         * which case it is removed from the map of coalesced increments.
+         */
+        synchronized List<PendingIncrement> drainOrRemove(ConcurrentMap<String, CoalescedIncrements> coalescedIncrements) {
+            if (pending.isEmpty()) {
+                flushing = false;
+                removed = true;
+                coalescedIncrements.remove(key, this);
+                return null;
+            }
+            return drain();
+        }
+    }
 }
@@ -20,6 +20,7 @@
 package org.elasticsearch.action.update;
 
 import com.google.common.collect.Maps;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.WriteConsistencyLevel;
 import org.elasticsearch.action.index.IndexRequest;
@@ -72,6 +73,9 @@ public class UpdateRequest extends InstanceShardOperationRequest<UpdateRequest>
     @Nullable
     private IndexRequest doc;
 
+    @Nullable
+    private Map<String, Number> increments;
+
     UpdateRequest() {
 
     }
@@ -91,8 +95,11 @@ public class UpdateRequest extends InstanceShardOperationRequest<UpdateRequest>
         if (id == null) {
             validationException = addValidationError("id is missing", validationException);
         }
-        if (script == null && doc == null) {
-            validationException = addValidationError("script or doc is missing", validationException);
+        if (script == null && doc == null && increments == null) {
+            validationException = addValidationError("script, doc or increment is missing", validationException);
+        }
+        if (increments != null && (script != null || doc != null)) {
+            validationException = addValidationError("increment can't be used together with script or doc", validationException);
         }
         return validationException;
     }
@@ -462,6 +469,28 @@ public class UpdateRequest extends InstanceShardOperationRequest<UpdateRequest>
         return upsertRequest;
     }
 
+    /**
+     * Increments the numeric field (possibly a path to an inner object field) by the given delta. Increment
+     * updates to the same document are coalesced on the primary shard, so concurrent increments end up as a
+     * single reindex of the document. Can't be used together with a script or a doc.
+     */
+    public UpdateRequest increment(String field, Number delta) {
+        if (increments == null) {
+            increments = Maps.newLinkedHashMap();
+        }
+        Number current = increments.get(field);
+        increments.put(field, current == null ? NumericIncrements.normalize(delta) : NumericIncrements.add(current, delta));
+        return this;
+    }
+
+    /**
+     * The numeric field increments, <tt>null</tt> if this is not a counter update.
+     */
+    @Nullable
+    public Map<String, Number> increments() {
+        return this.increments;
+    }
+
     public UpdateRequest source(XContentBuilder source) throws Exception {
         return source(source.bytes());
     }
@@ -500,6 +529,13 @@ public class UpdateRequest extends InstanceShardOperationRequest<UpdateRequest>
                     XContentBuilder docBuilder = XContentFactory.contentBuilder(xContentType);
                     docBuilder.copyCurrentStructure(parser);
                     safeDoc().source(docBuilder);
+                } else if ("increment".equals(currentFieldName)) {
+                    for (Map.Entry<String, Object> entry : parser.map().entrySet()) {
+                        if (!(entry.getValue() instanceof Number)) {
+                            throw new ElasticSearchIllegalArgumentException("increment of [" + entry.getKey() + "] must be a number, got [" + entry.getValue() + "]");
+                        }
+                        increment(entry.getKey(), (Number) entry.getValue());
+                    }
                 }
             }
         } finally {
@@ -537,6 +573,13 @@ public class UpdateRequest extends InstanceShardOperationRequest<UpdateRequest>
             upsertRequest = new IndexRequest();
             upsertRequest.readFrom(in);
         }
+        int incrementsSize = in.readVInt();
+        if (incrementsSize > 0) {
+            increments = Maps.newLinkedHashMap();
+            for (int i = 0; i < incrementsSize; i++) {
+                increments.put(in.readString(), (Number) in.readGenericValue());
+            }
+        }
     }
 
     @Override
@@ -581,5 +624,14 @@ public class UpdateRequest extends InstanceShardOperationRequest<UpdateRequest>
             upsertRequest.id(id);
             upsertRequest.writeTo(out);
         }
+        if (increments == null) {
+            out.writeVInt(0);
+        } else {
+            out.writeVInt(increments.size());
+            for (Map.Entry<String, Number> entry : increments.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeGenericValue(entry.getValue());
+            }
+        }
     }
 }
@@ -160,6 +160,14 @@ public class UpdateRequestBuilder extends InstanceShardOperationRequestBuilder<U
         return this;
     }
 
+    /**
+     * Increments the numeric field by the given delta, instead of using a script or a doc.
+     */
+    public UpdateRequestBuilder addIncrement(String field, Number delta) {
+        request.increment(field, delta);
+        return this;
+    }
+
     /**
      * Sets the doc to use for updates when a script is not specified.
      */
@@ -50,6 +50,7 @@ import org.elasticsearch.client.transport.support.InternalTransportClient;
 import org.elasticsearch.cluster.ClusterNameModule;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.CacheRecycler;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.component.LifecycleComponent;
 import org.elasticsearch.common.compress.CompressorFactory;
@@ -84,6 +85,11 @@ import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilde
  * <p/>
  * <p>The transport client important modules used is the {@link org.elasticsearch.transport.TransportModule} which is
  * started in client mode (only connects, no bind).
+ * <p/>
+ * <p>When <tt>client.transport.routing_aware</tt> is set, the client samples the routing table and index metadata
+ * and sends index, delete, update and get requests directly to a node holding the relevant shard, and splits bulk
+ * requests by the nodes holding the primary shards of their items. It works best together with
+ * <tt>client.transport.sniff</tt>, as only connected nodes are used.
  */
 public class TransportClient extends AbstractClient {
 
@@ -205,6 +211,23 @@ public class TransportClient extends AbstractClient {
         return nodesService.listedNodes();
     }
 
+    /**
+     * Is the client routing document operations directly to the nodes owning the relevant shards
+     * (<tt>client.transport.routing_aware</tt>).
+     */
+    public boolean routingAware() {
+        return nodesService.routingAware();
+    }
+
+    /**
+     * Returns the connected node holding the primary shard the document belongs to, or <tt>null</tt> if
+     * the client is not routing aware or it can't be resolved locally.
+     */
+    @Nullable
+    public DiscoveryNode primaryShardNode(String index, String type, @Nullable String id, @Nullable String routing) {
+        return nodesService.primaryShardNode(index, type, id, routing);
+    }
+
     /**
      * Adds a transport address that will be used to connect to.
      * <p/>
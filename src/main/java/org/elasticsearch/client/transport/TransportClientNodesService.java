@@ -31,7 +31,19 @@ import org.elasticsearch.action.admin.cluster.state.ClusterStateAction;
 import org.elasticsearch.action.admin.cluster.state.ClusterStateResponse;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MappingMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.decider.AwarenessAllocationDecider;
+import org.elasticsearch.cluster.routing.operation.OperationRouting;
+import org.elasticsearch.cluster.routing.operation.hash.HashFunction;
+import org.elasticsearch.cluster.routing.operation.hash.djb.DjbHashFunction;
+import org.elasticsearch.cluster.routing.operation.plain.PlainOperationRouting;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
@@ -80,6 +92,13 @@ public class TransportClientNodesService extends AbstractComponent {
 
     private final boolean ignoreClusterName;
 
+    private final boolean routingAware;
+
+    private final OperationRouting operationRouting;
+
+    // the sampled routing table and metadata, used to send document operations to the nodes owning the shards
+    private volatile ClusterState clusterState;
+
     private volatile boolean closed;
 
     @Inject
@@ -93,9 +112,21 @@ public class TransportClientNodesService extends AbstractComponent {
         this.nodesSamplerInterval = componentSettings.getAsTime("nodes_sampler_interval", timeValueSeconds(5));
         this.pingTimeout = componentSettings.getAsTime("ping_timeout", timeValueSeconds(5)).millis();
         this.ignoreClusterName = componentSettings.getAsBoolean("ignore_cluster_name", false);
+        this.routingAware = componentSettings.getAsBoolean("routing_aware", false);
+        if (routingAware) {
+            // the hash function and routing settings need to match the ones of the cluster
+            Class<? extends HashFunction> hashFunctionClass = settings.getAsClass("cluster.routing.operation.hash.type", DjbHashFunction.class, "org.elasticsearch.cluster.routing.operation.hash.", "HashFunction");
+            try {
+                this.operationRouting = new PlainOperationRouting(settings, hashFunctionClass.newInstance(), new AwarenessAllocationDecider(settings));
+            } catch (Exception e) {
+                throw new ElasticSearchException("failed to create hash function [" + hashFunctionClass + "]", e);
+            }
+        } else {
+            this.operationRouting = null;
+        }
 
         if (logger.isDebugEnabled()) {
-            logger.debug("node_sampler_interval[" + nodesSamplerInterval + "]");
+            logger.debug("node_sampler_interval[" + nodesSamplerInterval + "], routing_aware[" + routingAware + "]");
         }
 
         if (componentSettings.getAsBoolean("sniff", false)) {
@@ -154,6 +185,9 @@ public class TransportClientNodesService extends AbstractComponent {
             listedNodes = builder.build();
         }
         nodesSampler.sample();
+        if (routingAware) {
+            sampleClusterState();
+        }
         return this;
     }
 
@@ -173,6 +207,148 @@ public class TransportClientNodesService extends AbstractComponent {
         return this;
     }
 
+    /**
+     * Is the client sending document operations directly to the nodes owning the relevant shards.
+     */
+    public boolean routingAware() {
+        return this.routingAware;
+    }
+
+    /**
+     * Returns the connected node holding the primary shard the document belongs to, or <tt>null</tt> if it can't
+     * be resolved locally, in which case the operation should be sent to any node.
+     */
+    @Nullable
+    public DiscoveryNode primaryShardNode(String index, String type, @Nullable String id, @Nullable String routing) {
+        return shardNode(index, type, id, routing, null, true);
+    }
+
+    /**
+     * Returns a connected node holding an active copy of the shard the document belongs to, taking the preference
+     * into account, or <tt>null</tt> if it can't be resolved locally.
+     */
+    @Nullable
+    public DiscoveryNode shardNode(String index, String type, @Nullable String id, @Nullable String routing, @Nullable String preference) {
+        if (preference != null && (preference.startsWith("_local") || preference.startsWith("_only_local"))) {
+            // relative to the node receiving the request, leave it to the cluster
+            return null;
+        }
+        return shardNode(index, type, id, routing, preference, false);
+    }
+
+    private DiscoveryNode shardNode(String index, String type, @Nullable String id, @Nullable String routing, @Nullable String preference, boolean primary) {
+        ClusterState clusterState = this.clusterState;
+        if (clusterState == null || index == null || id == null) {
+            return null;
+        }
+        try {
+            MetaData metaData = clusterState.metaData();
+            String concreteIndex = metaData.concreteIndex(index);
+            IndexMetaData indexMetaData = metaData.index(concreteIndex);
+            if (indexMetaData == null) {
+                // might be automatically created
+                return null;
+            }
+            routing = metaData.resolveIndexRouting(routing, index);
+            if (routing == null) {
+                MappingMetaData mappingMd = indexMetaData.mappingOrDefault(type);
+                if (mappingMd != null && (mappingMd.routing().required() || mappingMd.routing().hasPath())) {
+                    // the routing is extracted from the source, or is missing
+                    return null;
+                }
+            }
+            ShardIterator shards;
+            if (primary) {
+                shards = operationRouting.indexShards(clusterState, concreteIndex, type, id, routing);
+            } else {
+                shards = operationRouting.getShards(clusterState, concreteIndex, type, id, routing, preference);
+            }
+            ShardRouting shard;
+            while ((shard = shards.nextOrNull()) != null) {
+                if (!shard.active() || (primary && !shard.primary())) {
+                    continue;
+                }
+                DiscoveryNode node = connectedNode(clusterState.nodes().get(shard.currentNodeId()));
+                if (node != null || primary) {
+                    return node;
+                }
+            }
+        } catch (Exception e) {
+            // index missing, alias pointing to several indices and so on, let the cluster resolve it
+            logger.trace("failed to resolve shard node for [{}][{}][{}]", e, index, type, id);
+        }
+        return null;
+    }
+
+    private DiscoveryNode connectedNode(@Nullable DiscoveryNode node) {
+        if (node == null) {
+            return null;
+        }
+        for (DiscoveryNode connectedNode : nodes) {
+            // listed nodes are not sniffed, so they are only known by address
+            if (connectedNode.id().equals(node.id()) || connectedNode.address().equals(node.address())) {
+                return connectedNode;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Executes the callback on the preferred node if provided, falling back to any other node in case it can't be
+     * connected to.
+     */
+    public <T> T execute(@Nullable DiscoveryNode preferredNode, NodeCallback<T> callback) throws ElasticSearchException {
+        if (preferredNode != null) {
+            try {
+                return callback.doWithNode(preferredNode);
+            } catch (ElasticSearchException e) {
+                if (!(e.unwrapCause() instanceof ConnectTransportException)) {
+                    throw e;
+                }
+            }
+        }
+        return execute(callback);
+    }
+
+    /**
+     * Executes the callback on the preferred node if provided, falling back to any other node in case it can't be
+     * connected to.
+     */
+    public <Response> void execute(@Nullable DiscoveryNode preferredNode, final NodeListenerCallback<Response> callback, final ActionListener<Response> listener) throws ElasticSearchException {
+        if (preferredNode == null) {
+            execute(callback, listener);
+            return;
+        }
+        ActionListener<Response> fallbackListener = new ActionListener<Response>() {
+            @Override
+            public void onResponse(Response response) {
+                listener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                if (ExceptionsHelper.unwrapCause(e) instanceof ConnectTransportException) {
+                    try {
+                        execute(callback, listener);
+                    } catch (Throwable e1) {
+                        listener.onFailure(e1);
+                    }
+                } else {
+                    listener.onFailure(e);
+                }
+            }
+        };
+        try {
+            callback.doWithNode(preferredNode, fallbackListener);
+        } catch (ElasticSearchException e) {
+            if (e.unwrapCause() instanceof ConnectTransportException) {
+                execute(callback, listener);
+            } else {
+                throw e;
+            }
+        }
+    }
+
     public <T> T execute(NodeCallback<T> callback) throws ElasticSearchException {
         ImmutableList<DiscoveryNode> nodes = this.nodes;
         if (nodes.isEmpty()) {
@@ -268,6 +444,33 @@ public class TransportClientNodesService extends AbstractComponent {
             transportService.disconnectFromNode(listedNode);
         }
         nodes = ImmutableList.of();
+        clusterState = null;
+    }
+
+    private void sampleClusterState() {
+        for (DiscoveryNode node : nodes) {
+            if (closed) {
+                return;
+            }
+            try {
+                ClusterStateResponse response = transportService.submitRequest(node, ClusterStateAction.NAME,
+                        Requests.clusterStateRequest().setFilterBlocks(true).setLocal(true),
+                        TransportRequestOptions.options().withTimeout(pingTimeout),
+                        new FutureTransportResponseHandler<ClusterStateResponse>() {
+                            @Override
+                            public ClusterStateResponse newInstance() {
+                                return new ClusterStateResponse();
+                            }
+                        }).txGet();
+                if (!ignoreClusterName && !clusterName.equals(response.getClusterName())) {
+                    continue;
+                }
+                clusterState = response.getState();
+                return;
+            } catch (Exception e) {
+                logger.debug("failed to sample cluster state from {}", e, node);
+            }
+        }
     }
 
     interface NodeSampler {
@@ -279,6 +482,9 @@ public class TransportClientNodesService extends AbstractComponent {
         public void run() {
             try {
                 nodesSampler.sample();
+                if (routingAware) {
+                    sampleClusterState();
+                }
                 if (!closed) {
                     nodesSamplerFuture = threadPool.schedule(nodesSamplerInterval, ThreadPool.Names.GENERIC, this);
                 }
@@ -308,7 +514,7 @@ public class TransportClientNodesService extends AbstractComponent {
                 try {
                     NodesInfoResponse nodeInfo = transportService.submitRequest(node, NodesInfoAction.NAME,
                             Requests.nodesInfoRequest("_local"),
-                            TransportRequestOptions.options().withHighType().withTimeout(pingTimeout),
+                            TransportRequestOptions.options().withPingType().withTimeout(pingTimeout),
                             new FutureTransportResponseHandler<NodesInfoResponse>() {
                                 @Override
                                 public NodesInfoResponse newInstance() {
@@ -375,7 +581,7 @@ public class TransportClientNodesService extends AbstractComponent {
                             transportService.sendRequest(listedNode, ClusterStateAction.NAME,
                                     Requests.clusterStateRequest()
                                             .filterAll().setFilterNodes(false).setLocal(true),
-                                    TransportRequestOptions.options().withHighType().withTimeout(pingTimeout),
+                                    TransportRequestOptions.options().withPingType().withTimeout(pingTimeout),
                                     new BaseTransportResponseHandler<ClusterStateResponse>() {
 
                                         @Override
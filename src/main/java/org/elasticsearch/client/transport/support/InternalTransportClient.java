@@ -20,20 +20,37 @@
 package org.elasticsearch.client.transport.support;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.action.*;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.AdminClient;
 import org.elasticsearch.client.internal.InternalClient;
 import org.elasticsearch.client.support.AbstractClient;
 import org.elasticsearch.client.transport.TransportClientNodesService;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.elasticsearch.action.support.PlainActionFuture.newFuture;
 
 /**
  *
@@ -91,7 +108,13 @@ public class InternalTransportClient extends AbstractClient implements InternalC
     @Override
     public <Request extends ActionRequest, Response extends ActionResponse, RequestBuilder extends ActionRequestBuilder<Request, Response, RequestBuilder>> ActionFuture<Response> execute(final Action<Request, Response, RequestBuilder> action, final Request request) {
         final TransportActionNodeProxy<Request, Response> proxy = actions.get(action);
-        return nodesService.execute(new TransportClientNodesService.NodeCallback<ActionFuture<Response>>() {
+        if (nodesService.routingAware() && request instanceof BulkRequest) {
+            PlainActionFuture<Response> future = newFuture();
+            request.listenerThreaded(false);
+            executeBulk((TransportActionNodeProxy<BulkRequest, BulkResponse>) proxy, (BulkRequest) request, (ActionListener<BulkResponse>) future);
+            return future;
+        }
+        return nodesService.execute(shardNode(request), new TransportClientNodesService.NodeCallback<ActionFuture<Response>>() {
             @Override
             public ActionFuture<Response> doWithNode(DiscoveryNode node) throws ElasticSearchException {
                 return proxy.execute(node, request);
@@ -103,11 +126,139 @@ public class InternalTransportClient extends AbstractClient implements InternalC
     @Override
     public <Request extends ActionRequest, Response extends ActionResponse, RequestBuilder extends ActionRequestBuilder<Request, Response, RequestBuilder>> void execute(final Action<Request, Response, RequestBuilder> action, final Request request, ActionListener<Response> listener) {
         final TransportActionNodeProxy<Request, Response> proxy = actions.get(action);
-        nodesService.execute(new TransportClientNodesService.NodeListenerCallback<Response>() {
+        if (nodesService.routingAware() && request instanceof BulkRequest) {
+            executeBulk((TransportActionNodeProxy<BulkRequest, BulkResponse>) proxy, (BulkRequest) request, (ActionListener<BulkResponse>) listener);
+            return;
+        }
+        nodesService.execute(shardNode(request), new TransportClientNodesService.NodeListenerCallback<Response>() {
             @Override
             public void doWithNode(DiscoveryNode node, ActionListener<Response> listener) throws ElasticSearchException {
                 proxy.execute(node, request, listener);
             }
         }, listener);
     }
+
+    /**
+     * The node owning the shard a single document operation should be executed on, <tt>null</tt> for any node.
+     */
+    @Nullable
+    private DiscoveryNode shardNode(ActionRequest request) {
+        if (!nodesService.routingAware()) {
+            return null;
+        }
+        if (request instanceof IndexRequest) {
+            IndexRequest indexRequest = (IndexRequest) request;
+            return nodesService.primaryShardNode(indexRequest.index(), indexRequest.type(), indexRequest.id(), indexRequest.routing());
+        } else if (request instanceof DeleteRequest) {
+            DeleteRequest deleteRequest = (DeleteRequest) request;
+            return nodesService.primaryShardNode(deleteRequest.index(), deleteRequest.type(), deleteRequest.id(), deleteRequest.routing());
+        } else if (request instanceof UpdateRequest) {
+            UpdateRequest updateRequest = (UpdateRequest) request;
+            return nodesService.primaryShardNode(updateRequest.index(), updateRequest.type(), updateRequest.id(), updateRequest.routing());
+        } else if (request instanceof GetRequest) {
+            GetRequest getRequest = (GetRequest) request;
+            return nodesService.shardNode(getRequest.index(), getRequest.type(), getRequest.id(), getRequest.routing(), getRequest.preference());
+        }
+        return null;
+    }
+
+    /**
+     * Splits the bulk request by the nodes holding the primary shards of its items, so each node only executes
+     * shard level bulks against local shards, and merges the responses back in the original order.
+     */
+    private void executeBulk(final TransportActionNodeProxy<BulkRequest, BulkResponse> proxy, final BulkRequest request, final ActionListener<BulkResponse> listener) {
+        final List<ActionRequest> requests = request.requests();
+        Map<DiscoveryNode, List<Integer>> itemsByNode = Maps.newHashMap();
+        for (int i = 0; i < requests.size(); i++) {
+            DiscoveryNode node = shardNode(requests.get(i));
+            List<Integer> items = itemsByNode.get(node);
+            if (items == null) {
+                items = Lists.newArrayList();
+                itemsByNode.put(node, items);
+            }
+            items.add(i);
+        }
+        if (itemsByNode.size() <= 1) {
+            DiscoveryNode node = itemsByNode.isEmpty() ? null : itemsByNode.keySet().iterator().next();
+            nodesService.execute(node, new TransportClientNodesService.NodeListenerCallback<BulkResponse>() {
+                @Override
+                public void doWithNode(DiscoveryNode node, ActionListener<BulkResponse> listener) throws ElasticSearchException {
+                    proxy.execute(node, request, listener);
+                }
+            }, listener);
+            return;
+        }
+
+        final BulkItemResponse[] responses = new BulkItemResponse[requests.size()];
+        final AtomicLong tookInMillis = new AtomicLong();
+        final AtomicInteger counter = new AtomicInteger(itemsByNode.size());
+        for (Map.Entry<DiscoveryNode, List<Integer>> entry : itemsByNode.entrySet()) {
+            final List<Integer> items = entry.getValue();
+            final BulkRequest nodeRequest = new BulkRequest();
+            nodeRequest.replicationType(request.replicationType());
+            nodeRequest.consistencyLevel(request.consistencyLevel());
+            nodeRequest.refresh(request.refresh());
+            nodeRequest.listenerThreaded(request.listenerThreaded());
+            for (Integer item : items) {
+                nodeRequest.add(requests.get(item));
+            }
+            ActionListener<BulkResponse> nodeListener = new ActionListener<BulkResponse>() {
+                @Override
+                public void onResponse(BulkResponse response) {
+                    BulkItemResponse[] itemResponses = response.items();
+                    for (int i = 0; i < itemResponses.length; i++) {
+                        BulkItemResponse itemResponse = itemResponses[i];
+                        int id = items.get(itemResponse.getItemId());
+                        if (itemResponse.isFailed()) {
+                            responses[id] = new BulkItemResponse(id, itemResponse.getOpType(), itemResponse.getFailure());
+                        } else {
+                            responses[id] = new BulkItemResponse(id, itemResponse.getOpType(), itemResponse.<ActionResponse>getResponse());
+                        }
+                    }
+                    long took;
+                    while ((took = tookInMillis.get()) < response.getTookInMillis()) {
+                        if (tookInMillis.compareAndSet(took, response.getTookInMillis())) {
+                            break;
+                        }
+                    }
+                    if (counter.decrementAndGet() == 0) {
+                        finish();
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    for (Integer id : items) {
+                        ActionRequest itemRequest = requests.get(id);
+                        if (itemRequest instanceof IndexRequest) {
+                            IndexRequest indexRequest = (IndexRequest) itemRequest;
+                            responses[id] = new BulkItemResponse(id, indexRequest.opType().toString().toLowerCase(Locale.ENGLISH),
+                                    new BulkItemResponse.Failure(indexRequest.index(), indexRequest.type(), indexRequest.id(), e));
+                        } else if (itemRequest instanceof DeleteRequest) {
+                            DeleteRequest deleteRequest = (DeleteRequest) itemRequest;
+                            responses[id] = new BulkItemResponse(id, "delete",
+                                    new BulkItemResponse.Failure(deleteRequest.index(), deleteRequest.type(), deleteRequest.id(), e));
+                        }
+                    }
+                    if (counter.decrementAndGet() == 0) {
+                        finish();
+                    }
+                }
+
+                private void finish() {
+                    listener.onResponse(new BulkResponse(responses, tookInMillis.get()));
+                }
+            };
+            try {
+                nodesService.execute(entry.getKey(), new TransportClientNodesService.NodeListenerCallback<BulkResponse>() {
+                    @Override
+                    public void doWithNode(DiscoveryNode node, ActionListener<BulkResponse> listener) throws ElasticSearchException {
+                        proxy.execute(node, nodeRequest, listener);
+                    }
+                }, nodeListener);
+            } catch (Throwable e) {
+                nodeListener.onFailure(e);
+            }
+        }
+    }
 }
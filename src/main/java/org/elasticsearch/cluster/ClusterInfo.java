@@ -0,0 +1,93 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster;
+
+import com.google.common.collect.ImmutableMap;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.Map;
+
+/**
+ * A snapshot of the resource usage of the cluster, gathered periodically by the {@link ClusterInfoService}
+ * on the master node. It holds the disk usage per node and, per shard, the size on disk as well as the
+ * recent indexing and search rates (operations per second). Shard values are the average over the shard's
+ * active copies.
+ */
+public class ClusterInfo {
+
+    public static final ClusterInfo EMPTY = new ClusterInfo(ImmutableMap.<String, DiskUsage>of(), ImmutableMap.<ShardId, Long>of(),
+            ImmutableMap.<ShardId, Double>of(), ImmutableMap.<ShardId, Double>of());
+
+    private final ImmutableMap<String, DiskUsage> nodeDiskUsages;
+
+    private final ImmutableMap<ShardId, Long> shardSizes;
+
+    private final ImmutableMap<ShardId, Double> shardIndexingRates;
+
+    private final ImmutableMap<ShardId, Double> shardSearchRates;
+
+    public ClusterInfo(Map<String, DiskUsage> nodeDiskUsages, Map<ShardId, Long> shardSizes,
+                       Map<ShardId, Double> shardIndexingRates, Map<ShardId, Double> shardSearchRates) {
+        this.nodeDiskUsages = ImmutableMap.copyOf(nodeDiskUsages);
+        this.shardSizes = ImmutableMap.copyOf(shardSizes);
+        this.shardIndexingRates = ImmutableMap.copyOf(shardIndexingRates);
+        this.shardSearchRates = ImmutableMap.copyOf(shardSearchRates);
+    }
+
+    public Map<String, DiskUsage> getNodeDiskUsages() {
+        return nodeDiskUsages;
+    }
+
+    public Map<ShardId, Long> getShardSizes() {
+        return shardSizes;
+    }
+
+    public Map<ShardId, Double> getShardIndexingRates() {
+        return shardIndexingRates;
+    }
+
+    public Map<ShardId, Double> getShardSearchRates() {
+        return shardSearchRates;
+    }
+
+    /**
+     * The size of the shard on disk in bytes, <tt>0</tt> if unknown.
+     */
+    public long shardSize(ShardId shardId) {
+        Long size = shardSizes.get(shardId);
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * The recent indexing and delete operations per second of the shard, <tt>0</tt> if unknown.
+     */
+    public double shardIndexingRate(ShardId shardId) {
+        Double rate = shardIndexingRates.get(shardId);
+        return rate == null ? 0 : rate;
+    }
+
+    /**
+     * The recent query operations per second of the shard, <tt>0</tt> if unknown.
+     */
+    public double shardSearchRate(ShardId shardId) {
+        Double rate = shardSearchRates.get(shardId);
+        return rate == null ? 0 : rate;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster;
+
+/**
+ * Provides the latest {@link ClusterInfo} to the shard allocation process.
+ */
+public interface ClusterInfoService {
+
+    /**
+     * The latest cluster info, never <tt>null</tt>. An empty info is returned if no
+     * information has been gathered yet.
+     */
+    ClusterInfo getClusterInfo();
+
+    /**
+     * Adds a listener notified each time new cluster info has been gathered.
+     */
+    void addListener(Listener listener);
+
+    /**
+     * A listener for newly gathered cluster info.
+     */
+    interface Listener {
+
+        void onNewInfo(ClusterInfo info);
+    }
+}
@@ -64,6 +64,7 @@ public class ClusterModule extends AbstractModule implements SpawnModules {
         bind(MetaDataIndexTemplateService.class).asEagerSingleton();
 
         bind(RoutingService.class).asEagerSingleton();
+        bind(ClusterInfoService.class).to(InternalClusterInfoService.class).asEagerSingleton();
 
         bind(ShardStateAction.class).asEagerSingleton();
         bind(NodeIndexCreatedAction.class).asEagerSingleton();
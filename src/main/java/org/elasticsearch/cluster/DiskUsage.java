@@ -0,0 +1,71 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster;
+
+/**
+ * The disk usage of a single node as reported by the node's file system stats, summed
+ * over all data paths of the node.
+ */
+public class DiskUsage {
+
+    private final String nodeId;
+
+    private final long totalBytes;
+
+    private final long freeBytes;
+
+    public DiskUsage(String nodeId, long totalBytes, long freeBytes) {
+        this.nodeId = nodeId;
+        this.totalBytes = totalBytes;
+        this.freeBytes = freeBytes;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getFreeBytes() {
+        return freeBytes;
+    }
+
+    public long getUsedBytes() {
+        return totalBytes - freeBytes;
+    }
+
+    /**
+     * The used disk space as a ratio between <tt>0.0</tt> and <tt>1.0</tt>, <tt>0.0</tt> if the total
+     * space of the node is unknown.
+     */
+    public double getUsedRatio() {
+        if (totalBytes <= 0) {
+            return 0.0;
+        }
+        return ((double) getUsedBytes()) / totalBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + nodeId + "] free: " + freeBytes + " total: " + totalBytes;
+    }
+}
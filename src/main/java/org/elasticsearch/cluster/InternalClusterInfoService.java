@@ -0,0 +1,302 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster;
+
+import com.google.common.collect.Maps;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.cluster.node.stats.NodeStats;
+import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsRequest;
+import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsResponse;
+import org.elasticsearch.action.admin.cluster.node.stats.TransportNodesStatsAction;
+import org.elasticsearch.action.admin.indices.stats.IndicesStats;
+import org.elasticsearch.action.admin.indices.stats.IndicesStatsRequest;
+import org.elasticsearch.action.admin.indices.stats.ShardStats;
+import org.elasticsearch.action.admin.indices.stats.TransportIndicesStatsAction;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.monitor.fs.FsStats;
+import org.elasticsearch.node.settings.NodeSettingsService;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * A {@link ClusterInfoService} that periodically gathers the file system stats of all nodes and the
+ * store, indexing and search stats of all shards while the local node is the elected master. The
+ * indexing and search rates are computed from the deltas of the operation counters between two
+ * consecutive samples. The update interval can be changed in real-time via
+ * <tt>cluster.info.update.interval</tt> and defaults to <tt>30s</tt>.
+ */
+public class InternalClusterInfoService extends AbstractComponent implements ClusterInfoService, LocalNodeMasterListener {
+
+    public static final String SETTING_UPDATE_INTERVAL = "cluster.info.update.interval";
+
+    static {
+        MetaData.addDynamicSettings(
+                SETTING_UPDATE_INTERVAL
+        );
+    }
+
+    class ApplySettings implements NodeSettingsService.Listener {
+        @Override
+        public void onRefreshSettings(Settings settings) {
+            TimeValue updateInterval = settings.getAsTime(SETTING_UPDATE_INTERVAL, InternalClusterInfoService.this.updateInterval);
+            if (!updateInterval.equals(InternalClusterInfoService.this.updateInterval)) {
+                logger.info("updating [{}] from [{}] to [{}]", SETTING_UPDATE_INTERVAL, InternalClusterInfoService.this.updateInterval, updateInterval);
+                InternalClusterInfoService.this.updateInterval = updateInterval;
+            }
+        }
+    }
+
+    private final ThreadPool threadPool;
+
+    private final TransportNodesStatsAction nodesStatsAction;
+
+    private final TransportIndicesStatsAction indicesStatsAction;
+
+    private volatile TimeValue updateInterval;
+
+    private volatile boolean isMaster = false;
+
+    private volatile ScheduledFuture scheduledUpdate;
+
+    private volatile ClusterInfo clusterInfo = ClusterInfo.EMPTY;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+    // the operation counters of the previous sample, guarded by this
+    private Map<ShardId, Counts> previousCounts = Maps.newHashMap();
+
+    @Inject
+    public InternalClusterInfoService(Settings settings, NodeSettingsService nodeSettingsService, ThreadPool threadPool, ClusterService clusterService,
+                                      TransportNodesStatsAction nodesStatsAction, TransportIndicesStatsAction indicesStatsAction) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.nodesStatsAction = nodesStatsAction;
+        this.indicesStatsAction = indicesStatsAction;
+        this.updateInterval = settings.getAsTime(SETTING_UPDATE_INTERVAL, TimeValue.timeValueSeconds(30));
+        nodeSettingsService.addListener(new ApplySettings());
+        clusterService.add(this);
+    }
+
+    @Override
+    public ClusterInfo getClusterInfo() {
+        return clusterInfo;
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void onMaster() {
+        isMaster = true;
+        threadPool.generic().execute(new ClusterInfoUpdateJob());
+    }
+
+    @Override
+    public void offMaster() {
+        isMaster = false;
+        ScheduledFuture scheduledUpdate = this.scheduledUpdate;
+        if (scheduledUpdate != null) {
+            scheduledUpdate.cancel(false);
+        }
+        synchronized (this) {
+            previousCounts = Maps.newHashMap();
+        }
+        clusterInfo = ClusterInfo.EMPTY;
+    }
+
+    @Override
+    public String executorName() {
+        return ThreadPool.Names.SAME;
+    }
+
+    private synchronized void updateNodeDiskUsages(NodeStats[] nodeStats) {
+        Map<String, DiskUsage> diskUsages = Maps.newHashMap();
+        for (NodeStats nodeStat : nodeStats) {
+            FsStats fs = nodeStat.getFs();
+            if (fs == null) {
+                continue;
+            }
+            long total = 0;
+            long free = 0;
+            for (FsStats.Info info : fs) {
+                if (info.getTotal().bytes() < 0 || info.getAvailable().bytes() < 0) {
+                    continue;
+                }
+                total += info.getTotal().bytes();
+                free += info.getAvailable().bytes();
+            }
+            if (total > 0) {
+                diskUsages.put(nodeStat.getNode().id(), new DiskUsage(nodeStat.getNode().id(), total, free));
+            }
+        }
+        ClusterInfo current = clusterInfo;
+        clusterInfo = new ClusterInfo(diskUsages, current.getShardSizes(), current.getShardIndexingRates(), current.getShardSearchRates());
+    }
+
+    private synchronized void updateShardStats(ShardStats[] shardStats, long timestamp) {
+        Map<ShardId, Counts> counts = Maps.newHashMap();
+        for (ShardStats shardStat : shardStats) {
+            if (!shardStat.getShardRouting().active()) {
+                continue;
+            }
+            ShardId shardId = shardStat.getShardRouting().shardId();
+            Counts shardCounts = counts.get(shardId);
+            if (shardCounts == null) {
+                shardCounts = new Counts(timestamp);
+                counts.put(shardId, shardCounts);
+            }
+            shardCounts.add(shardStat);
+        }
+
+        ClusterInfo current = clusterInfo;
+        Map<ShardId, Long> shardSizes = Maps.newHashMap();
+        Map<ShardId, Double> indexingRates = Maps.newHashMap();
+        Map<ShardId, Double> searchRates = Maps.newHashMap();
+        for (Map.Entry<ShardId, Counts> entry : counts.entrySet()) {
+            ShardId shardId = entry.getKey();
+            Counts shardCounts = entry.getValue();
+            shardSizes.put(shardId, shardCounts.sizeInBytes / shardCounts.copies);
+            Counts previous = previousCounts.get(shardId);
+            if (previous != null && previous.copies == shardCounts.copies && shardCounts.timestamp > previous.timestamp
+                    && shardCounts.indexCount >= previous.indexCount && shardCounts.queryCount >= previous.queryCount) {
+                double seconds = (shardCounts.timestamp - previous.timestamp) / 1000.0;
+                indexingRates.put(shardId, (shardCounts.indexCount - previous.indexCount) / seconds / shardCounts.copies);
+                searchRates.put(shardId, (shardCounts.queryCount - previous.queryCount) / seconds / shardCounts.copies);
+            } else {
+                // the shard copies changed (and with them the counters), keep the last known rates
+                if (current.getShardIndexingRates().containsKey(shardId)) {
+                    indexingRates.put(shardId, current.getShardIndexingRates().get(shardId));
+                }
+                if (current.getShardSearchRates().containsKey(shardId)) {
+                    searchRates.put(shardId, current.getShardSearchRates().get(shardId));
+                }
+            }
+        }
+        previousCounts = counts;
+        clusterInfo = new ClusterInfo(current.getNodeDiskUsages(), shardSizes, indexingRates, searchRates);
+    }
+
+    private void notifyListeners() {
+        if (!isMaster) {
+            return;
+        }
+        ClusterInfo clusterInfo = this.clusterInfo;
+        for (Listener listener : listeners) {
+            try {
+                listener.onNewInfo(clusterInfo);
+            } catch (Exception e) {
+                logger.warn("failed to notify listener of new cluster info", e);
+            }
+        }
+    }
+
+    private void scheduleNextUpdate() {
+        if (isMaster) {
+            scheduledUpdate = threadPool.schedule(updateInterval, ThreadPool.Names.GENERIC, new ClusterInfoUpdateJob());
+        }
+    }
+
+    /**
+     * Sums up the store size and operation counters of all active copies of a shard.
+     */
+    static class Counts {
+        final long timestamp;
+        int copies;
+        long sizeInBytes;
+        long indexCount;
+        long queryCount;
+
+        Counts(long timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        void add(ShardStats shardStats) {
+            copies++;
+            if (shardStats.getStats().getStore() != null) {
+                sizeInBytes += shardStats.getStats().getStore().sizeInBytes();
+            }
+            if (shardStats.getStats().getIndexing() != null) {
+                indexCount += shardStats.getStats().getIndexing().total().indexCount();
+                indexCount += shardStats.getStats().getIndexing().total().deleteCount();
+            }
+            if (shardStats.getStats().getSearch() != null) {
+                queryCount += shardStats.getStats().getSearch().total().queryCount();
+            }
+        }
+    }
+
+    class ClusterInfoUpdateJob implements Runnable {
+
+        @Override
+        public void run() {
+            if (!isMaster) {
+                return;
+            }
+            if (logger.isTraceEnabled()) {
+                logger.trace("updating cluster info");
+            }
+            NodesStatsRequest nodesStatsRequest = new NodesStatsRequest().clear().setFs(true);
+            nodesStatsAction.execute(nodesStatsRequest, new ActionListener<NodesStatsResponse>() {
+                @Override
+                public void onResponse(NodesStatsResponse response) {
+                    updateNodeDiskUsages(response.getNodes());
+                    updateIndices();
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    logger.warn("failed to retrieve node stats for the cluster info", e);
+                    updateIndices();
+                }
+            });
+        }
+
+        private void updateIndices() {
+            final long timestamp = System.currentTimeMillis();
+            IndicesStatsRequest indicesStatsRequest = new IndicesStatsRequest().clear().setStore(true).setIndexing(true).setSearch(true);
+            indicesStatsAction.execute(indicesStatsRequest, new ActionListener<IndicesStats>() {
+                @Override
+                public void onResponse(IndicesStats response) {
+                    updateShardStats(response.getShards(), timestamp);
+                    notifyListeners();
+                    scheduleNextUpdate();
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    logger.warn("failed to retrieve indices stats for the cluster info", e);
+                    notifyListeners();
+                    scheduleNextUpdate();
+                }
+            });
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.elasticsearch.cluster.*;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.allocation.AllocationService;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.cluster.routing.allocation.decider.DiskThresholdDecider;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
@@ -47,6 +48,10 @@ import static org.elasticsearch.common.unit.TimeValue.timeValueSeconds;
  * is running on is the clusters master node this service will not perform any
  * actions.
  * </p>
+ * <p>
+ * The routing table is also updated when a node's disk usage, as gathered by the
+ * {@link ClusterInfoService}, crosses one of the {@link DiskThresholdDecider} watermarks.
+ * </p>
  */
 public class RoutingService extends AbstractLifecycleComponent<RoutingService> implements ClusterStateListener {
 
@@ -58,20 +63,27 @@ public class RoutingService extends AbstractLifecycleComponent<RoutingService> i
 
     private final AllocationService allocationService;
 
+    private final DiskThresholdDecider diskThresholdDecider;
+
     private final TimeValue schedule;
 
+    private volatile ClusterInfo lastClusterInfo = ClusterInfo.EMPTY;
+
     private volatile boolean routingTableDirty = false;
 
     private volatile Future scheduledRoutingTableFuture;
 
     @Inject
-    public RoutingService(Settings settings, ThreadPool threadPool, ClusterService clusterService, AllocationService allocationService) {
+    public RoutingService(Settings settings, ThreadPool threadPool, ClusterService clusterService, AllocationService allocationService,
+                          ClusterInfoService clusterInfoService, DiskThresholdDecider diskThresholdDecider) {
         super(settings);
         this.threadPool = threadPool;
         this.clusterService = clusterService;
         this.allocationService = allocationService;
+        this.diskThresholdDecider = diskThresholdDecider;
         this.schedule = componentSettings.getAsTime("schedule", timeValueSeconds(10));
         clusterService.addFirst(this);
+        clusterInfoService.addListener(new ClusterInfoListener());
     }
 
     @Override
@@ -156,6 +168,20 @@ public class RoutingService extends AbstractLifecycleComponent<RoutingService> i
         }
     }
 
+    private class ClusterInfoListener implements ClusterInfoService.Listener {
+
+        @Override
+        public void onNewInfo(ClusterInfo info) {
+            ClusterInfo previous = lastClusterInfo;
+            lastClusterInfo = info;
+            if (diskThresholdDecider.watermarkCrossed(previous, info)) {
+                // shards may have to move away from a node that got full, or can be allocated on one that got freed
+                routingTableDirty = true;
+                reroute();
+            }
+        }
+    }
+
     private class RoutingTableUpdater implements Runnable {
 
         @Override
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.cluster.routing.allocation;
 
+import org.elasticsearch.cluster.ClusterInfo;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.RoutingNodes;
@@ -27,7 +28,9 @@ import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.index.shard.ShardId;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The {@link RoutingAllocation} keep the state of the current allocation
@@ -90,10 +93,14 @@ public class RoutingAllocation {
 
     private final DiscoveryNodes nodes;
 
+    private final ClusterInfo clusterInfo;
+
     private final AllocationExplanation explanation = new AllocationExplanation();
 
     private Map<ShardId, String> ignoredShardToNodes = null;
 
+    private Map<ShardId, Set<String>> shardDataNodes = null;
+
     private boolean ignoreDisable = false;
 
     /**
@@ -102,11 +109,13 @@ public class RoutingAllocation {
      * @param deciders {@link AllocationDeciders} to used to make decisions for routing allocations
      * @param routingNodes Routing nodes in the current cluster 
      * @param nodes TODO: Documentation
+     * @param clusterInfo the latest disk usage and shard load information of the cluster
      */
-    public RoutingAllocation(AllocationDeciders deciders, RoutingNodes routingNodes, DiscoveryNodes nodes) {
+    public RoutingAllocation(AllocationDeciders deciders, RoutingNodes routingNodes, DiscoveryNodes nodes, ClusterInfo clusterInfo) {
         this.deciders = deciders;
         this.routingNodes = routingNodes;
         this.nodes = nodes;
+        this.clusterInfo = clusterInfo;
     }
 
     /**
@@ -149,6 +158,14 @@ public class RoutingAllocation {
         return nodes;
     }
 
+    /**
+     * Get the disk usage and shard load information of the cluster
+     * @return cluster info, never <code>null</code>
+     */
+    public ClusterInfo clusterInfo() {
+        return clusterInfo;
+    }
+
     /**
      * Get explanations of current routing
      * @return explanation of routing
@@ -175,4 +192,34 @@ public class RoutingAllocation {
     public boolean shouldIgnoreShardForNode(ShardId shardId, String nodeId) {
         return ignoredShardToNodes != null && nodeId.equals(ignoredShardToNodes.get(shardId));
     }
+
+    /**
+     * Marks the node as already holding data of the shard, which the shard will be recovered from
+     * when allocated on that node, so it doesn't need the disk space of a whole new copy.
+     */
+    public void addShardDataOnNode(ShardId shardId, String nodeId) {
+        if (shardDataNodes == null) {
+            shardDataNodes = new HashMap<ShardId, Set<String>>();
+        }
+        Set<String> nodeIds = shardDataNodes.get(shardId);
+        if (nodeIds == null) {
+            nodeIds = new HashSet<String>();
+            shardDataNodes.put(shardId, nodeIds);
+        }
+        nodeIds.add(nodeId);
+    }
+
+    public void removeShardDataOnNodes(ShardId shardId) {
+        if (shardDataNodes != null) {
+            shardDataNodes.remove(shardId);
+        }
+    }
+
+    public boolean hasShardDataOnNode(ShardId shardId, String nodeId) {
+        if (shardDataNodes == null) {
+            return false;
+        }
+        Set<String> nodeIds = shardDataNodes.get(shardId);
+        return nodeIds != null && nodeIds.contains(nodeId);
+    }
 }
@@ -32,6 +32,7 @@ import java.util.TreeSet;
 
 import org.apache.lucene.util.SorterTemplate;
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.cluster.ClusterInfo;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.routing.IndexRoutingTable;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
@@ -68,10 +69,17 @@ import static org.elasticsearch.cluster.routing.ShardRoutingState.RELOCATING;
 *               of {@link ShardRouting}s per index allocated on a specific node</li>
 *     <li><code>cluster.routing.allocation.balance.primary</code> - the <b>primary balance</b> defines a weight factor for
 *               the number of primaries of a specific index allocated on a node</li>
+*     <li><code>cluster.routing.allocation.balance.disk</code> - the <b>disk balance</b> defines a weight factor for
+*               the size on disk of the shards allocated on a node</li>
+*     <li><code>cluster.routing.allocation.balance.indexing</code> - the <b>indexing balance</b> defines a weight factor for
+*               the recent indexing rate of the shards allocated on a node</li>
+*     <li><code>cluster.routing.allocation.balance.search</code> - the <b>search balance</b> defines a weight factor for
+*               the recent search rate of the shards allocated on a node</li>
 *     <li><code>cluster.routing.allocation.balance.threshold</code> - A <b>threshold</b> to set the minimal optimization
 *               value of operations that should be performed</li>
 * </ul>
 * 
+* The disk, indexing and search balance default to <tt>0.0</tt> and rely on the {@link ClusterInfo} gathered on the master.
 * These parameters are combined in a {@link WeightFunction} that allows calculation of node weights which
 * are used to re-balance shards based on global as well as per-index factors.
 */
@@ -81,12 +89,18 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
     public static final String SETTING_INDEX_BALANCE_FACTOR = "cluster.routing.allocation.balance.index";
     public static final String SETTING_SHARD_BALANCE_FACTOR = "cluster.routing.allocation.balance.shard";
     public static final String SETTING_PRIMARY_BALANCE_FACTOR = "cluster.routing.allocation.balance.primary";
+    public static final String SETTING_DISK_BALANCE_FACTOR = "cluster.routing.allocation.balance.disk";
+    public static final String SETTING_INDEXING_BALANCE_FACTOR = "cluster.routing.allocation.balance.indexing";
+    public static final String SETTING_SEARCH_BALANCE_FACTOR = "cluster.routing.allocation.balance.search";
     
     static {
         MetaData.addDynamicSettings(
                 SETTING_INDEX_BALANCE_FACTOR,
                 SETTING_PRIMARY_BALANCE_FACTOR,
                 SETTING_SHARD_BALANCE_FACTOR,
+                SETTING_DISK_BALANCE_FACTOR,
+                SETTING_INDEXING_BALANCE_FACTOR,
+                SETTING_SEARCH_BALANCE_FACTOR,
                 SETTING_THRESHOLD
         );
     }
@@ -97,12 +111,16 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             float indexBalance = settings.getAsFloat(SETTING_INDEX_BALANCE_FACTOR, 0.5f);
             float shardBalance = settings.getAsFloat(SETTING_SHARD_BALANCE_FACTOR, 0.45f);
             float primaryBalance = settings.getAsFloat(SETTING_PRIMARY_BALANCE_FACTOR, 0.05f);
+            float diskBalance = settings.getAsFloat(SETTING_DISK_BALANCE_FACTOR, 0.0f);
+            float indexingBalance = settings.getAsFloat(SETTING_INDEXING_BALANCE_FACTOR, 0.0f);
+            float searchBalance = settings.getAsFloat(SETTING_SEARCH_BALANCE_FACTOR, 0.0f);
             float threshold = settings.getAsFloat(SETTING_THRESHOLD, 1.0f);
             if (threshold <= 0.0f) {
                 throw new ElasticSearchIllegalArgumentException("threshold must be greater than 0.0f but was: " + threshold);
             }
             BalancedShardsAllocator.this.threshold = threshold;
-            BalancedShardsAllocator.this.weightFunction = new WeightFunction(indexBalance, shardBalance, primaryBalance);
+            BalancedShardsAllocator.this.weightFunction = new WeightFunction(indexBalance, shardBalance, primaryBalance,
+                    diskBalance, indexingBalance, searchBalance);
         }
     }
     
@@ -147,11 +165,14 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
 
     /**
      * This class is the primary weight function used to create balanced over nodes and shards in the cluster. 
-     * Currently this function has 3 properties:
+     * Currently this function has 6 properties:
      * <ul>
      * <li><code>index balance</code> - balance property over shards per index</li>
      * <li><code>shard balance</code> - balance property over shards per cluster</li>
      * <li><code>primary balance</code> - balance property over primaries per cluster</li>
+     * <li><code>disk balance</code> - balance property over the size on disk of the shards per cluster</li>
+     * <li><code>indexing balance</code> - balance property over the indexing rate of the shards per cluster</li>
+     * <li><code>search balance</code> - balance property over the search rate of the shards per cluster</li>
      * </ul>
      * <p>
      * Each of these properties are expressed as factor such that the properties factor defines the relative importance of the property for the
@@ -169,31 +190,60 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
      * <li>
      * <code>weight<sub>primary</sub>(node, index) = primaryBalance * (node.numPrimaries() - avgPrimariesPerNode)</code>
      * </li>
+     * <li>
+     * <code>weight<sub>disk</sub>(node, index) = diskBalance * (node.sizeInBytes() - avgSizeInBytesPerNode) / avgShardSizeInBytes</code>
+     * </li>
      * </ul>
-     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index) + weight<sub>primary</sub>(node, index)</code>
-     * 
+     * The indexing and search weights are calculated like the disk weight based on the recent operation rates. Dividing
+     * by the average value per shard expresses these weights in shards such that they are comparable to the count based
+     * weights. They are <tt>0</tt> as long as no {@link ClusterInfo} is available.
+     * <p>
+     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index) + weight<sub>primary</sub>(node, index)
+     *  + weight<sub>disk</sub>(node, index) + weight<sub>indexing</sub>(node, index) + weight<sub>search</sub>(node, index)</code>
+     * </p>
      */
     public static class WeightFunction  {
 
         private final float indexBalance;
         private final float shardBalance;
         private final float primaryBalance;
+        private final float diskBalance;
+        private final float indexingBalance;
+        private final float searchBalance;
 
         public WeightFunction(float indexBalance, float shardBalance, float primaryBalance) {
-            final float sum = indexBalance + shardBalance + primaryBalance;
+            this(indexBalance, shardBalance, primaryBalance, 0.0f, 0.0f, 0.0f);
+        }
+
+        public WeightFunction(float indexBalance, float shardBalance, float primaryBalance, float diskBalance, float indexingBalance,
+                              float searchBalance) {
+            final float sum = indexBalance + shardBalance + primaryBalance + diskBalance + indexingBalance + searchBalance;
             if (sum <= 0.0f) {
                 throw new ElasticSearchIllegalArgumentException("Balance factors must sum to a value > 0 but was: " + sum);
             }
             this.indexBalance = indexBalance / sum;
             this.shardBalance = shardBalance / sum;
             this.primaryBalance = primaryBalance / sum;
+            this.diskBalance = diskBalance / sum;
+            this.indexingBalance = indexingBalance / sum;
+            this.searchBalance = searchBalance / sum;
         }
 
         public float weight(Balancer balancer, ModelNode node, String index) {
             final float weightShard = shardBalance * (node.numShards() - balancer.avgShardsPerNode());
             final float weightIndex = indexBalance * (node.numShards(index) - balancer.avgShardsPerNode(index));
             final float weightPrimary = primaryBalance * (node.numPrimaries() - balancer.avgPrimariesPerNode());
-            return weightShard + weightIndex + weightPrimary;
+            float weight = weightShard + weightIndex + weightPrimary;
+            if (diskBalance > 0.0f && balancer.avgShardSize() > 0.0) {
+                weight += diskBalance * (float) ((node.sizeInBytes() - balancer.avgSizePerNode()) / balancer.avgShardSize());
+            }
+            if (indexingBalance > 0.0f && balancer.avgShardIndexingRate() > 0.0) {
+                weight += indexingBalance * (float) ((node.indexingRate() - balancer.avgIndexingRatePerNode()) / balancer.avgShardIndexingRate());
+            }
+            if (searchBalance > 0.0f && balancer.avgShardSearchRate() > 0.0) {
+                weight += searchBalance * (float) ((node.searchRate() - balancer.avgSearchRatePerNode()) / balancer.avgShardSearchRate());
+            }
+            return weight;
         }
 
     }
@@ -211,6 +261,11 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
 
         private final float threshold;
         private final MetaData metaData;
+
+        /* cluster wide totals of the shard sizes and operation rates taken from the cluster info */
+        private final double totalShardSize;
+        private final double totalIndexingRate;
+        private final double totalSearchRate;
         
         private final Predicate<MutableShardRouting> assignedFilter = new Predicate<MutableShardRouting>() {
             @Override
@@ -224,10 +279,28 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             this.allocation = allocation;
             this.weight = weight;
             this.threshold = threshold;
+            final ClusterInfo clusterInfo = allocation.clusterInfo();
             for (RoutingNode node : allocation.routingNodes()) {
-                nodes.put(node.nodeId(), new ModelNode(node.nodeId()));
+                nodes.put(node.nodeId(), new ModelNode(node.nodeId(), clusterInfo));
             }
             metaData = allocation.routingNodes().metaData();
+            double totalShardSize = 0.0;
+            double totalIndexingRate = 0.0;
+            double totalSearchRate = 0.0;
+            if (clusterInfo != ClusterInfo.EMPTY) {
+                for (IndexRoutingTable index : allocation.routingTable().indicesRouting().values()) {
+                    for (IndexShardRoutingTable shard : index.getShards().values()) {
+                        /* every copy of a shard occupies the disk and receives the indexing load */
+                        final int copies = shard.size();
+                        totalShardSize += copies * clusterInfo.shardSize(shard.shardId());
+                        totalIndexingRate += copies * clusterInfo.shardIndexingRate(shard.shardId());
+                        totalSearchRate += copies * clusterInfo.shardSearchRate(shard.shardId());
+                    }
+                }
+            }
+            this.totalShardSize = totalShardSize;
+            this.totalIndexingRate = totalIndexingRate;
+            this.totalSearchRate = totalSearchRate;
         }
 
         /**
@@ -265,6 +338,48 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             return ((float) metaData.index(index).numberOfShards()) / nodes.size();
         }
 
+        /**
+         * Returns the global average of the shard size in bytes per node
+         */
+        public double avgSizePerNode() {
+            return totalShardSize / nodes.size();
+        }
+
+        /**
+         * Returns the global average size in bytes of a single shard
+         */
+        public double avgShardSize() {
+            return totalShardSize / metaData.totalNumberOfShards();
+        }
+
+        /**
+         * Returns the global average of the indexing rate per node
+         */
+        public double avgIndexingRatePerNode() {
+            return totalIndexingRate / nodes.size();
+        }
+
+        /**
+         * Returns the global average indexing rate of a single shard
+         */
+        public double avgShardIndexingRate() {
+            return totalIndexingRate / metaData.totalNumberOfShards();
+        }
+
+        /**
+         * Returns the global average of the search rate per node
+         */
+        public double avgSearchRatePerNode() {
+            return totalSearchRate / nodes.size();
+        }
+
+        /**
+         * Returns the global average search rate of a single shard
+         */
+        public double avgShardSearchRate() {
+            return totalSearchRate / metaData.totalNumberOfShards();
+        }
+
         /**
          * Returns a new {@link NodeSorter} that sorts the nodes based on their
          * current weight with respect to the index passed to the sorter. The
@@ -725,13 +840,19 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
 
     static class ModelNode implements Iterable<ModelIndex> {
         private final String id;
+        private final ClusterInfo clusterInfo;
         private final Map<String, ModelIndex> indices = new HashMap<String, ModelIndex>();
         /* cached stats - invalidated on add/remove and lazily calculated */
         private int numShards = -1;
         private int numPrimaries = -1;
+        /* resource usage of the shards on this node - maintained on add/remove */
+        private long sizeInBytes = 0;
+        private double indexingRate = 0.0;
+        private double searchRate = 0.0;
 
-        public ModelNode(String id) {
+        public ModelNode(String id, ClusterInfo clusterInfo) {
             this.id = id;
+            this.clusterInfo = clusterInfo;
         }
 
         public ModelIndex getIndex(String indexId) {
@@ -774,6 +895,18 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             return numPrimaries;
         }
 
+        public long sizeInBytes() {
+            return sizeInBytes;
+        }
+
+        public double indexingRate() {
+            return indexingRate;
+        }
+
+        public double searchRate() {
+            return searchRate;
+        }
+
         public Collection<MutableShardRouting> shards() {
             Collection<MutableShardRouting> result = new ArrayList<MutableShardRouting>();
             for (ModelIndex index : indices.values()) {
@@ -798,6 +931,9 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
                 indices.put(index.getIndexId(), index);
             }
             index.addShard(shard, decision);
+            sizeInBytes += clusterInfo.shardSize(shard.shardId());
+            indexingRate += clusterInfo.shardIndexingRate(shard.shardId());
+            searchRate += clusterInfo.shardSearchRate(shard.shardId());
         }
 
         public Decision removeShard(MutableShardRouting shard) {
@@ -806,8 +942,13 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             Decision removed = null;
             if (index != null) {
                 removed = index.removeShard(shard);
-                if (removed != null && index.numShards() == 0) {
-                    indices.remove(shard.index());
+                if (removed != null) {
+                    sizeInBytes -= clusterInfo.shardSize(shard.shardId());
+                    indexingRate -= clusterInfo.shardIndexingRate(shard.shardId());
+                    searchRate -= clusterInfo.shardSearchRate(shard.shardId());
+                    if (index.numShards() == 0) {
+                        indices.remove(shard.index());
+                    }
                 }
             }
             return removed;
@@ -60,10 +60,13 @@ public class AllocationDecidersModule extends AbstractModule {
         allocationMultibinder.addBinding().to(DisableAllocationDecider.class);
         allocationMultibinder.addBinding().to(AwarenessAllocationDecider.class);
         allocationMultibinder.addBinding().to(ShardsLimitAllocationDecider.class);
+        allocationMultibinder.addBinding().to(DiskThresholdDecider.class);
         for (Class<? extends AllocationDecider> allocation : allocations) {
             allocationMultibinder.addBinding().to(allocation);
         }
 
+        // a single instance, also used by the routing service to reroute when a node crosses a watermark
+        bind(DiskThresholdDecider.class).asEagerSingleton();
         bind(AllocationDeciders.class).asEagerSingleton();
     }
 }
@@ -0,0 +1,213 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import com.google.common.collect.Sets;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.DiskUsage;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.routing.MutableShardRouting;
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.node.settings.NodeSettingsService;
+
+/**
+ * The {@link DiskThresholdDecider} prevents shards from being allocated on nodes whose disks are
+ * filling up, based on the disk usage gathered by the
+ * {@link org.elasticsearch.cluster.ClusterInfoService}. It exposes the following settings via the
+ * cluster update API that allow changes in real-time:
+ * <ul>
+ * <li><tt>cluster.routing.allocation.disk.threshold_enabled</tt> - enables the decider, defaults
+ * to <code>true</code></li>
+ * <li><tt>cluster.routing.allocation.disk.watermark.low</tt> - the used disk ratio (either
+ * <tt>0.85</tt> or <tt>85%</tt>) above which no shard is allocated on a node. The size of the
+ * shard being allocated, unless the node already holds data of it, and of all shards currently
+ * initializing on the node is added to the used disk space. Defaults to <tt>85%</tt></li>
+ * <li><tt>cluster.routing.allocation.disk.watermark.high</tt> - the used disk ratio above which
+ * shards are moved off a node. The size of shards already relocating away from the node is
+ * subtracted from the used disk space such that only as many shards as needed are moved.
+ * Defaults to <tt>90%</tt></li>
+ * </ul>
+ * Nodes without disk usage information are never restricted by this decider. The
+ * {@link org.elasticsearch.cluster.routing.RoutingService} reroutes as soon as a node crosses one of the
+ * watermarks, see {@link #watermarkCrossed(ClusterInfo, ClusterInfo)}.
+ */
+public class DiskThresholdDecider extends AllocationDecider {
+
+    public static final String SETTING_THRESHOLD_ENABLED = "cluster.routing.allocation.disk.threshold_enabled";
+    public static final String SETTING_LOW_WATERMARK = "cluster.routing.allocation.disk.watermark.low";
+    public static final String SETTING_HIGH_WATERMARK = "cluster.routing.allocation.disk.watermark.high";
+
+    static {
+        MetaData.addDynamicSettings(
+                SETTING_THRESHOLD_ENABLED,
+                SETTING_LOW_WATERMARK,
+                SETTING_HIGH_WATERMARK
+        );
+    }
+
+    class ApplySettings implements NodeSettingsService.Listener {
+        @Override
+        public void onRefreshSettings(Settings settings) {
+            boolean enabled = settings.getAsBoolean(SETTING_THRESHOLD_ENABLED, DiskThresholdDecider.this.enabled);
+            if (enabled != DiskThresholdDecider.this.enabled) {
+                logger.info("updating [{}] from [{}] to [{}]", SETTING_THRESHOLD_ENABLED, DiskThresholdDecider.this.enabled, enabled);
+                DiskThresholdDecider.this.enabled = enabled;
+            }
+
+            String lowWatermark = settings.get(SETTING_LOW_WATERMARK);
+            if (lowWatermark != null && parseWatermark(lowWatermark) != DiskThresholdDecider.this.lowWatermark) {
+                logger.info("updating [{}] from [{}] to [{}]", SETTING_LOW_WATERMARK, DiskThresholdDecider.this.lowWatermark, lowWatermark);
+                DiskThresholdDecider.this.lowWatermark = parseWatermark(lowWatermark);
+            }
+
+            String highWatermark = settings.get(SETTING_HIGH_WATERMARK);
+            if (highWatermark != null && parseWatermark(highWatermark) != DiskThresholdDecider.this.highWatermark) {
+                logger.info("updating [{}] from [{}] to [{}]", SETTING_HIGH_WATERMARK, DiskThresholdDecider.this.highWatermark, highWatermark);
+                DiskThresholdDecider.this.highWatermark = parseWatermark(highWatermark);
+            }
+        }
+    }
+
+    private volatile boolean enabled;
+
+    private volatile double lowWatermark;
+
+    private volatile double highWatermark;
+
+    @Inject
+    public DiskThresholdDecider(Settings settings, NodeSettingsService nodeSettingsService) {
+        super(settings);
+        this.enabled = settings.getAsBoolean(SETTING_THRESHOLD_ENABLED, true);
+        this.lowWatermark = parseWatermark(settings.get(SETTING_LOW_WATERMARK, "0.85"));
+        this.highWatermark = parseWatermark(settings.get(SETTING_HIGH_WATERMARK, "0.90"));
+        logger.debug("using threshold_enabled [{}], watermark.low [{}], watermark.high [{}]", enabled, lowWatermark, highWatermark);
+        nodeSettingsService.addListener(new ApplySettings());
+    }
+
+    @Override
+    public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+        if (!enabled) {
+            return Decision.YES;
+        }
+        ClusterInfo clusterInfo = allocation.clusterInfo();
+        DiskUsage usage = clusterInfo.getNodeDiskUsages().get(node.nodeId());
+        if (usage == null || usage.getTotalBytes() <= 0) {
+            return Decision.YES;
+        }
+        long usedBytes = usage.getUsedBytes() + sizeOfShards(clusterInfo, node, ShardRoutingState.INITIALIZING);
+        if (!allocation.hasShardDataOnNode(shardRouting.shardId(), node.nodeId())) {
+            // the files of a shard already on the node are part of its used disk space
+            usedBytes += clusterInfo.shardSize(shardRouting.shardId());
+        }
+        double usedRatio = ((double) usedBytes) / usage.getTotalBytes();
+        if (usedRatio > lowWatermark) {
+            return Decision.single(Decision.Type.NO, "disk usage [%s] on node would exceed the low watermark [%s]", usedRatio, lowWatermark);
+        }
+        return Decision.YES;
+    }
+
+    @Override
+    public Decision canRemain(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+        if (!enabled) {
+            return Decision.YES;
+        }
+        ClusterInfo clusterInfo = allocation.clusterInfo();
+        DiskUsage usage = clusterInfo.getNodeDiskUsages().get(node.nodeId());
+        if (usage == null || usage.getTotalBytes() <= 0) {
+            return Decision.YES;
+        }
+        long usedBytes = usage.getUsedBytes() - sizeOfShards(clusterInfo, node, ShardRoutingState.RELOCATING);
+        double usedRatio = ((double) usedBytes) / usage.getTotalBytes();
+        if (usedRatio > highWatermark) {
+            return Decision.single(Decision.Type.NO, "disk usage [%s] on node exceeds the high watermark [%s]", usedRatio, highWatermark);
+        }
+        return Decision.YES;
+    }
+
+    /**
+     * Whether a node went above or below one of the watermarks between the previous and the current cluster
+     * info, in which case shards may now have to be moved away from it, or may be allocated on it again.
+     */
+    public boolean watermarkCrossed(ClusterInfo previous, ClusterInfo current) {
+        if (!enabled) {
+            return false;
+        }
+        for (String nodeId : Sets.union(previous.getNodeDiskUsages().keySet(), current.getNodeDiskUsages().keySet())) {
+            if (watermarkLevel(previous.getNodeDiskUsages().get(nodeId)) != watermarkLevel(current.getNodeDiskUsages().get(nodeId))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <tt>0</tt> below the low watermark, <tt>1</tt> between the watermarks and <tt>2</tt> above the high one.
+     */
+    private int watermarkLevel(@Nullable DiskUsage usage) {
+        if (usage == null || usage.getTotalBytes() <= 0) {
+            return 0;
+        }
+        double usedRatio = ((double) usage.getUsedBytes()) / usage.getTotalBytes();
+        if (usedRatio > highWatermark) {
+            return 2;
+        }
+        if (usedRatio > lowWatermark) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private static long sizeOfShards(ClusterInfo clusterInfo, RoutingNode node, ShardRoutingState state) {
+        long size = 0;
+        for (MutableShardRouting shard : node.shards()) {
+            if (shard.state() == state) {
+                size += clusterInfo.shardSize(shard.shardId());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Parses a watermark given either as ratio (<tt>0.85</tt>) or as percentage (<tt>85%</tt>).
+     */
+    static double parseWatermark(String watermark) {
+        double ratio;
+        try {
+            if (watermark.endsWith("%")) {
+                ratio = Double.parseDouble(watermark.substring(0, watermark.length() - 1).trim()) / 100.0;
+            } else {
+                ratio = Double.parseDouble(watermark.trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new ElasticSearchIllegalArgumentException("failed to parse disk watermark [" + watermark + "]", e);
+        }
+        if (ratio < 0.0 || ratio > 1.0) {
+            throw new ElasticSearchIllegalArgumentException("disk watermark must be between 0.0 and 1.0 but was [" + watermark + "]");
+        }
+        return ratio;
+    }
+}
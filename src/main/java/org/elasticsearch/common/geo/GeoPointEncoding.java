@@ -0,0 +1,107 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.geo;
+
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.unit.DistanceUnit;
+
+/**
+ * Encodes latitudes and longitudes as fixed precision integers. The precision is the size of the step
+ * between two encoded values at the equator, so decoded values are at most half a step away from the
+ * original ones.
+ */
+public class GeoPointEncoding {
+
+    private static final double METERS_PER_DEGREE = DistanceUnit.KILOMETERS.getDistancePerDegree() * 1000;
+
+    private final double precisionInMeters;
+    private final double step;
+    private final int latBits;
+    private final int lonBits;
+
+    public GeoPointEncoding(double precisionInMeters) {
+        if (precisionInMeters < 0.001) {
+            throw new ElasticSearchIllegalArgumentException("geo point precision must be at least [1mm], got [" + precisionInMeters + "m]");
+        }
+        this.precisionInMeters = precisionInMeters;
+        this.step = precisionInMeters / METERS_PER_DEGREE;
+        this.latBits = PackedInts.bitsRequired(encodeLat(90));
+        this.lonBits = PackedInts.bitsRequired(encodeLon(180));
+    }
+
+    /**
+     * Parses a precision such as <tt>1cm</tt>, <tt>1m</tt> or <tt>1km</tt>, values with no unit are in meters.
+     */
+    public static GeoPointEncoding of(String precision) {
+        String value = precision.trim().toLowerCase();
+        try {
+            if (value.endsWith("mm")) {
+                return new GeoPointEncoding(Double.parseDouble(value.substring(0, value.length() - 2)) / 1000);
+            } else if (value.endsWith("cm")) {
+                return new GeoPointEncoding(Double.parseDouble(value.substring(0, value.length() - 2)) / 100);
+            } else if (value.endsWith("km")) {
+                return new GeoPointEncoding(Double.parseDouble(value.substring(0, value.length() - 2)) * 1000);
+            } else if (value.endsWith("mi") || value.endsWith("miles")) {
+                return new GeoPointEncoding(DistanceUnit.parse(value, DistanceUnit.MILES, DistanceUnit.KILOMETERS) * 1000);
+            } else if (value.endsWith("m")) {
+                return new GeoPointEncoding(Double.parseDouble(value.substring(0, value.length() - 1)));
+            } else {
+                return new GeoPointEncoding(Double.parseDouble(value));
+            }
+        } catch (NumberFormatException e) {
+            throw new ElasticSearchIllegalArgumentException("failed to parse geo point precision [" + precision + "]", e);
+        }
+    }
+
+    public double precisionInMeters() {
+        return precisionInMeters;
+    }
+
+    /**
+     * The number of bits needed for an encoded latitude.
+     */
+    public int latBits() {
+        return latBits;
+    }
+
+    /**
+     * The number of bits needed for an encoded longitude.
+     */
+    public int lonBits() {
+        return lonBits;
+    }
+
+    public long encodeLat(double lat) {
+        return Math.round((lat + 90) / step);
+    }
+
+    public long encodeLon(double lon) {
+        return Math.round((lon + 180) / step);
+    }
+
+    public double decodeLat(long encoded) {
+        return Math.min(90, encoded * step - 90);
+    }
+
+    public double decodeLon(long encoded) {
+        return Math.min(180, encoded * step - 180);
+    }
+}
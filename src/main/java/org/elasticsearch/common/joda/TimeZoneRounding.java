@@ -30,6 +30,16 @@ public abstract class TimeZoneRounding {
 
     public abstract long calc(long utcMillis);
 
+    /**
+     * Returns a rounding that computes the same values as this one but remembers the time zone offsets
+     * between two transitions and the bounds of the last rounded bucket, such that rounding many values
+     * that fall into the same buckets does not go through Joda for every value. The returned rounding is
+     * not thread safe and should be used by a single collector.
+     */
+    public TimeZoneRounding cached() {
+        return this;
+    }
+
     public static Builder builder(DateTimeField field) {
         return new Builder(field);
     }
@@ -134,6 +144,11 @@ public abstract class TimeZoneRounding {
             this.postTz = postTz;
         }
 
+        @Override
+        public TimeZoneRounding cached() {
+            return new CachedTimeZoneRounding(new FieldFloor(field), preTz, postTz, true);
+        }
+
         @Override
         public long calc(long utcMillis) {
             long time = utcMillis + preTz.getOffset(utcMillis);
@@ -154,6 +169,11 @@ public abstract class TimeZoneRounding {
             this.field = field;
         }
 
+        @Override
+        public TimeZoneRounding cached() {
+            return new CachedTimeZoneRounding(new FieldFloor(field), DateTimeZone.UTC, DateTimeZone.UTC, false);
+        }
+
         @Override
         public long calc(long utcMillis) {
             return field.roundFloor(utcMillis);
@@ -171,6 +191,11 @@ public abstract class TimeZoneRounding {
             this.postTz = postTz;
         }
 
+        @Override
+        public TimeZoneRounding cached() {
+            return new CachedTimeZoneRounding(new FieldFloor(field), preTz, postTz, false);
+        }
+
         @Override
         public long calc(long utcMillis) {
             long time = utcMillis + preTz.getOffset(utcMillis);
@@ -209,6 +234,11 @@ public abstract class TimeZoneRounding {
             this.postTz = postTz;
         }
 
+        @Override
+        public TimeZoneRounding cached() {
+            return new CachedTimeZoneRounding(new IntervalFloor(interval), preTz, postTz, true);
+        }
+
         @Override
         public long calc(long utcMillis) {
             long time = utcMillis + preTz.getOffset(utcMillis);
@@ -233,6 +263,11 @@ public abstract class TimeZoneRounding {
             this.postTz = postTz;
         }
 
+        @Override
+        public TimeZoneRounding cached() {
+            return new CachedTimeZoneRounding(new IntervalFloor(interval), preTz, postTz, false);
+        }
+
         @Override
         public long calc(long utcMillis) {
             long time = utcMillis + preTz.getOffset(utcMillis);
@@ -255,6 +290,11 @@ public abstract class TimeZoneRounding {
             this.factor = factor;
         }
 
+        @Override
+        public TimeZoneRounding cached() {
+            return new FactorTimeZoneRounding(timeZoneRounding.cached(), factor);
+        }
+
         @Override
         public long calc(long utcMillis) {
             return timeZoneRounding.calc((long) (factor * utcMillis));
@@ -274,9 +314,179 @@ public abstract class TimeZoneRounding {
             this.postOffset = postOffset;
         }
 
+        @Override
+        public TimeZoneRounding cached() {
+            return new PrePostTimeZoneRounding(timeZoneRounding.cached(), preOffset, postOffset);
+        }
+
         @Override
         public long calc(long utcMillis) {
             return postOffset + timeZoneRounding.calc(utcMillis + preOffset);
         }
     }
+
+    /**
+     * The cached variant of the time zone roundings: moves the value into the pre zone, rounds it down, optionally
+     * moves the rounded value back to UTC (for roundings below a day) and finally applies the post zone.
+     */
+    static class CachedTimeZoneRounding extends TimeZoneRounding {
+
+        private final Floor floor;
+        private final boolean backToUTC;
+
+        private final CachedOffset preOffset;
+        private final CachedOffset roundedPreOffset;
+        private final CachedOffset postOffset;
+
+        CachedTimeZoneRounding(Floor floor, DateTimeZone preTz, DateTimeZone postTz, boolean backToUTC) {
+            this.floor = floor;
+            this.backToUTC = backToUTC;
+            // values and rounded values are looked up in separate caches so they don't evict each other
+            this.preOffset = new CachedOffset(preTz);
+            this.roundedPreOffset = new CachedOffset(preTz);
+            this.postOffset = new CachedOffset(postTz);
+        }
+
+        @Override
+        public long calc(long utcMillis) {
+            long time = utcMillis + preOffset.getOffset(utcMillis);
+            time = floor.roundFloor(time);
+            if (backToUTC) {
+                time = time - roundedPreOffset.getOffset(time);
+            }
+            time = time + postOffset.getOffset(time);
+            return time;
+        }
+
+        @Override
+        public TimeZoneRounding cached() {
+            return new CachedTimeZoneRounding(floor.copy(), preOffset.tz, postOffset.tz, backToUTC);
+        }
+    }
+
+    static abstract class Floor {
+
+        abstract long roundFloor(long time);
+
+        /**
+         * A copy with empty caches.
+         */
+        abstract Floor copy();
+    }
+
+    static final class IntervalFloor extends Floor {
+
+        private final long interval;
+
+        IntervalFloor(long interval) {
+            this.interval = interval;
+        }
+
+        @Override
+        long roundFloor(long time) {
+            return ((time / interval) * interval);
+        }
+
+        @Override
+        Floor copy() {
+            return this;
+        }
+    }
+
+    /**
+     * Rounds down with a {@link DateTimeField}. Fields with a precise duration (seconds up to weeks) are
+     * rounded with integer arithmetic relative to the field's origin, all other fields (months, quarters
+     * and years) remember the bounds of the last bucket.
+     */
+    static final class FieldFloor extends Floor {
+
+        private final DateTimeField field;
+        private final long unit;
+        private final long origin;
+
+        private long bucketStart = Long.MAX_VALUE;
+        private long bucketEnd = Long.MIN_VALUE;
+
+        FieldFloor(DateTimeField field) {
+            this.field = field;
+            long unit = 0;
+            long origin = 0;
+            if (field.getDurationField().isPrecise()) {
+                unit = field.getDurationField().getUnitMillis();
+                origin = field.roundFloor(0);
+                // only use arithmetic if the field's buckets really are evenly spaced around the origin
+                if (unit <= 0 || field.roundFloor(origin + unit) != origin + unit
+                        || field.roundFloor(origin + unit - 1) != origin || field.roundFloor(origin - 1) != origin - unit) {
+                    unit = 0;
+                }
+            }
+            this.unit = unit;
+            this.origin = origin;
+        }
+
+        @Override
+        long roundFloor(long time) {
+            if (unit > 0) {
+                long delta = time - origin;
+                long buckets = delta / unit;
+                if (delta % unit < 0) {
+                    buckets--;
+                }
+                return origin + buckets * unit;
+            }
+            if (time >= bucketStart && time < bucketEnd) {
+                return bucketStart;
+            }
+            bucketStart = field.roundFloor(time);
+            bucketEnd = field.roundCeiling(bucketStart + 1);
+            return bucketStart;
+        }
+
+        @Override
+        Floor copy() {
+            return new FieldFloor(field);
+        }
+    }
+
+    /**
+     * Remembers the offset of a time zone between two of its transitions, a fixed time zone has a single
+     * offset for all instants.
+     */
+    static final class CachedOffset {
+
+        final DateTimeZone tz;
+
+        private long start = Long.MAX_VALUE;
+        private long end = Long.MIN_VALUE;
+        private int offset;
+
+        CachedOffset(DateTimeZone tz) {
+            this.tz = tz;
+            if (tz.isFixed()) {
+                offset = tz.getOffset(0);
+                start = Long.MIN_VALUE;
+                end = Long.MAX_VALUE;
+            }
+        }
+
+        int getOffset(long utcMillis) {
+            if (utcMillis >= start && utcMillis < end) {
+                return offset;
+            }
+            offset = tz.getOffset(utcMillis);
+            end = tz.nextTransition(utcMillis);
+            if (end <= utcMillis) {
+                // no more transitions
+                end = Long.MAX_VALUE;
+            }
+            // previousTransition returns the last instant before the offset changed to the current one
+            long previous = utcMillis == Long.MAX_VALUE ? utcMillis : tz.previousTransition(utcMillis + 1);
+            if (previous >= utcMillis || tz.getOffset(previous + 1) != offset) {
+                start = utcMillis;
+            } else {
+                start = previous + 1;
+            }
+            return offset;
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.search;
+
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.AutomatonQuery;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.MultiTermQueryWrapperFilter;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.automaton.BasicAutomata;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A terms filter that compiles its terms into a minimal automaton (only built on the first call to
+ * {@link #getDocIdSet(AtomicReaderContext, Bits)}) and intersects it with the terms dictionary of each segment.
+ * Meant for very large sets of terms, where the automaton shares the common prefixes and suffixes of the terms.
+ * The terms must be valid UTF-8, so it is meant for string based fields.
+ */
+public class AutomatonTermsFilter extends Filter {
+
+    private final String field;
+
+    private final BytesRef[] terms;
+
+    private final int hashCode;
+
+    // built lazily, so the filter can be used as a cache key without compiling the automaton
+    private volatile InternalFilter filter;
+
+    public AutomatonTermsFilter(String field, BytesRef[] terms) {
+        this.field = field;
+        this.terms = SortedTermsFilter.sortAndDedup(terms);
+        this.hashCode = 31 * field.hashCode() + Arrays.hashCode(this.terms);
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public BytesRef[] terms() {
+        return terms;
+    }
+
+    @Override
+    public DocIdSet getDocIdSet(AtomicReaderContext context, Bits acceptDocs) throws IOException {
+        if (terms.length == 0) {
+            return null;
+        }
+        InternalFilter filter = this.filter;
+        if (filter == null) {
+            filter = new InternalFilter(field, terms);
+            this.filter = filter;
+        }
+        return filter.getDocIdSet(context, acceptDocs);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AutomatonTermsFilter that = (AutomatonTermsFilter) o;
+
+        if (hashCode != that.hashCode) return false;
+        if (!field.equals(that.field)) return false;
+        if (!Arrays.equals(terms, that.terms)) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return field + ":automaton[" + terms.length + " terms]";
+    }
+
+    static class InternalFilter extends MultiTermQueryWrapperFilter<AutomatonQuery> {
+
+        public InternalFilter(String field, BytesRef[] sortedTerms) {
+            super(new AutomatonQuery(new Term(field), BasicAutomata.makeStringUnion(Arrays.asList(sortedTerms))));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.search;
+
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A terms filter that sorts its terms once, and then intersects them with the terms of each segment in a single
+ * forward pass over the segment {@link TermsEnum}, instead of seeking each term on its own. Terms missing from a
+ * segment are skipped in bulk, which makes it a good fit for large sets of terms (thousands and more).
+ */
+public class SortedTermsFilter extends Filter {
+
+    private final String field;
+
+    private final BytesRef[] terms;
+
+    private final int hashCode;
+
+    public SortedTermsFilter(String field, BytesRef[] terms) {
+        this.field = field;
+        this.terms = sortAndDedup(terms);
+        this.hashCode = 31 * field.hashCode() + Arrays.hashCode(this.terms);
+    }
+
+    public String field() {
+        return field;
+    }
+
+    /**
+     * The terms of the filter, sorted and without duplicates.
+     */
+    public BytesRef[] terms() {
+        return terms;
+    }
+
+    @Override
+    public DocIdSet getDocIdSet(AtomicReaderContext context, Bits acceptDocs) throws IOException {
+        if (terms.length == 0) {
+            return null;
+        }
+        Terms fieldTerms = context.reader().terms(field);
+        if (fieldTerms == null) {
+            return null;
+        }
+        TermsEnum termsEnum = fieldTerms.iterator(null);
+        if (termsEnum.seekCeil(terms[0], false) == TermsEnum.SeekStatus.END) {
+            return null;
+        }
+
+        FixedBitSet result = null;
+        DocsEnum docsEnum = null;
+        BytesRef indexTerm = termsEnum.term();
+        int upto = 0;
+        while (true) {
+            int cmp = indexTerm.compareTo(terms[upto]);
+            if (cmp == 0) {
+                docsEnum = termsEnum.docs(acceptDocs, docsEnum, 0);
+                int docId = docsEnum.nextDoc();
+                if (docId != DocsEnum.NO_MORE_DOCS) {
+                    if (result == null) {
+                        result = new FixedBitSet(context.reader().maxDoc());
+                    }
+                    for (; docId != DocsEnum.NO_MORE_DOCS; docId = docsEnum.nextDoc()) {
+                        result.set(docId);
+                    }
+                }
+                if (++upto == terms.length) {
+                    break;
+                }
+                indexTerm = termsEnum.next();
+                if (indexTerm == null) {
+                    break;
+                }
+            } else if (cmp < 0) {
+                // the segment has terms we don't care about, skip them
+                if (termsEnum.seekCeil(terms[upto], false) == TermsEnum.SeekStatus.END) {
+                    break;
+                }
+                indexTerm = termsEnum.term();
+            } else {
+                // the segment doesn't have some of our terms, skip to the first one that might still match
+                int index = Arrays.binarySearch(terms, upto + 1, terms.length, indexTerm);
+                upto = index >= 0 ? index : -index - 1;
+                if (upto == terms.length) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        SortedTermsFilter that = (SortedTermsFilter) o;
+
+        if (hashCode != that.hashCode) return false;
+        if (!field.equals(that.field)) return false;
+        if (!Arrays.equals(terms, that.terms)) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (BytesRef term : terms) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(field).append(':').append(term.utf8ToString());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Sorts the provided terms in index order, and removes duplicates.
+     */
+    static BytesRef[] sortAndDedup(BytesRef[] terms) {
+        BytesRef[] sorted = Arrays.copyOf(terms, terms.length);
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (size == 0 || !sorted[i].bytesEquals(sorted[size - 1])) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+}
@@ -95,9 +95,9 @@ public class JsonXContent implements XContent {
     @Override
     public XContentParser createParser(BytesReference bytes) throws IOException {
         if (bytes.hasArray()) {
-            return createParser(bytes.array(), bytes.arrayOffset(), bytes.length());
+            return new JsonXContentParser(jsonFactory.createJsonParser(bytes.array(), bytes.arrayOffset(), bytes.length()), bytes, bytes.arrayOffset());
         }
-        return createParser(bytes.streamInput());
+        return new JsonXContentParser(jsonFactory.createJsonParser(bytes.streamInput()), bytes, 0);
     }
 
     @Override
@@ -24,6 +24,8 @@ import com.fasterxml.jackson.core.JsonToken;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.UnicodeUtil;
 import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.support.AbstractXContentParser;
 
@@ -36,8 +38,38 @@ public class JsonXContentParser extends AbstractXContentParser {
 
     final JsonParser parser;
 
+    // the parsed content when parsing bytes, and the offset the parser reports for its first byte
+    private final BytesReference source;
+    private final int sourceOffset;
+
     public JsonXContentParser(JsonParser parser) {
+        this(parser, null, 0);
+    }
+
+    public JsonXContentParser(JsonParser parser, @Nullable BytesReference source, int sourceOffset) {
         this.parser = parser;
+        this.source = source;
+        this.sourceOffset = sourceOffset;
+    }
+
+    /**
+     * Returns the object the parser is positioned on as a slice of the parsed bytes, without copying them, and
+     * moves the parser to the end of the object. Returns <tt>null</tt> without moving the parser if the parsed
+     * bytes are not available.
+     */
+    @Nullable
+    public BytesReference sliceCurrentStructure() throws IOException {
+        if (source == null || parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        // parsers over bytes report the byte offsets as char offsets
+        long start = parser.getCurrentLocation().getCharOffset() - sourceOffset;
+        if (start < 0 || start >= source.length() || source.get((int) start) != '{') {
+            return null;
+        }
+        parser.skipChildren();
+        long end = parser.getTokenLocation().getCharOffset() - sourceOffset + 1;
+        return source.slice((int) start, (int) (end - start));
     }
 
     @Override
@@ -0,0 +1,274 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.xcontent.support;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.regex.Regex;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming counterparts of {@link XContentMapValues}, working directly on the token stream of an
+ * {@link XContentParser} instead of a fully materialized map. Only the values that are selected are
+ * materialized, anything else is skipped using {@link XContentParser#skipChildren()}. The results are the
+ * same as the ones returned by the respective {@link XContentMapValues} methods on the parsed map.
+ */
+public class XContentStreamValues {
+
+    /**
+     * Returns the value of the top level field with the provided name, <tt>null</tt> if it does not exist.
+     */
+    public static Object extractField(String name, XContentParser parser) throws IOException {
+        XContentParser.Token token = parser.nextToken();
+        if (token != XContentParser.Token.START_OBJECT) {
+            return null;
+        }
+        Object value = null;
+        for (token = parser.nextToken(); token == XContentParser.Token.FIELD_NAME; token = parser.nextToken()) {
+            String fieldName = parser.currentName();
+            token = parser.nextToken();
+            if (name.equals(fieldName)) {
+                value = XContentMapConverter.readValue(parser, XContentMapConverter.SIMPLE_MAP_FACTORY, token);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @see XContentMapValues#extractRawValues(String, java.util.Map)
+     */
+    public static List<Object> extractRawValues(String path, XContentParser parser) throws IOException {
+        List<Object> values = Lists.newArrayList();
+        String[] pathElements = Strings.splitStringToArray(path, '.');
+        if (pathElements.length == 0) {
+            return values;
+        }
+        if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+            return values;
+        }
+        extractRawValuesFromObject(values, parser, pathElements, 0);
+        return values;
+    }
+
+    private static void extractRawValuesFromObject(List<Object> values, XContentParser parser, String[] pathElements, int index) throws IOException {
+        if (index == pathElements.length) {
+            parser.skipChildren();
+            return;
+        }
+        // like the map based version, a shorter key wins over a longer dotted one
+        List<Object> matched = null;
+        int matchedLength = Integer.MAX_VALUE;
+        for (XContentParser.Token token = parser.nextToken(); token == XContentParser.Token.FIELD_NAME; token = parser.nextToken()) {
+            int length = matchLength(parser.currentName(), pathElements, index);
+            token = parser.nextToken();
+            if (length == 0 || length > matchedLength || token == XContentParser.Token.VALUE_NULL) {
+                parser.skipChildren();
+                continue;
+            }
+            matched = Lists.newArrayList();
+            matchedLength = length;
+            if (token == XContentParser.Token.START_OBJECT) {
+                extractRawValuesFromObject(matched, parser, pathElements, index + length);
+            } else if (token == XContentParser.Token.START_ARRAY) {
+                extractRawValuesFromArray(matched, parser, pathElements, index + length);
+            } else {
+                matched.add(XContentMapConverter.readValue(parser, XContentMapConverter.SIMPLE_MAP_FACTORY, token));
+            }
+        }
+        if (matched != null) {
+            values.addAll(matched);
+        }
+    }
+
+    private static void extractRawValuesFromArray(List<Object> values, XContentParser parser, String[] pathElements, int index) throws IOException {
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+            if (token == XContentParser.Token.VALUE_NULL) {
+                continue;
+            }
+            if (token == XContentParser.Token.START_OBJECT) {
+                extractRawValuesFromObject(values, parser, pathElements, index);
+            } else if (token == XContentParser.Token.START_ARRAY) {
+                extractRawValuesFromArray(values, parser, pathElements, index);
+            } else {
+                values.add(XContentMapConverter.readValue(parser, XContentMapConverter.SIMPLE_MAP_FACTORY, token));
+            }
+        }
+    }
+
+    /**
+     * @see XContentMapValues#extractValue(String, java.util.Map)
+     */
+    public static Object extractValue(String path, XContentParser parser) throws IOException {
+        String[] pathElements = Strings.splitStringToArray(path, '.');
+        if (pathElements.length == 0) {
+            return null;
+        }
+        XContentParser.Token token = parser.nextToken();
+        if (token == null) {
+            return null;
+        }
+        return extractValue(parser, token, pathElements, 0);
+    }
+
+    private static Object extractValue(XContentParser parser, XContentParser.Token token, String[] pathElements, int index) throws IOException {
+        if (index == pathElements.length) {
+            return XContentMapConverter.readValue(parser, XContentMapConverter.SIMPLE_MAP_FACTORY, token);
+        }
+        if (token == XContentParser.Token.START_OBJECT) {
+            Object matched = null;
+            int matchedLength = Integer.MAX_VALUE;
+            for (token = parser.nextToken(); token == XContentParser.Token.FIELD_NAME; token = parser.nextToken()) {
+                int length = matchLength(parser.currentName(), pathElements, index);
+                token = parser.nextToken();
+                if (length == 0 || length > matchedLength || token == XContentParser.Token.VALUE_NULL) {
+                    parser.skipChildren();
+                    continue;
+                }
+                matched = extractValue(parser, token, pathElements, index + length);
+                matchedLength = length;
+            }
+            return matched;
+        }
+        if (token == XContentParser.Token.START_ARRAY) {
+            List<Object> values = new ArrayList<Object>();
+            while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                Object value = extractValue(parser, token, pathElements, index);
+                if (value != null) {
+                    values.add(value);
+                }
+            }
+            return values;
+        }
+        return null;
+    }
+
+    /**
+     * @see XContentMapValues#filter(java.util.Map, String[], String[])
+     */
+    public static Map<String, Object> filter(XContentParser parser, String[] includes, String[] excludes) throws IOException {
+        Map<String, Object> result = Maps.newHashMap();
+        if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+            return result;
+        }
+        filterObject(parser, result, includes, excludes, new StringBuilder());
+        return result;
+    }
+
+    private static void filterObject(XContentParser parser, Map<String, Object> into, String[] includes, String[] excludes, StringBuilder sb) throws IOException {
+        for (XContentParser.Token token = parser.nextToken(); token == XContentParser.Token.FIELD_NAME; token = parser.nextToken()) {
+            String key = parser.currentName();
+            token = parser.nextToken();
+            int mark = sb.length();
+            if (sb.length() > 0) {
+                sb.append('.');
+            }
+            sb.append(key);
+            String path = sb.toString();
+            if (!filterMatches(path, includes, excludes)) {
+                parser.skipChildren();
+                sb.setLength(mark);
+                continue;
+            }
+
+            if (token == XContentParser.Token.START_OBJECT) {
+                Map<String, Object> innerInto = Maps.newHashMap();
+                filterObject(parser, innerInto, includes, excludes, sb);
+                if (!innerInto.isEmpty()) {
+                    into.put(key, innerInto);
+                }
+            } else if (token == XContentParser.Token.START_ARRAY) {
+                List<Object> innerInto = new ArrayList<Object>();
+                filterArray(parser, innerInto, includes, excludes, sb);
+                into.put(key, innerInto);
+            } else {
+                into.put(key, XContentMapConverter.readValue(parser, XContentMapConverter.SIMPLE_MAP_FACTORY, token));
+            }
+            sb.setLength(mark);
+        }
+    }
+
+    private static void filterArray(XContentParser parser, List<Object> to, String[] includes, String[] excludes, StringBuilder sb) throws IOException {
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+            if (token == XContentParser.Token.START_OBJECT) {
+                Map<String, Object> innerInto = Maps.newHashMap();
+                filterObject(parser, innerInto, includes, excludes, sb);
+                if (!innerInto.isEmpty()) {
+                    to.add(innerInto);
+                }
+            } else if (token == XContentParser.Token.START_ARRAY) {
+                // the map based version drops arrays nested directly within arrays
+                parser.skipChildren();
+            } else {
+                to.add(XContentMapConverter.readValue(parser, XContentMapConverter.SIMPLE_MAP_FACTORY, token));
+            }
+        }
+    }
+
+    private static boolean filterMatches(String path, String[] includes, String[] excludes) {
+        for (String exclude : excludes) {
+            if (Regex.simpleMatch(exclude, path)) {
+                return false;
+            }
+        }
+        if (includes.length == 0) {
+            return true;
+        }
+        for (String include : includes) {
+            // check for prefix as well, something like: obj1.arr1.*
+            if (include.startsWith(path) || Regex.simpleMatch(include, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns how many path elements, starting at the provided index, the (possibly dotted) field name
+     * matches, or <tt>0</tt> if it does not match.
+     */
+    private static int matchLength(String fieldName, String[] pathElements, int index) {
+        int offset = 0;
+        for (int i = index; i < pathElements.length; i++) {
+            String element = pathElements[i];
+            if (!fieldName.startsWith(element, offset)) {
+                return 0;
+            }
+            offset += element.length();
+            if (offset == fieldName.length()) {
+                return i - index + 1;
+            }
+            if (fieldName.charAt(offset) != '.') {
+                return 0;
+            }
+            offset++;
+        }
+        return 0;
+    }
+}
@@ -96,7 +96,7 @@ public class PublishClusterStateAction extends AbstractComponent {
                 }
                 transportService.sendRequest(node, PublishClusterStateRequestHandler.ACTION,
                         new PublishClusterStateRequest(entry.bytes().bytes()),
-                        TransportRequestOptions.options().withHighType().withCompress(false), // no need to compress, we already compressed the bytes
+                        TransportRequestOptions.options().withStateType().withCompress(false), // no need to compress, we already compressed the bytes
 
                         new EmptyTransportResponseHandler(ThreadPool.Names.SAME) {
                             @Override
@@ -21,6 +21,7 @@ package org.elasticsearch.gateway.blobstore;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import org.apache.lucene.store.RateLimiter;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterService;
@@ -43,6 +44,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
 /**
  *
@@ -59,6 +61,10 @@ public abstract class BlobStoreGateway extends SharedStorageGateway {
 
     private boolean compress;
 
+    private Semaphore snapshotFileUploads;
+
+    private RateLimiter snapshotRateLimiter;
+
     private volatile int currentIndex;
 
     protected BlobStoreGateway(Settings settings, ThreadPool threadPool, ClusterService clusterService) {
@@ -72,6 +78,14 @@ public abstract class BlobStoreGateway extends SharedStorageGateway {
         this.metaDataBlobContainer = blobStore.immutableBlobContainer(basePath.add("metadata"));
         this.currentIndex = findLatestIndex();
         this.compress = componentSettings.getAsBoolean("compress", true);
+        // node wide limits for the shard snapshots, shared by all shards allocated on this node
+        int concurrentFiles = componentSettings.getAsInt("snapshot.concurrent_files", 5);
+        this.snapshotFileUploads = new Semaphore(concurrentFiles);
+        ByteSizeValue maxSnapshotBytesPerSec = componentSettings.getAsBytesSize("snapshot.max_bytes_per_sec", new ByteSizeValue(0));
+        if (maxSnapshotBytesPerSec.bytes() > 0) {
+            this.snapshotRateLimiter = new RateLimiter.SimpleRateLimiter(maxSnapshotBytesPerSec.mbFrac());
+        }
+        logger.debug("using snapshot.concurrent_files [{}], snapshot.max_bytes_per_sec [{}]", concurrentFiles, maxSnapshotBytesPerSec);
         logger.debug("Latest metadata found at index [" + currentIndex + "]");
     }
 
@@ -92,6 +106,21 @@ public abstract class BlobStoreGateway extends SharedStorageGateway {
         return this.chunkSize;
     }
 
+    /**
+     * Limits the number of files concurrently uploaded by shard snapshots on this node.
+     */
+    public Semaphore snapshotFileUploads() {
+        return this.snapshotFileUploads;
+    }
+
+    /**
+     * Limits the bytes per second uploaded by shard snapshots on this node, <tt>null</tt> if unlimited.
+     */
+    @Nullable
+    public RateLimiter snapshotRateLimiter() {
+        return this.snapshotRateLimiter;
+    }
+
     @Override
     public void reset() throws Exception {
         blobStore.delete(BlobPath.cleanPath());
@@ -137,6 +137,7 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
                 }
                 if (version != -1) {
                     numberOfAllocationsFound++;
+                    allocation.addShardDataOnNode(shard.shardId(), node.id());
                     if (highestVersion == -1) {
                         nodesWithHighestVersion.add(node);
                         highestVersion = version;
@@ -250,6 +251,10 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
             MutableShardRouting shard = unassignedIterator.next();
 
             // pre-check if it can be allocated to any node that currently exists, so we won't list the store for it for nothing
+            // until the store is listed, any node may hold data of the shard, so don't reject nodes for the size of the shard
+            for (DiscoveryNode discoNode : nodes.dataNodes().values()) {
+                allocation.addShardDataOnNode(shard.shardId(), discoNode.id());
+            }
             boolean canBeAllocatedToAtLeastOneNode = false;
             for (DiscoveryNode discoNode : nodes.dataNodes().values()) {
                 RoutingNode node = routingNodes.node(discoNode.id());
@@ -264,12 +269,19 @@ public class LocalGatewayAllocator extends AbstractComponent implements GatewayA
                     break;
                 }
             }
+            allocation.removeShardDataOnNodes(shard.shardId());
 
             if (!canBeAllocatedToAtLeastOneNode) {
                 continue;
             }
 
             Map<DiscoveryNode, TransportNodesListShardStoreMetaData.StoreFilesMetaData> shardStores = buildShardStores(nodes, shard);
+            for (Map.Entry<DiscoveryNode, TransportNodesListShardStoreMetaData.StoreFilesMetaData> nodeStoreEntry : shardStores.entrySet()) {
+                TransportNodesListShardStoreMetaData.StoreFilesMetaData storeFilesMetaData = nodeStoreEntry.getValue();
+                if (storeFilesMetaData != null && !storeFilesMetaData.allocated() && storeFilesMetaData.iterator().hasNext()) {
+                    allocation.addShardDataOnNode(shard.shardId(), nodeStoreEntry.getKey().id());
+                }
+            }
 
             long lastSizeMatched = 0;
             DiscoveryNode lastDiscoNodeMatched = null;
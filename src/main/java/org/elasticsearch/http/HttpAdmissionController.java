@@ -0,0 +1,213 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http;
+
+import com.google.common.collect.ImmutableMap;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.monitor.jvm.JvmMonitorService;
+import org.elasticsearch.rest.RestRequest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the number of requests (and their bytes) that are in flight on the node per category (search, index
+ * and bulk), so an overloaded node answers with <tt>429</tt> right away instead of queueing requests until it
+ * runs out of heap. The limits shrink as the heap pressure (see {@link JvmMonitorService#heapPressure()}) goes above
+ * <tt>http.admission.heap_pressure_threshold</tt>, down to not admitting any new request once the heap is full.
+ */
+public class HttpAdmissionController extends AbstractComponent {
+
+    public static enum Category {
+        SEARCH("search", 1000, new ByteSizeValue(100, ByteSizeUnit.MB)),
+        INDEX("index", 2000, new ByteSizeValue(100, ByteSizeUnit.MB)),
+        BULK("bulk", 50, new ByteSizeValue(500, ByteSizeUnit.MB));
+
+        private final String name;
+        private final int defaultMaxRequests;
+        private final ByteSizeValue defaultMaxBytes;
+
+        Category(String name, int defaultMaxRequests, ByteSizeValue defaultMaxBytes) {
+            this.name = name;
+            this.defaultMaxRequests = defaultMaxRequests;
+            this.defaultMaxBytes = defaultMaxBytes;
+        }
+
+        public String categoryName() {
+            return name;
+        }
+    }
+
+    private final JvmMonitorService jvmMonitorService;
+
+    private final boolean enabled;
+
+    private final double heapPressureThreshold;
+
+    private final ImmutableMap<Category, Limiter> limiters;
+
+    @Inject
+    public HttpAdmissionController(Settings settings, JvmMonitorService jvmMonitorService) {
+        super(settings, HttpAdmissionController.class);
+        this.jvmMonitorService = jvmMonitorService;
+        this.enabled = componentSettings.getAsBoolean("admission.enabled", false);
+        this.heapPressureThreshold = componentSettings.getAsDouble("admission.heap_pressure_threshold", 0.85);
+
+        ImmutableMap.Builder<Category, Limiter> limiters = ImmutableMap.builder();
+        for (Category category : Category.values()) {
+            Settings categorySettings = componentSettings.getByPrefix("admission." + category.categoryName() + ".");
+            limiters.put(category, new Limiter(category,
+                    categorySettings.getAsInt("max_requests", category.defaultMaxRequests),
+                    categorySettings.getAsBytesSize("max_bytes", category.defaultMaxBytes).bytes()));
+        }
+        this.limiters = limiters.build();
+
+        if (enabled) {
+            logger.debug("using admission control with heap_pressure_threshold [{}], limits {}", heapPressureThreshold, this.limiters.values());
+        }
+    }
+
+    /**
+     * Returns the category the request is accounted under, or <tt>null</tt> if it is not subject to admission
+     * control (cluster and indices admin APIs, gets...).
+     */
+    @Nullable
+    public Category category(RestRequest request) {
+        if (!enabled) {
+            return null;
+        }
+        String path = request.rawPath();
+        if (path.endsWith("/_bulk") || path.equals("/_bulk")) {
+            return Category.BULK;
+        }
+        if (path.endsWith("/_search") || path.endsWith("/_msearch") || path.endsWith("/_count")
+                || path.contains("/_search/") || path.endsWith("/_percolate")) {
+            return Category.SEARCH;
+        }
+        if ((request.method() == RestRequest.Method.PUT || request.method() == RestRequest.Method.POST) && isDocumentPath(path)) {
+            return Category.INDEX;
+        }
+        return null;
+    }
+
+    /**
+     * <tt>/index/type</tt> or <tt>/index/type/id</tt> (optionally followed by <tt>_create</tt> or <tt>_update</tt>),
+     * and not an endpoint of the type such as <tt>/index/type/_mapping</tt>.
+     */
+    private static boolean isDocumentPath(String path) {
+        String[] parts = path.split("/");
+        // leading "/" gives an empty first part
+        if (parts.length < 3 || parts.length > 5) {
+            return false;
+        }
+        for (int i = 1; i < parts.length && i < 4; i++) {
+            if (parts[i].startsWith("_")) {
+                return false;
+            }
+        }
+        if (parts.length == 5) {
+            return "_create".equals(parts[4]) || "_update".equals(parts[4]);
+        }
+        return true;
+    }
+
+    /**
+     * Tries to admit a request of the provided category and size, returns <tt>false</tt> if it should be rejected.
+     * An admitted request must be {@link #release(Category, long) released} once responded to.
+     */
+    public boolean tryAcquire(Category category, long bytes) {
+        Limiter limiter = limiters.get(category);
+        double ratio = limitRatio();
+        long requests = limiter.requests.incrementAndGet();
+        long inFlightBytes = limiter.bytes.addAndGet(bytes);
+        if (requests > limiter.maxRequests * ratio || (inFlightBytes > limiter.maxBytes * ratio && requests > 1)) {
+            limiter.requests.decrementAndGet();
+            limiter.bytes.addAndGet(-bytes);
+            limiter.rejected.inc();
+            return false;
+        }
+        return true;
+    }
+
+    public void release(Category category, long bytes) {
+        Limiter limiter = limiters.get(category);
+        limiter.requests.decrementAndGet();
+        limiter.bytes.addAndGet(-bytes);
+    }
+
+    /**
+     * The ratio of the configured limits currently applied, going down linearly from 1 to 0 as the heap pressure
+     * goes from the heap pressure threshold to the full heap.
+     */
+    private double limitRatio() {
+        double heapPressure = heapPressure();
+        if (heapPressure <= heapPressureThreshold) {
+            return 1;
+        }
+        return Math.max(0, (1 - heapPressure) / (1 - heapPressureThreshold));
+    }
+
+    /**
+     * The ratio of the heap still used after the last old generation collection, see {@link JvmMonitorService#heapPressure()}.
+     */
+    protected double heapPressure() {
+        return jvmMonitorService.heapPressure();
+    }
+
+    public HttpStats.AdmissionStats[] stats() {
+        if (!enabled) {
+            return null;
+        }
+        double ratio = limitRatio();
+        HttpStats.AdmissionStats[] stats = new HttpStats.AdmissionStats[limiters.size()];
+        int i = 0;
+        for (Limiter limiter : limiters.values()) {
+            stats[i++] = new HttpStats.AdmissionStats(limiter.category.categoryName(), limiter.requests.get(), limiter.bytes.get(),
+                    (long) (limiter.maxRequests * ratio), (long) (limiter.maxBytes * ratio), limiter.rejected.count());
+        }
+        return stats;
+    }
+
+    static class Limiter {
+        final Category category;
+        final int maxRequests;
+        final long maxBytes;
+
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        final CounterMetric rejected = new CounterMetric();
+
+        Limiter(Category category, int maxRequests, long maxBytes) {
+            this.category = category;
+            this.maxRequests = maxRequests;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public String toString() {
+            return category.categoryName() + "[max_requests=" + maxRequests + ", max_bytes=" + new ByteSizeValue(maxBytes) + "]";
+        }
+    }
+}
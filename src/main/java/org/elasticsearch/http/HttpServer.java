@@ -33,6 +33,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.elasticsearch.rest.RestStatus.*;
 
@@ -49,6 +50,8 @@ public class HttpServer extends AbstractLifecycleComponent<HttpServer> {
 
     private final NodeService nodeService;
 
+    private final HttpAdmissionController admissionController;
+
     private final boolean disableSites;
 
     private final PluginSiteFilter pluginSiteFilter = new PluginSiteFilter();
@@ -56,12 +59,13 @@ public class HttpServer extends AbstractLifecycleComponent<HttpServer> {
     @Inject
     public HttpServer(Settings settings, Environment environment, HttpServerTransport transport,
                       RestController restController,
-                      NodeService nodeService) {
+                      NodeService nodeService, HttpAdmissionController admissionController) {
         super(settings);
         this.environment = environment;
         this.transport = transport;
         this.restController = restController;
         this.nodeService = nodeService;
+        this.admissionController = admissionController;
         nodeService.setHttpServer(this);
 
         this.disableSites = componentSettings.getAsBoolean("disable_sites", false);
@@ -108,7 +112,11 @@ public class HttpServer extends AbstractLifecycleComponent<HttpServer> {
     }
 
     public HttpStats stats() {
-        return transport.stats();
+        HttpStats stats = transport.stats();
+        if (stats != null) {
+            stats.admission = admissionController.stats();
+        }
+        return stats;
     }
 
     public void internalDispatchRequest(final HttpRequest request, final HttpChannel channel) {
@@ -117,7 +125,55 @@ public class HttpServer extends AbstractLifecycleComponent<HttpServer> {
             filterChain.continueProcessing(request, channel);
             return;
         }
-        restController.dispatchRequest(request, channel);
+        HttpAdmissionController.Category category = admissionController.category(request);
+        if (category == null) {
+            restController.dispatchRequest(request, channel);
+            return;
+        }
+        long bytes = request.hasContent() ? request.content().length() : 0;
+        if (!admissionController.tryAcquire(category, bytes)) {
+            channel.sendResponse(new StringRestResponse(TOO_MANY_REQUESTS, "rejected [" + category.categoryName() + "] request, too many requests in flight"));
+            return;
+        }
+        AdmittedChannel admittedChannel = new AdmittedChannel(channel, category, bytes);
+        try {
+            restController.dispatchRequest(request, admittedChannel);
+        } catch (RuntimeException e) {
+            admittedChannel.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the admitted request from the admission controller once its response is sent.
+     */
+    class AdmittedChannel implements HttpChannel {
+
+        private final HttpChannel channel;
+        private final HttpAdmissionController.Category category;
+        private final long bytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        AdmittedChannel(HttpChannel channel, HttpAdmissionController.Category category, long bytes) {
+            this.channel = channel;
+            this.category = category;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void sendResponse(RestResponse response) {
+            try {
+                channel.sendResponse(response);
+            } finally {
+                release();
+            }
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                admissionController.release(category, bytes);
+            }
+        }
     }
 
 
@@ -47,5 +47,6 @@ public class HttpServerModule extends AbstractModule implements SpawnModules {
     @Override
     protected void configure() {
         bind(HttpServer.class).asEagerSingleton();
+        bind(HttpAdmissionController.class).asEagerSingleton();
     }
 }
@@ -22,6 +22,7 @@ package org.elasticsearch.http;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentBuilderString;
@@ -33,6 +34,8 @@ public class HttpStats implements Streamable, ToXContent {
     private long serverOpen;
     private long totalOpen;
 
+    AdmissionStats[] admission;
+
     HttpStats() {
 
     }
@@ -58,6 +61,17 @@ public class HttpStats implements Streamable, ToXContent {
         return this.totalOpen;
     }
 
+    /**
+     * The per category admission control stats, <tt>null</tt> if admission control is disabled.
+     */
+    public AdmissionStats[] admission() {
+        return this.admission;
+    }
+
+    public AdmissionStats[] getAdmission() {
+        return admission();
+    }
+
     public static HttpStats readHttpStats(StreamInput in) throws IOException {
         HttpStats stats = new HttpStats();
         stats.readFrom(in);
@@ -68,18 +82,41 @@ public class HttpStats implements Streamable, ToXContent {
     public void readFrom(StreamInput in) throws IOException {
         serverOpen = in.readVLong();
         totalOpen = in.readVLong();
+        if (in.readBoolean()) {
+            admission = new AdmissionStats[in.readVInt()];
+            for (int i = 0; i < admission.length; i++) {
+                admission[i] = AdmissionStats.readAdmissionStats(in);
+            }
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(serverOpen);
         out.writeVLong(totalOpen);
+        if (admission == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            out.writeVInt(admission.length);
+            for (AdmissionStats stats : admission) {
+                stats.writeTo(out);
+            }
+        }
     }
 
     static final class Fields {
         static final XContentBuilderString HTTP = new XContentBuilderString("http");
         static final XContentBuilderString CURRENT_OPEN = new XContentBuilderString("current_open");
         static final XContentBuilderString TOTAL_OPENED = new XContentBuilderString("total_opened");
+        static final XContentBuilderString ADMISSION = new XContentBuilderString("admission");
+        static final XContentBuilderString IN_FLIGHT_REQUESTS = new XContentBuilderString("in_flight_requests");
+        static final XContentBuilderString IN_FLIGHT_SIZE = new XContentBuilderString("in_flight_size");
+        static final XContentBuilderString IN_FLIGHT_SIZE_IN_BYTES = new XContentBuilderString("in_flight_size_in_bytes");
+        static final XContentBuilderString MAX_REQUESTS = new XContentBuilderString("max_requests");
+        static final XContentBuilderString MAX_SIZE = new XContentBuilderString("max_size");
+        static final XContentBuilderString MAX_SIZE_IN_BYTES = new XContentBuilderString("max_size_in_bytes");
+        static final XContentBuilderString REJECTED = new XContentBuilderString("rejected");
     }
 
     @Override
@@ -87,7 +124,128 @@ public class HttpStats implements Streamable, ToXContent {
         builder.startObject(Fields.HTTP);
         builder.field(Fields.CURRENT_OPEN, serverOpen);
         builder.field(Fields.TOTAL_OPENED, totalOpen);
+        if (admission != null) {
+            builder.startObject(Fields.ADMISSION);
+            for (AdmissionStats stats : admission) {
+                stats.toXContent(builder, params);
+            }
+            builder.endObject();
+        }
         builder.endObject();
         return builder;
     }
+
+    public static class AdmissionStats implements Streamable, ToXContent {
+
+        private String category;
+        private long inFlightRequests;
+        private long inFlightBytes;
+        private long maxRequests;
+        private long maxBytes;
+        private long rejected;
+
+        AdmissionStats() {
+
+        }
+
+        public AdmissionStats(String category, long inFlightRequests, long inFlightBytes, long maxRequests, long maxBytes, long rejected) {
+            this.category = category;
+            this.inFlightRequests = inFlightRequests;
+            this.inFlightBytes = inFlightBytes;
+            this.maxRequests = maxRequests;
+            this.maxBytes = maxBytes;
+            this.rejected = rejected;
+        }
+
+        public String category() {
+            return this.category;
+        }
+
+        public String getCategory() {
+            return category();
+        }
+
+        public long inFlightRequests() {
+            return this.inFlightRequests;
+        }
+
+        public long getInFlightRequests() {
+            return inFlightRequests();
+        }
+
+        public ByteSizeValue inFlightSize() {
+            return new ByteSizeValue(inFlightBytes);
+        }
+
+        public ByteSizeValue getInFlightSize() {
+            return inFlightSize();
+        }
+
+        /**
+         * The maximum number of requests currently admitted, lowered from the configured one under heap pressure.
+         */
+        public long maxRequests() {
+            return this.maxRequests;
+        }
+
+        public long getMaxRequests() {
+            return maxRequests();
+        }
+
+        public ByteSizeValue maxSize() {
+            return new ByteSizeValue(maxBytes);
+        }
+
+        public ByteSizeValue getMaxSize() {
+            return maxSize();
+        }
+
+        public long rejected() {
+            return this.rejected;
+        }
+
+        public long getRejected() {
+            return rejected();
+        }
+
+        public static AdmissionStats readAdmissionStats(StreamInput in) throws IOException {
+            AdmissionStats stats = new AdmissionStats();
+            stats.readFrom(in);
+            return stats;
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            category = in.readString();
+            inFlightRequests = in.readVLong();
+            inFlightBytes = in.readVLong();
+            maxRequests = in.readVLong();
+            maxBytes = in.readVLong();
+            rejected = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(category);
+            out.writeVLong(inFlightRequests);
+            out.writeVLong(inFlightBytes);
+            out.writeVLong(maxRequests);
+            out.writeVLong(maxBytes);
+            out.writeVLong(rejected);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject(category, XContentBuilder.FieldCaseConversion.NONE);
+            builder.field(Fields.IN_FLIGHT_REQUESTS, inFlightRequests);
+            builder.field(Fields.IN_FLIGHT_SIZE, inFlightSize().toString());
+            builder.field(Fields.IN_FLIGHT_SIZE_IN_BYTES, inFlightBytes);
+            builder.field(Fields.MAX_REQUESTS, maxRequests);
+            builder.field(Fields.MAX_SIZE, maxSize().toString());
+            builder.field(Fields.MAX_SIZE_IN_BYTES, maxBytes);
+            builder.field(Fields.REJECTED, rejected);
+            builder.endObject();
+            return builder;
+        }
+    }
 }
\ No newline at end of file
@@ -38,15 +38,36 @@ public class CacheStats implements Streamable, ToXContent {
     long filterCount;
     long filterSize;
     long idCacheSize;
+    long queryParserHitCount;
+    long queryParserMissCount;
+    long sourceHitCount;
+    long sourceMissCount;
+    long sourceEvictions;
+    long sourceSize;
 
     public CacheStats() {
     }
 
     public CacheStats(long filterEvictions, long filterSize, long filterCount, long idCacheSize) {
+        this(filterEvictions, filterSize, filterCount, idCacheSize, 0, 0);
+    }
+
+    public CacheStats(long filterEvictions, long filterSize, long filterCount, long idCacheSize, long queryParserHitCount, long queryParserMissCount) {
+        this(filterEvictions, filterSize, filterCount, idCacheSize, queryParserHitCount, queryParserMissCount, 0, 0, 0, 0);
+    }
+
+    public CacheStats(long filterEvictions, long filterSize, long filterCount, long idCacheSize, long queryParserHitCount, long queryParserMissCount,
+                      long sourceHitCount, long sourceMissCount, long sourceEvictions, long sourceSize) {
         this.filterEvictions = filterEvictions;
         this.filterSize = filterSize;
         this.filterCount = filterCount;
         this.idCacheSize = idCacheSize;
+        this.queryParserHitCount = queryParserHitCount;
+        this.queryParserMissCount = queryParserMissCount;
+        this.sourceHitCount = sourceHitCount;
+        this.sourceMissCount = sourceMissCount;
+        this.sourceEvictions = sourceEvictions;
+        this.sourceSize = sourceSize;
     }
 
     public void add(CacheStats stats) {
@@ -54,6 +75,12 @@ public class CacheStats implements Streamable, ToXContent {
         this.filterSize += stats.filterSize;
         this.filterCount += stats.filterCount;
         this.idCacheSize += stats.idCacheSize;
+        this.queryParserHitCount += stats.queryParserHitCount;
+        this.queryParserMissCount += stats.queryParserMissCount;
+        this.sourceHitCount += stats.sourceHitCount;
+        this.sourceMissCount += stats.sourceMissCount;
+        this.sourceEvictions += stats.sourceEvictions;
+        this.sourceSize += stats.sourceSize;
     }
 
     public long filterEvictions() {
@@ -112,6 +139,68 @@ public class CacheStats implements Streamable, ToXContent {
         return idCacheSize();
     }
 
+    /**
+     * The number of queries that were reused from the query parser cache instead of being parsed again.
+     */
+    public long queryParserHitCount() {
+        return this.queryParserHitCount;
+    }
+
+    public long getQueryParserHitCount() {
+        return queryParserHitCount();
+    }
+
+    public long queryParserMissCount() {
+        return this.queryParserMissCount;
+    }
+
+    public long getQueryParserMissCount() {
+        return queryParserMissCount();
+    }
+
+    /**
+     * The number of decompressed sources that were served from the source cache.
+     */
+    public long sourceHitCount() {
+        return this.sourceHitCount;
+    }
+
+    public long getSourceHitCount() {
+        return sourceHitCount();
+    }
+
+    public long sourceMissCount() {
+        return this.sourceMissCount;
+    }
+
+    public long getSourceMissCount() {
+        return sourceMissCount();
+    }
+
+    public long sourceEvictions() {
+        return this.sourceEvictions;
+    }
+
+    public long getSourceEvictions() {
+        return sourceEvictions();
+    }
+
+    public long sourceSizeInBytes() {
+        return this.sourceSize;
+    }
+
+    public long getSourceSizeInBytes() {
+        return sourceSizeInBytes();
+    }
+
+    public ByteSizeValue sourceSize() {
+        return new ByteSizeValue(sourceSize);
+    }
+
+    public ByteSizeValue getSourceSize() {
+        return sourceSize();
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.CACHE);
@@ -121,6 +210,13 @@ public class CacheStats implements Streamable, ToXContent {
         builder.field(Fields.FILTER_SIZE_IN_BYTES, filterSize);
         builder.field(Fields.ID_CACHE_SIZE, idCacheSize().toString());
         builder.field(Fields.ID_CACHE_SIZE_IN_BYTES, idCacheSize);
+        builder.field(Fields.QUERY_PARSER_HIT_COUNT, queryParserHitCount);
+        builder.field(Fields.QUERY_PARSER_MISS_COUNT, queryParserMissCount);
+        builder.field(Fields.SOURCE_HIT_COUNT, sourceHitCount);
+        builder.field(Fields.SOURCE_MISS_COUNT, sourceMissCount);
+        builder.field(Fields.SOURCE_EVICTIONS, sourceEvictions);
+        builder.field(Fields.SOURCE_SIZE, sourceSize().toString());
+        builder.field(Fields.SOURCE_SIZE_IN_BYTES, sourceSize);
         builder.endObject();
         return builder;
     }
@@ -133,6 +229,13 @@ public class CacheStats implements Streamable, ToXContent {
         static final XContentBuilderString FILTER_SIZE_IN_BYTES = new XContentBuilderString("filter_size_in_bytes");
         static final XContentBuilderString ID_CACHE_SIZE = new XContentBuilderString("id_cache_size");
         static final XContentBuilderString ID_CACHE_SIZE_IN_BYTES = new XContentBuilderString("id_cache_size_in_bytes");
+        static final XContentBuilderString QUERY_PARSER_HIT_COUNT = new XContentBuilderString("query_parser_hit_count");
+        static final XContentBuilderString QUERY_PARSER_MISS_COUNT = new XContentBuilderString("query_parser_miss_count");
+        static final XContentBuilderString SOURCE_HIT_COUNT = new XContentBuilderString("source_hit_count");
+        static final XContentBuilderString SOURCE_MISS_COUNT = new XContentBuilderString("source_miss_count");
+        static final XContentBuilderString SOURCE_EVICTIONS = new XContentBuilderString("source_evictions");
+        static final XContentBuilderString SOURCE_SIZE = new XContentBuilderString("source_size");
+        static final XContentBuilderString SOURCE_SIZE_IN_BYTES = new XContentBuilderString("source_size_in_bytes");
     }
 
     public static CacheStats readCacheStats(StreamInput in) throws IOException {
@@ -147,6 +250,12 @@ public class CacheStats implements Streamable, ToXContent {
         filterSize = in.readVLong();
         filterCount = in.readVLong();
         idCacheSize = in.readVLong();
+        queryParserHitCount = in.readVLong();
+        queryParserMissCount = in.readVLong();
+        sourceHitCount = in.readVLong();
+        sourceMissCount = in.readVLong();
+        sourceEvictions = in.readVLong();
+        sourceSize = in.readVLong();
     }
 
     @Override
@@ -155,5 +264,11 @@ public class CacheStats implements Streamable, ToXContent {
         out.writeVLong(filterSize);
         out.writeVLong(filterCount);
         out.writeVLong(idCacheSize);
+        out.writeVLong(queryParserHitCount);
+        out.writeVLong(queryParserMissCount);
+        out.writeVLong(sourceHitCount);
+        out.writeVLong(sourceMissCount);
+        out.writeVLong(sourceEvictions);
+        out.writeVLong(sourceSize);
     }
 }
\ No newline at end of file
@@ -35,6 +35,7 @@ import org.elasticsearch.index.cache.docset.DocSetCache;
 import org.elasticsearch.index.cache.filter.FilterCache;
 import org.elasticsearch.index.cache.id.IdCache;
 import org.elasticsearch.index.cache.query.parser.QueryParserCache;
+import org.elasticsearch.index.cache.source.SourceCache;
 import org.elasticsearch.index.settings.IndexSettings;
 
 /**
@@ -46,6 +47,7 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
     private final QueryParserCache queryParserCache;
     private final IdCache idCache;
     private final DocSetCache docSetCache;
+    private final SourceCache sourceCache;
 
     private final TimeValue refreshInterval;
     private ClusterService clusterService;
@@ -55,12 +57,13 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
 
     @Inject
     public IndexCache(Index index, @IndexSettings Settings indexSettings, FilterCache filterCache, QueryParserCache queryParserCache, IdCache idCache,
-                      DocSetCache docSetCache) {
+                      DocSetCache docSetCache, SourceCache sourceCache) {
         super(index, indexSettings);
         this.filterCache = filterCache;
         this.queryParserCache = queryParserCache;
         this.idCache = idCache;
         this.docSetCache = docSetCache;
+        this.sourceCache = sourceCache;
 
         this.refreshInterval = componentSettings.getAsTime("stats.refresh_interval", TimeValue.timeValueSeconds(1));
 
@@ -77,7 +80,9 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
 
     public synchronized void invalidateCache() {
         FilterCache.EntriesStats filterEntriesStats = filterCache.entriesStats();
-        latestCacheStats = new CacheStats(filterCache.evictions(), filterEntriesStats.sizeInBytes, filterEntriesStats.count, idCache.sizeInBytes());
+        latestCacheStats = new CacheStats(filterCache.evictions(), filterEntriesStats.sizeInBytes, filterEntriesStats.count, idCache.sizeInBytes(),
+                queryParserCache.hitCount(), queryParserCache.missCount(),
+                sourceCache.hitCount(), sourceCache.missCount(), sourceCache.evictions(), sourceCache.sizeInBytes());
         latestCacheStatsTimestamp = System.currentTimeMillis();
     }
 
@@ -85,7 +90,9 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         long timestamp = System.currentTimeMillis();
         if ((timestamp - latestCacheStatsTimestamp) > refreshInterval.millis()) {
             FilterCache.EntriesStats filterEntriesStats = filterCache.entriesStats();
-            latestCacheStats = new CacheStats(filterCache.evictions(), filterEntriesStats.sizeInBytes, filterEntriesStats.count, idCache.sizeInBytes());
+            latestCacheStats = new CacheStats(filterCache.evictions(), filterEntriesStats.sizeInBytes, filterEntriesStats.count, idCache.sizeInBytes(),
+                queryParserCache.hitCount(), queryParserCache.missCount(),
+                sourceCache.hitCount(), sourceCache.missCount(), sourceCache.evictions(), sourceCache.sizeInBytes());
             latestCacheStatsTimestamp = timestamp;
         }
         return latestCacheStats;
@@ -107,12 +114,17 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         return this.queryParserCache;
     }
 
+    public SourceCache source() {
+        return this.sourceCache;
+    }
+
     @Override
     public void close() throws ElasticSearchException {
         filterCache.close();
         idCache.close();
         queryParserCache.close();
         docSetCache.clear("close");
+        sourceCache.close();
         if (clusterService != null) {
             clusterService.remove(this);
         }
@@ -122,6 +134,7 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         filterCache.clear(reader);
         idCache.clear(reader);
         docSetCache.clear(reader);
+        sourceCache.clear(reader);
     }
 
     public void clear(String reason) {
@@ -129,6 +142,7 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         idCache.clear();
         queryParserCache.clear();
         docSetCache.clear(reason);
+        sourceCache.clear(reason);
     }
 
     @Override
@@ -25,6 +25,7 @@ import org.elasticsearch.index.cache.docset.DocSetCacheModule;
 import org.elasticsearch.index.cache.filter.FilterCacheModule;
 import org.elasticsearch.index.cache.id.IdCacheModule;
 import org.elasticsearch.index.cache.query.parser.QueryParserCacheModule;
+import org.elasticsearch.index.cache.source.SourceCache;
 
 /**
  *
@@ -44,6 +45,7 @@ public class IndexCacheModule extends AbstractModule {
         new QueryParserCacheModule(settings).configure(binder());
         new DocSetCacheModule(settings).configure(binder());
 
+        bind(SourceCache.class).asEagerSingleton();
         bind(IndexCache.class).asEagerSingleton();
     }
 }
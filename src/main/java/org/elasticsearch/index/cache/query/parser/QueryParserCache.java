@@ -23,6 +23,8 @@ import org.apache.lucene.queryparser.classic.QueryParserSettings;
 import org.apache.lucene.search.Query;
 import org.elasticsearch.common.component.CloseableComponent;
 import org.elasticsearch.index.IndexComponent;
+import org.elasticsearch.index.cache.query.parser.support.ParsedQueryKey;
+import org.elasticsearch.index.query.ParsedQuery;
 
 /**
  *
@@ -33,5 +35,22 @@ public interface QueryParserCache extends IndexComponent, CloseableComponent {
 
     void put(QueryParserSettings queryString, Query query);
 
+    /**
+     * Returns the query previously parsed from the same source and types, or <tt>null</tt> if there is none.
+     */
+    ParsedQuery get(ParsedQueryKey key);
+
+    void put(ParsedQueryKey key, ParsedQuery parsedQuery);
+
+    /**
+     * The number of times a parsed query was found in the cache.
+     */
+    long hitCount();
+
+    /**
+     * The number of times a parsed query was looked up and not found in the cache.
+     */
+    long missCount();
+
     void clear();
 }
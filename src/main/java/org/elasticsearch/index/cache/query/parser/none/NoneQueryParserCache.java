@@ -27,6 +27,8 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.AbstractIndexComponent;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.cache.query.parser.QueryParserCache;
+import org.elasticsearch.index.cache.query.parser.support.ParsedQueryKey;
+import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.settings.IndexSettings;
 
 /**
@@ -48,6 +50,25 @@ public class NoneQueryParserCache extends AbstractIndexComponent implements Quer
     public void put(QueryParserSettings queryString, Query query) {
     }
 
+    @Override
+    public ParsedQuery get(ParsedQueryKey key) {
+        return null;
+    }
+
+    @Override
+    public void put(ParsedQueryKey key, ParsedQuery parsedQuery) {
+    }
+
+    @Override
+    public long hitCount() {
+        return 0;
+    }
+
+    @Override
+    public long missCount() {
+        return 0;
+    }
+
     @Override
     public void clear() {
     }
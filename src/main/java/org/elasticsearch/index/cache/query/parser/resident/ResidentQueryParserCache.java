@@ -26,26 +26,38 @@ import org.apache.lucene.queryparser.classic.QueryParserSettings;
 import org.apache.lucene.search.Query;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.AbstractIndexComponent;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.cache.query.parser.QueryParserCache;
+import org.elasticsearch.index.cache.query.parser.support.ParsedQueryKey;
+import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.settings.IndexSettings;
 
 import java.util.concurrent.TimeUnit;
 
 /**
  * A small (by default) query parser cache mainly to not parse the same query string several times
- * if several shards exists on the same node.
+ * if several shards exists on the same node. Full parsed queries are cached as well (keyed by their source
+ * and types), so the shards of an index allocated on this node parse a search request query only once.
  */
 public class ResidentQueryParserCache extends AbstractIndexComponent implements QueryParserCache {
 
     private final Cache<QueryParserSettings, Query> cache;
 
+    private final Cache<ParsedQueryKey, ParsedQuery> parsedQueries;
+
+    private final CounterMetric hitCount = new CounterMetric();
+    private final CounterMetric missCount = new CounterMetric();
+
     private volatile int maxSize;
     private volatile TimeValue expire;
 
+    private volatile int parsedMaxSize;
+    private volatile TimeValue parsedExpire;
+
     @Inject
     public ResidentQueryParserCache(Index index, @IndexSettings Settings indexSettings) {
         super(index, indexSettings);
@@ -60,6 +72,17 @@ public class ResidentQueryParserCache extends AbstractIndexComponent implements
         }
 
         this.cache = cacheBuilder.build();
+
+        this.parsedMaxSize = componentSettings.getAsInt("parsed.max_size", 500);
+        this.parsedExpire = componentSettings.getAsTime("parsed.expire", TimeValue.timeValueMinutes(5));
+        logger.debug("using [resident] parsed query cache with max_size [{}], expire [{}]", parsedMaxSize, parsedExpire);
+
+        CacheBuilder parsedCacheBuilder = CacheBuilder.newBuilder().maximumSize(parsedMaxSize);
+        if (parsedExpire != null) {
+            parsedCacheBuilder.expireAfterAccess(parsedExpire.nanos(), TimeUnit.NANOSECONDS);
+        }
+
+        this.parsedQueries = parsedCacheBuilder.build();
     }
 
     @Override
@@ -72,13 +95,41 @@ public class ResidentQueryParserCache extends AbstractIndexComponent implements
         cache.put(queryString, query);
     }
 
+    @Override
+    public ParsedQuery get(ParsedQueryKey key) {
+        ParsedQuery parsedQuery = parsedQueries.getIfPresent(key);
+        if (parsedQuery == null) {
+            missCount.inc();
+        } else {
+            hitCount.inc();
+        }
+        return parsedQuery;
+    }
+
+    @Override
+    public void put(ParsedQueryKey key, ParsedQuery parsedQuery) {
+        parsedQueries.put(key.copy(), parsedQuery);
+    }
+
+    @Override
+    public long hitCount() {
+        return hitCount.count();
+    }
+
+    @Override
+    public long missCount() {
+        return missCount.count();
+    }
+
     @Override
     public void clear() {
         cache.invalidateAll();
+        parsedQueries.invalidateAll();
     }
 
     @Override
     public void close() throws ElasticSearchException {
         cache.invalidateAll();
+        parsedQueries.invalidateAll();
     }
 }
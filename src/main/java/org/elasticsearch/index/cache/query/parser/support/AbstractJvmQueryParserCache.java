@@ -22,10 +22,13 @@ package org.elasticsearch.index.cache.query.parser.support;
 import org.apache.lucene.queryparser.classic.QueryParserSettings;
 import org.apache.lucene.search.Query;
 import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.AbstractIndexComponent;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.cache.query.parser.QueryParserCache;
+import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.settings.IndexSettings;
 
 import java.util.concurrent.ConcurrentMap;
@@ -37,6 +40,11 @@ public class AbstractJvmQueryParserCache extends AbstractIndexComponent implemen
 
     final ConcurrentMap<QueryParserSettings, Query> cache;
 
+    final ConcurrentMap<ParsedQueryKey, ParsedQuery> parsedQueries = ConcurrentCollections.newConcurrentMap();
+
+    private final CounterMetric hitCount = new CounterMetric();
+    private final CounterMetric missCount = new CounterMetric();
+
     protected AbstractJvmQueryParserCache(Index index, @IndexSettings Settings indexSettings, ConcurrentMap<QueryParserSettings, Query> cache) {
         super(index, indexSettings);
         this.cache = cache;
@@ -50,6 +58,7 @@ public class AbstractJvmQueryParserCache extends AbstractIndexComponent implemen
     @Override
     public void clear() {
         cache.clear();
+        parsedQueries.clear();
     }
 
     @Override
@@ -61,4 +70,30 @@ public class AbstractJvmQueryParserCache extends AbstractIndexComponent implemen
     public void put(QueryParserSettings queryString, Query query) {
         cache.put(queryString, query);
     }
+
+    @Override
+    public ParsedQuery get(ParsedQueryKey key) {
+        ParsedQuery parsedQuery = parsedQueries.get(key);
+        if (parsedQuery == null) {
+            missCount.inc();
+        } else {
+            hitCount.inc();
+        }
+        return parsedQuery;
+    }
+
+    @Override
+    public void put(ParsedQueryKey key, ParsedQuery parsedQuery) {
+        parsedQueries.put(key.copy(), parsedQuery);
+    }
+
+    @Override
+    public long hitCount() {
+        return hitCount.count();
+    }
+
+    @Override
+    public long missCount() {
+        return missCount.count();
+    }
 }
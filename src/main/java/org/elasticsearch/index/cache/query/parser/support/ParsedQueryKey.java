@@ -0,0 +1,71 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.query.parser.support;
+
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
+
+import java.util.Arrays;
+
+/**
+ * The key of a parsed query, the query source, the types the query was parsed against and the version of
+ * the mappings it was parsed with, so queries parsed before a mapping change are not reused after it.
+ */
+public class ParsedQueryKey {
+
+    private final BytesReference source;
+    private final String[] types;
+    private final long mappingVersion;
+    private final int hashCode;
+
+    public ParsedQueryKey(BytesReference source, @Nullable String[] types, long mappingVersion) {
+        this.source = source;
+        this.types = types;
+        this.mappingVersion = mappingVersion;
+        int hashCode = BytesReference.Helper.bytesHashCode(source);
+        hashCode = 31 * hashCode + Arrays.hashCode(types);
+        hashCode = 31 * hashCode + (int) (mappingVersion ^ (mappingVersion >>> 32));
+        this.hashCode = hashCode;
+    }
+
+    /**
+     * A copy of this key that does not share the source bytes, so it can be kept around in a cache.
+     */
+    public ParsedQueryKey copy() {
+        return new ParsedQueryKey(source.copyBytesArray(), types == null ? null : types.clone(), mappingVersion);
+    }
+
+    public BytesReference source() {
+        return source;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ParsedQueryKey that = (ParsedQueryKey) o;
+        return hashCode == that.hashCode && mappingVersion == that.mappingVersion && Arrays.equals(types, that.types) && BytesReference.Helper.bytesEqual(source, that.source);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.source;
+
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.SegmentReader;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.component.CloseableComponent;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.AbstractIndexComponent;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.fieldvisitor.JustSourceFieldsVisitor;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.indices.cache.source.IndicesSourceCache;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the decompressed <tt>_source</tt> of documents, keyed by segment and doc id, so hot documents that are
+ * fetched, retrieved or accessed by scripts over and over again are not decompressed each time. Only compressed
+ * sources are cached, the entries are stored in the node level {@link IndicesSourceCache}.
+ */
+public class SourceCache extends AbstractIndexComponent implements CloseableComponent, SegmentReader.CoreClosedListener, RemovalListener<SourceCache.Key, BytesReference> {
+
+    private final IndicesSourceCache indicesSourceCache;
+
+    private final ConcurrentMap<Object, Boolean> seenReaders = ConcurrentCollections.newConcurrentMap();
+
+    private final CounterMetric hitCount = new CounterMetric();
+    private final CounterMetric missCount = new CounterMetric();
+    private final CounterMetric evictions = new CounterMetric();
+    private final CounterMetric sizeInBytes = new CounterMetric();
+
+    @Inject
+    public SourceCache(Index index, @IndexSettings Settings indexSettings, IndicesSourceCache indicesSourceCache) {
+        super(index, indexSettings);
+        this.indicesSourceCache = indicesSourceCache;
+    }
+
+    /**
+     * Returns the uncompressed source of the document, <tt>null</tt> if it has no source.
+     */
+    @Nullable
+    public BytesReference source(AtomicReader reader, int docId) throws IOException {
+        if (indicesSourceCache.enabled()) {
+            BytesReference cached = indicesSourceCache.cache().getIfPresent(new Key(this, reader.getCoreCacheKey(), docId));
+            if (cached != null) {
+                hitCount.inc();
+                return cached;
+            }
+        }
+        JustSourceFieldsVisitor sourceFieldVisitor = new JustSourceFieldsVisitor();
+        reader.document(docId, sourceFieldVisitor);
+        BytesReference source = sourceFieldVisitor.source();
+        if (source == null) {
+            return null;
+        }
+        return cacheUncompressed(reader, docId, source);
+    }
+
+    /**
+     * Returns the uncompressed version of the source loaded for the document, reusing a cached one if available.
+     */
+    public BytesReference uncompress(AtomicReader reader, int docId, BytesReference source) throws IOException {
+        if (!indicesSourceCache.enabled() || !CompressorFactory.isCompressed(source)) {
+            return CompressorFactory.uncompressIfNeeded(source);
+        }
+        BytesReference cached = indicesSourceCache.cache().getIfPresent(new Key(this, reader.getCoreCacheKey(), docId));
+        if (cached != null) {
+            hitCount.inc();
+            return cached;
+        }
+        return cacheUncompressed(reader, docId, source);
+    }
+
+    private BytesReference cacheUncompressed(AtomicReader reader, int docId, BytesReference source) throws IOException {
+        if (!indicesSourceCache.enabled() || !CompressorFactory.isCompressed(source)) {
+            return CompressorFactory.uncompressIfNeeded(source);
+        }
+        missCount.inc();
+        BytesReference uncompressed = CompressorFactory.uncompressIfNeeded(source);
+        Object readerKey = reader.getCoreCacheKey();
+        if (!seenReaders.containsKey(readerKey)) {
+            Boolean previous = seenReaders.putIfAbsent(readerKey, Boolean.TRUE);
+            if (previous == null && (reader instanceof SegmentReader)) {
+                ((SegmentReader) reader).addCoreClosedListener(this);
+            }
+        }
+        sizeInBytes.inc(sizeInBytes(uncompressed));
+        indicesSourceCache.cache().put(new Key(this, readerKey, docId), uncompressed);
+        return uncompressed;
+    }
+
+    public long hitCount() {
+        return hitCount.count();
+    }
+
+    public long missCount() {
+        return missCount.count();
+    }
+
+    public long evictions() {
+        return evictions.count();
+    }
+
+    public long sizeInBytes() {
+        return sizeInBytes.count();
+    }
+
+    @Override
+    public void onClose(SegmentReader owner) {
+        clear(owner);
+    }
+
+    public void clear(IndexReader reader) {
+        if (seenReaders.remove(reader.getCoreCacheKey()) != null) {
+            indicesSourceCache.addReaderKeyToClean(reader.getCoreCacheKey());
+        }
+    }
+
+    public void clear(String reason) {
+        logger.debug("full cache clear, reason [{}]", reason);
+        for (Object readerKey : seenReaders.keySet()) {
+            if (seenReaders.remove(readerKey) != null) {
+                indicesSourceCache.addReaderKeyToClean(readerKey);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws ElasticSearchException {
+        clear("close");
+    }
+
+    @Override
+    public void onRemoval(RemovalNotification<Key, BytesReference> removalNotification) {
+        if (removalNotification.wasEvicted()) {
+            evictions.inc();
+        }
+        if (removalNotification.getValue() != null) {
+            sizeInBytes.dec(sizeInBytes(removalNotification.getValue()));
+        }
+    }
+
+    public static int sizeInBytes(BytesReference source) {
+        // rough overhead of the key and the entry
+        return source.length() + 64;
+    }
+
+    public static class Key {
+        private final RemovalListener<Key, BytesReference> removalListener;
+        private final Object readerKey;
+        private final int docId;
+
+        public Key(RemovalListener<Key, BytesReference> removalListener, Object readerKey, int docId) {
+            this.removalListener = removalListener;
+            this.readerKey = readerKey;
+            this.docId = docId;
+        }
+
+        public RemovalListener<Key, BytesReference> removalListener() {
+            return removalListener;
+        }
+
+        public Object readerKey() {
+            return readerKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            Key that = (Key) o;
+            return docId == that.docId && readerKey.equals(that.readerKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return readerKey.hashCode() + 31 * docId;
+        }
+    }
+}
@@ -836,15 +836,21 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
         private final Translog.Source source;
         private final UidField.DocIdAndVersion docIdAndVersion;
         private final Searcher searcher;
+        private final boolean fromRecentWrites;
 
         public static final GetResult NOT_EXISTS = new GetResult(false, -1, null);
 
         public GetResult(boolean exists, long version, @Nullable Translog.Source source) {
+            this(exists, version, source, false);
+        }
+
+        public GetResult(boolean exists, long version, @Nullable Translog.Source source, boolean fromRecentWrites) {
             this.source = source;
             this.exists = exists;
             this.version = version;
             this.docIdAndVersion = null;
             this.searcher = null;
+            this.fromRecentWrites = fromRecentWrites;
         }
 
         public GetResult(Searcher searcher, UidField.DocIdAndVersion docIdAndVersion) {
@@ -853,6 +859,7 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
             this.version = docIdAndVersion.version;
             this.docIdAndVersion = docIdAndVersion;
             this.searcher = searcher;
+            this.fromRecentWrites = false;
         }
 
         public boolean exists() {
@@ -872,6 +879,14 @@ public interface Engine extends IndexShardComponent, CloseableComponent {
             return this.searcher;
         }
 
+        /**
+         * Returns <tt>true</tt> if the realtime source was served from the engine recent writes buffer
+         * and not read back from the translog.
+         */
+        public boolean fromRecentWrites() {
+            return this.fromRecentWrites;
+        }
+
         public UidField.DocIdAndVersion docIdAndVersion() {
             return docIdAndVersion;
         }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine.robin;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A bounded ring buffer, allocated outside of the heap, holding the <tt>_source</tt> of recently indexed documents
+ * so realtime gets can be served without reading the operation back from the translog.
+ * <p/>
+ * Each added source is identified by its absolute position in the stream of bytes written to the buffer. Older
+ * entries are silently overwritten once the buffer wraps around, in which case {@link #read(long, int)} returns
+ * <tt>null</tt> and the caller should fall back to the translog.
+ */
+public class RecentWritesBuffer {
+
+    private final int capacity;
+
+    private final int maxEntrySize;
+
+    private ByteBuffer buffer;
+
+    // the total number of bytes ever written (including skipped bytes at the end of the buffer when wrapping)
+    private long head;
+
+    public RecentWritesBuffer(int capacity) {
+        this.capacity = capacity;
+        // don't let a single big document evict everything else
+        this.maxEntrySize = capacity / 4;
+    }
+
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Adds the bytes to the buffer, returning their position, or <tt>-1</tt> if they are too big to be buffered.
+     */
+    public synchronized long add(BytesReference bytes) {
+        int length = bytes.length();
+        if (length > maxEntrySize) {
+            return -1;
+        }
+        if (buffer == null) {
+            // lazily allocated, so shards that are not indexed into don't pay for it
+            buffer = ByteBuffer.allocateDirect(capacity);
+        }
+        int offset = (int) (head % capacity);
+        if (offset + length > capacity) {
+            // entries are always contiguous, skip the tail of the buffer
+            head += capacity - offset;
+            offset = 0;
+        }
+        ByteBuffer dup = buffer.duplicate();
+        dup.position(offset);
+        if (bytes.hasArray()) {
+            dup.put(bytes.array(), bytes.arrayOffset(), length);
+        } else {
+            dup.put(bytes.toBytes());
+        }
+        long position = head;
+        head += length;
+        return position;
+    }
+
+    /**
+     * Reads back the bytes added at the given position, or <tt>null</tt> if they have since been overwritten.
+     */
+    public synchronized BytesArray read(long position, int length) {
+        if (buffer == null || position < head - capacity) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        ByteBuffer dup = buffer.duplicate();
+        dup.position((int) (position % capacity));
+        dup.get(data);
+        return new BytesArray(data);
+    }
+
+    /**
+     * Drops all the entries. The buffer is kept, and reused for the entries added next.
+     */
+    public synchronized void clear() {
+        // move the head forward so any position handed out before is considered overwritten
+        head += capacity;
+    }
+}
@@ -32,6 +32,7 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.routing.operation.hash.djb.DjbHashFunction;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Preconditions;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.Lucene;
@@ -134,6 +135,10 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
 
     private final ConcurrentMap<String, VersionValue> versionMap;
 
+    // holds the source of documents in the version map, so realtime gets don't need to go to the translog
+    @Nullable
+    private final RecentWritesBuffer recentWritesBuffer;
+
     private final Object[] dirtyLocks;
 
     private final Object refreshMutex = new Object();
@@ -180,6 +185,12 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
 
         this.indexConcurrency = indexSettings.getAsInt("index.index_concurrency", IndexWriterConfig.DEFAULT_MAX_THREAD_STATES);
         this.versionMap = ConcurrentCollections.newConcurrentMap();
+        ByteSizeValue recentWritesBufferSize = componentSettings.getAsBytesSize("realtime_get_buffer_size", new ByteSizeValue(1, ByteSizeUnit.MB));
+        if (recentWritesBufferSize.bytes() > 0) {
+            this.recentWritesBuffer = new RecentWritesBuffer((int) Math.min(Integer.MAX_VALUE, recentWritesBufferSize.bytes()));
+        } else {
+            this.recentWritesBuffer = null;
+        }
         this.dirtyLocks = new Object[indexConcurrency * 50]; // we multiply it to have enough...
         for (int i = 0; i < dirtyLocks.length; i++) {
             dirtyLocks[i] = new Object();
@@ -308,6 +319,13 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                     if (!get.loadSource()) {
                         return new GetResult(true, versionValue.version(), null);
                     }
+                    RecentWrite recentWrite = versionValue.recentWrite();
+                    if (recentWrite != null) {
+                        BytesReference bytes = recentWritesBuffer.read(recentWrite.position, recentWrite.length);
+                        if (bytes != null) {
+                            return new GetResult(true, versionValue.version(), new Translog.Source(bytes, recentWrite.routing, recentWrite.parent, recentWrite.timestamp, recentWrite.ttl), true);
+                        }
+                    }
                     byte[] data = translog.read(versionValue.translogLocation());
                     if (data != null) {
                         try {
@@ -459,8 +477,9 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                 writer.addDocument(create.docs().get(0), create.analyzer());
             }
             Translog.Location translogLocation = translog.add(new Translog.Create(create));
+            RecentWrite recentWrite = addRecentWrite(create.source(), create.routing(), create.parent(), create.timestamp(), create.ttl());
 
-            versionMap.put(create.uid().text(), new VersionValue(updatedVersion, false, threadPool.estimatedTimeInMillis(), translogLocation));
+            versionMap.put(create.uid().text(), new VersionValue(updatedVersion, false, threadPool.estimatedTimeInMillis(), translogLocation, recentWrite));
 
             indexingService.postCreateUnderLock(create);
         }
@@ -573,13 +592,36 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                 }
             }
             Translog.Location translogLocation = translog.add(new Translog.Index(index));
+            RecentWrite recentWrite = addRecentWrite(index.source(), index.routing(), index.parent(), index.timestamp(), index.ttl());
 
-            versionMap.put(index.uid().text(), new VersionValue(updatedVersion, false, threadPool.estimatedTimeInMillis(), translogLocation));
+            versionMap.put(index.uid().text(), new VersionValue(updatedVersion, false, threadPool.estimatedTimeInMillis(), translogLocation, recentWrite));
 
             indexingService.postIndexUnderLock(index);
         }
     }
 
+    /**
+     * Recent writes are only served while the translog they were written along with is current, once it got
+     * replaced the version map falls back to the index, as it does for translog locations.
+     */
+    private void clearRecentWrites() {
+        if (recentWritesBuffer != null) {
+            recentWritesBuffer.clear();
+        }
+    }
+
+    @Nullable
+    private RecentWrite addRecentWrite(BytesReference source, String routing, String parent, long timestamp, long ttl) {
+        if (recentWritesBuffer == null) {
+            return null;
+        }
+        long position = recentWritesBuffer.add(source);
+        if (position == -1) {
+            return null;
+        }
+        return new RecentWrite(position, source.length(), routing, parent, timestamp, ttl);
+    }
+
     @Override
     public void delete(Delete delete) throws EngineException {
         rwl.readLock().lock();
@@ -827,6 +869,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                             indexWriter.setCommitData(MapBuilder.<String, String>newMapBuilder().put(Translog.TRANSLOG_ID_KEY, Long.toString(translogId)).map());
                             indexWriter.commit();
                             translog.newTranslog(translogId);
+                            clearRecentWrites();
                         }
 
                         SearcherManager current = this.searcherManager;
@@ -871,6 +914,7 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
                             // so items added to current will still be around for realtime get
                             // when tans overrides it
                             translog.makeTransientCurrent();
+                            clearRecentWrites();
                         } catch (OutOfMemoryError e) {
                             translog.revertTransient();
                             failEngine(e);
@@ -1247,6 +1291,9 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
         indexSettingsService.removeListener(applySettings);
         closed = true;
         this.versionMap.clear();
+        if (recentWritesBuffer != null) {
+            recentWritesBuffer.clear();
+        }
         this.failedEngineListeners.clear();
         try {
             if (searcherManager != null) {
@@ -1429,12 +1476,18 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
         private final boolean delete;
         private final long time;
         private final Translog.Location translogLocation;
+        private final RecentWrite recentWrite;
 
         VersionValue(long version, boolean delete, long time, Translog.Location translogLocation) {
+            this(version, delete, time, translogLocation, null);
+        }
+
+        VersionValue(long version, boolean delete, long time, Translog.Location translogLocation, @Nullable RecentWrite recentWrite) {
             this.version = version;
             this.delete = delete;
             this.time = time;
             this.translogLocation = translogLocation;
+            this.recentWrite = recentWrite;
         }
 
         public long time() {
@@ -1452,6 +1505,32 @@ public class RobinEngine extends AbstractIndexShardComponent implements Engine {
         public Translog.Location translogLocation() {
             return this.translogLocation;
         }
+
+        @Nullable
+        public RecentWrite recentWrite() {
+            return this.recentWrite;
+        }
+    }
+
+    /**
+     * The location of a document source in the {@link RecentWritesBuffer}, along with the rest of its translog source.
+     */
+    static class RecentWrite {
+        final long position;
+        final int length;
+        final String routing;
+        final String parent;
+        final long timestamp;
+        final long ttl;
+
+        RecentWrite(long position, int length, String routing, String parent, long timestamp, long ttl) {
+            this.position = position;
+            this.length = length;
+            this.routing = routing;
+            this.parent = parent;
+            this.timestamp = timestamp;
+            this.ttl = ttl;
+        }
     }
 
     class RobinSearchFactory extends SearcherFactory {
@@ -25,4 +25,15 @@ public interface AtomicGeoPointFieldData<Script extends ScriptDocValues> extends
 
     GeoPointValues getGeoPointValues();
 
+    /**
+     * A grid over the points of this segment, built on first use, see {@link GeoPointCellIndex}.
+     */
+    GeoPointCellIndex getCellIndex();
+
+    /**
+     * The memory used by the cell index, <tt>0</tt> until it is built. It is included in
+     * {@link #getMemorySizeInBytes()} once the cell index is built.
+     */
+    long getCellIndexMemorySizeInBytes();
+
 }
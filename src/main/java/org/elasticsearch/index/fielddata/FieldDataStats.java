@@ -35,16 +35,24 @@ public class FieldDataStats implements Streamable, ToXContent {
 
     long memorySize;
 
+    long memorySaved;
+
     public FieldDataStats() {
 
     }
 
     public FieldDataStats(long memorySize) {
+        this(memorySize, 0);
+    }
+
+    public FieldDataStats(long memorySize, long memorySaved) {
         this.memorySize = memorySize;
+        this.memorySaved = memorySaved;
     }
 
     public void add(FieldDataStats stats) {
         this.memorySize += stats.memorySize;
+        this.memorySaved += stats.memorySaved;
     }
 
     public long getMemorySizeInBytes() {
@@ -55,6 +63,18 @@ public class FieldDataStats implements Streamable, ToXContent {
         return new ByteSizeValue(memorySize);
     }
 
+    /**
+     * The memory saved by the field data loaded with the <tt>packed</tt> format, compared to loading the same
+     * values with the <tt>array</tt> format.
+     */
+    public long getMemorySavedInBytes() {
+        return this.memorySaved;
+    }
+
+    public ByteSizeValue getMemorySaved() {
+        return new ByteSizeValue(memorySaved);
+    }
+
     public static FieldDataStats readFieldDataStats(StreamInput in) throws IOException {
         FieldDataStats stats = new FieldDataStats();
         stats.readFrom(in);
@@ -64,11 +84,13 @@ public class FieldDataStats implements Streamable, ToXContent {
     @Override
     public void readFrom(StreamInput in) throws IOException {
         memorySize = in.readVLong();
+        memorySaved = in.readVLong();
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(memorySize);
+        out.writeVLong(memorySaved);
     }
 
     @Override
@@ -76,6 +98,8 @@ public class FieldDataStats implements Streamable, ToXContent {
         builder.startObject(Fields.FIELD_DATA);
         builder.field(Fields.MEMORY_SIZE, memorySize);
         builder.field(Fields.MEMORY_SIZE_IN_BYTES, getMemorySize().toString());
+        builder.field(Fields.MEMORY_SAVED, getMemorySaved().toString());
+        builder.field(Fields.MEMORY_SAVED_IN_BYTES, memorySaved);
         builder.endObject();
         return builder;
     }
@@ -84,5 +108,7 @@ public class FieldDataStats implements Streamable, ToXContent {
         static final XContentBuilderString FIELD_DATA = new XContentBuilderString("field_data");
         static final XContentBuilderString MEMORY_SIZE = new XContentBuilderString("memory_size");
         static final XContentBuilderString MEMORY_SIZE_IN_BYTES = new XContentBuilderString("memory_size_in_bytes");
+        static final XContentBuilderString MEMORY_SAVED = new XContentBuilderString("memory_saved");
+        static final XContentBuilderString MEMORY_SAVED_IN_BYTES = new XContentBuilderString("memory_saved_in_bytes");
     }
 }
@@ -50,6 +50,22 @@ public class FieldDataType {
         return this.settings;
     }
 
+    /**
+     * Returns <tt>true</tt> if the values are written as Lucene doc values at index time (format <tt>doc_values</tt>),
+     * in which case they are read from disk instead of un-inverting the terms.
+     */
+    public boolean hasDocValues() {
+        return "doc_values".equals(settings.get("format"));
+    }
+
+    /**
+     * Returns <tt>true</tt> if field data should be loaded for new segments while warming up, before they are
+     * exposed to searches (<tt>loading</tt> set to <tt>eager</tt>), instead of by the first search using it.
+     */
+    public boolean isEagerlyLoaded() {
+        return "eager".equals(settings.get("loading"));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,208 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata;
+
+import org.elasticsearch.common.RamUsage;
+
+/**
+ * A per segment grid over the points of a geo_point field. The grid has <tt>2^latBits</tt> rows and
+ * <tt>2^(latBits + 1)</tt> columns, so each cell lines up with a geohash cell of <tt>2 * latBits + 1</tt>
+ * bits. For each cell, the docs that have at least one point in it are stored sorted by doc id, which
+ * allows geo filters to only visit the cells that overlap with their shape.
+ */
+public class GeoPointCellIndex {
+
+    public static final GeoPointCellIndex EMPTY = new GeoPointCellIndex(0, new int[]{0, 0, 0}, new int[0]);
+
+    /**
+     * The average number of points per cell the grid resolution is picked for.
+     */
+    static final int POINTS_PER_CELL = 16;
+
+    static final int MAX_LAT_BITS = 10;
+
+    private final int latBits;
+    private final int latCells;
+    private final int lonCells;
+    private final double cellHeight;
+    private final double cellWidth;
+
+    // cell i holds the docs docs[cellStarts[i]] to docs[cellStarts[i + 1] - 1]
+    private final int[] cellStarts;
+    private final int[] docs;
+
+    GeoPointCellIndex(int latBits, int[] cellStarts, int[] docs) {
+        this.latBits = latBits;
+        this.latCells = 1 << latBits;
+        this.lonCells = 1 << (latBits + 1);
+        this.cellHeight = 180.0 / latCells;
+        this.cellWidth = 360.0 / lonCells;
+        this.cellStarts = cellStarts;
+        this.docs = docs;
+    }
+
+    /**
+     * Builds the cell index for the provided values, with a resolution based on the number of docs.
+     */
+    public static GeoPointCellIndex build(GeoPointValues values, int numDocs) {
+        int latBits = 0;
+        while (latBits < MAX_LAT_BITS && (1l << (2 * (latBits + 1) + 1)) * POINTS_PER_CELL <= numDocs) {
+            latBits++;
+        }
+        final int latCells = 1 << latBits;
+        final int lonCells = 1 << (latBits + 1);
+        final int numCells = latCells * lonCells;
+
+        // first pass, count the docs per cell, a doc with several points in the same cell is counted once
+        final int[] cellStarts = new int[numCells + 1];
+        final int[] lastDoc = new int[numCells];
+        for (int i = 0; i < lastDoc.length; i++) {
+            lastDoc[i] = -1;
+        }
+        GeoPointValues.LatLonValueInDocProc counter = new GeoPointValues.LatLonValueInDocProc() {
+            @Override
+            public void onValue(int docId, double lat, double lon) {
+                int cell = cell(lat, lon, latCells, lonCells);
+                if (lastDoc[cell] != docId) {
+                    lastDoc[cell] = docId;
+                    cellStarts[cell + 1]++;
+                }
+            }
+
+            @Override
+            public void onMissing(int docId) {
+            }
+        };
+        for (int docId = 0; docId < numDocs; docId++) {
+            values.forEachLatLonValueInDoc(docId, counter);
+        }
+        for (int i = 0; i < numCells; i++) {
+            cellStarts[i + 1] += cellStarts[i];
+            lastDoc[i] = -1;
+        }
+
+        // second pass, fill in the docs, they end up sorted within each cell since we go over them in order
+        final int[] docs = new int[cellStarts[numCells]];
+        final int[] upto = new int[numCells];
+        System.arraycopy(cellStarts, 0, upto, 0, numCells);
+        GeoPointValues.LatLonValueInDocProc filler = new GeoPointValues.LatLonValueInDocProc() {
+            @Override
+            public void onValue(int docId, double lat, double lon) {
+                int cell = cell(lat, lon, latCells, lonCells);
+                if (lastDoc[cell] != docId) {
+                    lastDoc[cell] = docId;
+                    docs[upto[cell]++] = docId;
+                }
+            }
+
+            @Override
+            public void onMissing(int docId) {
+            }
+        };
+        for (int docId = 0; docId < numDocs; docId++) {
+            values.forEachLatLonValueInDoc(docId, filler);
+        }
+        return new GeoPointCellIndex(latBits, cellStarts, docs);
+    }
+
+    private static int cell(double lat, double lon, int latCells, int lonCells) {
+        return row(lat, latCells) * lonCells + column(lon, lonCells);
+    }
+
+    private static int row(double lat, int latCells) {
+        int row = (int) ((lat + 90.0) * latCells / 180.0);
+        return row < 0 ? 0 : (row >= latCells ? latCells - 1 : row);
+    }
+
+    private static int column(double lon, int lonCells) {
+        int column = (int) ((lon + 180.0) * lonCells / 360.0);
+        return column < 0 ? 0 : (column >= lonCells ? lonCells - 1 : column);
+    }
+
+    public int latBits() {
+        return latBits;
+    }
+
+    public int latCells() {
+        return latCells;
+    }
+
+    public int lonCells() {
+        return lonCells;
+    }
+
+    /**
+     * The row of the cells containing the provided latitude.
+     */
+    public int row(double lat) {
+        return row(lat, latCells);
+    }
+
+    /**
+     * The column of the cells containing the provided longitude.
+     */
+    public int column(double lon) {
+        return column(lon, lonCells);
+    }
+
+    public double minLat(int row) {
+        return -90.0 + row * cellHeight;
+    }
+
+    public double maxLat(int row) {
+        return row == latCells - 1 ? 90.0 : -90.0 + (row + 1) * cellHeight;
+    }
+
+    public double minLon(int column) {
+        return -180.0 + column * cellWidth;
+    }
+
+    public double maxLon(int column) {
+        return column == lonCells - 1 ? 180.0 : -180.0 + (column + 1) * cellWidth;
+    }
+
+    public int cell(int row, int column) {
+        return row * lonCells + column;
+    }
+
+    /**
+     * The index of the first doc of the cell, see {@link #doc(int)}.
+     */
+    public int cellStart(int cell) {
+        return cellStarts[cell];
+    }
+
+    /**
+     * The index after the last doc of the cell, see {@link #doc(int)}.
+     */
+    public int cellEnd(int cell) {
+        return cellStarts[cell + 1];
+    }
+
+    public int doc(int index) {
+        return docs[index];
+    }
+
+    public long getMemorySizeInBytes() {
+        return RamUsage.NUM_BYTES_INT * 3 + RamUsage.NUM_BYTES_DOUBLE * 2 +
+                (RamUsage.NUM_BYTES_ARRAY_HEADER + (cellStarts.length * RamUsage.NUM_BYTES_INT)) +
+                (RamUsage.NUM_BYTES_ARRAY_HEADER + (docs.length * RamUsage.NUM_BYTES_INT));
+    }
+}
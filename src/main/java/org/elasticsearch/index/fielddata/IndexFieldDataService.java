@@ -66,7 +66,19 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Ind
                 .put(Tuple.tuple("short", "array"), new ShortArrayIndexFieldData.Builder())
                 .put(Tuple.tuple("int", "array"), new IntArrayIndexFieldData.Builder())
                 .put(Tuple.tuple("long", "array"), new LongArrayIndexFieldData.Builder())
+                .put(Tuple.tuple("byte", "packed"), new PackedArrayIndexFieldData.Builder())
+                .put(Tuple.tuple("short", "packed"), new PackedArrayIndexFieldData.Builder())
+                .put(Tuple.tuple("int", "packed"), new PackedArrayIndexFieldData.Builder())
+                .put(Tuple.tuple("long", "packed"), new PackedArrayIndexFieldData.Builder())
                 .put(Tuple.tuple("geo_point", "array"), new GeoPointDoubleArrayIndexFieldData.Builder())
+                .put(Tuple.tuple("geo_point", "compressed"), new GeoPointCompressedIndexFieldData.Builder())
+                .put(Tuple.tuple("string", "doc_values"), new DocValuesBytesIndexFieldData.Builder())
+                .put(Tuple.tuple("float", "doc_values"), new DocValuesNumericIndexFieldData.Builder())
+                .put(Tuple.tuple("double", "doc_values"), new DocValuesNumericIndexFieldData.Builder())
+                .put(Tuple.tuple("byte", "doc_values"), new DocValuesNumericIndexFieldData.Builder())
+                .put(Tuple.tuple("short", "doc_values"), new DocValuesNumericIndexFieldData.Builder())
+                .put(Tuple.tuple("int", "doc_values"), new DocValuesNumericIndexFieldData.Builder())
+                .put(Tuple.tuple("long", "doc_values"), new DocValuesNumericIndexFieldData.Builder())
                 .immutableMap();
     }
 
@@ -74,6 +86,8 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Ind
 
     private final CounterMetric memoryUsedInBytes = new CounterMetric();
 
+    private final CounterMetric memorySavedInBytes = new CounterMetric();
+
     public IndexFieldDataService(Index index) {
         this(index, ImmutableSettings.Builder.EMPTY_SETTINGS);
     }
@@ -111,18 +125,29 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Ind
     public void onLoad(Index index, FieldMapper.Names fieldNames, FieldDataType fieldDataType, AtomicFieldData fieldData) {
         assert index.equals(this.index);
         memoryUsedInBytes.inc(fieldData.getMemorySizeInBytes());
+        if (fieldData instanceof PackedArrayAtomicFieldData) {
+            memorySavedInBytes.inc(((PackedArrayAtomicFieldData) fieldData).getMemorySavedInBytes());
+        }
     }
 
     @Override
     public void onUnload(Index index, FieldMapper.Names fieldNames, FieldDataType fieldDataType, @Nullable AtomicFieldData fieldData) {
         assert index.equals(this.index);
         if (fieldData != null) {
-            memoryUsedInBytes.dec(fieldData.getMemorySizeInBytes());
+            long memorySizeInBytes = fieldData.getMemorySizeInBytes();
+            if (fieldData instanceof AtomicGeoPointFieldData) {
+                // the cell index is built lazily after the load, so it was not accounted for in onLoad
+                memorySizeInBytes -= ((AtomicGeoPointFieldData) fieldData).getCellIndexMemorySizeInBytes();
+            }
+            memoryUsedInBytes.dec(memorySizeInBytes);
+            if (fieldData instanceof PackedArrayAtomicFieldData) {
+                memorySavedInBytes.dec(((PackedArrayAtomicFieldData) fieldData).getMemorySavedInBytes());
+            }
         }
     }
 
     public FieldDataStats stats() {
-        return new FieldDataStats(memoryUsedInBytes.count());
+        return new FieldDataStats(memoryUsedInBytes.count(), memorySavedInBytes.count());
     }
 
     public <IFD extends IndexFieldData> IFD getForField(FieldMapper mapper) {
@@ -0,0 +1,398 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.plain;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchIllegalStateException;
+import org.elasticsearch.index.fielddata.AtomicFieldData;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.fielddata.ordinals.Ordinals;
+import org.elasticsearch.index.fielddata.util.BytesRefArrayRef;
+import org.elasticsearch.index.fielddata.util.IntArrayRef;
+import org.elasticsearch.index.fielddata.util.StringArrayRef;
+
+import java.io.IOException;
+
+/**
+ * String atomic field data backed by the sorted bytes doc values of a segment. The doc values ords are
+ * exposed (shifted by one, 0 meaning no value) as the field data ordinals, so ordinal based sorting and
+ * faceting work directly on top of the disk resident source.
+ * <p/>
+ * Docs without a value get the empty bytes default, which always sorts first. When present, that first
+ * value becomes the missing ordinal instead of being shifted, so empty strings read as missing.
+ */
+public class DocValuesBytesAtomicFieldData implements AtomicFieldData.WithOrdinals<ScriptDocValues.Strings> {
+
+    private final DocValues docValues;
+    private final int numDocs;
+
+    public DocValuesBytesAtomicFieldData(DocValues docValues, int numDocs) {
+        this.docValues = docValues;
+        this.numDocs = numDocs;
+    }
+
+    @Override
+    public boolean isMultiValued() {
+        return false;
+    }
+
+    @Override
+    public boolean isValuesOrdered() {
+        return true;
+    }
+
+    @Override
+    public int getNumDocs() {
+        return numDocs;
+    }
+
+    @Override
+    public long getMemorySizeInBytes() {
+        return 0;
+    }
+
+    @Override
+    public BytesValues getBytesValues() {
+        SortedSourceOrdinals ordinals = new SortedSourceOrdinals(sortedSource(), numDocs);
+        return new BytesValues(ordinals.source, ordinals.offset, ordinals.ordinals());
+    }
+
+    @Override
+    public org.elasticsearch.index.fielddata.HashedBytesValues.WithOrdinals getHashedBytesValues() {
+        return new org.elasticsearch.index.fielddata.HashedBytesValues.WithOrdinals.BytesBased(getBytesValues());
+    }
+
+    @Override
+    public StringValues getStringValues() {
+        SortedSourceOrdinals ordinals = new SortedSourceOrdinals(sortedSource(), numDocs);
+        return new StringValues(ordinals.source, ordinals.offset, ordinals.ordinals());
+    }
+
+    @Override
+    public ScriptDocValues.Strings getScriptValues() {
+        return new ScriptDocValues.Strings(getStringValues());
+    }
+
+    /**
+     * Direct sources are not thread safe, so each values instance gets its own.
+     */
+    private DocValues.SortedSource sortedSource() {
+        DocValues.Source source;
+        try {
+            source = docValues.getDirectSource();
+        } catch (IOException e) {
+            throw new ElasticSearchException("failed to open doc values source", e);
+        }
+        DocValues.SortedSource sortedSource = source.asSortedSource();
+        if (sortedSource == null) {
+            throw new ElasticSearchIllegalStateException("doc values of type [" + docValues.getType() + "] are not sorted");
+        }
+        return sortedSource;
+    }
+
+    static class SortedSourceOrdinals implements Ordinals {
+
+        private final DocValues.SortedSource source;
+        private final int numDocs;
+        // added to the source ords to get the ordinals, 0 when the first source value is the empty default
+        private final int offset;
+        private final int numOrds;
+
+        SortedSourceOrdinals(DocValues.SortedSource source, int numDocs) {
+            this.source = source;
+            this.numDocs = numDocs;
+            int valueCount = source.getValueCount();
+            if (valueCount > 0 && source.getByOrd(0, new BytesRef()).length == 0) {
+                this.offset = 0;
+                this.numOrds = valueCount - 1;
+            } else {
+                this.offset = 1;
+                this.numOrds = valueCount;
+            }
+        }
+
+        @Override
+        public boolean hasSingleArrayBackingStorage() {
+            return false;
+        }
+
+        @Override
+        public Object getBackingStorage() {
+            return source;
+        }
+
+        @Override
+        public long getMemorySizeInBytes() {
+            return 0;
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public int getNumDocs() {
+            return numDocs;
+        }
+
+        @Override
+        public int getNumOrds() {
+            return numOrds;
+        }
+
+        @Override
+        public int getMaxOrd() {
+            return numOrds + 1;
+        }
+
+        @Override
+        public Docs ordinals() {
+            return new Docs(this);
+        }
+
+        static class Docs implements Ordinals.Docs {
+
+            private final SortedSourceOrdinals parent;
+            private final DocValues.SortedSource source;
+            private final int offset;
+
+            private final IntArrayRef intsScratch = new IntArrayRef(new int[1]);
+            private final SingleValueIter iter = new SingleValueIter();
+
+            Docs(SortedSourceOrdinals parent) {
+                this.parent = parent;
+                this.source = parent.source;
+                this.offset = parent.offset;
+            }
+
+            @Override
+            public Ordinals ordinals() {
+                return parent;
+            }
+
+            @Override
+            public int getNumDocs() {
+                return parent.getNumDocs();
+            }
+
+            @Override
+            public int getNumOrds() {
+                return parent.getNumOrds();
+            }
+
+            @Override
+            public int getMaxOrd() {
+                return parent.getMaxOrd();
+            }
+
+            @Override
+            public boolean isMultiValued() {
+                return false;
+            }
+
+            @Override
+            public int getOrd(int docId) {
+                return source.ord(docId) + offset;
+            }
+
+            @Override
+            public IntArrayRef getOrds(int docId) {
+                int ordinal = getOrd(docId);
+                if (ordinal == 0) return IntArrayRef.EMPTY;
+                intsScratch.values[0] = ordinal;
+                return intsScratch;
+            }
+
+            @Override
+            public Iter getIter(int docId) {
+                return iter.reset(getOrd(docId));
+            }
+
+            @Override
+            public void forEachOrdinalInDoc(int docId, OrdinalInDocProc proc) {
+                proc.onOrdinal(docId, getOrd(docId));
+            }
+        }
+    }
+
+    static class BytesValues implements org.elasticsearch.index.fielddata.BytesValues.WithOrdinals {
+
+        private final DocValues.SortedSource source;
+        private final int offset;
+        private final Ordinals.Docs ordinals;
+
+        private final BytesRef scratch = new BytesRef();
+        private final BytesRefArrayRef arrayScratch = new BytesRefArrayRef(new BytesRef[1], 1);
+        private final Iter.Single iter = new Iter.Single();
+
+        BytesValues(DocValues.SortedSource source, int offset, Ordinals.Docs ordinals) {
+            this.source = source;
+            this.offset = offset;
+            this.ordinals = ordinals;
+        }
+
+        @Override
+        public Ordinals.Docs ordinals() {
+            return ordinals;
+        }
+
+        @Override
+        public BytesRef getValueByOrd(int ord) {
+            if (ord == 0) return null;
+            return source.getByOrd(ord - offset, scratch);
+        }
+
+        @Override
+        public BytesRef getValueScratchByOrd(int ord, BytesRef ret) {
+            if (ord == 0) {
+                ret.length = 0;
+                return ret;
+            }
+            return source.getByOrd(ord - offset, ret);
+        }
+
+        @Override
+        public BytesRef getSafeValueByOrd(int ord) {
+            if (ord == 0) return null;
+            return source.getByOrd(ord - offset, new BytesRef());
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public boolean hasValue(int docId) {
+            return ordinals.getOrd(docId) != 0;
+        }
+
+        @Override
+        public BytesRef makeSafe(BytesRef bytes) {
+            return BytesRef.deepCopyOf(bytes);
+        }
+
+        @Override
+        public BytesRef getValue(int docId) {
+            return getValueByOrd(ordinals.getOrd(docId));
+        }
+
+        @Override
+        public BytesRef getValueScratch(int docId, BytesRef ret) {
+            return getValueScratchByOrd(ordinals.getOrd(docId), ret);
+        }
+
+        @Override
+        public BytesRefArrayRef getValues(int docId) {
+            int ord = ordinals.getOrd(docId);
+            if (ord == 0) return BytesRefArrayRef.EMPTY;
+            arrayScratch.values[0] = source.getByOrd(ord - offset, new BytesRef());
+            return arrayScratch;
+        }
+
+        @Override
+        public Iter getIter(int docId) {
+            int ord = ordinals.getOrd(docId);
+            if (ord == 0) return Iter.Empty.INSTANCE;
+            return iter.reset(source.getByOrd(ord - offset, scratch));
+        }
+
+        @Override
+        public void forEachValueInDoc(int docId, ValueInDocProc proc) {
+            int ord = ordinals.getOrd(docId);
+            if (ord == 0) {
+                proc.onMissing(docId);
+            } else {
+                proc.onValue(docId, source.getByOrd(ord - offset, scratch));
+            }
+        }
+    }
+
+    static class StringValues implements org.elasticsearch.index.fielddata.StringValues.WithOrdinals {
+
+        private final DocValues.SortedSource source;
+        private final int offset;
+        private final Ordinals.Docs ordinals;
+
+        private final BytesRef scratch = new BytesRef();
+        private final StringArrayRef arrayScratch = new StringArrayRef(new String[1], 1);
+        private final Iter.Single iter = new Iter.Single();
+
+        StringValues(DocValues.SortedSource source, int offset, Ordinals.Docs ordinals) {
+            this.source = source;
+            this.offset = offset;
+            this.ordinals = ordinals;
+        }
+
+        @Override
+        public Ordinals.Docs ordinals() {
+            return ordinals;
+        }
+
+        @Override
+        public String getValueByOrd(int ord) {
+            if (ord == 0) return null;
+            return source.getByOrd(ord - offset, scratch).utf8ToString();
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public boolean hasValue(int docId) {
+            return ordinals.getOrd(docId) != 0;
+        }
+
+        @Override
+        public String getValue(int docId) {
+            return getValueByOrd(ordinals.getOrd(docId));
+        }
+
+        @Override
+        public StringArrayRef getValues(int docId) {
+            int ord = ordinals.getOrd(docId);
+            if (ord == 0) return StringArrayRef.EMPTY;
+            arrayScratch.values[0] = getValueByOrd(ord);
+            return arrayScratch;
+        }
+
+        @Override
+        public Iter getIter(int docId) {
+            int ord = ordinals.getOrd(docId);
+            if (ord == 0) return Iter.Empty.INSTANCE;
+            return iter.reset(getValueByOrd(ord));
+        }
+
+        @Override
+        public void forEachValueInDoc(int docId, ValueInDocProc proc) {
+            int ord = ordinals.getOrd(docId);
+            if (ord == 0) {
+                proc.onMissing(docId);
+            } else {
+                proc.onValue(docId, getValueByOrd(ord));
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.plain;
+
+import org.apache.lucene.index.DocValues;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.fielddata.AtomicNumericFieldData;
+import org.elasticsearch.index.fielddata.BytesValues;
+import org.elasticsearch.index.fielddata.HashedBytesValues;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.fielddata.StringValues;
+import org.elasticsearch.index.fielddata.util.DoubleArrayRef;
+import org.elasticsearch.index.fielddata.util.LongArrayRef;
+
+import java.io.IOException;
+
+/**
+ * Numeric atomic field data backed by the Lucene doc values of a segment. Values are read through the
+ * direct (disk resident) source, so nothing is held on heap. Docs without a value are told apart using the
+ * marker doc values written next to the values.
+ */
+public class DocValuesNumericAtomicFieldData implements AtomicNumericFieldData {
+
+    private final DocValues docValues;
+    private final boolean floatingPoint;
+    private final int numDocs;
+    // null when all docs have a value
+    private final DocValues marker;
+
+    public DocValuesNumericAtomicFieldData(DocValues docValues, boolean floatingPoint, int numDocs, @Nullable DocValues marker) {
+        this.docValues = docValues;
+        this.floatingPoint = floatingPoint;
+        this.numDocs = numDocs;
+        this.marker = marker;
+    }
+
+    @Override
+    public boolean isMultiValued() {
+        return false;
+    }
+
+    @Override
+    public boolean isValuesOrdered() {
+        return false;
+    }
+
+    @Override
+    public int getNumDocs() {
+        return numDocs;
+    }
+
+    @Override
+    public long getMemorySizeInBytes() {
+        return 0;
+    }
+
+    @Override
+    public BytesValues getBytesValues() {
+        return new BytesValues.StringBased(getStringValues());
+    }
+
+    @Override
+    public HashedBytesValues getHashedBytesValues() {
+        return new HashedBytesValues.StringBased(getStringValues());
+    }
+
+    @Override
+    public StringValues getStringValues() {
+        if (floatingPoint) {
+            return new StringValues.DoubleBased(getDoubleValues());
+        }
+        return new StringValues.LongBased(getLongValues());
+    }
+
+    @Override
+    public ScriptDocValues getScriptValues() {
+        if (floatingPoint) {
+            return new ScriptDocValues.NumericDouble(getDoubleValues());
+        }
+        return new ScriptDocValues.NumericLong(getLongValues());
+    }
+
+    @Override
+    public LongValues getLongValues() {
+        return new LongValues(directSource(docValues), floatingPoint, marker == null ? null : directSource(marker));
+    }
+
+    @Override
+    public DoubleValues getDoubleValues() {
+        return new DoubleValues(directSource(docValues), floatingPoint, marker == null ? null : directSource(marker));
+    }
+
+    /**
+     * Direct sources are not thread safe, so each values instance gets its own.
+     */
+    private static DocValues.Source directSource(DocValues docValues) {
+        try {
+            return docValues.getDirectSource();
+        } catch (IOException e) {
+            throw new ElasticSearchException("failed to open doc values source", e);
+        }
+    }
+
+    static class LongValues implements org.elasticsearch.index.fielddata.LongValues {
+
+        private final DocValues.Source source;
+        private final boolean floatingPoint;
+        private final DocValues.Source marker;
+
+        private final LongArrayRef arrayScratch = new LongArrayRef(new long[1], 1);
+        private final Iter.Single iter = new Iter.Single();
+
+        LongValues(DocValues.Source source, boolean floatingPoint, @Nullable DocValues.Source marker) {
+            this.source = source;
+            this.floatingPoint = floatingPoint;
+            this.marker = marker;
+        }
+
+        private long value(int docId) {
+            return floatingPoint ? (long) source.getFloat(docId) : source.getInt(docId);
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public boolean hasValue(int docId) {
+            return marker == null || marker.getInt(docId) != 0;
+        }
+
+        @Override
+        public long getValue(int docId) {
+            return value(docId);
+        }
+
+        @Override
+        public long getValueMissing(int docId, long missingValue) {
+            if (hasValue(docId)) {
+                return value(docId);
+            } else {
+                return missingValue;
+            }
+        }
+
+        @Override
+        public LongArrayRef getValues(int docId) {
+            if (hasValue(docId)) {
+                arrayScratch.values[0] = value(docId);
+                return arrayScratch;
+            } else {
+                return LongArrayRef.EMPTY;
+            }
+        }
+
+        @Override
+        public Iter getIter(int docId) {
+            if (hasValue(docId)) {
+                return iter.reset(value(docId));
+            } else {
+                return Iter.Empty.INSTANCE;
+            }
+        }
+
+        @Override
+        public void forEachValueInDoc(int docId, ValueInDocProc proc) {
+            if (hasValue(docId)) {
+                proc.onValue(docId, value(docId));
+            } else {
+                proc.onMissing(docId);
+            }
+        }
+    }
+
+    static class DoubleValues implements org.elasticsearch.index.fielddata.DoubleValues {
+
+        private final DocValues.Source source;
+        private final boolean floatingPoint;
+        private final DocValues.Source marker;
+
+        private final DoubleArrayRef arrayScratch = new DoubleArrayRef(new double[1], 1);
+        private final Iter.Single iter = new Iter.Single();
+
+        DoubleValues(DocValues.Source source, boolean floatingPoint, @Nullable DocValues.Source marker) {
+            this.source = source;
+            this.floatingPoint = floatingPoint;
+            this.marker = marker;
+        }
+
+        private double value(int docId) {
+            return floatingPoint ? source.getFloat(docId) : (double) source.getInt(docId);
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public boolean hasValue(int docId) {
+            return marker == null || marker.getInt(docId) != 0;
+        }
+
+        @Override
+        public double getValue(int docId) {
+            return value(docId);
+        }
+
+        @Override
+        public double getValueMissing(int docId, double missingValue) {
+            if (hasValue(docId)) {
+                return value(docId);
+            } else {
+                return missingValue;
+            }
+        }
+
+        @Override
+        public DoubleArrayRef getValues(int docId) {
+            if (hasValue(docId)) {
+                arrayScratch.values[0] = value(docId);
+                return arrayScratch;
+            } else {
+                return DoubleArrayRef.EMPTY;
+            }
+        }
+
+        @Override
+        public Iter getIter(int docId) {
+            if (hasValue(docId)) {
+                return iter.reset(value(docId));
+            } else {
+                return Iter.Empty.INSTANCE;
+            }
+        }
+
+        @Override
+        public void forEachValueInDoc(int docId, ValueInDocProc proc) {
+            if (hasValue(docId)) {
+                proc.onValue(docId, value(docId));
+            } else {
+                proc.onMissing(docId);
+            }
+        }
+    }
+}
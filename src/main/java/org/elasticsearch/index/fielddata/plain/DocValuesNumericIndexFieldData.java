@@ -0,0 +1,131 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.plain;
+
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.DocValues;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.fielddata.*;
+import org.elasticsearch.index.fielddata.fieldcomparator.*;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.core.NumberFieldMapper;
+import org.elasticsearch.index.settings.IndexSettings;
+
+/**
+ * Numeric field data read from the doc values written at index time (fielddata format <tt>doc_values</tt>).
+ * Segments written before doc values were enabled for the field fall back to un-inverting the terms.
+ */
+public class DocValuesNumericIndexFieldData extends AbstractIndexFieldData<AtomicNumericFieldData> implements IndexNumericFieldData<AtomicNumericFieldData> {
+
+    public static class Builder implements IndexFieldData.Builder {
+
+        @Override
+        public IndexFieldData build(Index index, @IndexSettings Settings indexSettings, FieldMapper.Names fieldNames, FieldDataType type, IndexFieldDataCache cache) {
+            return new DocValuesNumericIndexFieldData(index, indexSettings, fieldNames, type, cache);
+        }
+    }
+
+    private final NumericType numericType;
+    private final IndexNumericFieldData<?> unInverted;
+
+    public DocValuesNumericIndexFieldData(Index index, @IndexSettings Settings indexSettings, FieldMapper.Names fieldNames, FieldDataType fieldDataType, IndexFieldDataCache cache) {
+        super(index, indexSettings, fieldNames, fieldDataType, cache);
+        String type = fieldDataType.getType();
+        if ("byte".equals(type)) {
+            numericType = NumericType.BYTE;
+            unInverted = new ByteArrayIndexFieldData(index, indexSettings, fieldNames, fieldDataType, cache);
+        } else if ("short".equals(type)) {
+            numericType = NumericType.SHORT;
+            unInverted = new ShortArrayIndexFieldData(index, indexSettings, fieldNames, fieldDataType, cache);
+        } else if ("int".equals(type)) {
+            numericType = NumericType.INT;
+            unInverted = new IntArrayIndexFieldData(index, indexSettings, fieldNames, fieldDataType, cache);
+        } else if ("long".equals(type)) {
+            numericType = NumericType.LONG;
+            unInverted = new LongArrayIndexFieldData(index, indexSettings, fieldNames, fieldDataType, cache);
+        } else if ("float".equals(type)) {
+            numericType = NumericType.FLOAT;
+            unInverted = new FloatArrayIndexFieldData(index, indexSettings, fieldNames, fieldDataType, cache);
+        } else if ("double".equals(type)) {
+            numericType = NumericType.DOUBLE;
+            unInverted = new DoubleArrayIndexFieldData(index, indexSettings, fieldNames, fieldDataType, cache);
+        } else {
+            throw new ElasticSearchIllegalArgumentException("doc values are not supported for field data type [" + type + "]");
+        }
+    }
+
+    @Override
+    public NumericType getNumericType() {
+        return numericType;
+    }
+
+    @Override
+    public boolean valuesOrdered() {
+        return false;
+    }
+
+    @Override
+    public AtomicNumericFieldData load(AtomicReaderContext context) {
+        try {
+            return cache.load(context, this);
+        } catch (Throwable e) {
+            if (e instanceof ElasticSearchException) {
+                throw (ElasticSearchException) e;
+            } else {
+                throw new ElasticSearchException(e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public AtomicNumericFieldData loadDirect(AtomicReaderContext context) throws Exception {
+        AtomicReader reader = context.reader();
+        DocValues docValues = reader.docValues(getFieldNames().indexName());
+        if (docValues == null) {
+            // segment written before doc values were enabled for this field
+            return unInverted.loadDirect(context);
+        }
+        DocValues marker = reader.docValues(NumberFieldMapper.docValuesMarkerName(getFieldNames().indexName()));
+        return new DocValuesNumericAtomicFieldData(docValues, numericType.isFloatingPoint(), reader.maxDoc(), marker);
+    }
+
+    @Override
+    public XFieldComparatorSource comparatorSource(@Nullable Object missingValue, SortMode sortMode) {
+        switch (numericType) {
+            case BYTE:
+                return new ByteValuesComparatorSource(this, missingValue, sortMode);
+            case SHORT:
+                return new ShortValuesComparatorSource(this, missingValue, sortMode);
+            case INT:
+                return new IntValuesComparatorSource(this, missingValue, sortMode);
+            case LONG:
+                return new LongValuesComparatorSource(this, missingValue, sortMode);
+            case FLOAT:
+                return new FloatValuesComparatorSource(this, missingValue, sortMode);
+            default:
+                return new DoubleValuesComparatorSource(this, missingValue, sortMode);
+        }
+    }
+}
@@ -0,0 +1,584 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.plain;
+
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.common.RamUsage;
+import org.elasticsearch.common.geo.GeoHashUtils;
+import org.elasticsearch.common.geo.GeoPoint;
+import org.elasticsearch.common.geo.GeoPointEncoding;
+import org.elasticsearch.index.fielddata.*;
+import org.elasticsearch.index.fielddata.ordinals.Ordinals;
+import org.elasticsearch.index.fielddata.util.GeoPointArrayRef;
+import org.elasticsearch.index.fielddata.util.IntArrayRef;
+import org.elasticsearch.index.fielddata.util.StringArrayRef;
+
+/**
+ * Geo point field data that stores latitudes and longitudes as packed fixed precision integers
+ * (see {@link GeoPointEncoding}), values are decoded on access.
+ */
+public abstract class GeoPointCompressedAtomicFieldData implements AtomicGeoPointFieldData {
+
+    public static final GeoPointCompressedAtomicFieldData EMPTY = new Empty();
+
+    protected final GeoPointEncoding encoding;
+    protected final PackedInts.Mutable lon;
+    protected final PackedInts.Mutable lat;
+    private final int numDocs;
+
+    protected long size = -1;
+
+    private volatile GeoPointCellIndex cellIndex;
+
+    public GeoPointCompressedAtomicFieldData(GeoPointEncoding encoding, PackedInts.Mutable lon, PackedInts.Mutable lat, int numDocs) {
+        this.encoding = encoding;
+        this.lon = lon;
+        this.lat = lat;
+        this.numDocs = numDocs;
+    }
+
+    @Override
+    public int getNumDocs() {
+        return numDocs;
+    }
+
+    @Override
+    public BytesValues getBytesValues() {
+        return new BytesValues.StringBased(getStringValues());
+    }
+
+    @Override
+    public HashedBytesValues getHashedBytesValues() {
+        return new HashedBytesValues.StringBased(getStringValues());
+    }
+
+    @Override
+    public StringValues getStringValues() {
+        return new GeoHashStringValues(getGeoPointValues());
+    }
+
+    @Override
+    public ScriptDocValues getScriptValues() {
+        return new ScriptDocValues.GeoPoints(getGeoPointValues());
+    }
+
+    @Override
+    public GeoPointCellIndex getCellIndex() {
+        if (cellIndex == null) {
+            synchronized (this) {
+                if (cellIndex == null) {
+                    cellIndex = GeoPointCellIndex.build(getGeoPointValues(), numDocs);
+                }
+            }
+        }
+        return cellIndex;
+    }
+
+    @Override
+    public long getCellIndexMemorySizeInBytes() {
+        GeoPointCellIndex cellIndex = this.cellIndex;
+        return cellIndex == null ? 0 : cellIndex.getMemorySizeInBytes();
+    }
+
+    protected long valuesSizeInBytes() {
+        return RamUsage.NUM_BYTES_INT/*size*/ + RamUsage.NUM_BYTES_INT/*numDocs*/ + lon.ramBytesUsed() + lat.ramBytesUsed();
+    }
+
+    static class Empty extends GeoPointCompressedAtomicFieldData {
+
+        Empty() {
+            super(null, null, null, 0);
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public boolean isValuesOrdered() {
+            return false;
+        }
+
+        @Override
+        public long getMemorySizeInBytes() {
+            return 0;
+        }
+
+        @Override
+        public BytesValues getBytesValues() {
+            return BytesValues.EMPTY;
+        }
+
+        @Override
+        public HashedBytesValues getHashedBytesValues() {
+            return HashedBytesValues.EMPTY;
+        }
+
+        @Override
+        public GeoPointValues getGeoPointValues() {
+            return GeoPointValues.EMPTY;
+        }
+
+        @Override
+        public StringValues getStringValues() {
+            return StringValues.EMPTY;
+        }
+
+        @Override
+        public ScriptDocValues getScriptValues() {
+            return ScriptDocValues.EMPTY;
+        }
+    }
+
+    /**
+     * Values are indexed by ordinal, ordinal 0 marks a missing value.
+     */
+    public static class WithOrdinals extends GeoPointCompressedAtomicFieldData {
+
+        private final Ordinals ordinals;
+
+        public WithOrdinals(GeoPointEncoding encoding, PackedInts.Mutable lon, PackedInts.Mutable lat, int numDocs, Ordinals ordinals) {
+            super(encoding, lon, lat, numDocs);
+            this.ordinals = ordinals;
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return ordinals.isMultiValued();
+        }
+
+        @Override
+        public boolean isValuesOrdered() {
+            return true;
+        }
+
+        @Override
+        public long getMemorySizeInBytes() {
+            if (size == -1) {
+                size = valuesSizeInBytes() + ordinals.getMemorySizeInBytes();
+            }
+            return size + getCellIndexMemorySizeInBytes();
+        }
+
+        @Override
+        public GeoPointValues getGeoPointValues() {
+            return new GeoPointValues(encoding, lon, lat, ordinals.ordinals());
+        }
+
+        static class GeoPointValues implements org.elasticsearch.index.fielddata.GeoPointValues {
+
+            private final GeoPointEncoding encoding;
+            private final PackedInts.Mutable lon;
+            private final PackedInts.Mutable lat;
+            private final Ordinals.Docs ordinals;
+
+            private final GeoPoint scratch = new GeoPoint();
+            private final GeoPointArrayRef arrayScratch = new GeoPointArrayRef(new GeoPoint[1], 1);
+            private final ValuesIter valuesIter = new ValuesIter(false);
+            private final ValuesIter safeValuesIter = new ValuesIter(true);
+
+            GeoPointValues(GeoPointEncoding encoding, PackedInts.Mutable lon, PackedInts.Mutable lat, Ordinals.Docs ordinals) {
+                this.encoding = encoding;
+                this.lon = lon;
+                this.lat = lat;
+                this.ordinals = ordinals;
+            }
+
+            private double lat(int ord) {
+                return encoding.decodeLat(lat.get(ord));
+            }
+
+            private double lon(int ord) {
+                return encoding.decodeLon(lon.get(ord));
+            }
+
+            @Override
+            public boolean isMultiValued() {
+                return ordinals.isMultiValued();
+            }
+
+            @Override
+            public boolean hasValue(int docId) {
+                return ordinals.getOrd(docId) != 0;
+            }
+
+            @Override
+            public GeoPoint getValue(int docId) {
+                int ord = ordinals.getOrd(docId);
+                if (ord == 0) {
+                    return null;
+                }
+                return scratch.reset(lat(ord), lon(ord));
+            }
+
+            @Override
+            public GeoPoint getValueSafe(int docId) {
+                int ord = ordinals.getOrd(docId);
+                if (ord == 0) {
+                    return null;
+                }
+                return new GeoPoint(lat(ord), lon(ord));
+            }
+
+            @Override
+            public GeoPointArrayRef getValues(int docId) {
+                IntArrayRef ords = ordinals.getOrds(docId);
+                int size = ords.size();
+                if (size == 0) return GeoPointArrayRef.EMPTY;
+
+                arrayScratch.reset(size);
+                for (int i = ords.start; i < ords.end; i++) {
+                    int ord = ords.values[i];
+                    arrayScratch.values[arrayScratch.end++].reset(lat(ord), lon(ord));
+                }
+                return arrayScratch;
+            }
+
+            @Override
+            public Iter getIter(int docId) {
+                return valuesIter.reset(ordinals.getIter(docId));
+            }
+
+            @Override
+            public Iter getIterSafe(int docId) {
+                return safeValuesIter.reset(ordinals.getIter(docId));
+            }
+
+            @Override
+            public void forEachValueInDoc(int docId, ValueInDocProc proc) {
+                Ordinals.Docs.Iter iter = ordinals.getIter(docId);
+                int ord = iter.next();
+                if (ord == 0) {
+                    proc.onMissing(docId);
+                    return;
+                }
+                do {
+                    proc.onValue(docId, scratch.reset(lat(ord), lon(ord)));
+                } while ((ord = iter.next()) != 0);
+            }
+
+            @Override
+            public void forEachSafeValueInDoc(int docId, ValueInDocProc proc) {
+                Ordinals.Docs.Iter iter = ordinals.getIter(docId);
+                int ord = iter.next();
+                if (ord == 0) {
+                    proc.onMissing(docId);
+                    return;
+                }
+                do {
+                    proc.onValue(docId, new GeoPoint(lat(ord), lon(ord)));
+                } while ((ord = iter.next()) != 0);
+            }
+
+            @Override
+            public void forEachLatLonValueInDoc(int docId, LatLonValueInDocProc proc) {
+                Ordinals.Docs.Iter iter = ordinals.getIter(docId);
+                int ord = iter.next();
+                if (ord == 0) {
+                    proc.onMissing(docId);
+                    return;
+                }
+                do {
+                    proc.onValue(docId, lat(ord), lon(ord));
+                } while ((ord = iter.next()) != 0);
+            }
+
+            class ValuesIter implements Iter {
+
+                private final boolean safe;
+                private final GeoPoint scratch = new GeoPoint();
+
+                private Ordinals.Docs.Iter ordsIter;
+                private int ord;
+
+                ValuesIter(boolean safe) {
+                    this.safe = safe;
+                }
+
+                public ValuesIter reset(Ordinals.Docs.Iter ordsIter) {
+                    this.ordsIter = ordsIter;
+                    this.ord = ordsIter.next();
+                    return this;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return ord != 0;
+                }
+
+                @Override
+                public GeoPoint next() {
+                    GeoPoint value = safe ? new GeoPoint(lat(ord), lon(ord)) : scratch.reset(lat(ord), lon(ord));
+                    ord = ordsIter.next();
+                    return value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Values are indexed by doc id. Docs without a value are cleared in the set, a <tt>null</tt> set
+     * means all docs have a value.
+     */
+    public static class Single extends GeoPointCompressedAtomicFieldData {
+
+        private final FixedBitSet set;
+
+        public Single(GeoPointEncoding encoding, PackedInts.Mutable lon, PackedInts.Mutable lat, int numDocs, FixedBitSet set) {
+            super(encoding, lon, lat, numDocs);
+            this.set = set;
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public boolean isValuesOrdered() {
+            return false;
+        }
+
+        @Override
+        public long getMemorySizeInBytes() {
+            if (size == -1) {
+                size = valuesSizeInBytes() + (set == null ? 0 : set.getBits().length * RamUsage.NUM_BYTES_LONG);
+            }
+            return size + getCellIndexMemorySizeInBytes();
+        }
+
+        @Override
+        public GeoPointValues getGeoPointValues() {
+            return new GeoPointValues(encoding, lon, lat, set);
+        }
+
+        static class GeoPointValues implements org.elasticsearch.index.fielddata.GeoPointValues {
+
+            private final GeoPointEncoding encoding;
+            private final PackedInts.Mutable lon;
+            private final PackedInts.Mutable lat;
+            private final FixedBitSet set;
+
+            private final GeoPoint scratch = new GeoPoint();
+            private final GeoPointArrayRef arrayScratch = new GeoPointArrayRef(new GeoPoint[1]);
+            private final Iter.Single iter = new Iter.Single();
+
+            GeoPointValues(GeoPointEncoding encoding, PackedInts.Mutable lon, PackedInts.Mutable lat, FixedBitSet set) {
+                this.encoding = encoding;
+                this.lon = lon;
+                this.lat = lat;
+                this.set = set;
+            }
+
+            private double lat(int docId) {
+                return encoding.decodeLat(lat.get(docId));
+            }
+
+            private double lon(int docId) {
+                return encoding.decodeLon(lon.get(docId));
+            }
+
+            @Override
+            public boolean isMultiValued() {
+                return false;
+            }
+
+            @Override
+            public boolean hasValue(int docId) {
+                return set == null || set.get(docId);
+            }
+
+            @Override
+            public GeoPoint getValue(int docId) {
+                if (hasValue(docId)) {
+                    return scratch.reset(lat(docId), lon(docId));
+                } else {
+                    return null;
+                }
+            }
+
+            @Override
+            public GeoPoint getValueSafe(int docId) {
+                if (hasValue(docId)) {
+                    return new GeoPoint(lat(docId), lon(docId));
+                } else {
+                    return null;
+                }
+            }
+
+            @Override
+            public GeoPointArrayRef getValues(int docId) {
+                if (hasValue(docId)) {
+                    arrayScratch.values[0].reset(lat(docId), lon(docId));
+                    return arrayScratch;
+                } else {
+                    return GeoPointArrayRef.EMPTY;
+                }
+            }
+
+            @Override
+            public Iter getIter(int docId) {
+                if (hasValue(docId)) {
+                    return iter.reset(scratch.reset(lat(docId), lon(docId)));
+                } else {
+                    return Iter.Empty.INSTANCE;
+                }
+            }
+
+            @Override
+            public Iter getIterSafe(int docId) {
+                if (hasValue(docId)) {
+                    return iter.reset(new GeoPoint(lat(docId), lon(docId)));
+                } else {
+                    return Iter.Empty.INSTANCE;
+                }
+            }
+
+            @Override
+            public void forEachValueInDoc(int docId, ValueInDocProc proc) {
+                if (hasValue(docId)) {
+                    proc.onValue(docId, scratch.reset(lat(docId), lon(docId)));
+                } else {
+                    proc.onMissing(docId);
+                }
+            }
+
+            @Override
+            public void forEachSafeValueInDoc(int docId, ValueInDocProc proc) {
+                if (hasValue(docId)) {
+                    proc.onValue(docId, new GeoPoint(lat(docId), lon(docId)));
+                } else {
+                    proc.onMissing(docId);
+                }
+            }
+
+            @Override
+            public void forEachLatLonValueInDoc(int docId, LatLonValueInDocProc proc) {
+                if (hasValue(docId)) {
+                    proc.onValue(docId, lat(docId), lon(docId));
+                } else {
+                    proc.onMissing(docId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Exposes the (decoded) geo points as geohashes.
+     */
+    static class GeoHashStringValues implements StringValues {
+
+        private final GeoPointValues values;
+
+        private final StringArrayRef arrayScratch = new StringArrayRef(new String[1], 1);
+        private final ValuesIter valuesIter = new ValuesIter();
+        private final Proc proc = new Proc();
+
+        GeoHashStringValues(GeoPointValues values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return values.isMultiValued();
+        }
+
+        @Override
+        public boolean hasValue(int docId) {
+            return values.hasValue(docId);
+        }
+
+        @Override
+        public String getValue(int docId) {
+            GeoPoint value = values.getValue(docId);
+            if (value == null) {
+                return null;
+            }
+            return GeoHashUtils.encode(value.lat(), value.lon());
+        }
+
+        @Override
+        public StringArrayRef getValues(int docId) {
+            GeoPointArrayRef arrayRef = values.getValues(docId);
+            int size = arrayRef.size();
+            if (size == 0) return StringArrayRef.EMPTY;
+
+            arrayScratch.reset(size);
+            for (int i = arrayRef.start; i < arrayRef.end; i++) {
+                GeoPoint value = arrayRef.values[i];
+                arrayScratch.values[arrayScratch.end++] = GeoHashUtils.encode(value.lat(), value.lon());
+            }
+            return arrayScratch;
+        }
+
+        @Override
+        public Iter getIter(int docId) {
+            return valuesIter.reset(values.getIter(docId));
+        }
+
+        @Override
+        public void forEachValueInDoc(int docId, ValueInDocProc proc) {
+            values.forEachLatLonValueInDoc(docId, this.proc.reset(proc));
+        }
+
+        static class ValuesIter implements Iter {
+
+            private GeoPointValues.Iter iter;
+
+            public ValuesIter reset(GeoPointValues.Iter iter) {
+                this.iter = iter;
+                return this;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+
+            @Override
+            public String next() {
+                GeoPoint value = iter.next();
+                return GeoHashUtils.encode(value.lat(), value.lon());
+            }
+        }
+
+        static class Proc implements GeoPointValues.LatLonValueInDocProc {
+
+            private ValueInDocProc proc;
+
+            public Proc reset(ValueInDocProc proc) {
+                this.proc = proc;
+                return this;
+            }
+
+            @Override
+            public void onValue(int docId, double lat, double lon) {
+                proc.onValue(docId, GeoHashUtils.encode(lat, lon));
+            }
+
+            @Override
+            public void onMissing(int docId) {
+                proc.onMissing(docId);
+            }
+        }
+    }
+}
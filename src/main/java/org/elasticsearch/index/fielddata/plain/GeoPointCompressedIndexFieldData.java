@@ -0,0 +1,148 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.plain;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.util.*;
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.geo.GeoPointEncoding;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.fielddata.*;
+import org.elasticsearch.index.fielddata.fieldcomparator.SortMode;
+import org.elasticsearch.index.fielddata.ordinals.Ordinals;
+import org.elasticsearch.index.fielddata.ordinals.Ordinals.Docs;
+import org.elasticsearch.index.fielddata.ordinals.OrdinalsBuilder;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.settings.IndexSettings;
+
+/**
+ * Geo point field data that trades precision for memory, the <tt>precision</tt> setting (defaults to
+ * <tt>1cm</tt>) controls how many bits are used per latitude and longitude.
+ */
+public class GeoPointCompressedIndexFieldData extends AbstractIndexFieldData<GeoPointCompressedAtomicFieldData> implements IndexGeoPointFieldData<GeoPointCompressedAtomicFieldData> {
+
+    public static final String DEFAULT_PRECISION = "1cm";
+
+    public static class Builder implements IndexFieldData.Builder {
+
+        @Override
+        public IndexFieldData build(Index index, @IndexSettings Settings indexSettings, FieldMapper.Names fieldNames, FieldDataType type, IndexFieldDataCache cache) {
+            return new GeoPointCompressedIndexFieldData(index, indexSettings, fieldNames, type, cache);
+        }
+    }
+
+    private final GeoPointEncoding encoding;
+
+    public GeoPointCompressedIndexFieldData(Index index, @IndexSettings Settings indexSettings, FieldMapper.Names fieldNames, FieldDataType fieldDataType, IndexFieldDataCache cache) {
+        super(index, indexSettings, fieldNames, fieldDataType, cache);
+        this.encoding = GeoPointEncoding.of(fieldDataType.getSettings().get("precision", DEFAULT_PRECISION));
+    }
+
+    @Override
+    public boolean valuesOrdered() {
+        // because we might have single values? we can dynamically update a flag to reflect that
+        // based on the atomic field data loaded
+        return false;
+    }
+
+    @Override
+    public GeoPointCompressedAtomicFieldData load(AtomicReaderContext context) {
+        try {
+            return cache.load(context, this);
+        } catch (Throwable e) {
+            if (e instanceof ElasticSearchException) {
+                throw (ElasticSearchException) e;
+            } else {
+                throw new ElasticSearchException(e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public GeoPointCompressedAtomicFieldData loadDirect(AtomicReaderContext context) throws Exception {
+        AtomicReader reader = context.reader();
+
+        Terms terms = reader.terms(getFieldNames().indexName());
+        if (terms == null) {
+            return GeoPointCompressedAtomicFieldData.EMPTY;
+        }
+        final float acceptableOverheadRatio = fieldDataType.getSettings().getAsFloat("acceptable_overhead_ratio", PackedInts.DEFAULT);
+        final TDoubleArrayList lat = new TDoubleArrayList();
+        final TDoubleArrayList lon = new TDoubleArrayList();
+        lat.add(0); // first "t" indicates null value
+        lon.add(0); // first "t" indicates null value
+        OrdinalsBuilder builder = new OrdinalsBuilder(terms, reader.maxDoc());
+        final CharsRef spare = new CharsRef();
+        try {
+            BytesRefIterator iter = builder.buildFromTerms(terms.iterator(null), reader.getLiveDocs());
+            BytesRef term;
+            while ((term = iter.next()) != null) {
+                UnicodeUtil.UTF8toUTF16(term, spare);
+                boolean parsed = false;
+                for (int i = spare.offset; i < spare.length; i++) {
+                    if (spare.chars[i] == ',') { // safes a string creation
+                        lat.add(Double.parseDouble(new String(spare.chars, spare.offset, (i - spare.offset))));
+                        lon.add(Double.parseDouble(new String(spare.chars, (spare.offset + (i + 1)), spare.length - ((i + 1) - spare.offset))));
+                        parsed = true;
+                        break;
+                    }
+                }
+                assert parsed;
+            }
+
+            Ordinals build = builder.build(fieldDataType.getSettings());
+            if (!build.isMultiValued()) {
+                Docs ordinals = build.ordinals();
+                PackedInts.Mutable sLat = PackedInts.getMutable(reader.maxDoc(), encoding.latBits(), acceptableOverheadRatio);
+                PackedInts.Mutable sLon = PackedInts.getMutable(reader.maxDoc(), encoding.lonBits(), acceptableOverheadRatio);
+                for (int i = 0; i < reader.maxDoc(); i++) {
+                    int nativeOrdinal = ordinals.getOrd(i);
+                    if (nativeOrdinal != 0) {
+                        sLat.set(i, encoding.encodeLat(lat.get(nativeOrdinal)));
+                        sLon.set(i, encoding.encodeLon(lon.get(nativeOrdinal)));
+                    }
+                }
+                return new GeoPointCompressedAtomicFieldData.Single(encoding, sLon, sLat, reader.maxDoc(), builder.buildDocsWithValuesSet());
+            } else {
+                PackedInts.Mutable oLat = PackedInts.getMutable(lat.size(), encoding.latBits(), acceptableOverheadRatio);
+                PackedInts.Mutable oLon = PackedInts.getMutable(lon.size(), encoding.lonBits(), acceptableOverheadRatio);
+                for (int i = 1; i < lat.size(); i++) {
+                    oLat.set(i, encoding.encodeLat(lat.get(i)));
+                    oLon.set(i, encoding.encodeLon(lon.get(i)));
+                }
+                return new GeoPointCompressedAtomicFieldData.WithOrdinals(encoding, oLon, oLat, reader.maxDoc(), build);
+            }
+        } finally {
+            builder.close();
+        }
+    }
+
+    @Override
+    public XFieldComparatorSource comparatorSource(@Nullable Object missingValue, SortMode sortMode) {
+        throw new ElasticSearchIllegalArgumentException("can't sort on geo_point field without using specific sorting feature, like geo_distance");
+    }
+}
@@ -41,6 +41,8 @@ public abstract class GeoPointDoubleArrayAtomicFieldData implements AtomicGeoPoi
 
     protected long size = -1;
 
+    private volatile GeoPointCellIndex cellIndex;
+
     public GeoPointDoubleArrayAtomicFieldData(double[] lon, double[] lat, int numDocs) {
         this.lon = lon;
         this.lat = lat;
@@ -57,6 +59,24 @@ public abstract class GeoPointDoubleArrayAtomicFieldData implements AtomicGeoPoi
         return new ScriptDocValues.GeoPoints(getGeoPointValues());
     }
 
+    @Override
+    public GeoPointCellIndex getCellIndex() {
+        if (cellIndex == null) {
+            synchronized (this) {
+                if (cellIndex == null) {
+                    cellIndex = GeoPointCellIndex.build(getGeoPointValues(), numDocs);
+                }
+            }
+        }
+        return cellIndex;
+    }
+
+    @Override
+    public long getCellIndexMemorySizeInBytes() {
+        GeoPointCellIndex cellIndex = this.cellIndex;
+        return cellIndex == null ? 0 : cellIndex.getMemorySizeInBytes();
+    }
+
     static class Empty extends GeoPointDoubleArrayAtomicFieldData {
 
         Empty() {
@@ -128,7 +148,7 @@ public abstract class GeoPointDoubleArrayAtomicFieldData implements AtomicGeoPoi
             if (size == -1) {
                 size = RamUsage.NUM_BYTES_INT/*size*/ + RamUsage.NUM_BYTES_INT/*numDocs*/ + (RamUsage.NUM_BYTES_ARRAY_HEADER + (lon.length * RamUsage.NUM_BYTES_DOUBLE)) + (RamUsage.NUM_BYTES_ARRAY_HEADER + (lat.length * RamUsage.NUM_BYTES_DOUBLE)) + ordinals.getMemorySizeInBytes();
             }
-            return size;
+            return size + getCellIndexMemorySizeInBytes();
         }
 
         @Override
@@ -454,7 +474,7 @@ public abstract class GeoPointDoubleArrayAtomicFieldData implements AtomicGeoPoi
             if (size == -1) {
                 size = RamUsage.NUM_BYTES_INT/*size*/ + RamUsage.NUM_BYTES_INT/*numDocs*/ + (RamUsage.NUM_BYTES_ARRAY_HEADER + (lon.length * RamUsage.NUM_BYTES_DOUBLE)) + (RamUsage.NUM_BYTES_ARRAY_HEADER + (lat.length * RamUsage.NUM_BYTES_DOUBLE)) + (set.getBits().length * RamUsage.NUM_BYTES_LONG);
             }
-            return size;
+            return size + getCellIndexMemorySizeInBytes();
         }
 
         @Override
@@ -665,7 +685,7 @@ public abstract class GeoPointDoubleArrayAtomicFieldData implements AtomicGeoPoi
             if (size == -1) {
                 size = RamUsage.NUM_BYTES_INT/*size*/ + RamUsage.NUM_BYTES_INT/*numDocs*/ + (RamUsage.NUM_BYTES_ARRAY_HEADER + (lon.length * RamUsage.NUM_BYTES_DOUBLE)) + (RamUsage.NUM_BYTES_ARRAY_HEADER + (lat.length * RamUsage.NUM_BYTES_DOUBLE));
             }
-            return size;
+            return size + getCellIndexMemorySizeInBytes();
         }
 
         @Override
@@ -0,0 +1,490 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.plain;
+
+import org.apache.lucene.util.FixedBitSet;
+import org.elasticsearch.common.RamUsage;
+import org.elasticsearch.index.fielddata.AtomicNumericFieldData;
+import org.elasticsearch.index.fielddata.BytesValues;
+import org.elasticsearch.index.fielddata.DoubleValues;
+import org.elasticsearch.index.fielddata.HashedBytesValues;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.fielddata.StringValues;
+import org.elasticsearch.index.fielddata.ordinals.Ordinals;
+import org.elasticsearch.index.fielddata.util.IntArrayRef;
+import org.elasticsearch.index.fielddata.util.LongArrayRef;
+import org.elasticsearch.index.fielddata.util.PackedLongArray;
+
+/**
+ * Integer based numeric field data where values are held in a {@link PackedLongArray} instead of a full width
+ * primitive array. Single valued fields where few docs have a value only store the values of those docs.
+ */
+public abstract class PackedArrayAtomicFieldData implements AtomicNumericFieldData {
+
+    public static final PackedArrayAtomicFieldData EMPTY = new Empty();
+
+    protected final PackedLongArray values;
+    private final int numDocs;
+    private final int bytesPerValue;
+
+    protected long size = -1;
+
+    /**
+     * @param bytesPerValue the number of bytes each value takes with the <tt>array</tt> field data format, used to
+     *                      report the memory saved by packing the values
+     */
+    public PackedArrayAtomicFieldData(PackedLongArray values, int numDocs, int bytesPerValue) {
+        this.values = values;
+        this.numDocs = numDocs;
+        this.bytesPerValue = bytesPerValue;
+    }
+
+    @Override
+    public int getNumDocs() {
+        return numDocs;
+    }
+
+    /**
+     * The memory saved compared to the same values loaded with the <tt>array</tt> field data format.
+     */
+    public long getMemorySavedInBytes() {
+        return Math.max(0, arraySizeInBytes() - getMemorySizeInBytes());
+    }
+
+    /**
+     * Size (in bytes) the same values would take with the <tt>array</tt> field data format.
+     */
+    protected abstract long arraySizeInBytes();
+
+    protected long arraySizeInBytes(int numValues) {
+        return RamUsage.NUM_BYTES_ARRAY_HEADER + ((long) numValues * bytesPerValue);
+    }
+
+    @Override
+    public BytesValues getBytesValues() {
+        return new BytesValues.StringBased(getStringValues());
+    }
+
+    @Override
+    public HashedBytesValues getHashedBytesValues() {
+        return new HashedBytesValues.StringBased(getStringValues());
+    }
+
+    @Override
+    public StringValues getStringValues() {
+        return new StringValues.LongBased(getLongValues());
+    }
+
+    @Override
+    public ScriptDocValues getScriptValues() {
+        return new ScriptDocValues.NumericLong(getLongValues());
+    }
+
+    @Override
+    public DoubleValues getDoubleValues() {
+        return new DoubleValues.LongBased(getLongValues());
+    }
+
+    static class Empty extends PackedArrayAtomicFieldData {
+
+        Empty() {
+            super(null, 0, 0);
+        }
+
+        @Override
+        public org.elasticsearch.index.fielddata.LongValues getLongValues() {
+            return org.elasticsearch.index.fielddata.LongValues.EMPTY;
+        }
+
+        @Override
+        public DoubleValues getDoubleValues() {
+            return DoubleValues.EMPTY;
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public boolean isValuesOrdered() {
+            return false;
+        }
+
+        @Override
+        public long getMemorySizeInBytes() {
+            return 0;
+        }
+
+        @Override
+        protected long arraySizeInBytes() {
+            return 0;
+        }
+
+        @Override
+        public BytesValues getBytesValues() {
+            return BytesValues.EMPTY;
+        }
+
+        @Override
+        public HashedBytesValues getHashedBytesValues() {
+            return HashedBytesValues.EMPTY;
+        }
+
+        @Override
+        public StringValues getStringValues() {
+            return StringValues.EMPTY;
+        }
+
+        @Override
+        public ScriptDocValues getScriptValues() {
+            return ScriptDocValues.EMPTY;
+        }
+    }
+
+    /**
+     * Multi valued case, the values are indexed by ordinal (the value of ordinal <tt>0</tt> is unused).
+     */
+    public static class WithOrdinals extends PackedArrayAtomicFieldData {
+
+        private final Ordinals ordinals;
+
+        public WithOrdinals(PackedLongArray values, int numDocs, int bytesPerValue, Ordinals ordinals) {
+            super(values, numDocs, bytesPerValue);
+            this.ordinals = ordinals;
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return ordinals.isMultiValued();
+        }
+
+        @Override
+        public boolean isValuesOrdered() {
+            return true;
+        }
+
+        @Override
+        public long getMemorySizeInBytes() {
+            if (size == -1) {
+                size = RamUsage.NUM_BYTES_INT/*size*/ + RamUsage.NUM_BYTES_INT/*numDocs*/ + values.ramBytesUsed() + ordinals.getMemorySizeInBytes();
+            }
+            return size;
+        }
+
+        @Override
+        protected long arraySizeInBytes() {
+            return RamUsage.NUM_BYTES_INT/*size*/ + RamUsage.NUM_BYTES_INT/*numDocs*/ + arraySizeInBytes(values.size()) + ordinals.getMemorySizeInBytes();
+        }
+
+        @Override
+        public org.elasticsearch.index.fielddata.LongValues getLongValues() {
+            return new LongValues(values, ordinals.ordinals());
+        }
+
+        static class LongValues implements org.elasticsearch.index.fielddata.LongValues {
+
+            private final PackedLongArray values;
+            private final Ordinals.Docs ordinals;
+
+            private final LongArrayRef arrayScratch = new LongArrayRef(new long[1], 1);
+            private final ValuesIter iter;
+
+            LongValues(PackedLongArray values, Ordinals.Docs ordinals) {
+                this.values = values;
+                this.ordinals = ordinals;
+                this.iter = new ValuesIter(values);
+            }
+
+            @Override
+            public boolean isMultiValued() {
+                return ordinals.isMultiValued();
+            }
+
+            @Override
+            public boolean hasValue(int docId) {
+                return ordinals.getOrd(docId) != 0;
+            }
+
+            @Override
+            public long getValue(int docId) {
+                int ord = ordinals.getOrd(docId);
+                if (ord == 0) {
+                    // the null value slot holds another value so it doesn't widen the packed range
+                    return 0;
+                }
+                return values.get(ord);
+            }
+
+            @Override
+            public long getValueMissing(int docId, long missingValue) {
+                int ord = ordinals.getOrd(docId);
+                if (ord == 0) {
+                    return missingValue;
+                } else {
+                    return values.get(ord);
+                }
+            }
+
+            @Override
+            public LongArrayRef getValues(int docId) {
+                IntArrayRef ords = ordinals.getOrds(docId);
+                int size = ords.size();
+                if (size == 0) return LongArrayRef.EMPTY;
+
+                arrayScratch.reset(size);
+                for (int i = ords.start; i < ords.end; i++) {
+                    arrayScratch.values[arrayScratch.end++] = values.get(ords.values[i]);
+                }
+                return arrayScratch;
+            }
+
+            @Override
+            public Iter getIter(int docId) {
+                return iter.reset(ordinals.getIter(docId));
+            }
+
+            @Override
+            public void forEachValueInDoc(int docId, ValueInDocProc proc) {
+                Ordinals.Docs.Iter iter = ordinals.getIter(docId);
+                int ord = iter.next();
+                if (ord == 0) {
+                    proc.onMissing(docId);
+                    return;
+                }
+                do {
+                    proc.onValue(docId, values.get(ord));
+                } while ((ord = iter.next()) != 0);
+            }
+
+            static class ValuesIter implements Iter {
+
+                private final PackedLongArray values;
+                private Ordinals.Docs.Iter ordsIter;
+                private int ord;
+
+                ValuesIter(PackedLongArray values) {
+                    this.values = values;
+                }
+
+                public ValuesIter reset(Ordinals.Docs.Iter ordsIter) {
+                    this.ordsIter = ordsIter;
+                    this.ord = ordsIter.next();
+                    return this;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return ord != 0;
+                }
+
+                @Override
+                public long next() {
+                    long value = values.get(ord);
+                    ord = ordsIter.next();
+                    return value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Single valued case, where values are indexed by doc. If not all docs have a value, the FixedBitSet
+     * indicates which docs have an actual value.
+     */
+    public static class Single extends PackedArrayAtomicFieldData {
+
+        // null when all docs have a value
+        private final FixedBitSet set;
+
+        public Single(PackedLongArray values, int numDocs, int bytesPerValue, FixedBitSet set) {
+            super(values, numDocs, bytesPerValue);
+            this.set = set;
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public boolean isValuesOrdered() {
+            return false;
+        }
+
+        @Override
+        public long getMemorySizeInBytes() {
+            if (size == -1) {
+                size = values.ramBytesUsed() + setSizeInBytes(set);
+            }
+            return size;
+        }
+
+        @Override
+        protected long arraySizeInBytes() {
+            return arraySizeInBytes(values.size()) + setSizeInBytes(set);
+        }
+
+        @Override
+        public org.elasticsearch.index.fielddata.LongValues getLongValues() {
+            return new SingleLongValues() {
+                @Override
+                public boolean hasValue(int docId) {
+                    return set == null || set.get(docId);
+                }
+
+                @Override
+                long value(int docId) {
+                    return values.get(docId);
+                }
+            };
+        }
+    }
+
+    /**
+     * Single valued case where only a few docs have a value, only the values of those docs are stored, in doc
+     * order. The index of the value of a doc is its rank among the docs with a value, computed from the
+     * FixedBitSet and the number of docs with a value before each of its words.
+     */
+    public static class Sparse extends PackedArrayAtomicFieldData {
+
+        private final FixedBitSet set;
+        private final int[] ranks;
+
+        public Sparse(PackedLongArray values, int numDocs, int bytesPerValue, FixedBitSet set) {
+            super(values, numDocs, bytesPerValue);
+            this.set = set;
+            long[] bits = set.getBits();
+            this.ranks = new int[bits.length];
+            int rank = 0;
+            for (int i = 0; i < bits.length; i++) {
+                ranks[i] = rank;
+                rank += Long.bitCount(bits[i]);
+            }
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public boolean isValuesOrdered() {
+            return false;
+        }
+
+        @Override
+        public long getMemorySizeInBytes() {
+            if (size == -1) {
+                size = values.ramBytesUsed() + setSizeInBytes(set) + RamUsage.NUM_BYTES_ARRAY_HEADER + (ranks.length * RamUsage.NUM_BYTES_INT);
+            }
+            return size;
+        }
+
+        @Override
+        protected long arraySizeInBytes() {
+            // the array format stores a value for every doc
+            return arraySizeInBytes(getNumDocs()) + setSizeInBytes(set);
+        }
+
+        @Override
+        public org.elasticsearch.index.fielddata.LongValues getLongValues() {
+            final long[] bits = set.getBits();
+            return new SingleLongValues() {
+                @Override
+                public boolean hasValue(int docId) {
+                    return set.get(docId);
+                }
+
+                @Override
+                long value(int docId) {
+                    int word = docId >> 6;
+                    return values.get(ranks[word] + Long.bitCount(bits[word] & ((1L << docId) - 1)));
+                }
+            };
+        }
+    }
+
+    private static long setSizeInBytes(FixedBitSet set) {
+        if (set == null) {
+            return 0;
+        }
+        return RamUsage.NUM_BYTES_ARRAY_HEADER + (set.getBits().length * RamUsage.NUM_BYTES_LONG);
+    }
+
+    static abstract class SingleLongValues implements org.elasticsearch.index.fielddata.LongValues {
+
+        private final LongArrayRef arrayScratch = new LongArrayRef(new long[1], 1);
+        private final Iter.Single iter = new Iter.Single();
+
+        /**
+         * The value of a doc that has a value, undefined for docs without one.
+         */
+        abstract long value(int docId);
+
+        @Override
+        public boolean isMultiValued() {
+            return false;
+        }
+
+        @Override
+        public long getValue(int docId) {
+            // like the array format, docs without a value return 0
+            return hasValue(docId) ? value(docId) : 0;
+        }
+
+        @Override
+        public long getValueMissing(int docId, long missingValue) {
+            if (hasValue(docId)) {
+                return value(docId);
+            } else {
+                return missingValue;
+            }
+        }
+
+        @Override
+        public LongArrayRef getValues(int docId) {
+            if (hasValue(docId)) {
+                arrayScratch.values[0] = value(docId);
+                return arrayScratch;
+            } else {
+                return LongArrayRef.EMPTY;
+            }
+        }
+
+        @Override
+        public Iter getIter(int docId) {
+            if (hasValue(docId)) {
+                return iter.reset(value(docId));
+            } else {
+                return Iter.Empty.INSTANCE;
+            }
+        }
+
+        @Override
+        public void forEachValueInDoc(int docId, ValueInDocProc proc) {
+            if (hasValue(docId)) {
+                proc.onValue(docId, value(docId));
+            } else {
+                proc.onMissing(docId);
+            }
+        }
+    }
+}
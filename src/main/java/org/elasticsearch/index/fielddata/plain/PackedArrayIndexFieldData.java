@@ -0,0 +1,177 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.plain;
+
+import gnu.trove.list.array.TLongArrayList;
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.NumericUtils;
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.fielddata.*;
+import org.elasticsearch.index.fielddata.fieldcomparator.*;
+import org.elasticsearch.index.fielddata.ordinals.Ordinals;
+import org.elasticsearch.index.fielddata.ordinals.Ordinals.Docs;
+import org.elasticsearch.index.fielddata.ordinals.OrdinalsBuilder;
+import org.elasticsearch.index.fielddata.util.PackedLongArray;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.settings.IndexSettings;
+
+/**
+ * Integer based numeric field data (fielddata format <tt>packed</tt>) that picks the most compact encoding of the
+ * values of each segment: values are packed with a minimum offset and their greatest common divisor (see
+ * {@link PackedLongArray}), and single valued fields where less than <tt>sparse_ratio</tt> (defaults to
+ * <tt>0.25</tt>) of the docs have a value only store the values of those docs. The packed ints can trade memory for
+ * speed with <tt>acceptable_overhead_ratio</tt>, defaults to {@link PackedInts#DEFAULT}.
+ */
+public class PackedArrayIndexFieldData extends AbstractIndexFieldData<PackedArrayAtomicFieldData> implements IndexNumericFieldData<PackedArrayAtomicFieldData> {
+
+    public static class Builder implements IndexFieldData.Builder {
+
+        @Override
+        public IndexFieldData build(Index index, @IndexSettings Settings indexSettings, FieldMapper.Names fieldNames, FieldDataType type, IndexFieldDataCache cache) {
+            return new PackedArrayIndexFieldData(index, indexSettings, fieldNames, type, cache);
+        }
+    }
+
+    private final NumericType numericType;
+
+    public PackedArrayIndexFieldData(Index index, @IndexSettings Settings indexSettings, FieldMapper.Names fieldNames, FieldDataType fieldDataType, IndexFieldDataCache cache) {
+        super(index, indexSettings, fieldNames, fieldDataType, cache);
+        String type = fieldDataType.getType();
+        if ("byte".equals(type)) {
+            numericType = NumericType.BYTE;
+        } else if ("short".equals(type)) {
+            numericType = NumericType.SHORT;
+        } else if ("int".equals(type)) {
+            numericType = NumericType.INT;
+        } else if ("long".equals(type)) {
+            numericType = NumericType.LONG;
+        } else {
+            throw new ElasticSearchIllegalArgumentException("packed field data is not supported for field data type [" + type + "]");
+        }
+    }
+
+    @Override
+    public NumericType getNumericType() {
+        return numericType;
+    }
+
+    @Override
+    public boolean valuesOrdered() {
+        // because we might have single values? we can dynamically update a flag to reflect that
+        // based on the atomic field data loaded
+        return false;
+    }
+
+    @Override
+    public PackedArrayAtomicFieldData load(AtomicReaderContext context) {
+        try {
+            return cache.load(context, this);
+        } catch (Throwable e) {
+            if (e instanceof ElasticSearchException) {
+                throw (ElasticSearchException) e;
+            } else {
+                throw new ElasticSearchException(e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public PackedArrayAtomicFieldData loadDirect(AtomicReaderContext context) throws Exception {
+        AtomicReader reader = context.reader();
+        Terms terms = reader.terms(getFieldNames().indexName());
+        if (terms == null) {
+            return PackedArrayAtomicFieldData.EMPTY;
+        }
+        final boolean is64Bit = numericType.requiredBits() > 32;
+        final int bytesPerValue = numericType.requiredBits() / 8;
+        final float acceptableOverheadRatio = fieldDataType.getSettings().getAsFloat("acceptable_overhead_ratio", PackedInts.DEFAULT);
+        final float sparseRatio = fieldDataType.getSettings().getAsFloat("sparse_ratio", 0.25f);
+
+        final TLongArrayList values = new TLongArrayList();
+        values.add(0); // first "t" indicates null value
+        OrdinalsBuilder builder = new OrdinalsBuilder(terms, reader.maxDoc());
+        try {
+            BytesRefIterator iter = builder.buildFromTerms(is64Bit ? builder.wrapNumeric64Bit(terms.iterator(null)) : builder.wrapNumeric32Bit(terms.iterator(null)), reader.getLiveDocs());
+            BytesRef term;
+            while ((term = iter.next()) != null) {
+                values.add(is64Bit ? NumericUtils.prefixCodedToLong(term) : NumericUtils.prefixCodedToInt(term));
+            }
+            if (values.size() > 1) {
+                // the null value is never read, don't let it widen the range of values to pack
+                values.set(0, values.get(1));
+            }
+            Ordinals build = builder.build(fieldDataType.getSettings());
+            if (build.isMultiValued()) {
+                return new PackedArrayAtomicFieldData.WithOrdinals(
+                        PackedLongArray.pack(values.toArray(), acceptableOverheadRatio),
+                        reader.maxDoc(), bytesPerValue, build);
+            }
+
+            Docs ordinals = build.ordinals();
+            int maxDoc = reader.maxDoc();
+            final FixedBitSet set = builder.buildDocsWithValuesSet();
+            if (set != null) {
+                int numDocsWithValue = set.cardinality();
+                if (numDocsWithValue < maxDoc * sparseRatio) {
+                    long[] sValues = new long[numDocsWithValue];
+                    int upto = 0;
+                    for (int i = 0; i < maxDoc; i++) {
+                        int ord = ordinals.getOrd(i);
+                        if (ord != 0) {
+                            sValues[upto++] = values.get(ord);
+                        }
+                    }
+                    return new PackedArrayAtomicFieldData.Sparse(PackedLongArray.pack(sValues, acceptableOverheadRatio), maxDoc, bytesPerValue, set);
+                }
+            }
+            long[] sValues = new long[maxDoc];
+            for (int i = 0; i < maxDoc; i++) {
+                sValues[i] = values.get(ordinals.getOrd(i));
+            }
+            return new PackedArrayAtomicFieldData.Single(PackedLongArray.pack(sValues, acceptableOverheadRatio), maxDoc, bytesPerValue, set);
+        } finally {
+            builder.close();
+        }
+    }
+
+    @Override
+    public XFieldComparatorSource comparatorSource(@Nullable Object missingValue, SortMode sortMode) {
+        switch (numericType) {
+            case BYTE:
+                return new ByteValuesComparatorSource(this, missingValue, sortMode);
+            case SHORT:
+                return new ShortValuesComparatorSource(this, missingValue, sortMode);
+            case INT:
+                return new IntValuesComparatorSource(this, missingValue, sortMode);
+            default:
+                return new LongValuesComparatorSource(this, missingValue, sortMode);
+        }
+    }
+}
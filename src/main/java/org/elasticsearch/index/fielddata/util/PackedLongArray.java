@@ -0,0 +1,221 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.util;
+
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.common.RamUsage;
+
+/**
+ * A read only array of longs, packed with the fewest bits per value that the values allow. Values are stored as
+ * the difference with their minimum, divided by the greatest common divisor of those differences (so timestamps
+ * rounded to the second only pay for the seconds). When values are clustered (like timestamps of docs indexed
+ * over time), the minimum is taken per block of {@link #BLOCK_SIZE} values, which keeps the deltas small.
+ */
+public abstract class PackedLongArray {
+
+    public static final int BLOCK_SHIFT = 10;
+    public static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    // rough object overhead of a per block packed reader, on top of its values
+    static final int BLOCK_OVERHEAD = 48;
+
+    /**
+     * Packs the provided values, picking whichever of the global and per block encodings takes less memory.
+     */
+    public static PackedLongArray pack(long[] values, float acceptableOverheadRatio) {
+        if (values.length == 0) {
+            return new Constant(0, 0);
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (min == max) {
+            return new Constant(min, values.length);
+        }
+        long range = max - min;
+        if (range < 0) {
+            // overflow, no compression possible
+            return new Global(values, min, 1, 64, acceptableOverheadRatio);
+        }
+
+        long gcd = 0;
+        for (long value : values) {
+            gcd = gcd(gcd, value - min);
+            if (gcd == 1) {
+                break;
+            }
+        }
+
+        int bitsPerValue = PackedInts.bitsRequired(range / gcd);
+        long globalBytes = bytes(values.length, bitsPerValue);
+
+        int numBlocks = (values.length + BLOCK_MASK) >>> BLOCK_SHIFT;
+        long[] blockMins = new long[numBlocks];
+        int[] blockBits = new int[numBlocks];
+        long blockedBytes = numBlocks * (long) RamUsage.NUM_BYTES_LONG;
+        for (int block = 0; block < numBlocks; block++) {
+            int from = block << BLOCK_SHIFT;
+            int to = Math.min(from + BLOCK_SIZE, values.length);
+            long blockMin = Long.MAX_VALUE;
+            long blockMax = Long.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                blockMin = Math.min(blockMin, values[i]);
+                blockMax = Math.max(blockMax, values[i]);
+            }
+            blockMins[block] = blockMin;
+            blockBits[block] = blockMin == blockMax ? 0 : PackedInts.bitsRequired((blockMax - blockMin) / gcd);
+            blockedBytes += blockBits[block] == 0 ? 0 : BLOCK_OVERHEAD + bytes(to - from, blockBits[block]);
+        }
+
+        // only pay for the extra indirection when it saves a good chunk of memory
+        if (numBlocks > 1 && blockedBytes < globalBytes * 0.75) {
+            return new Blocked(values, blockMins, blockBits, gcd, acceptableOverheadRatio);
+        }
+        return new Global(values, min, gcd, bitsPerValue, acceptableOverheadRatio);
+    }
+
+    private static long bytes(int count, int bitsPerValue) {
+        return ((long) count * bitsPerValue + 7) >>> 3;
+    }
+
+    static long gcd(long a, long b) {
+        while (b != 0) {
+            long tmp = b;
+            b = a % b;
+            a = tmp;
+        }
+        return a;
+    }
+
+    private final int size;
+
+    PackedLongArray(int size) {
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public abstract long get(int index);
+
+    public abstract long ramBytesUsed();
+
+    static class Constant extends PackedLongArray {
+
+        private final long value;
+
+        Constant(long value, int size) {
+            super(size);
+            this.value = value;
+        }
+
+        @Override
+        public long get(int index) {
+            return value;
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return RamUsage.NUM_BYTES_LONG;
+        }
+    }
+
+    static class Global extends PackedLongArray {
+
+        private final long min;
+        private final long gcd;
+        private final PackedInts.Reader reader;
+
+        Global(long[] values, long min, long gcd, int bitsPerValue, float acceptableOverheadRatio) {
+            super(values.length);
+            this.min = min;
+            this.gcd = gcd;
+            PackedInts.Mutable mutable = PackedInts.getMutable(values.length, bitsPerValue, acceptableOverheadRatio);
+            for (int i = 0; i < values.length; i++) {
+                mutable.set(i, (values[i] - min) / gcd);
+            }
+            this.reader = mutable;
+        }
+
+        @Override
+        public long get(int index) {
+            return min + gcd * reader.get(index);
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return 2 * RamUsage.NUM_BYTES_LONG + RamUsage.NUM_BYTES_OBJECT_REF + reader.ramBytesUsed();
+        }
+    }
+
+    static class Blocked extends PackedLongArray {
+
+        private final long[] mins;
+        private final long gcd;
+        // null for blocks where all values are the same
+        private final PackedInts.Reader[] readers;
+
+        Blocked(long[] values, long[] mins, int[] bitsPerValue, long gcd, float acceptableOverheadRatio) {
+            super(values.length);
+            this.mins = mins;
+            this.gcd = gcd;
+            this.readers = new PackedInts.Reader[mins.length];
+            for (int block = 0; block < mins.length; block++) {
+                if (bitsPerValue[block] == 0) {
+                    continue;
+                }
+                int from = block << BLOCK_SHIFT;
+                int to = Math.min(from + BLOCK_SIZE, values.length);
+                PackedInts.Mutable mutable = PackedInts.getMutable(to - from, bitsPerValue[block], acceptableOverheadRatio);
+                for (int i = from; i < to; i++) {
+                    mutable.set(i - from, (values[i] - mins[block]) / gcd);
+                }
+                readers[block] = mutable;
+            }
+        }
+
+        @Override
+        public long get(int index) {
+            int block = index >>> BLOCK_SHIFT;
+            PackedInts.Reader reader = readers[block];
+            if (reader == null) {
+                return mins[block];
+            }
+            return mins[block] + gcd * reader.get(index & BLOCK_MASK);
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            long size = RamUsage.NUM_BYTES_LONG + 2 * (RamUsage.NUM_BYTES_ARRAY_HEADER + RamUsage.NUM_BYTES_OBJECT_REF)
+                    + mins.length * (RamUsage.NUM_BYTES_LONG + RamUsage.NUM_BYTES_OBJECT_REF);
+            for (PackedInts.Reader reader : readers) {
+                if (reader != null) {
+                    size += reader.ramBytesUsed();
+                }
+            }
+            return size;
+        }
+    }
+}
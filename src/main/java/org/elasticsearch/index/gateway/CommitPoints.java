@@ -25,6 +25,7 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.store.StoreFileMetaData;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -72,6 +73,21 @@ public class CommitPoints implements Iterable<CommitPoint> {
         return null;
     }
 
+    /**
+     * Finds an index file of any of the commit points with the same length and checksum as the given
+     * store file, regardless of its physical name.
+     */
+    public CommitPoint.FileInfo findSameIndexFile(StoreFileMetaData md) {
+        for (CommitPoint commitPoint : commitPoints) {
+            for (CommitPoint.FileInfo fileInfo : commitPoint.indexFiles()) {
+                if (fileInfo.isSame(md)) {
+                    return fileInfo;
+                }
+            }
+        }
+        return null;
+    }
+
     public CommitPoint.FileInfo findNameFile(String name) {
         for (CommitPoint commitPoint : commitPoints) {
             CommitPoint.FileInfo fileInfo = commitPoint.findNameFile(name);
@@ -141,6 +141,21 @@ public class RecoveryStatus {
         public int currentTranslogOperations() {
             return this.currentTranslogOperations;
         }
+
+        /**
+         * The rate at which translog operations are replayed, computed over the elapsed replay time while the
+         * replay is still running.
+         */
+        public double operationsPerSecond() {
+            long took = time;
+            if (took <= 0 && startTime > 0) {
+                took = System.currentTimeMillis() - startTime;
+            }
+            if (took <= 0) {
+                return 0;
+            }
+            return currentTranslogOperations * 1000d / took;
+        }
     }
 
     public static class Index {
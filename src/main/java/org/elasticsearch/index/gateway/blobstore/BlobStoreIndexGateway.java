@@ -19,7 +19,9 @@
 
 package org.elasticsearch.index.gateway.blobstore;
 
+import org.apache.lucene.store.RateLimiter;
 import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.blobstore.BlobPath;
 import org.elasticsearch.common.blobstore.BlobStore;
 import org.elasticsearch.common.settings.Settings;
@@ -32,6 +34,8 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.gateway.IndexGateway;
 import org.elasticsearch.index.settings.IndexSettings;
 
+import java.util.concurrent.Semaphore;
+
 /**
  *
  */
@@ -73,6 +77,15 @@ public abstract class BlobStoreIndexGateway extends AbstractIndexComponent imple
         return this.chunkSize;
     }
 
+    public Semaphore snapshotFileUploads() {
+        return gateway.snapshotFileUploads();
+    }
+
+    @Nullable
+    public RateLimiter snapshotRateLimiter() {
+        return gateway.snapshotRateLimiter();
+    }
+
     public BlobPath shardPath(int shardId) {
         return indexPath.add(Integer.toString(shardId));
     }
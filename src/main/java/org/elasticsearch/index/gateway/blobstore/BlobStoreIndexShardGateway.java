@@ -22,15 +22,18 @@ package org.elasticsearch.index.gateway.blobstore;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimiter;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.common.blobstore.*;
 import org.elasticsearch.common.io.FastByteArrayInputStream;
 import org.elasticsearch.common.io.FastByteArrayOutputStream;
+import org.elasticsearch.common.io.RateLimitedInputStream;
 import org.elasticsearch.common.io.stream.BytesStreamInput;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
@@ -51,11 +54,14 @@ import org.elasticsearch.index.translog.TranslogStreams;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -79,6 +85,10 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
 
     protected final ImmutableBlobContainer blobContainer;
 
+    private final Semaphore snapshotFileUploads;
+
+    private final RateLimiter snapshotRateLimiter;
+
     private volatile RecoveryStatus recoveryStatus;
 
     private volatile SnapshotStatus lastSnapshotStatus;
@@ -101,6 +111,9 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
 
         this.blobContainer = blobStore.immutableBlobContainer(shardPath);
 
+        this.snapshotFileUploads = blobStoreIndexGateway.snapshotFileUploads();
+        this.snapshotRateLimiter = blobStoreIndexGateway.snapshotRateLimiter(); // can be null -> no throttling
+
         this.recoveryStatus = new RecoveryStatus();
     }
 
@@ -198,6 +211,8 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
         final CountDownLatch indexLatch = new CountDownLatch(snapshotIndexCommit.getFiles().length);
         final CopyOnWriteArrayList<Throwable> failures = new CopyOnWriteArrayList<Throwable>();
         final List<CommitPoint.FileInfo> indexCommitPointFiles = Lists.newArrayList();
+        // the content based blob names uploaded by this snapshot, files with the same content are only uploaded once
+        final Set<String> snapshotContentBlobs = Sets.newHashSet();
 
         int indexNumberOfFiles = 0;
         long indexTotalFilesSize = 0;
@@ -221,13 +236,36 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
             }
 
             if (snapshotRequired) {
+                // the same content might already be stored under another physical name (or by a previous snapshot
+                // that did not manage to write its commit point), in which case we simply reference the existing blob
+                CommitPoint.FileInfo sameFileInfo = commitPoints.findSameIndexFile(md);
+                if (sameFileInfo != null && commitPointFileExistsInBlobs(sameFileInfo, blobs)) {
+                    indexCommitPointFiles.add(new CommitPoint.FileInfo(sameFileInfo.name(), fileName, md.length(), md.checksum()));
+                    indexLatch.countDown();
+                    continue;
+                }
+                if (md.checksum() != null && snapshotContentBlobs.contains(fileNameFromContent(md))) {
+                    // another file of this snapshot has the same content and is already being uploaded
+                    indexCommitPointFiles.add(new CommitPoint.FileInfo(fileNameFromContent(md), fileName, md.length(), md.checksum()));
+                    indexLatch.countDown();
+                    continue;
+                }
                 indexNumberOfFiles++;
                 indexTotalFilesSize += md.length();
                 // create a new FileInfo
                 try {
-                    CommitPoint.FileInfo snapshotFileInfo = new CommitPoint.FileInfo(fileNameFromGeneration(++generation), fileName, md.length(), md.checksum());
+                    String blobName;
+                    if (md.checksum() != null) {
+                        blobName = fileNameFromContent(md);
+                    } else {
+                        blobName = fileNameFromGeneration(++generation);
+                    }
+                    CommitPoint.FileInfo snapshotFileInfo = new CommitPoint.FileInfo(blobName, fileName, md.length(), md.checksum());
                     indexCommitPointFiles.add(snapshotFileInfo);
-                    snapshotFile(snapshotIndexCommit.getDirectory(), snapshotFileInfo, indexLatch, failures);
+                    if (md.checksum() != null) {
+                        snapshotContentBlobs.add(blobName);
+                    }
+                    snapshotFile(snapshotIndexCommit.getDirectory(), snapshotFileInfo, blobs, indexLatch, failures);
                 } catch (IOException e) {
                     failures.add(e);
                     indexLatch.countDown();
@@ -732,7 +770,7 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
 //        }
     }
 
-    private void snapshotFile(Directory dir, final CommitPoint.FileInfo fileInfo, final CountDownLatch latch, final List<Throwable> failures) throws IOException {
+    private void snapshotFile(Directory dir, final CommitPoint.FileInfo fileInfo, ImmutableMap<String, BlobMetaData> blobs, final CountDownLatch latch, final List<Throwable> failures) throws IOException {
         long chunkBytes = Long.MAX_VALUE;
         if (chunkSize != null) {
             chunkBytes = chunkSize.bytes();
@@ -747,26 +785,52 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
             numberOfChunks++;
         }
 
+        // limit the number of files concurrently uploaded across all the shards on this node
+        final Semaphore fileUploads = snapshotFileUploads;
+        try {
+            fileUploads.acquire();
+        } catch (InterruptedException e) {
+            failures.add(e);
+            latch.countDown();
+            return;
+        }
+        final RateLimiter rateLimiter = snapshotRateLimiter;
+
         final long fNumberOfChunks = numberOfChunks;
         final AtomicLong counter = new AtomicLong(numberOfChunks);
         for (long i = 0; i < fNumberOfChunks; i++) {
             final long partNumber = i;
 
+            String blobName = fileInfo.name();
+            if (fNumberOfChunks > 1) {
+                // if we do chunks, then all of them are in the form of "[xxx].part[N]".
+                blobName += ".part" + partNumber;
+            }
+
+            // a previous (failed) snapshot might have already uploaded this chunk, no need to upload it again
+            long expectedChunkLength = Math.min(chunkBytes, totalLength - partNumber * chunkBytes);
+            BlobMetaData existingBlob = blobs.get(blobName);
+            if (existingBlob != null && existingBlob.length() == expectedChunkLength) {
+                if (counter.decrementAndGet() == 0) {
+                    fileUploads.release();
+                    latch.countDown();
+                }
+                continue;
+            }
+
             IndexInput indexInput = null;
             try {
                 // TODO: maybe use IOContext.READONCE?
                 indexInput = indexShard.store().openInputRaw(fileInfo.physicalName(), IOContext.READ);
                 indexInput.seek(partNumber * chunkBytes);
                 InputStreamIndexInput is = new ThreadSafeInputStreamIndexInput(indexInput, chunkBytes);
-
-                String blobName = fileInfo.name();
-                if (fNumberOfChunks > 1) {
-                    // if we do chunks, then all of them are in the form of "[xxx].part[N]".
-                    blobName += ".part" + partNumber;
+                InputStream stream = is;
+                if (rateLimiter != null) {
+                    stream = new RateLimitedInputStream(is, rateLimiter);
                 }
 
                 final IndexInput fIndexInput = indexInput;
-                blobContainer.writeBlob(blobName, is, is.actualSizeToRead(), new ImmutableBlobContainer.WriterListener() {
+                blobContainer.writeBlob(blobName, stream, is.actualSizeToRead(), new ImmutableBlobContainer.WriterListener() {
                     @Override
                     public void onCompleted() {
                         try {
@@ -775,6 +839,7 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
                             // ignore
                         }
                         if (counter.decrementAndGet() == 0) {
+                            fileUploads.release();
                             latch.countDown();
                         }
                     }
@@ -788,6 +853,7 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
                         }
                         failures.add(t);
                         if (counter.decrementAndGet() == 0) {
+                            fileUploads.release();
                             latch.countDown();
                         }
                     }
@@ -801,7 +867,10 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
                     }
                 }
                 failures.add(e);
-                latch.countDown();
+                if (counter.decrementAndGet() == 0) {
+                    fileUploads.release();
+                    latch.countDown();
+                }
             }
         }
     }
@@ -860,6 +929,14 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
         return "__" + Long.toString(generation, Character.MAX_RADIX);
     }
 
+    /**
+     * Names the blob after the file content (length and checksum), so a retried snapshot ends up with the same
+     * blob names and can skip the parts that were already uploaded.
+     */
+    private String fileNameFromContent(StoreFileMetaData md) {
+        return "__" + Long.toString(md.length(), Character.MAX_RADIX) + "_" + md.checksum();
+    }
+
     private long findLatestFileNameGeneration(ImmutableMap<String, BlobMetaData> blobs) {
         long generation = -1;
         for (String name : blobs.keySet()) {
@@ -869,6 +946,10 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
             if (name.contains(".part")) {
                 name = name.substring(0, name.indexOf(".part"));
             }
+            if (name.indexOf('_', 2) != -1) {
+                // content based name, not part of the generation schema
+                continue;
+            }
 
             try {
                 long currentGen = Long.parseLong(name.substring(2) /*__*/, Character.MAX_RADIX);
@@ -876,7 +957,7 @@ public abstract class BlobStoreIndexShardGateway extends AbstractIndexShardCompo
                     generation = currentGen;
                 }
             } catch (NumberFormatException e) {
-                logger.warn("file [{}] does not conform to the '__' schema");
+                logger.warn("file [{}] does not conform to the '__' schema", name);
             }
         }
         return generation;
@@ -19,13 +19,11 @@
 
 package org.elasticsearch.index.gateway.local;
 
-import com.google.common.io.Closeables;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.SegmentInfos;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.common.inject.Inject;
-import org.elasticsearch.common.io.stream.InputStreamStreamInput;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
@@ -33,6 +31,7 @@ import org.elasticsearch.index.gateway.IndexShardGateway;
 import org.elasticsearch.index.gateway.IndexShardGatewayRecoveryException;
 import org.elasticsearch.index.gateway.RecoveryStatus;
 import org.elasticsearch.index.gateway.SnapshotStatus;
+import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.IndexShardState;
@@ -40,15 +39,20 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.service.IndexShard;
 import org.elasticsearch.index.shard.service.InternalIndexShard;
 import org.elasticsearch.index.translog.Translog;
-import org.elasticsearch.index.translog.TranslogStreams;
 import org.elasticsearch.index.translog.fs.FsTranslog;
+import org.elasticsearch.index.translog.fs.MappedTranslogReader;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.threadpool.ThreadPool;
 
-import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledFuture;
 
 /**
@@ -65,6 +69,10 @@ public class LocalIndexShardGateway extends AbstractIndexShardComponent implemen
     private volatile ScheduledFuture flushScheduler;
     private final TimeValue syncInterval;
 
+    private final int recoveryBatchSize;
+
+    private final int recoveryConcurrency;
+
     @Inject
     public LocalIndexShardGateway(ShardId shardId, @IndexSettings Settings indexSettings, ThreadPool threadPool, IndexShard indexShard) {
         super(shardId, indexSettings);
@@ -72,6 +80,8 @@ public class LocalIndexShardGateway extends AbstractIndexShardComponent implemen
         this.indexShard = (InternalIndexShard) indexShard;
 
         syncInterval = componentSettings.getAsTime("sync", TimeValue.timeValueSeconds(5));
+        recoveryBatchSize = componentSettings.getAsInt("recovery_batch_size", 1000);
+        recoveryConcurrency = componentSettings.getAsInt("recovery_concurrency", 1);
         if (syncInterval.millis() > 0) {
             this.indexShard.translog().syncOnEachOperation(false);
             flushScheduler = threadPool.schedule(syncInterval, ThreadPool.Names.SAME, new Sync());
@@ -197,32 +207,30 @@ public class LocalIndexShardGateway extends AbstractIndexShardComponent implemen
 
         recoveryStatus.translog().startTime(System.currentTimeMillis());
         recoveryStatus.updateStage(RecoveryStatus.Stage.TRANSLOG);
-        FileInputStream fs = null;
+        MappedTranslogReader reader = null;
+        Future<List<Translog.Operation>> nextBatch = null;
         try {
-            fs = new FileInputStream(recoveringTranslogFile);
-            InputStreamStreamInput si = new InputStreamStreamInput(fs);
+            reader = new MappedTranslogReader(recoveringTranslogFile);
+            final MappedTranslogReader batchReader = reader;
+            Callable<List<Translog.Operation>> readBatch = new Callable<List<Translog.Operation>>() {
+                @Override
+                public List<Translog.Operation> call() throws Exception {
+                    return batchReader.nextBatch(recoveryBatchSize);
+                }
+            };
+            // decode the next batch of operations while the current one is applied
+            nextBatch = readAhead(readBatch);
             while (true) {
-                Translog.Operation operation;
-                try {
-                    int opSize = si.readInt();
-                    operation = TranslogStreams.readTranslogOperation(si);
-                } catch (EOFException e) {
-                    // ignore, not properly written the last op
-                    break;
-                } catch (IOException e) {
-                    // ignore, not properly written last op
+                List<Translog.Operation> operations = nextBatch.get();
+                nextBatch = null;
+                if (operations.isEmpty()) {
                     break;
                 }
-                try {
-                    indexShard.performRecoveryOperation(operation);
-                    recoveryStatus.translog().addTranslogOperations(1);
-                } catch (ElasticSearchException e) {
-                    if (e.status() == RestStatus.BAD_REQUEST) {
-                        // mainly for MapperParsingException and Failure to detect xcontent
-                        logger.info("ignoring recovery of a corrupt translog entry", e);
-                    } else {
-                        throw e;
-                    }
+                nextBatch = readAhead(readBatch);
+                if (recoveryConcurrency > 1) {
+                    replayConcurrently(operations, recoveryStatus);
+                } else {
+                    recoveryStatus.translog().addTranslogOperations(replay(operations));
                 }
             }
         } catch (Throwable e) {
@@ -230,7 +238,17 @@ public class LocalIndexShardGateway extends AbstractIndexShardComponent implemen
             indexShard.translog().close(true);
             throw new IndexShardGatewayRecoveryException(shardId, "failed to recover shard", e);
         } finally {
-            Closeables.closeQuietly(fs);
+            if (nextBatch != null) {
+                // make sure the read ahead is done before releasing the mapping it reads from
+                try {
+                    nextBatch.get();
+                } catch (Throwable e) {
+                    // ignore
+                }
+            }
+            if (reader != null) {
+                reader.close();
+            }
         }
         indexShard.performRecoveryFinalization(true);
 
@@ -239,6 +257,119 @@ public class LocalIndexShardGateway extends AbstractIndexShardComponent implemen
         recoveryStatus.translog().time(System.currentTimeMillis() - recoveryStatus.translog().startTime());
     }
 
+    /**
+     * Applies the operations in order on the current thread, returning the number of operations applied.
+     */
+    private int replay(List<Translog.Operation> operations) {
+        int applied = 0;
+        for (Translog.Operation operation : operations) {
+            try {
+                indexShard.performRecoveryOperation(operation);
+            } catch (ElasticSearchException e) {
+                if (e.status() == RestStatus.BAD_REQUEST) {
+                    // mainly for MapperParsingException and Failure to detect xcontent
+                    logger.info("ignoring recovery of a corrupt translog entry", e);
+                    continue;
+                } else {
+                    throw e;
+                }
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Partitions the operations by uid into {@link #recoveryConcurrency} lanes and applies the lanes concurrently.
+     * Operations on the same uid always land in the same lane, so their relative order is kept. Delete by query
+     * operations can touch any uid, so they act as a barrier: the lanes gathered so far are applied before it, and
+     * the delete by query itself is applied on its own.
+     */
+    private void replayConcurrently(List<Translog.Operation> operations, RecoveryStatus recoveryStatus) throws Exception {
+        List<Translog.Operation>[] lanes = newLanes();
+        for (Translog.Operation operation : operations) {
+            int hash;
+            switch (operation.opType()) {
+                case CREATE:
+                    Translog.Create create = (Translog.Create) operation;
+                    hash = Uid.createUidAsBytes(create.type(), create.id()).hashCode();
+                    break;
+                case SAVE:
+                    Translog.Index index = (Translog.Index) operation;
+                    hash = Uid.createUidAsBytes(index.type(), index.id()).hashCode();
+                    break;
+                case DELETE:
+                    hash = ((Translog.Delete) operation).uid().bytes().hashCode();
+                    break;
+                default:
+                    applyLanes(lanes, recoveryStatus);
+                    lanes = newLanes();
+                    recoveryStatus.translog().addTranslogOperations(replay(Collections.singletonList(operation)));
+                    continue;
+            }
+            lanes[(hash & 0x7fffffff) % lanes.length].add(operation);
+        }
+        applyLanes(lanes, recoveryStatus);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Translog.Operation>[] newLanes() {
+        List<Translog.Operation>[] lanes = new List[recoveryConcurrency];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ArrayList<Translog.Operation>();
+        }
+        return lanes;
+    }
+
+    private void applyLanes(final List<Translog.Operation>[] lanes, RecoveryStatus recoveryStatus) throws Exception {
+        List<FutureTask<Integer>> pending = new ArrayList<FutureTask<Integer>>(lanes.length);
+        for (int i = 1; i < lanes.length; i++) {
+            final List<Translog.Operation> lane = lanes[i];
+            if (lane.isEmpty()) {
+                continue;
+            }
+            FutureTask<Integer> future = new FutureTask<Integer>(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return replay(lane);
+                }
+            });
+            threadPool.executor(ThreadPool.Names.GENERIC).execute(future);
+            pending.add(future);
+        }
+        // the current thread takes the first lane, and we always wait for all the others before moving on, so
+        // the next batch never overtakes operations still in flight
+        Throwable failure = null;
+        int applied = 0;
+        try {
+            applied += replay(lanes[0]);
+        } catch (Throwable e) {
+            failure = e;
+        }
+        for (FutureTask<Integer> future : pending) {
+            try {
+                applied += future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        recoveryStatus.translog().addTranslogOperations(applied);
+        if (failure != null) {
+            if (failure instanceof Exception) {
+                throw (Exception) failure;
+            }
+            throw (Error) failure;
+        }
+    }
+
+    private Future<List<Translog.Operation>> readAhead(Callable<List<Translog.Operation>> readBatch) {
+        FutureTask<List<Translog.Operation>> future = new FutureTask<List<Translog.Operation>>(readBatch);
+        threadPool.executor(ThreadPool.Names.GENERIC).execute(future);
+        return future;
+    }
+
     @Override
     public String type() {
         return "local";
@@ -38,16 +38,25 @@ public class GetStats implements Streamable, ToXContent {
     private long missingCount;
     private long missingTimeInMillis;
     private long current;
+    private long recentWritesHitCount;
+    private long recentWritesMissCount;
 
     public GetStats() {
     }
 
     public GetStats(long existsCount, long existsTimeInMillis, long missingCount, long missingTimeInMillis, long current) {
+        this(existsCount, existsTimeInMillis, missingCount, missingTimeInMillis, current, 0, 0);
+    }
+
+    public GetStats(long existsCount, long existsTimeInMillis, long missingCount, long missingTimeInMillis, long current,
+                    long recentWritesHitCount, long recentWritesMissCount) {
         this.existsCount = existsCount;
         this.existsTimeInMillis = existsTimeInMillis;
         this.missingCount = missingCount;
         this.missingTimeInMillis = missingTimeInMillis;
         this.current = current;
+        this.recentWritesHitCount = recentWritesHitCount;
+        this.recentWritesMissCount = recentWritesMissCount;
     }
 
     public void add(GetStats stats) {
@@ -59,6 +68,8 @@ public class GetStats implements Streamable, ToXContent {
         missingCount += stats.missingCount;
         missingTimeInMillis += stats.missingTimeInMillis;
         current += stats.current;
+        recentWritesHitCount += stats.recentWritesHitCount;
+        recentWritesMissCount += stats.recentWritesMissCount;
     }
 
     public long getCount() {
@@ -101,6 +112,28 @@ public class GetStats implements Streamable, ToXContent {
         return this.current;
     }
 
+    /**
+     * The number of realtime gets of not yet refreshed documents served from the recent writes buffer.
+     */
+    public long getRecentWritesHitCount() {
+        return this.recentWritesHitCount;
+    }
+
+    /**
+     * The number of realtime gets of not yet refreshed documents that had to be read from the translog.
+     */
+    public long getRecentWritesMissCount() {
+        return this.recentWritesMissCount;
+    }
+
+    public double getRecentWritesHitRatio() {
+        long total = recentWritesHitCount + recentWritesMissCount;
+        if (total == 0) {
+            return 0;
+        }
+        return ((double) recentWritesHitCount) / total;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.GET);
@@ -114,6 +147,9 @@ public class GetStats implements Streamable, ToXContent {
         builder.field(Fields.MISSING_TIME, getMissingTime().toString());
         builder.field(Fields.MISSING_TIME_IN_MILLIS, missingTimeInMillis);
         builder.field(Fields.CURRENT, current);
+        builder.field(Fields.RECENT_WRITES_HIT_COUNT, recentWritesHitCount);
+        builder.field(Fields.RECENT_WRITES_MISS_COUNT, recentWritesMissCount);
+        builder.field(Fields.RECENT_WRITES_HIT_RATIO, getRecentWritesHitRatio());
         builder.endObject();
         return builder;
     }
@@ -130,6 +166,9 @@ public class GetStats implements Streamable, ToXContent {
         static final XContentBuilderString MISSING_TIME = new XContentBuilderString("missing_time");
         static final XContentBuilderString MISSING_TIME_IN_MILLIS = new XContentBuilderString("missing_time_in_millis");
         static final XContentBuilderString CURRENT = new XContentBuilderString("current");
+        static final XContentBuilderString RECENT_WRITES_HIT_COUNT = new XContentBuilderString("recent_writes_hit_count");
+        static final XContentBuilderString RECENT_WRITES_MISS_COUNT = new XContentBuilderString("recent_writes_miss_count");
+        static final XContentBuilderString RECENT_WRITES_HIT_RATIO = new XContentBuilderString("recent_writes_hit_ratio");
     }
 
     public static GetStats readGetStats(StreamInput in) throws IOException {
@@ -145,6 +184,8 @@ public class GetStats implements Streamable, ToXContent {
         missingCount = in.readVLong();
         missingTimeInMillis = in.readVLong();
         current = in.readVLong();
+        recentWritesHitCount = in.readVLong();
+        recentWritesMissCount = in.readVLong();
     }
 
     @Override
@@ -154,5 +195,7 @@ public class GetStats implements Streamable, ToXContent {
         out.writeVLong(missingCount);
         out.writeVLong(missingTimeInMillis);
         out.writeVLong(current);
+        out.writeVLong(recentWritesHitCount);
+        out.writeVLong(recentWritesMissCount);
     }
 }
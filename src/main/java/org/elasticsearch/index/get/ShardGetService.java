@@ -28,6 +28,7 @@ import org.elasticsearch.common.lucene.uid.UidField;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.cache.IndexCache;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.fieldvisitor.CustomFieldsVisitor;
@@ -64,23 +65,29 @@ public class ShardGetService extends AbstractIndexShardComponent {
 
     private final IndexFieldDataService fieldDataService;
 
+    private final IndexCache indexCache;
+
     private IndexShard indexShard;
 
     private final MeanMetric existsMetric = new MeanMetric();
     private final MeanMetric missingMetric = new MeanMetric();
     private final CounterMetric currentMetric = new CounterMetric();
+    private final CounterMetric recentWritesHitMetric = new CounterMetric();
+    private final CounterMetric recentWritesMissMetric = new CounterMetric();
 
     @Inject
     public ShardGetService(ShardId shardId, @IndexSettings Settings indexSettings, ScriptService scriptService,
-                           MapperService mapperService, IndexFieldDataService fieldDataService) {
+                           MapperService mapperService, IndexFieldDataService fieldDataService, IndexCache indexCache) {
         super(shardId, indexSettings);
         this.scriptService = scriptService;
         this.mapperService = mapperService;
         this.fieldDataService = fieldDataService;
+        this.indexCache = indexCache;
     }
 
     public GetStats stats() {
-        return new GetStats(existsMetric.count(), TimeUnit.NANOSECONDS.toMillis(existsMetric.sum()), missingMetric.count(), TimeUnit.NANOSECONDS.toMillis(missingMetric.sum()), currentMetric.count());
+        return new GetStats(existsMetric.count(), TimeUnit.NANOSECONDS.toMillis(existsMetric.sum()), missingMetric.count(), TimeUnit.NANOSECONDS.toMillis(missingMetric.sum()), currentMetric.count(),
+                recentWritesHitMetric.count(), recentWritesMissMetric.count());
     }
 
     // sadly, to overcome cyclic dep, we need to do this and inject it ourselves...
@@ -178,6 +185,13 @@ public class ShardGetService extends AbstractIndexShardComponent {
                 return innerGetLoadFromStoredFields(type, id, gFields, get, docMapper);
             } else {
                 Translog.Source source = get.source();
+                if (source != null) {
+                    if (get.fromRecentWrites()) {
+                        recentWritesHitMetric.inc();
+                    } else {
+                        recentWritesMissMetric.inc();
+                    }
+                }
 
                 Map<String, GetField> fields = null;
                 boolean sourceRequested = false;
@@ -284,11 +298,19 @@ public class ShardGetService extends AbstractIndexShardComponent {
         FieldsVisitor fieldVisitor = buildFieldsVisitors(gFields);
         if (fieldVisitor != null) {
             try {
-                docIdAndVersion.reader.reader().document(docIdAndVersion.docId, fieldVisitor);
+                if (fieldVisitor instanceof JustSourceFieldsVisitor) {
+                    // only the source is needed, it might not even need to be loaded if it's cached
+                    source = indexCache.source().source(docIdAndVersion.reader.reader(), docIdAndVersion.docId);
+                } else {
+                    docIdAndVersion.reader.reader().document(docIdAndVersion.docId, fieldVisitor);
+                    source = fieldVisitor.source();
+                    if (source != null) {
+                        source = indexCache.source().uncompress(docIdAndVersion.reader.reader(), docIdAndVersion.docId, source);
+                    }
+                }
             } catch (IOException e) {
                 throw new ElasticSearchException("Failed to get type [" + type + "] and id [" + id + "]", e);
             }
-            source = fieldVisitor.source();
 
             if (fieldVisitor.fields() != null) {
                 fieldVisitor.postProcess(docMapper);
@@ -306,7 +328,7 @@ public class ShardGetService extends AbstractIndexShardComponent {
                 Object value = null;
                 if (field.contains("_source.") || field.contains("doc[")) {
                     if (searchLookup == null) {
-                        searchLookup = new SearchLookup(mapperService, fieldDataService, new String[]{type});
+                        searchLookup = new SearchLookup(mapperService, fieldDataService, indexCache.source(), new String[]{type});
                     }
                     SearchScript searchScript = scriptService.search(searchLookup, "mvel", field, null);
                     searchScript.setNextReader(docIdAndVersion.reader);
@@ -324,7 +346,7 @@ public class ShardGetService extends AbstractIndexShardComponent {
                     FieldMappers x = docMapper.mappers().smartName(field);
                     if (x == null || !x.mapper().fieldType().stored()) {
                         if (searchLookup == null) {
-                            searchLookup = new SearchLookup(mapperService, fieldDataService, new String[]{type});
+                            searchLookup = new SearchLookup(mapperService, fieldDataService, indexCache.source(), new String[]{type});
                             searchLookup.setNextReader(docIdAndVersion.reader);
                             searchLookup.setNextDocId(docIdAndVersion.docId);
                         }
@@ -46,17 +46,27 @@ public class IndexingStats implements Streamable, ToXContent {
         private long deleteTimeInMillis;
         private long deleteCurrent;
 
+        private long counterUpdateCount;
+        private long counterUpdateCoalescedCount;
+
         Stats() {
 
         }
 
         public Stats(long indexCount, long indexTimeInMillis, long indexCurrent, long deleteCount, long deleteTimeInMillis, long deleteCurrent) {
+            this(indexCount, indexTimeInMillis, indexCurrent, deleteCount, deleteTimeInMillis, deleteCurrent, 0, 0);
+        }
+
+        public Stats(long indexCount, long indexTimeInMillis, long indexCurrent, long deleteCount, long deleteTimeInMillis, long deleteCurrent,
+                     long counterUpdateCount, long counterUpdateCoalescedCount) {
             this.indexCount = indexCount;
             this.indexTimeInMillis = indexTimeInMillis;
             this.indexCurrent = indexCurrent;
             this.deleteCount = deleteCount;
             this.deleteTimeInMillis = deleteTimeInMillis;
             this.deleteCurrent = deleteCurrent;
+            this.counterUpdateCount = counterUpdateCount;
+            this.counterUpdateCoalescedCount = counterUpdateCoalescedCount;
         }
 
         public void add(Stats stats) {
@@ -67,6 +77,8 @@ public class IndexingStats implements Streamable, ToXContent {
             deleteCount += stats.deleteCount;
             deleteTimeInMillis += stats.deleteTimeInMillis;
             deleteCurrent += stats.deleteCurrent;
+            counterUpdateCount += stats.counterUpdateCount;
+            counterUpdateCoalescedCount += stats.counterUpdateCoalescedCount;
         }
 
         public long indexCount() {
@@ -126,6 +138,29 @@ public class IndexingStats implements Streamable, ToXContent {
             return deleteCurrent;
         }
 
+        /**
+         * The number of counter increment update requests executed.
+         */
+        public long counterUpdateCount() {
+            return counterUpdateCount;
+        }
+
+        public long getCounterUpdateCount() {
+            return counterUpdateCount;
+        }
+
+        /**
+         * The number of counter increment update requests that were merged into the reindex of another
+         * request to the same document, and did not cause a reindex of their own.
+         */
+        public long counterUpdateCoalescedCount() {
+            return counterUpdateCoalescedCount;
+        }
+
+        public long getCounterUpdateCoalescedCount() {
+            return counterUpdateCoalescedCount;
+        }
+
         public static Stats readStats(StreamInput in) throws IOException {
             Stats stats = new Stats();
             stats.readFrom(in);
@@ -141,6 +176,8 @@ public class IndexingStats implements Streamable, ToXContent {
             deleteCount = in.readVLong();
             deleteTimeInMillis = in.readVLong();
             deleteCurrent = in.readVLong();
+            counterUpdateCount = in.readVLong();
+            counterUpdateCoalescedCount = in.readVLong();
         }
 
         @Override
@@ -152,6 +189,8 @@ public class IndexingStats implements Streamable, ToXContent {
             out.writeVLong(deleteCount);
             out.writeVLong(deleteTimeInMillis);
             out.writeVLong(deleteCurrent);
+            out.writeVLong(counterUpdateCount);
+            out.writeVLong(counterUpdateCoalescedCount);
         }
 
         @Override
@@ -165,6 +204,8 @@ public class IndexingStats implements Streamable, ToXContent {
             builder.field(Fields.DELETE_TIME, deleteTime().toString());
             builder.field(Fields.DELETE_TIME_IN_MILLIS, deleteTimeInMillis);
             builder.field(Fields.DELETE_CURRENT, deleteCurrent);
+            builder.field(Fields.COUNTER_UPDATE_TOTAL, counterUpdateCount);
+            builder.field(Fields.COUNTER_UPDATE_COALESCED, counterUpdateCoalescedCount);
 
             return builder;
         }
@@ -245,6 +286,8 @@ public class IndexingStats implements Streamable, ToXContent {
         static final XContentBuilderString DELETE_TIME = new XContentBuilderString("delete_time");
         static final XContentBuilderString DELETE_TIME_IN_MILLIS = new XContentBuilderString("delete_time_in_millis");
         static final XContentBuilderString DELETE_CURRENT = new XContentBuilderString("delete_current");
+        static final XContentBuilderString COUNTER_UPDATE_TOTAL = new XContentBuilderString("counter_update_total");
+        static final XContentBuilderString COUNTER_UPDATE_COALESCED = new XContentBuilderString("counter_update_coalesced");
     }
 
     public static IndexingStats readIndexingStats(StreamInput in) throws IOException {
@@ -250,6 +250,17 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
         }
     }
 
+    /**
+     * Records a single reindex of a document that applied the given number of counter increment update requests.
+     */
+    public void postCounterUpdate(String type, int coalescedRequests) {
+        totalStats.counterUpdates.inc(coalescedRequests);
+        totalStats.counterUpdatesCoalesced.inc(coalescedRequests - 1);
+        StatsHolder typeStats = typeStats(type);
+        typeStats.counterUpdates.inc(coalescedRequests);
+        typeStats.counterUpdatesCoalesced.inc(coalescedRequests - 1);
+    }
+
     public void clear() {
         totalStats.clear();
         synchronized (this) {
@@ -285,11 +296,14 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
         public final MeanMetric deleteMetric = new MeanMetric();
         public final CounterMetric indexCurrent = new CounterMetric();
         public final CounterMetric deleteCurrent = new CounterMetric();
+        public final CounterMetric counterUpdates = new CounterMetric();
+        public final CounterMetric counterUpdatesCoalesced = new CounterMetric();
 
         public IndexingStats.Stats stats() {
             return new IndexingStats.Stats(
                     indexMetric.count(), TimeUnit.NANOSECONDS.toMillis(indexMetric.sum()), indexCurrent.count(),
-                    deleteMetric.count(), TimeUnit.NANOSECONDS.toMillis(deleteMetric.sum()), deleteCurrent.count());
+                    deleteMetric.count(), TimeUnit.NANOSECONDS.toMillis(deleteMetric.sum()), deleteCurrent.count(),
+                    counterUpdates.count(), counterUpdatesCoalesced.count());
         }
 
         public long totalCurrent() {
@@ -94,6 +94,9 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
     private volatile Map<String, ObjectMappers> fullPathObjectMappers = ImmutableMap.of();
     private boolean hasNested = false; // updated dynamically to true when a nested object is added
 
+    // incremented on each change to the mappings, under the mutex
+    private volatile long mappingVersion;
+
     private final DocumentMapperParser documentParser;
 
     private final InternalFieldMapperListener fieldMapperListener = new InternalFieldMapperListener();
@@ -165,6 +168,14 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
         return this.hasNested;
     }
 
+    /**
+     * A version of the mappings of this index, changed whenever a mapping is added, merged, removed
+     * or when new fields or objects are introduced dynamically.
+     */
+    public long mappingVersion() {
+        return this.mappingVersion;
+    }
+
     @Override
     public UnmodifiableIterator<DocumentMapper> iterator() {
         return Iterators.unmodifiableIterator(mappers.values().iterator());
@@ -186,8 +197,9 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
             // the cluster meta data if needed, or checked for existence
             synchronized (mutex) {
                 mappers = newMapBuilder(mappers).put(type, mapper).map();
+                defaultMappingSource = mappingSource;
+                mappingVersion++;
             }
-            defaultMappingSource = mappingSource;
             return mapper;
         } else {
             return merge(parse(type, mappingSource, applyDefault));
@@ -226,6 +238,7 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
                         logger.debug("merging mapping for type [{}] resulted in conflicts: [{}]", mapper.type(), Arrays.toString(result.conflicts()));
                     }
                 }
+                mappingVersion++;
                 return oldMapper;
             } else {
                 FieldMapperListener.Aggregator fieldMappersAgg = new FieldMapperListener.Aggregator();
@@ -239,6 +252,7 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
                 mapper.addObjectMapperListener(objectMapperListener, false);
 
                 mappers = newMapBuilder(mappers).put(mapper.type(), mapper).map();
+                mappingVersion++;
                 return mapper;
             }
         }
@@ -261,6 +275,7 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
                 }
             }
             this.fullPathObjectMappers = fullPathObjectMappers.map();
+            mappingVersion++;
         }
     }
 
@@ -300,6 +315,7 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
             this.nameFieldMappers = nameFieldMappers.map();
             this.indexNameFieldMappers = indexNameFieldMappers.map();
             this.fullNameFieldMappers = fullNameFieldMappers.map();
+            mappingVersion++;
         }
     }
 
@@ -312,6 +328,7 @@ public class MapperService extends AbstractIndexComponent implements Iterable<Do
             docMapper.close();
             mappers = newMapBuilder(mappers).remove(type).map();
             removeObjectAndFieldMappers(docMapper);
+            mappingVersion++;
         }
     }
 
@@ -24,6 +24,7 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
 import org.apache.lucene.index.FieldInfo.IndexOptions;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.TermsFilter;
 import org.apache.lucene.search.*;
@@ -398,6 +399,19 @@ public abstract class AbstractFieldMapper<T> implements FieldMapper<T>, Mapper {
 
     protected abstract Field parseCreateField(ParseContext context) throws IOException;
 
+    /**
+     * Adds the doc values variant of a parsed value to the document. Doc values hold a single value per
+     * document, so a second value for the same field is rejected.
+     */
+    protected void addDocValuesField(ParseContext context, Field field) {
+        for (IndexableField existing : context.doc().getFields()) {
+            if (existing.name().equals(field.name()) && existing.fieldType().docValueType() != null) {
+                throw new MapperParsingException("field [" + names.fullName() + "] uses doc values and does not support multiple values");
+            }
+        }
+        context.doc().add(field);
+    }
+
     /**
      * Derived classes can override it to specify that boost value is set by derived classes.
      */
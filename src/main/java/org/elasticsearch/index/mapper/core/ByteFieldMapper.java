@@ -23,6 +23,7 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.PackedLongDocValuesField;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.NumericRangeFilter;
 import org.apache.lucene.search.NumericRangeQuery;
@@ -373,5 +374,10 @@ public class ByteFieldMapper extends NumberFieldMapper<Byte> {
         public String numericAsString() {
             return Byte.toString(number);
         }
+
+        @Override
+        public Field docValuesField() {
+            return new PackedLongDocValuesField(mapper.names().indexName(), number);
+        }
     }
 }
\ No newline at end of file
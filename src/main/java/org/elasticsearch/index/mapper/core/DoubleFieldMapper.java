@@ -21,6 +21,7 @@ package org.elasticsearch.index.mapper.core;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.document.DoubleDocValuesField;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
 import org.apache.lucene.search.Filter;
@@ -372,5 +373,10 @@ public class DoubleFieldMapper extends NumberFieldMapper<Double> {
         public String numericAsString() {
             return Double.toString(number);
         }
+
+        @Override
+        public Field docValuesField() {
+            return new DoubleDocValuesField(mapper.names().indexName(), number);
+        }
     }
 }
\ No newline at end of file
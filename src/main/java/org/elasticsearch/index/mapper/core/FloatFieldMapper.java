@@ -23,6 +23,7 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.FloatDocValuesField;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.NumericRangeFilter;
 import org.apache.lucene.search.NumericRangeQuery;
@@ -368,5 +369,10 @@ public class FloatFieldMapper extends NumberFieldMapper<Float> {
         public String numericAsString() {
             return Float.toString(number);
         }
+
+        @Override
+        public Field docValuesField() {
+            return new FloatDocValuesField(mapper.names().indexName(), number);
+        }
     }
 }
\ No newline at end of file
@@ -20,6 +20,7 @@
 package org.elasticsearch.index.mapper.core;
 
 import org.apache.lucene.analysis.NumericTokenStream;
+import org.apache.lucene.document.ByteDocValuesField;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
 import org.apache.lucene.index.FieldInfo.IndexOptions;
@@ -62,6 +63,14 @@ public abstract class NumberFieldMapper<T extends Number> extends AbstractFieldM
         public static final Explicit<Boolean> IGNORE_MALFORMED = new Explicit<Boolean>(false, false);
     }
 
+    /**
+     * The name of the doc values field marking the docs that have a value for a numeric field using the
+     * <tt>doc_values</tt> field data format.
+     */
+    public static String docValuesMarkerName(String indexName) {
+        return indexName + "#present";
+    }
+
     public abstract static class Builder<T extends Builder, Y extends NumberFieldMapper> extends AbstractFieldMapper.Builder<T, Y> {
 
         protected int precisionStep = Defaults.PRECISION_STEP;
@@ -164,7 +173,13 @@ public abstract class NumberFieldMapper<T extends Number> extends AbstractFieldM
     protected Field parseCreateField(ParseContext context) throws IOException {
         RuntimeException e;
         try {
-            return innerParseCreateField(context);
+            Field field = innerParseCreateField(context);
+            if (field instanceof CustomNumericField && fieldDataType.hasDocValues()) {
+                addDocValuesField(context, ((CustomNumericField) field).docValuesField());
+                // numeric doc values default to a value for docs without one, so tell them apart with a marker
+                context.doc().add(new ByteDocValuesField(docValuesMarkerName(names.indexName()), (byte) 1));
+            }
+            return field;
         } catch (IllegalArgumentException e1) {
             e = e1;
         } catch (MapperParsingException e2) {
@@ -279,6 +294,11 @@ public abstract class NumberFieldMapper<T extends Number> extends AbstractFieldM
         }
 
         public abstract String numericAsString();
+
+        /**
+         * The doc values field holding the same value, added when the mapping uses the <tt>doc_values</tt> format.
+         */
+        public abstract Field docValuesField();
     }
 
     @Override
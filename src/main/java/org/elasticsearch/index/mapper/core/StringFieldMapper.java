@@ -25,8 +25,10 @@ import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.SortedBytesDocValuesField;
 import org.apache.lucene.index.FieldInfo.IndexOptions;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
@@ -136,6 +138,10 @@ public class StringFieldMapper extends AbstractFieldMapper<String> implements Al
                     fieldType.setIndexOptions(IndexOptions.DOCS_ONLY);
                 }
             }
+            if (fieldDataSettings != null && "doc_values".equals(fieldDataSettings.get("format")) && fieldType.indexed() && fieldType.tokenized()) {
+                // doc values hold the whole value, which would not match the analyzed terms of the field
+                throw new MapperParsingException("field [" + name + "] uses doc values, which are only supported on not_analyzed strings");
+            }
             StringFieldMapper fieldMapper = new StringFieldMapper(buildNames(context),
                     boost, fieldType, nullValue, indexAnalyzer, searchAnalyzer, searchQuotedAnalyzer,
                     positionOffsetGap, ignoreAbove, provider, similarity, fieldDataSettings);
@@ -295,6 +301,10 @@ public class StringFieldMapper extends AbstractFieldMapper<String> implements Al
         if (context.includeInAll(includeInAll, this)) {
             context.allEntries().addText(names.fullName(), value, boost);
         }
+        if (fieldDataType.hasDocValues() && value.length() > 0) {
+            // docs without a value read the empty default, so empty strings are treated as missing
+            addDocValuesField(context, new SortedBytesDocValuesField(names.indexName(), new BytesRef(value)));
+        }
         if (!fieldType().indexed() && !fieldType().stored()) {
             context.ignoredValue(names.indexName(), value);
             return null;
@@ -108,6 +108,8 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
 
         private boolean store = Defaults.STORE;
 
+        private String fieldDataSettings;
+
         boolean validateLat = Defaults.VALIDATE_LAT;
         boolean validateLon = Defaults.VALIDATE_LON;
         boolean normalizeLat = Defaults.NORMALIZE_LAT;
@@ -148,13 +150,24 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
             return this;
         }
 
+        /**
+         * The field data settings of the geo point values, for example <tt>format=compressed;precision=1m</tt>.
+         */
+        public Builder fieldDataSettings(String fieldDataSettings) {
+            this.fieldDataSettings = fieldDataSettings;
+            return this;
+        }
+
         @Override
         public GeoPointFieldMapper build(BuilderContext context) {
             ContentPath.Type origPathType = context.path().pathType();
             context.path().pathType(pathType);
 
-            GeoStringFieldMapper geoStringMapper = new GeoStringFieldMapper.Builder(name)
-                    .includeInAll(false).store(store).build(context);
+            GeoStringFieldMapper.Builder geoStringMapperBuilder = new GeoStringFieldMapper.Builder(name).includeInAll(false).store(store);
+            if (fieldDataSettings != null) {
+                geoStringMapperBuilder.fieldDataSettings(fieldDataSettings);
+            }
+            GeoStringFieldMapper geoStringMapper = geoStringMapperBuilder.build(context);
 
 
             DoubleFieldMapper latMapper = null;
@@ -219,6 +232,8 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
                     builder.normalizeLat = XContentMapValues.nodeBooleanValue(fieldNode);
                 } else if (fieldName.equals("normalize_lon")) {
                     builder.normalizeLon = XContentMapValues.nodeBooleanValue(fieldNode);
+                } else if (fieldName.equals("fielddata")) {
+                    builder.fieldDataSettings(fieldNode.toString());
                 }
             }
             return builder;
@@ -532,6 +547,9 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
                 builder.field("normalize_lon", normalizeLon);
             }
         }
+        if (geoStringMapper.customFieldDataSettings() != null) {
+            builder.field("fielddata", geoStringMapper.customFieldDataSettings().toDelimitedString(';'));
+        }
 
         builder.endObject();
         return builder;
@@ -590,5 +608,10 @@ public class GeoPointFieldMapper implements Mapper, ArrayValueMapperParser {
         public GeoPointFieldMapper geoMapper() {
             return geoMapper;
         }
+
+        @Nullable
+        public Settings customFieldDataSettings() {
+            return customFieldDataSettings;
+        }
     }
 }
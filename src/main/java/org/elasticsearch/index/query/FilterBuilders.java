@@ -195,6 +195,15 @@ public abstract class FilterBuilders {
         return new TermsFilterBuilder(name, values);
     }
 
+    /**
+     * A terms filter that fetches its terms from a field of a document, see {@link TermsLookupFilterBuilder}.
+     *
+     * @param name The field name
+     */
+    public static TermsLookupFilterBuilder termsLookupFilter(String name) {
+        return new TermsLookupFilterBuilder(name);
+    }
+
     /**
      * A filer for a field based on several terms matching on any of them.
      *
@@ -36,6 +36,8 @@ public class GeoPolygonFilterBuilder extends BaseFilterBuilder {
 
     private final List<GeoPoint> points = Lists.newArrayList();
 
+    private String optimizeBbox;
+
     private Boolean cache;
     private String cacheKey;
 
@@ -62,6 +64,15 @@ public class GeoPolygonFilterBuilder extends BaseFilterBuilder {
         return this;
     }
 
+    /**
+     * Set to <tt>grid</tt> to only check the points in the grid cells overlapping with the polygon.
+     * Defaults to <tt>none</tt>.
+     */
+    public GeoPolygonFilterBuilder optimizeBbox(String optimizeBbox) {
+        this.optimizeBbox = optimizeBbox;
+        return this;
+    }
+
     /**
      * Sets the filter name for the filter that can be used when searching for matched_filters per hit.
      */
@@ -95,6 +106,9 @@ public class GeoPolygonFilterBuilder extends BaseFilterBuilder {
         builder.endArray();
         builder.endObject();
 
+        if (optimizeBbox != null) {
+            builder.field("optimize_bbox", optimizeBbox);
+        }
         if (filterName != null) {
             builder.field("_name", filterName);
         }
@@ -75,6 +75,8 @@ public class GeoPolygonFilterParser implements FilterParser {
         boolean normalizeLon = true;
         boolean normalizeLat = true;
 
+        String optimizeBbox = "none";
+
         String filterName = null;
         String currentFieldName = null;
         XContentParser.Token token;
@@ -137,6 +139,8 @@ public class GeoPolygonFilterParser implements FilterParser {
                 } else if ("normalize".equals(currentFieldName)) {
                     normalizeLat = parser.booleanValue();
                     normalizeLon = parser.booleanValue();
+                } else if ("optimize_bbox".equals(currentFieldName) || "optimizeBbox".equals(currentFieldName)) {
+                    optimizeBbox = parser.textOrNull();
                 } else {
                     throw new QueryParsingException(parseContext.index(), "[geo_polygon] filter does not support [" + currentFieldName + "]");
                 }
@@ -163,7 +167,7 @@ public class GeoPolygonFilterParser implements FilterParser {
         }
 
         IndexGeoPointFieldData indexFieldData = parseContext.fieldData().getForField(mapper);
-        Filter filter = new GeoPolygonFilter(points.toArray(new GeoPoint[points.size()]), indexFieldData);
+        Filter filter = new GeoPolygonFilter(points.toArray(new GeoPoint[points.size()]), indexFieldData, optimizeBbox);
         if (cache) {
             filter = parseContext.cacheFilter(filter, cacheKey);
         }
@@ -120,6 +120,8 @@ public class HasChildFilterParser implements FilterParser {
         // wrap the query with type query
         query = new XFilteredQuery(query, parseContext.cacheFilter(childDocMapper.typeFilter(), null));
 
+        // the query registers itself with the current search context, it can't be reused by other requests
+        parseContext.markNotCacheable();
         SearchContext searchContext = SearchContext.current();
 
         HasChildFilter childFilter = HasChildFilter.create(query, parentType, childType, searchContext);
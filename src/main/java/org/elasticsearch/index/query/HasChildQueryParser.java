@@ -117,6 +117,8 @@ public class HasChildQueryParser implements QueryParser {
         DocumentMapper parentDocMapper = parseContext.mapperService().documentMapper(parentType);
 
         // wrap the query with type query
+        // the query registers itself with the current search context, it can't be reused by other requests
+        parseContext.markNotCacheable();
         SearchContext searchContext = SearchContext.current();
         Query query;
         if (scoreType != null) {
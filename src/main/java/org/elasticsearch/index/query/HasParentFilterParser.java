@@ -116,6 +116,8 @@ public class HasParentFilterParser implements FilterParser {
         // wrap the query with type query
         query = new XFilteredQuery(query, parseContext.cacheFilter(parentDocMapper.typeFilter(), null));
 
+        // the query registers itself with the current search context, it can't be reused by other requests
+        parseContext.markNotCacheable();
         SearchContext searchContext = SearchContext.current();
 
         HasParentFilter parentFilter = HasParentFilter.create(query, parentType, searchContext);
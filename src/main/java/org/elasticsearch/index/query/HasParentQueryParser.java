@@ -143,6 +143,8 @@ public class HasParentQueryParser implements QueryParser {
         innerQuery.setBoost(boost);
         // wrap the query with type query
         innerQuery = new XFilteredQuery(innerQuery, parseContext.cacheFilter(parentDocMapper.typeFilter(), null));
+        // the query registers itself with the current search context, it can't be reused by other requests
+        parseContext.markNotCacheable();
         SearchContext searchContext = SearchContext.current();
         Query query;
         if (score) {
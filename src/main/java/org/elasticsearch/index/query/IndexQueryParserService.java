@@ -28,12 +28,16 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContentParser;
 import org.elasticsearch.index.AbstractIndexComponent;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.analysis.AnalysisService;
 import org.elasticsearch.index.cache.IndexCache;
+import org.elasticsearch.index.cache.query.parser.support.ParsedQueryKey;
 import org.elasticsearch.index.engine.IndexEngine;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.mapper.MapperService;
@@ -253,6 +257,59 @@ public class IndexQueryParserService extends AbstractIndexComponent {
         }
     }
 
+    /**
+     * Same as {@link #parseCached(BytesReference)} for the query the parser is positioned on. The query source
+     * is sliced from the bytes being parsed when possible, and only copied otherwise.
+     */
+    public ParsedQuery parseCached(XContentParser parser) throws ElasticSearchException {
+        BytesReference source = null;
+        try {
+            if (parser instanceof JsonXContentParser && parser.contentType() == XContentType.JSON) {
+                source = ((JsonXContentParser) parser).sliceCurrentStructure();
+            }
+            if (source == null) {
+                XContentBuilder builder = XContentFactory.contentBuilder(parser.contentType());
+                builder.copyCurrentStructure(parser);
+                source = builder.bytes();
+            }
+        } catch (IOException e) {
+            throw new QueryParsingException(index, "Failed to parse", e);
+        }
+        return parseCached(source);
+    }
+
+    /**
+     * Parses the query source, reusing the query previously parsed from the same source and types if it is
+     * still in the {@link org.elasticsearch.index.cache.query.parser.QueryParserCache} and the mappings did not
+     * change since (see {@link MapperService#mappingVersion()}). Queries that can't be
+     * shared between requests (see {@link QueryParseContext#isCacheable()}) are never cached.
+     */
+    public ParsedQuery parseCached(BytesReference source) throws ElasticSearchException {
+        ParsedQueryKey key = new ParsedQueryKey(source, QueryParseContext.getTypes(), mapperService.mappingVersion());
+        ParsedQuery parsedQuery = indexCache.queryParserCache().get(key);
+        if (parsedQuery != null) {
+            return parsedQuery;
+        }
+        XContentParser parser = null;
+        try {
+            parser = XContentFactory.xContent(source).createParser(source);
+            QueryParseContext parseContext = cache.get();
+            parsedQuery = parse(parseContext, parser);
+            if (parseContext.isCacheable()) {
+                indexCache.queryParserCache().put(key, parsedQuery);
+            }
+            return parsedQuery;
+        } catch (QueryParsingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new QueryParsingException(index, "Failed to parse", e);
+        } finally {
+            if (parser != null) {
+                parser.close();
+            }
+        }
+    }
+
     @Nullable
     public Filter parseInnerFilter(XContentParser parser) throws IOException {
         QueryParseContext context = cache.get();
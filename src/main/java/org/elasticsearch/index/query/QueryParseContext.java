@@ -82,6 +82,8 @@ public class QueryParseContext {
 
     private XContentParser parser;
 
+    private boolean cacheable = true;
+
     public QueryParseContext(Index index, IndexQueryParserService indexQueryParser) {
         this.index = index;
         this.indexQueryParser = indexQueryParser;
@@ -91,6 +93,19 @@ public class QueryParseContext {
         this.lookup = null;
         this.parser = jp;
         this.namedFilters.clear();
+        this.cacheable = true;
+    }
+
+    /**
+     * Can the query parsed with this context be reused by other requests? It can't once the query depends on
+     * the time it was parsed at, on scripts or on the search context it was parsed for.
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    public void markNotCacheable() {
+        this.cacheable = false;
     }
 
     public Index index() {
@@ -294,8 +309,11 @@ public class QueryParseContext {
     private SearchLookup lookup = null;
 
     public SearchLookup lookup() {
+        markNotCacheable();
         SearchContext current = SearchContext.current();
         if (current != null) {
+            // scripts using the lookup of the search context can't run on concurrent slices
+            current.searcher().disableParallelSearch();
             return current.lookup();
         }
         if (lookup == null) {
@@ -305,6 +323,7 @@ public class QueryParseContext {
     }
 
     public long nowInMillis() {
+        markNotCacheable();
         SearchContext current = SearchContext.current();
         if (current != null) {
             return current.nowInMillis();
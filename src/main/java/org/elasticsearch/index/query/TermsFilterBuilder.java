@@ -117,7 +117,8 @@ public class TermsFilterBuilder extends BaseFilterBuilder {
 
     /**
      * Sets the execution mode for the terms filter. Cane be either "plain", "bool"
-     * "and". Defaults to "plain".
+     * "and", "or", "sorted" (single merge pass over the terms of each segment, good for
+     * large sets of terms) or "automaton" (for very large sets of string terms). Defaults to "plain".
      */
     public TermsFilterBuilder execution(String execution) {
         this.execution = execution;
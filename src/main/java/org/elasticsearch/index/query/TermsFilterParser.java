@@ -25,13 +25,17 @@ import org.apache.lucene.queries.TermsFilter;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.BytesRefs;
 import org.elasticsearch.common.lucene.search.*;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.index.cache.filter.support.CacheKeyFilter;
 import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.InternalMapper;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.indices.cache.filter.terms.IndicesTermsFilterCache;
+import org.elasticsearch.indices.cache.filter.terms.TermsLookup;
 
 import java.io.IOException;
 import java.util.List;
@@ -45,10 +49,17 @@ public class TermsFilterParser implements FilterParser {
 
     public static final String NAME = "terms";
 
+    private IndicesTermsFilterCache termsFilterCache;
+
     @Inject
     public TermsFilterParser() {
     }
 
+    @Inject(optional = true)
+    public void setIndicesTermsFilterCache(@Nullable IndicesTermsFilterCache termsFilterCache) {
+        this.termsFilterCache = termsFilterCache;
+    }
+
     @Override
     public String[] names() {
         return new String[]{NAME, "in"};
@@ -67,6 +78,12 @@ public class TermsFilterParser implements FilterParser {
         String execution = "plain";
         List<Object> terms = Lists.newArrayList();
         String fieldName = null;
+
+        String lookupIndex = parseContext.index().name();
+        String lookupType = null;
+        String lookupId = null;
+        String lookupPath = null;
+        String lookupRouting = null;
         while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
             if (token == XContentParser.Token.FIELD_NAME) {
                 currentFieldName = parser.currentName();
@@ -80,6 +97,36 @@ public class TermsFilterParser implements FilterParser {
                     }
                     terms.add(value);
                 }
+            } else if (token == XContentParser.Token.START_OBJECT) {
+                fieldName = currentFieldName;
+                while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                    if (token == XContentParser.Token.FIELD_NAME) {
+                        currentFieldName = parser.currentName();
+                    } else if (token.isValue()) {
+                        if ("index".equals(currentFieldName)) {
+                            lookupIndex = parser.text();
+                        } else if ("type".equals(currentFieldName)) {
+                            lookupType = parser.text();
+                        } else if ("id".equals(currentFieldName)) {
+                            lookupId = parser.text();
+                        } else if ("path".equals(currentFieldName)) {
+                            lookupPath = parser.text();
+                        } else if ("routing".equals(currentFieldName)) {
+                            lookupRouting = parser.textOrNull();
+                        } else {
+                            throw new QueryParsingException(parseContext.index(), "[terms] filter does not support [" + currentFieldName + "] within lookup element");
+                        }
+                    }
+                }
+                if (lookupType == null) {
+                    throw new QueryParsingException(parseContext.index(), "[terms] filter lookup element requires specifying the type");
+                }
+                if (lookupId == null) {
+                    throw new QueryParsingException(parseContext.index(), "[terms] filter lookup element requires specifying the id");
+                }
+                if (lookupPath == null) {
+                    throw new QueryParsingException(parseContext.index(), "[terms] filter lookup element requires specifying the path");
+                }
             } else if (token.isValue()) {
                 if ("execution".equals(currentFieldName)) {
                     execution = parser.text();
@@ -99,6 +146,19 @@ public class TermsFilterParser implements FilterParser {
             throw new QueryParsingException(parseContext.index(), "bool filter requires a field name, followed by array of terms");
         }
 
+        if (lookupId != null) {
+            if (termsFilterCache == null) {
+                throw new QueryParsingException(parseContext.index(), "[terms] filter lookup is not supported on this node");
+            }
+            terms = termsFilterCache.terms(new TermsLookup(lookupIndex, lookupType, lookupId, lookupRouting, lookupPath));
+            // the terms depend on the current version of the lookup document, not only on the filter source
+            parseContext.markNotCacheable();
+            if (terms.isEmpty()) {
+                // missing lookup document or path
+                return Queries.MATCH_NO_FILTER;
+            }
+        }
+
         FieldMapper fieldMapper = null;
         smartNameFieldMappers = parseContext.smartFieldMappers(fieldName);
         String[] previousTypes = null;
@@ -129,6 +189,25 @@ public class TermsFilterParser implements FilterParser {
                 if (cache == null || cache) {
                     filter = parseContext.cacheFilter(filter, cacheKey);
                 }
+            } else if ("sorted".equals(execution) || "automaton".equals(execution)) {
+                if (fieldMapper instanceof InternalMapper) {
+                    // internal fields (like _id) may need more than one term per value
+                    filter = fieldMapper.termsFilter(terms, parseContext);
+                } else {
+                    BytesRef[] filterValues = new BytesRef[terms.size()];
+                    for (int i = 0; i < filterValues.length; i++) {
+                        filterValues[i] = fieldMapper != null ? fieldMapper.indexedValueForSearch(terms.get(i)) : BytesRefs.toBytesRef(terms.get(i));
+                    }
+                    if ("sorted".equals(execution)) {
+                        filter = new SortedTermsFilter(fieldName, filterValues);
+                    } else {
+                        filter = new AutomatonTermsFilter(fieldName, filterValues);
+                    }
+                }
+                // cache the whole filter by default, or if explicitly told to
+                if (cache == null || cache) {
+                    filter = parseContext.cacheFilter(filter, cacheKey);
+                }
             } else if ("bool".equals(execution)) {
                 XBooleanFilter boolFiler = new XBooleanFilter();
                 if (fieldMapper != null) {
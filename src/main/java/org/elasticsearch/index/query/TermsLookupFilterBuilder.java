@@ -0,0 +1,145 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.query;
+
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * A terms filter for a field, where the terms are fetched from a field of a document (in the same index by default)
+ * instead of being sent with the request. The fetched terms are cached on each node until the document changes.
+ */
+public class TermsLookupFilterBuilder extends BaseFilterBuilder {
+
+    private final String name;
+    private String lookupIndex;
+    private String lookupType;
+    private String lookupId;
+    private String lookupRouting;
+    private String lookupPath;
+
+    private Boolean cache;
+    private String cacheKey;
+    private String filterName;
+    private String execution;
+
+    public TermsLookupFilterBuilder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Sets the index name to lookup the terms from, defaults to the index the filter is executed on.
+     */
+    public TermsLookupFilterBuilder lookupIndex(String lookupIndex) {
+        this.lookupIndex = lookupIndex;
+        return this;
+    }
+
+    /**
+     * Sets the type of the document to lookup the terms from.
+     */
+    public TermsLookupFilterBuilder lookupType(String lookupType) {
+        this.lookupType = lookupType;
+        return this;
+    }
+
+    /**
+     * Sets the id of the document to lookup the terms from.
+     */
+    public TermsLookupFilterBuilder lookupId(String lookupId) {
+        this.lookupId = lookupId;
+        return this;
+    }
+
+    /**
+     * Sets the path (dot notation for inner objects) of the field within the document holding the terms.
+     */
+    public TermsLookupFilterBuilder lookupPath(String lookupPath) {
+        this.lookupPath = lookupPath;
+        return this;
+    }
+
+    public TermsLookupFilterBuilder lookupRouting(String lookupRouting) {
+        this.lookupRouting = lookupRouting;
+        return this;
+    }
+
+    /**
+     * Sets the execution mode for the terms filter, see {@link TermsFilterBuilder#execution(String)}.
+     */
+    public TermsLookupFilterBuilder execution(String execution) {
+        this.execution = execution;
+        return this;
+    }
+
+    /**
+     * Sets the filter name for the filter that can be used when searching for matched_filters per hit.
+     */
+    public TermsLookupFilterBuilder filterName(String filterName) {
+        this.filterName = filterName;
+        return this;
+    }
+
+    /**
+     * Should the filter be cached or not. Defaults to <tt>true</tt>.
+     */
+    public TermsLookupFilterBuilder cache(boolean cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    public TermsLookupFilterBuilder cacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+        return this;
+    }
+
+    @Override
+    public void doXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(TermsFilterParser.NAME);
+
+        builder.startObject(name);
+        if (lookupIndex != null) {
+            builder.field("index", lookupIndex);
+        }
+        builder.field("type", lookupType);
+        builder.field("id", lookupId);
+        if (lookupRouting != null) {
+            builder.field("routing", lookupRouting);
+        }
+        builder.field("path", lookupPath);
+        builder.endObject();
+
+        if (execution != null) {
+            builder.field("execution", execution);
+        }
+        if (filterName != null) {
+            builder.field("_name", filterName);
+        }
+        if (cache != null) {
+            builder.field("_cache", cache);
+        }
+        if (cacheKey != null) {
+            builder.field("_cache_key", cacheKey);
+        }
+
+        builder.endObject();
+    }
+}
@@ -120,6 +120,8 @@ public class TopChildrenQueryParser implements QueryParser {
         // wrap the query with type query
         query = new XFilteredQuery(query, parseContext.cacheFilter(childDocMapper.typeFilter(), null));
 
+        // the query registers itself with the current search context, it can't be reused by other requests
+        parseContext.markNotCacheable();
         SearchContext searchContext = SearchContext.current();
         TopChildrenQuery childQuery = new TopChildrenQuery(searchContext, query, childType, parentType, scoreType, factor, incrementalFactor);
         searchContext.addRewrite(childQuery);
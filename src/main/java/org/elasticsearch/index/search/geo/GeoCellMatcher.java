@@ -0,0 +1,85 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.search.geo;
+
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.fielddata.GeoPointCellIndex;
+
+/**
+ * Collects the docs matching a geo shape using a {@link GeoPointCellIndex}. Only the cells that overlap
+ * the bounding box of the shape are visited, cells that are fully within the shape are accepted without
+ * checking their docs, and only the docs of the cells crossing the shape border are checked one by one.
+ */
+public abstract class GeoCellMatcher {
+
+    public static enum Relation {
+        WITHIN,
+        DISJOINT,
+        CROSSES
+    }
+
+    /**
+     * How the cell relates to the shape. Returning {@link Relation#CROSSES} is always correct, but
+     * causes all the docs of the cell to be checked.
+     */
+    protected abstract Relation relate(double minLat, double maxLat, double minLon, double maxLon);
+
+    /**
+     * Does the doc have a point within the shape?
+     */
+    protected abstract boolean matchDoc(int doc);
+
+    /**
+     * Collects the matching docs with points in the provided bounding box (which must not cross the
+     * 180 meridian) into the bit set.
+     */
+    public void collect(GeoPointCellIndex cellIndex, FixedBitSet result, @Nullable Bits acceptDocs,
+                        double minLat, double maxLat, double minLon, double maxLon) {
+        int minRow = cellIndex.row(minLat);
+        int maxRow = cellIndex.row(maxLat);
+        int minColumn = cellIndex.column(minLon);
+        int maxColumn = cellIndex.column(maxLon);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = cellIndex.cell(row, column);
+                int start = cellIndex.cellStart(cell);
+                int end = cellIndex.cellEnd(cell);
+                if (start == end) {
+                    continue;
+                }
+                Relation relation = relate(cellIndex.minLat(row), cellIndex.maxLat(row), cellIndex.minLon(column), cellIndex.maxLon(column));
+                if (relation == Relation.DISJOINT) {
+                    continue;
+                }
+                for (int i = start; i < end; i++) {
+                    int doc = cellIndex.doc(i);
+                    if (result.get(doc) || (acceptDocs != null && !acceptDocs.get(doc))) {
+                        continue;
+                    }
+                    if (relation == Relation.WITHIN || matchDoc(doc)) {
+                        result.set(doc);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.geo.GeoDistance;
@@ -31,6 +32,8 @@ import org.elasticsearch.common.lucene.docset.AndDocIdSet;
 import org.elasticsearch.common.lucene.docset.DocIdSets;
 import org.elasticsearch.common.lucene.docset.MatchDocIdSet;
 import org.elasticsearch.common.unit.DistanceUnit;
+import org.elasticsearch.index.fielddata.AtomicGeoPointFieldData;
+import org.elasticsearch.index.fielddata.GeoPointCellIndex;
 import org.elasticsearch.index.fielddata.GeoPointValues;
 import org.elasticsearch.index.fielddata.IndexGeoPointFieldData;
 import org.elasticsearch.index.mapper.geo.GeoPointFieldMapper;
@@ -54,6 +57,7 @@ public class GeoDistanceFilter extends Filter {
     private final GeoDistance.FixedSourceDistance fixedSourceDistance;
     private GeoDistance.DistanceBoundingCheck distanceBoundingCheck;
     private final Filter boundingBoxFilter;
+    private final boolean useCellIndex;
 
     public GeoDistanceFilter(double lat, double lon, double distance, GeoDistance geoDistance, IndexGeoPointFieldData indexFieldData, GeoPointFieldMapper mapper,
                              String optimizeBbox) {
@@ -68,15 +72,21 @@ public class GeoDistanceFilter extends Filter {
             distanceBoundingCheck = GeoDistance.distanceBoundingCheck(lat, lon, distance, DistanceUnit.MILES);
             if ("memory".equals(optimizeBbox)) {
                 boundingBoxFilter = null;
+                useCellIndex = false;
+            } else if ("grid".equals(optimizeBbox)) {
+                boundingBoxFilter = null;
+                useCellIndex = true;
             } else if ("indexed".equals(optimizeBbox)) {
                 boundingBoxFilter = IndexedGeoBoundingBoxFilter.create(distanceBoundingCheck.topLeft(), distanceBoundingCheck.bottomRight(), mapper);
                 distanceBoundingCheck = GeoDistance.ALWAYS_INSTANCE; // fine, we do the bounding box check using the filter
+                useCellIndex = false;
             } else {
                 throw new ElasticSearchIllegalArgumentException("type [" + optimizeBbox + "] for bounding box optimization not supported");
             }
         } else {
             distanceBoundingCheck = GeoDistance.ALWAYS_INSTANCE;
             boundingBoxFilter = null;
+            useCellIndex = false;
         }
     }
 
@@ -109,8 +119,12 @@ public class GeoDistanceFilter extends Filter {
                 return null;
             }
         }
-        final GeoPointValues values = indexFieldData.load(context).getGeoPointValues();
+        AtomicGeoPointFieldData fieldData = indexFieldData.load(context);
+        final GeoPointValues values = fieldData.getGeoPointValues();
         GeoDistanceDocSet distDocSet = new GeoDistanceDocSet(context.reader().maxDoc(), acceptedDocs, values, fixedSourceDistance, distanceBoundingCheck, distance);
+        if (useCellIndex) {
+            return collectFromCells(fieldData.getCellIndex(), distDocSet, context.reader().maxDoc(), acceptedDocs);
+        }
         if (boundingBoxDocSet == null) {
             return distDocSet;
         } else {
@@ -118,6 +132,21 @@ public class GeoDistanceFilter extends Filter {
         }
     }
 
+    private DocIdSet collectFromCells(GeoPointCellIndex cellIndex, GeoDistanceDocSet distDocSet, int maxDoc, Bits acceptedDocs) {
+        GeoCellMatcher matcher = new DistanceCellMatcher(distDocSet);
+        FixedBitSet result = new FixedBitSet(maxDoc);
+        GeoPoint topLeft = distanceBoundingCheck.topLeft();
+        GeoPoint bottomRight = distanceBoundingCheck.bottomRight();
+        if (topLeft.lon() > bottomRight.lon()) {
+            // the bounding box crosses the 180 meridian
+            matcher.collect(cellIndex, result, acceptedDocs, bottomRight.lat(), topLeft.lat(), topLeft.lon(), 180);
+            matcher.collect(cellIndex, result, acceptedDocs, bottomRight.lat(), topLeft.lat(), -180, bottomRight.lon());
+        } else {
+            matcher.collect(cellIndex, result, acceptedDocs, bottomRight.lat(), topLeft.lat(), topLeft.lon(), bottomRight.lon());
+        }
+        return result;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -155,6 +184,43 @@ public class GeoDistanceFilter extends Filter {
         return result;
     }
 
+    /**
+     * A cell is within the distance when all its corners are. This holds for {@link GeoDistance#PLANE}, where
+     * the distance area is a disc in the lat/lon plane, and for {@link GeoDistance#ARC} as long as the cell does
+     * not contain the meridian opposite to the source point, since the arc distance to points on a meridian or
+     * a parallel segment is largest at one of its ends. Other cells are checked doc by doc.
+     */
+    class DistanceCellMatcher extends GeoCellMatcher {
+
+        private final GeoDistanceDocSet distDocSet;
+
+        DistanceCellMatcher(GeoDistanceDocSet distDocSet) {
+            this.distDocSet = distDocSet;
+        }
+
+        @Override
+        protected Relation relate(double minLat, double maxLat, double minLon, double maxLon) {
+            if (geoDistance == GeoDistance.ARC) {
+                double oppositeLon = lon > 0 ? lon - 180 : lon + 180;
+                if (oppositeLon >= minLon && oppositeLon <= maxLon) {
+                    return Relation.CROSSES;
+                }
+            } else if (geoDistance != GeoDistance.PLANE) {
+                return Relation.CROSSES;
+            }
+            if (fixedSourceDistance.calculate(minLat, minLon) < distance && fixedSourceDistance.calculate(minLat, maxLon) < distance
+                    && fixedSourceDistance.calculate(maxLat, minLon) < distance && fixedSourceDistance.calculate(maxLat, maxLon) < distance) {
+                return Relation.WITHIN;
+            }
+            return Relation.CROSSES;
+        }
+
+        @Override
+        protected boolean matchDoc(int doc) {
+            return distDocSet.matchDoc(doc);
+        }
+    }
+
     public static class GeoDistanceDocSet extends MatchDocIdSet {
         private final double distance; // in miles
         private final GeoPointValues values;
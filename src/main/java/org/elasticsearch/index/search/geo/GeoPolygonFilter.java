@@ -23,9 +23,12 @@ import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.geo.GeoPoint;
 import org.elasticsearch.common.lucene.docset.MatchDocIdSet;
+import org.elasticsearch.index.fielddata.AtomicGeoPointFieldData;
 import org.elasticsearch.index.fielddata.GeoPointValues;
 import org.elasticsearch.index.fielddata.IndexGeoPointFieldData;
 
@@ -41,9 +44,22 @@ public class GeoPolygonFilter extends Filter {
 
     private final IndexGeoPointFieldData indexFieldData;
 
+    private final boolean useCellIndex;
+
     public GeoPolygonFilter(GeoPoint[] points, IndexGeoPointFieldData indexFieldData) {
+        this(points, indexFieldData, null);
+    }
+
+    public GeoPolygonFilter(GeoPoint[] points, IndexGeoPointFieldData indexFieldData, String optimizeBbox) {
         this.points = points;
         this.indexFieldData = indexFieldData;
+        if (optimizeBbox == null || "none".equals(optimizeBbox)) {
+            this.useCellIndex = false;
+        } else if ("grid".equals(optimizeBbox)) {
+            this.useCellIndex = true;
+        } else {
+            throw new ElasticSearchIllegalArgumentException("type [" + optimizeBbox + "] for bounding box optimization not supported");
+        }
     }
 
     public GeoPoint[] points() {
@@ -56,8 +72,25 @@ public class GeoPolygonFilter extends Filter {
 
     @Override
     public DocIdSet getDocIdSet(AtomicReaderContext context, Bits acceptedDocs) throws IOException {
-        final GeoPointValues values = indexFieldData.load(context).getGeoPointValues();
-        return new GeoPolygonDocIdSet(context.reader().maxDoc(), acceptedDocs, values, points);
+        AtomicGeoPointFieldData fieldData = indexFieldData.load(context);
+        final GeoPointValues values = fieldData.getGeoPointValues();
+        GeoPolygonDocIdSet polygonDocSet = new GeoPolygonDocIdSet(context.reader().maxDoc(), acceptedDocs, values, points);
+        if (!useCellIndex) {
+            return polygonDocSet;
+        }
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (GeoPoint point : points) {
+            minLat = Math.min(minLat, point.lat());
+            maxLat = Math.max(maxLat, point.lat());
+            minLon = Math.min(minLon, point.lon());
+            maxLon = Math.max(maxLon, point.lon());
+        }
+        FixedBitSet result = new FixedBitSet(context.reader().maxDoc());
+        new PolygonCellMatcher(polygonDocSet).collect(fieldData.getCellIndex(), result, acceptedDocs, minLat, maxLat, minLon, maxLon);
+        return result;
     }
 
     @Override
@@ -65,6 +98,70 @@ public class GeoPolygonFilter extends Filter {
         return "GeoPolygonFilter(" + indexFieldData.getFieldNames().indexName() + ", " + Arrays.toString(points) + ")";
     }
 
+    /**
+     * A cell that no polygon edge passes through is either fully inside or fully outside of the polygon,
+     * which is decided by its center. Cells with an edge passing through them are checked doc by doc.
+     */
+    class PolygonCellMatcher extends GeoCellMatcher {
+
+        private final GeoPolygonDocIdSet polygonDocSet;
+
+        PolygonCellMatcher(GeoPolygonDocIdSet polygonDocSet) {
+            this.polygonDocSet = polygonDocSet;
+        }
+
+        @Override
+        protected Relation relate(double minLat, double maxLat, double minLon, double maxLon) {
+            int j = points.length - 1;
+            for (int i = 0; i < points.length; i++) {
+                if (segmentIntersectsCell(points[j].lon(), points[j].lat(), points[i].lon(), points[i].lat(), minLat, maxLat, minLon, maxLon)) {
+                    return Relation.CROSSES;
+                }
+                j = i;
+            }
+            if (GeoPolygonDocIdSet.pointInPolygon(points, (minLat + maxLat) / 2, (minLon + maxLon) / 2)) {
+                return Relation.WITHIN;
+            }
+            return Relation.DISJOINT;
+        }
+
+        @Override
+        protected boolean matchDoc(int doc) {
+            return polygonDocSet.matchDoc(doc);
+        }
+
+        /**
+         * Liang-Barsky clipping of the segment (x1,y1)-(x2,y2) against the cell, with x being the longitude.
+         */
+        private boolean segmentIntersectsCell(double x1, double y1, double x2, double y2,
+                                              double minLat, double maxLat, double minLon, double maxLon) {
+            double dx = x2 - x1;
+            double dy = y2 - y1;
+            double[] p = {-dx, dx, -dy, dy};
+            double[] q = {x1 - minLon, maxLon - x1, y1 - minLat, maxLat - y1};
+            double t0 = 0;
+            double t1 = 1;
+            for (int k = 0; k < 4; k++) {
+                if (p[k] == 0) {
+                    if (q[k] < 0) {
+                        return false;
+                    }
+                } else {
+                    double t = q[k] / p[k];
+                    if (p[k] < 0) {
+                        t0 = Math.max(t0, t);
+                    } else {
+                        t1 = Math.min(t1, t);
+                    }
+                    if (t0 > t1) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
     public static class GeoPolygonDocIdSet extends MatchDocIdSet {
         private final GeoPointValues values;
         private final GeoPoint[] points;
@@ -101,7 +198,7 @@ public class GeoPolygonFilter extends Filter {
             return false;
         }
 
-        private static boolean pointInPolygon(GeoPoint[] points, double lat, double lon) {
+        static boolean pointInPolygon(GeoPoint[] points, double lat, double lon) {
             int i;
             int j = points.length - 1;
             boolean inPoly = false;
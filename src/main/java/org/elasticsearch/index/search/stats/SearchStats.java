@@ -46,17 +46,25 @@ public class SearchStats implements Streamable, ToXContent {
         private long fetchTimeInMillis;
         private long fetchCurrent;
 
+        private long readerLeases;
+
         Stats() {
 
         }
 
         public Stats(long queryCount, long queryTimeInMillis, long queryCurrent, long fetchCount, long fetchTimeInMillis, long fetchCurrent) {
+            this(queryCount, queryTimeInMillis, queryCurrent, fetchCount, fetchTimeInMillis, fetchCurrent, 0);
+        }
+
+        public Stats(long queryCount, long queryTimeInMillis, long queryCurrent, long fetchCount, long fetchTimeInMillis, long fetchCurrent,
+                     long readerLeases) {
             this.queryCount = queryCount;
             this.queryTimeInMillis = queryTimeInMillis;
             this.queryCurrent = queryCurrent;
             this.fetchCount = fetchCount;
             this.fetchTimeInMillis = fetchTimeInMillis;
             this.fetchCurrent = fetchCurrent;
+            this.readerLeases = readerLeases;
         }
 
         public void add(Stats stats) {
@@ -67,6 +75,8 @@ public class SearchStats implements Streamable, ToXContent {
             fetchCount += stats.fetchCount;
             fetchTimeInMillis += stats.fetchTimeInMillis;
             fetchCurrent += stats.fetchCurrent;
+
+            readerLeases += stats.readerLeases;
         }
 
         public long queryCount() {
@@ -125,6 +135,17 @@ public class SearchStats implements Streamable, ToXContent {
             return fetchCurrent;
         }
 
+        /**
+         * The number of scroll contexts currently holding on to a point in time reader.
+         */
+        public long readerLeases() {
+            return readerLeases;
+        }
+
+        public long getReaderLeases() {
+            return readerLeases;
+        }
+
 
         public static Stats readStats(StreamInput in) throws IOException {
             Stats stats = new Stats();
@@ -141,6 +162,8 @@ public class SearchStats implements Streamable, ToXContent {
             fetchCount = in.readVLong();
             fetchTimeInMillis = in.readVLong();
             fetchCurrent = in.readVLong();
+
+            readerLeases = in.readVLong();
         }
 
         @Override
@@ -152,6 +175,8 @@ public class SearchStats implements Streamable, ToXContent {
             out.writeVLong(fetchCount);
             out.writeVLong(fetchTimeInMillis);
             out.writeVLong(fetchCurrent);
+
+            out.writeVLong(readerLeases);
         }
 
         @Override
@@ -166,6 +191,8 @@ public class SearchStats implements Streamable, ToXContent {
             builder.field(Fields.FETCH_TIME_IN_MILLIS, fetchTimeInMillis);
             builder.field(Fields.FETCH_CURRENT, fetchCurrent);
 
+            builder.field(Fields.READER_LEASES, readerLeases);
+
             return builder;
         }
     }
@@ -245,6 +272,7 @@ public class SearchStats implements Streamable, ToXContent {
         static final XContentBuilderString FETCH_TIME = new XContentBuilderString("fetch_time");
         static final XContentBuilderString FETCH_TIME_IN_MILLIS = new XContentBuilderString("fetch_time_in_millis");
         static final XContentBuilderString FETCH_CURRENT = new XContentBuilderString("fetch_current");
+        static final XContentBuilderString READER_LEASES = new XContentBuilderString("reader_leases");
     }
 
     public static SearchStats readSearchStats(StreamInput in) throws IOException {
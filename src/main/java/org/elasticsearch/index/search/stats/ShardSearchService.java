@@ -45,6 +45,8 @@ public class ShardSearchService extends AbstractIndexShardComponent {
 
     private volatile Map<String, StatsHolder> groupsStats = ImmutableMap.of();
 
+    private final CounterMetric readerLeases = new CounterMetric();
+
     @Inject
     public ShardSearchService(ShardId shardId, @IndexSettings Settings indexSettings, ShardSlowLogSearchService slowLogSearchService) {
         super(shardId, indexSettings);
@@ -57,7 +59,7 @@ public class ShardSearchService extends AbstractIndexShardComponent {
      * <tt>_all</tt> for all groups.
      */
     public SearchStats stats(String... groups) {
-        SearchStats.Stats total = totalStats.stats();
+        SearchStats.Stats total = totalStats.stats(readerLeases.count());
         Map<String, SearchStats.Stats> groupsSt = null;
         if (groups != null && groups.length > 0) {
             if (groups.length == 1 && groups[0].equals("_all")) {
@@ -141,6 +143,14 @@ public class ShardSearchService extends AbstractIndexShardComponent {
         slowLogSearchService.onFetchPhase(searchContext, tookInNanos);
     }
 
+    public void onNewReaderLease(SearchContext searchContext) {
+        readerLeases.inc();
+    }
+
+    public void onFreeReaderLease(SearchContext searchContext) {
+        readerLeases.dec();
+    }
+
     public void clear() {
         totalStats.clear();
         synchronized (this) {
@@ -178,9 +188,13 @@ public class ShardSearchService extends AbstractIndexShardComponent {
         public final CounterMetric fetchCurrent = new CounterMetric();
 
         public SearchStats.Stats stats() {
+            return stats(0);
+        }
+
+        public SearchStats.Stats stats(long readerLeases) {
             return new SearchStats.Stats(
                     queryMetric.count(), TimeUnit.NANOSECONDS.toMillis(queryMetric.sum()), queryCurrent.count(),
-                    fetchMetric.count(), TimeUnit.NANOSECONDS.toMillis(fetchMetric.sum()), fetchCurrent.count());
+                    fetchMetric.count(), TimeUnit.NANOSECONDS.toMillis(fetchMetric.sum()), fetchCurrent.count(), readerLeases);
         }
 
         public long totalCurrent() {
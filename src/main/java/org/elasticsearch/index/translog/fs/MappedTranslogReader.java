@@ -0,0 +1,208 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.translog.fs;
+
+import com.google.common.collect.Lists;
+import org.elasticsearch.common.io.stream.ByteBufferStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogStreams;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Reads the operations of a translog file that is no longer written to by memory mapping it and decoding
+ * the operations directly from the mapped pages, without going through small reads and an intermediate copy
+ * per operation. Files larger than the mapping chunk size are mapped in several chunks, operations that happen
+ * to cross a chunk boundary are copied before being decoded.
+ * <p/>
+ * Not thread safe, though it may be handed over between threads (for read ahead) as long as reads don't overlap.
+ */
+public class MappedTranslogReader implements Closeable {
+
+    static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+    private final int chunkSize;
+
+    private final long length;
+
+    private MappedByteBuffer[] chunks;
+
+    private long position;
+
+    private boolean done;
+
+    public MappedTranslogReader(File file) throws IOException {
+        this(file, DEFAULT_CHUNK_SIZE);
+    }
+
+    public MappedTranslogReader(File file, int chunkSize) throws IOException {
+        this.chunkSize = chunkSize;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            this.length = channel.size();
+            int numberOfChunks = (int) ((length + chunkSize - 1) / chunkSize);
+            this.chunks = new MappedByteBuffer[numberOfChunks];
+            for (int i = 0; i < numberOfChunks; i++) {
+                long offset = (long) i * chunkSize;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(chunkSize, length - offset));
+            }
+        } finally {
+            // the mappings stay valid once the channel is closed
+            raf.close();
+        }
+    }
+
+    /**
+     * The position of the next operation to be read.
+     */
+    public long position() {
+        return position;
+    }
+
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the next operation, or <tt>null</tt> once all fully written operations have been read. A trailing
+     * operation that was not fully written (or can't be decoded) ends the translog.
+     */
+    public Translog.Operation next() throws IOException {
+        if (done) {
+            return null;
+        }
+        if (position + 4 > length) {
+            done = true;
+            return null;
+        }
+        int opSize = readInt(position);
+        long start = position + 4;
+        if (opSize <= 0 || start + opSize > length) {
+            // not properly written the last op
+            done = true;
+            return null;
+        }
+        Translog.Operation operation;
+        try {
+            operation = TranslogStreams.readTranslogOperation(slice(start, opSize));
+        } catch (IOException e) {
+            // not properly written the last op
+            done = true;
+            return null;
+        }
+        position = start + opSize;
+        return operation;
+    }
+
+    /**
+     * Reads up to <tt>size</tt> operations, an empty list indicates the end of the translog.
+     */
+    public List<Translog.Operation> nextBatch(int size) throws IOException {
+        List<Translog.Operation> operations = Lists.newArrayListWithCapacity(size);
+        Translog.Operation operation;
+        while (operations.size() < size && (operation = next()) != null) {
+            operations.add(operation);
+        }
+        return operations;
+    }
+
+    private int readInt(long position) {
+        int chunk = (int) (position / chunkSize);
+        int offset = (int) (position % chunkSize);
+        if (offset + 4 <= chunks[chunk].limit()) {
+            return chunks[chunk].getInt(offset);
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (byteAt(position + i) & 0xFF);
+        }
+        return value;
+    }
+
+    private byte byteAt(long position) {
+        return chunks[(int) (position / chunkSize)].get((int) (position % chunkSize));
+    }
+
+    private StreamInput slice(long position, int size) {
+        int chunk = (int) (position / chunkSize);
+        int offset = (int) (position % chunkSize);
+        if (offset + size <= chunks[chunk].limit()) {
+            ByteBuffer slice = chunks[chunk].duplicate();
+            slice.position(offset);
+            slice.limit(offset + size);
+            return new ByteBufferStreamInput(slice);
+        }
+        // crosses a chunk boundary
+        byte[] bytes = new byte[size];
+        int copied = 0;
+        while (copied < size) {
+            ByteBuffer buffer = chunks[chunk].duplicate();
+            buffer.position(offset);
+            int toCopy = Math.min(size - copied, buffer.remaining());
+            buffer.get(bytes, copied, toCopy);
+            copied += toCopy;
+            chunk++;
+            offset = 0;
+        }
+        return new BytesStreamInput(bytes, 0, size, false);
+    }
+
+    /**
+     * Releases the mappings. Must not be called while operations are being read.
+     */
+    @Override
+    public void close() {
+        if (chunks == null) {
+            return;
+        }
+        for (MappedByteBuffer chunk : chunks) {
+            unmap(chunk);
+        }
+        chunks = null;
+    }
+
+    /**
+     * Eagerly releases the mapping (so the file can be deleted right away on all platforms), the mapping is
+     * released when the buffer is garbage collected otherwise.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Method getCleaner = buffer.getClass().getMethod("cleaner");
+            getCleaner.setAccessible(true);
+            Object cleaner = getCleaner.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Throwable t) {
+            // not supported, we will rely on GC
+        }
+    }
+}
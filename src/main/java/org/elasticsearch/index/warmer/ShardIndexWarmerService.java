@@ -19,15 +19,19 @@
 
 package org.elasticsearch.index.warmer;
 
+import com.google.common.collect.Maps;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.ShardId;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -36,6 +40,7 @@ public class ShardIndexWarmerService extends AbstractIndexShardComponent {
 
     private final CounterMetric current = new CounterMetric();
     private final MeanMetric warmerMetric = new MeanMetric();
+    private final ConcurrentMap<String, CounterMetric> fieldDataMetrics = ConcurrentCollections.newConcurrentMap();
 
 
     @Inject
@@ -56,7 +61,29 @@ public class ShardIndexWarmerService extends AbstractIndexShardComponent {
         warmerMetric.inc(tookInNanos);
     }
 
+    /**
+     * Records the time spent eagerly loading field data for the given field while warming.
+     */
+    public void onFieldDataWarmed(String fieldName, long tookInNanos) {
+        CounterMetric metric = fieldDataMetrics.get(fieldName);
+        if (metric == null) {
+            metric = new CounterMetric();
+            CounterMetric existing = fieldDataMetrics.putIfAbsent(fieldName, metric);
+            if (existing != null) {
+                metric = existing;
+            }
+        }
+        metric.inc(tookInNanos);
+    }
+
     public WarmerStats stats() {
-        return new WarmerStats(current.count(), warmerMetric.count(), TimeUnit.NANOSECONDS.toMillis(warmerMetric.sum()));
+        Map<String, Long> fieldDataTimeInMillis = null;
+        if (!fieldDataMetrics.isEmpty()) {
+            fieldDataTimeInMillis = Maps.newHashMap();
+            for (Map.Entry<String, CounterMetric> entry : fieldDataMetrics.entrySet()) {
+                fieldDataTimeInMillis.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue().count()));
+            }
+        }
+        return new WarmerStats(current.count(), warmerMetric.count(), TimeUnit.NANOSECONDS.toMillis(warmerMetric.sum()), fieldDataTimeInMillis);
     }
 }
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.warmer;
 
+import com.google.common.collect.Maps;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -28,6 +29,7 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentBuilderString;
 
 import java.io.IOException;
+import java.util.Map;
 
 public class WarmerStats implements Streamable, ToXContent {
 
@@ -37,14 +39,21 @@ public class WarmerStats implements Streamable, ToXContent {
 
     private long totalTimeInMillis;
 
+    private Map<String, Long> fieldDataTimeInMillis;
+
     public WarmerStats() {
 
     }
 
     public WarmerStats(long current, long total, long totalTimeInMillis) {
+        this(current, total, totalTimeInMillis, null);
+    }
+
+    public WarmerStats(long current, long total, long totalTimeInMillis, Map<String, Long> fieldDataTimeInMillis) {
         this.current = current;
         this.total = total;
         this.totalTimeInMillis = totalTimeInMillis;
+        this.fieldDataTimeInMillis = fieldDataTimeInMillis;
     }
 
     public void add(long current, long total, long totalTimeInMillis) {
@@ -60,6 +69,15 @@ public class WarmerStats implements Streamable, ToXContent {
         this.current += warmerStats.current;
         this.total += warmerStats.total;
         this.totalTimeInMillis += warmerStats.totalTimeInMillis;
+        if (warmerStats.fieldDataTimeInMillis != null) {
+            if (this.fieldDataTimeInMillis == null) {
+                this.fieldDataTimeInMillis = Maps.newHashMap();
+            }
+            for (Map.Entry<String, Long> entry : warmerStats.fieldDataTimeInMillis.entrySet()) {
+                Long time = this.fieldDataTimeInMillis.get(entry.getKey());
+                this.fieldDataTimeInMillis.put(entry.getKey(), time == null ? entry.getValue() : time + entry.getValue());
+            }
+        }
     }
 
     public long current() {
@@ -87,6 +105,13 @@ public class WarmerStats implements Streamable, ToXContent {
         return new TimeValue(totalTimeInMillis);
     }
 
+    /**
+     * The total time spent eagerly loading field data while warming, per field (in milliseconds). Might be <tt>null</tt>.
+     */
+    public Map<String, Long> fieldDataTimeInMillis() {
+        return this.fieldDataTimeInMillis;
+    }
+
     public static WarmerStats readWarmerStats(StreamInput in) throws IOException {
         WarmerStats refreshStats = new WarmerStats();
         refreshStats.readFrom(in);
@@ -100,6 +125,16 @@ public class WarmerStats implements Streamable, ToXContent {
         builder.field(Fields.TOTAL, total);
         builder.field(Fields.TOTAL_TIME, totalTime().toString());
         builder.field(Fields.TOTAL_TIME_IN_MILLIS, totalTimeInMillis);
+        if (fieldDataTimeInMillis != null && !fieldDataTimeInMillis.isEmpty()) {
+            builder.startObject(Fields.FIELDDATA);
+            for (Map.Entry<String, Long> entry : fieldDataTimeInMillis.entrySet()) {
+                builder.startObject(entry.getKey(), XContentBuilder.FieldCaseConversion.NONE);
+                builder.field(Fields.TOTAL_TIME, new TimeValue(entry.getValue()).toString());
+                builder.field(Fields.TOTAL_TIME_IN_MILLIS, entry.getValue());
+                builder.endObject();
+            }
+            builder.endObject();
+        }
         builder.endObject();
         return builder;
     }
@@ -110,6 +145,7 @@ public class WarmerStats implements Streamable, ToXContent {
         static final XContentBuilderString TOTAL = new XContentBuilderString("total");
         static final XContentBuilderString TOTAL_TIME = new XContentBuilderString("total_time");
         static final XContentBuilderString TOTAL_TIME_IN_MILLIS = new XContentBuilderString("total_time_in_millis");
+        static final XContentBuilderString FIELDDATA = new XContentBuilderString("fielddata");
     }
 
     @Override
@@ -117,6 +153,13 @@ public class WarmerStats implements Streamable, ToXContent {
         current = in.readVLong();
         total = in.readVLong();
         totalTimeInMillis = in.readVLong();
+        if (in.readBoolean()) {
+            int size = in.readVInt();
+            fieldDataTimeInMillis = Maps.newHashMapWithExpectedSize(size);
+            for (int i = 0; i < size; i++) {
+                fieldDataTimeInMillis.put(in.readString(), in.readVLong());
+            }
+        }
     }
 
     @Override
@@ -124,5 +167,15 @@ public class WarmerStats implements Streamable, ToXContent {
         out.writeVLong(current);
         out.writeVLong(total);
         out.writeVLong(totalTimeInMillis);
+        if (fieldDataTimeInMillis == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            out.writeVInt(fieldDataTimeInMillis.size());
+            for (Map.Entry<String, Long> entry : fieldDataTimeInMillis.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeVLong(entry.getValue());
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.cache.filter.terms;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A node level cache of the terms fetched from documents by the terms filter lookup, so the terms of a document
+ * (like an ACL list) are only fetched and parsed again when the document changes. Each lookup still checks the
+ * current version of the document with a get that doesn't load its source.
+ */
+public class IndicesTermsFilterCache extends AbstractComponent {
+
+    private final Client client;
+
+    private final Cache<TermsLookup, Entry> cache;
+
+    @Inject
+    public IndicesTermsFilterCache(Settings settings, Client client) {
+        super(settings);
+        this.client = client;
+
+        ByteSizeValue size = componentSettings.getAsBytesSize("size", new ByteSizeValue(10, ByteSizeUnit.MB));
+        TimeValue expireAfterAccess = componentSettings.getAsTime("expire_after_access", null);
+        TimeValue expireAfterWrite = componentSettings.getAsTime("expire_after_write", null);
+
+        CacheBuilder<TermsLookup, Entry> builder = CacheBuilder.newBuilder()
+                .maximumWeight(size.bytes())
+                .weigher(new EntryWeigher());
+        if (expireAfterAccess != null) {
+            builder.expireAfterAccess(expireAfterAccess.millis(), TimeUnit.MILLISECONDS);
+        }
+        if (expireAfterWrite != null) {
+            builder.expireAfterWrite(expireAfterWrite.millis(), TimeUnit.MILLISECONDS);
+        }
+        this.cache = builder.build();
+
+        logger.debug("using terms filter cache with size [{}], expire_after_access [{}], expire_after_write [{}]", size, expireAfterAccess, expireAfterWrite);
+    }
+
+    /**
+     * Returns the terms found under the lookup path of the lookup document, or an empty list if the document does
+     * not exist.
+     */
+    public List<Object> terms(TermsLookup lookup) {
+        Entry entry = cache.getIfPresent(lookup);
+        if (entry != null) {
+            GetResponse response = client.get(new GetRequest(lookup.index(), lookup.type(), lookup.id())
+                    .routing(lookup.routing()).fields(Strings.EMPTY_ARRAY).preference("_local").operationThreaded(false)).actionGet();
+            if (!response.isExists()) {
+                cache.invalidate(lookup);
+                return ImmutableList.of();
+            }
+            if (response.getVersion() == entry.version) {
+                return entry.terms;
+            }
+        }
+
+        GetResponse response = client.get(new GetRequest(lookup.index(), lookup.type(), lookup.id())
+                .routing(lookup.routing()).preference("_local").operationThreaded(false)).actionGet();
+        if (!response.isExists() || response.isSourceEmpty()) {
+            cache.invalidate(lookup);
+            return ImmutableList.of();
+        }
+        ImmutableList.Builder<Object> builder = ImmutableList.builder();
+        for (Object value : XContentMapValues.extractRawValues(lookup.path(), response.sourceAsMap())) {
+            if (value != null) {
+                builder.add(value);
+            }
+        }
+        List<Object> terms = builder.build();
+        cache.put(lookup, new Entry(response.getVersion(), terms));
+        return terms;
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    static class Entry {
+        final long version;
+        final List<Object> terms;
+        final int sizeInBytes;
+
+        Entry(long version, List<Object> terms) {
+            this.version = version;
+            this.terms = terms;
+            long sizeInBytes = 0;
+            for (Object term : terms) {
+                // rough estimate of the object overhead
+                sizeInBytes += 24;
+                if (term instanceof String) {
+                    sizeInBytes += 2 * ((String) term).length();
+                }
+            }
+            this.sizeInBytes = (int) Math.min(Integer.MAX_VALUE, sizeInBytes);
+        }
+    }
+
+    static class EntryWeigher implements Weigher<TermsLookup, Entry> {
+
+        @Override
+        public int weigh(TermsLookup key, Entry value) {
+            return value.sizeInBytes;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.cache.filter.terms;
+
+import org.elasticsearch.common.Nullable;
+
+/**
+ * Identifies the field of a document holding a list of terms to filter on, and the key its terms are cached under.
+ */
+public class TermsLookup {
+
+    private final String index;
+    private final String type;
+    private final String id;
+    private final String routing;
+    private final String path;
+
+    public TermsLookup(String index, String type, String id, @Nullable String routing, String path) {
+        this.index = index;
+        this.type = type;
+        this.id = id;
+        this.routing = routing;
+        this.path = path;
+    }
+
+    public String index() {
+        return index;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    @Nullable
+    public String routing() {
+        return routing;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TermsLookup that = (TermsLookup) o;
+
+        if (!index.equals(that.index)) return false;
+        if (!type.equals(that.type)) return false;
+        if (!id.equals(that.id)) return false;
+        if (routing != null ? !routing.equals(that.routing) : that.routing != null) return false;
+        if (!path.equals(that.path)) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = index.hashCode();
+        result = 31 * result + type.hashCode();
+        result = 31 * result + id.hashCode();
+        result = 31 * result + (routing != null ? routing.hashCode() : 0);
+        result = 31 * result + path.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + type + "/" + id + "/" + path;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.cache.source;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import gnu.trove.set.hash.THashSet;
+import org.elasticsearch.common.CacheRecycler;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.cache.source.SourceCache;
+import org.elasticsearch.monitor.jvm.JvmInfo;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A node level cache of decompressed <tt>_source</tt> documents, shared by all the indices on the node and bounded
+ * by <tt>indices.cache.source.size</tt> (defaults to <tt>1%</tt> of the heap, <tt>0</tt> disables it).
+ */
+public class IndicesSourceCache extends AbstractComponent implements RemovalListener<SourceCache.Key, BytesReference> {
+
+    private final ThreadPool threadPool;
+
+    private final Cache<SourceCache.Key, BytesReference> cache;
+
+    private final String size;
+    private final long sizeInBytes;
+    private final TimeValue expire;
+
+    private final TimeValue cleanInterval;
+
+    private final Set<Object> readersKeysToClean = ConcurrentCollections.newConcurrentSet();
+
+    private volatile boolean closed;
+
+    @Inject
+    public IndicesSourceCache(Settings settings, ThreadPool threadPool) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.size = componentSettings.get("size", "1%");
+        this.expire = componentSettings.getAsTime("expire", null);
+        this.cleanInterval = componentSettings.getAsTime("clean_interval", TimeValue.timeValueSeconds(60));
+        if (size.endsWith("%")) {
+            double percent = Double.parseDouble(size.substring(0, size.length() - 1));
+            this.sizeInBytes = (long) ((percent / 100) * JvmInfo.jvmInfo().getMem().getHeapMax().bytes());
+        } else {
+            this.sizeInBytes = ByteSizeValue.parseBytesSizeValue(size).bytes();
+        }
+
+        CacheBuilder<SourceCache.Key, BytesReference> cacheBuilder = CacheBuilder.newBuilder()
+                .removalListener(this)
+                .maximumWeight(Math.max(sizeInBytes, 1)).weigher(new SourceWeigher())
+                .concurrencyLevel(16);
+        if (expire != null) {
+            cacheBuilder.expireAfterAccess(expire.millis(), TimeUnit.MILLISECONDS);
+        }
+        this.cache = cacheBuilder.build();
+
+        logger.debug("using source cache with size [{}], actual_size [{}], expire [{}], clean_interval [{}]",
+                size, new ByteSizeValue(sizeInBytes), expire, cleanInterval);
+
+        threadPool.schedule(cleanInterval, ThreadPool.Names.SAME, new ReaderCleaner());
+    }
+
+    public boolean enabled() {
+        return sizeInBytes > 0;
+    }
+
+    public Cache<SourceCache.Key, BytesReference> cache() {
+        return this.cache;
+    }
+
+    public void addReaderKeyToClean(Object readerKey) {
+        readersKeysToClean.add(readerKey);
+    }
+
+    public void close() {
+        closed = true;
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onRemoval(RemovalNotification<SourceCache.Key, BytesReference> removalNotification) {
+        SourceCache.Key key = removalNotification.getKey();
+        if (key == null) {
+            return;
+        }
+        key.removalListener().onRemoval(removalNotification);
+    }
+
+    static class SourceWeigher implements Weigher<SourceCache.Key, BytesReference> {
+
+        @Override
+        public int weigh(SourceCache.Key key, BytesReference value) {
+            return SourceCache.sizeInBytes(value);
+        }
+    }
+
+    /**
+     * Removes the entries of closed segments in the background, same as the filter cache does, since iterating
+     * over the whole cache each time a segment is closed is too expensive.
+     */
+    class ReaderCleaner implements Runnable {
+
+        @Override
+        public void run() {
+            if (closed) {
+                return;
+            }
+            if (readersKeysToClean.isEmpty()) {
+                threadPool.schedule(cleanInterval, ThreadPool.Names.SAME, this);
+                return;
+            }
+            threadPool.executor(ThreadPool.Names.GENERIC).execute(new Runnable() {
+                @Override
+                public void run() {
+                    THashSet<Object> keys = CacheRecycler.popHashSet();
+                    try {
+                        for (Iterator<Object> it = readersKeysToClean.iterator(); it.hasNext(); ) {
+                            keys.add(it.next());
+                            it.remove();
+                        }
+                        cache.cleanUp();
+                        if (!keys.isEmpty()) {
+                            for (Iterator<SourceCache.Key> it = cache.asMap().keySet().iterator(); it.hasNext(); ) {
+                                if (keys.contains(it.next().readerKey())) {
+                                    // same as invalidate
+                                    it.remove();
+                                }
+                            }
+                        }
+                        threadPool.schedule(cleanInterval, ThreadPool.Names.SAME, ReaderCleaner.this);
+                    } finally {
+                        CacheRecycler.pushHashSet(keys);
+                    }
+                }
+            });
+        }
+    }
+}
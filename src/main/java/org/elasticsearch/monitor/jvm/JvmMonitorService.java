@@ -22,6 +22,7 @@ package org.elasticsearch.monitor.jvm;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
@@ -31,6 +32,10 @@ import org.elasticsearch.monitor.dump.DumpGenerator;
 import org.elasticsearch.monitor.dump.DumpMonitorService;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -60,6 +65,11 @@ public class JvmMonitorService extends AbstractLifecycleComponent<JvmMonitorServ
 
     private volatile ScheduledFuture scheduledFuture;
 
+    // the old generation pool, its usage after the last collection is the heap still live
+    private final MemoryPoolMXBean oldGenPool;
+
+    private volatile double heapPressure = -1;
+
     static class GcThreshold {
         public final String name;
         public final long warnThreshold;
@@ -118,6 +128,8 @@ public class JvmMonitorService extends AbstractLifecycleComponent<JvmMonitorServ
 
         this.gcThresholds = gcThresholds.immutableMap();
 
+        this.oldGenPool = oldGenPool();
+
         logger.debug("enabled [{}], last_gc_enabled [{}], interval [{}], gc_threshold [{}]", enabled, JvmStats.isLastGcEnabled(), interval, this.gcThresholds);
     }
 
@@ -141,6 +153,50 @@ public class JvmMonitorService extends AbstractLifecycleComponent<JvmMonitorServ
     protected void doClose() throws ElasticSearchException {
     }
 
+    /**
+     * The ratio of the heap the node holds on to as of the last sample taken by the monitor (every <tt>interval</tt>),
+     * or <tt>-1</tt> if the monitor is disabled or has not sampled yet.
+     * <p/>
+     * This is the ratio of the old generation still used after its last collection, as the heap used at any point
+     * in time also counts garbage that has not been collected yet and keeps on going up and down with the young
+     * collections. If the old generation pool of the collector in use isn't known, a moving average of the heap
+     * used sampled is used instead.
+     */
+    public double heapPressure() {
+        return heapPressure;
+    }
+
+    @Nullable
+    private static MemoryPoolMXBean oldGenPool() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            // "PS Old Gen", "CMS Old Gen", "G1 Old Gen" and "Tenured Gen" for the serial collector
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()
+                    && (pool.getName().endsWith("Old Gen") || pool.getName().equals("Tenured Gen"))) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    private double heapPressure(JvmStats jvmStats) {
+        if (oldGenPool != null) {
+            MemoryUsage usage = oldGenPool.getCollectionUsage();
+            if (usage != null && usage.getMax() > 0) {
+                return ((double) usage.getUsed()) / usage.getMax();
+            }
+        }
+        long heapMax = JvmInfo.jvmInfo().mem().heapMax().bytes();
+        if (heapMax <= 0) {
+            return heapPressure;
+        }
+        double heapUsed = ((double) jvmStats.mem().heapUsed().bytes()) / heapMax;
+        if (heapPressure < 0) {
+            return heapUsed;
+        }
+        // exponentially weighted over the last samples, so a single sample taken right before a collection doesn't count much
+        return heapPressure + 0.2 * (heapUsed - heapPressure);
+    }
+
     private class JvmMonitor implements Runnable {
 
         private JvmStats lastJvmStats = jvmStats();
@@ -162,6 +218,8 @@ public class JvmMonitorService extends AbstractLifecycleComponent<JvmMonitorServ
             seq++;
             JvmStats currentJvmStats = jvmStats();
 
+            heapPressure = heapPressure(currentJvmStats);
+
             for (int i = 0; i < currentJvmStats.gc().collectors().length; i++) {
                 GarbageCollector gc = currentJvmStats.gc().collectors()[i];
                 GarbageCollector prevGc = lastJvmStats.gc.collectors[i];
@@ -428,6 +428,12 @@ public enum RestStatus {
      * PROPPATCH method fails, then, at minimum, the rest of the commands will also fail with 424 (Failed Dependency).
      */
     FAILED_DEPENDENCY(424),
+    /**
+     * The user has sent too many requests in a given amount of time, or the server is too loaded to accept more
+     * of them. The response MAY include a Retry-After header indicating how long to wait before making a new
+     * request.
+     */
+    TOO_MANY_REQUESTS(429),
     /**
      * The server encountered an unexpected condition which prevented it from fulfilling the request.
      */
@@ -20,7 +20,11 @@
 package org.elasticsearch.search;
 
 import com.google.common.collect.ImmutableMap;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.cluster.ClusterService;
@@ -38,6 +42,10 @@ import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.fielddata.FieldDataType;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.FieldMapper;
 import org.elasticsearch.index.search.stats.StatsGroupsParseElement;
 import org.elasticsearch.index.service.IndexService;
 import org.elasticsearch.index.shard.ShardId;
@@ -59,8 +67,13 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.elasticsearch.common.unit.TimeValue.timeValueMinutes;
@@ -91,6 +104,10 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
 
     private final ScheduledFuture keepAliveReaper;
 
+    private final boolean parallelEnabled;
+    private final int parallelSlices;
+    private final double parallelMaxUtilization;
+
 
     private final AtomicLong idGenerator = new AtomicLong();
 
@@ -117,6 +134,11 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
         // we can have 5 minutes here, since we make sure to clean with search requests and when shard/index closes
         this.defaultKeepAlive = componentSettings.getAsTime("default_keep_alive", timeValueMinutes(5)).millis();
 
+        // intra shard parallel search, only used when the search pool is not busy with other requests
+        this.parallelEnabled = componentSettings.getAsBoolean("parallel.enabled", false);
+        this.parallelSlices = componentSettings.getAsInt("parallel.slices", Runtime.getRuntime().availableProcessors());
+        this.parallelMaxUtilization = componentSettings.getAsDouble("parallel.max_utilization", 0.5);
+
         Map<String, SearchParseElement> elementParsers = new HashMap<String, SearchParseElement>();
         elementParsers.putAll(dfsPhase.parseElements());
         elementParsers.putAll(queryPhase.parseElements());
@@ -127,6 +149,7 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
 
         this.keepAliveReaper = threadPool.scheduleWithFixedDelay(new Reaper(), keepAliveInterval);
 
+        this.indicesWarmer.addListener(new FieldDataWarmer());
         this.indicesWarmer.addListener(new SearchWarmer());
     }
 
@@ -327,6 +350,7 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
                 if (context.scroll() == null) {
                     freeContext(context.id());
                 } else {
+                    updateLastEmittedDoc(context);
                     contextProcessedSuccessfully(context);
                 }
             } catch (RuntimeException e) {
@@ -372,6 +396,7 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
                 if (context.scroll() == null) {
                     freeContext(request.id());
                 } else {
+                    updateLastEmittedDoc(context);
                     contextProcessedSuccessfully(context);
                 }
             } catch (RuntimeException e) {
@@ -411,6 +436,7 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
                 if (context.scroll() == null) {
                     freeContext(request.id());
                 } else {
+                    updateLastEmittedDoc(context);
                     contextProcessedSuccessfully(context);
                 }
             } catch (RuntimeException e) {
@@ -439,6 +465,7 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
             if (context.scroll() == null) {
                 freeContext(request.id());
             } else {
+                updateLastEmittedDoc(context);
                 contextProcessedSuccessfully(context);
             }
             context.indexShard().searchService().onFetchPhase(context, System.nanoTime() - time);
@@ -500,14 +527,42 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
                 keepAlive = request.scroll().keepAlive().millis();
             }
             context.keepAlive(keepAlive);
+
+            if (request.scroll() != null) {
+                // scrolling can continue after the last doc each shard emitted, unless a global offset has to be
+                // skipped or the top docs are reordered after collection
+                context.scrollSearchAfter(context.from() == 0 && context.rescore() == null
+                        && context.searchType() != SearchType.SCAN && context.searchType() != SearchType.COUNT);
+            }
+
+            if (parallelEnabled && searchPoolUtilization() < parallelMaxUtilization) {
+                context.searcher().enableParallelSearch(threadPool.executor(ThreadPool.Names.SEARCH_SLICE), parallelSlices);
+            }
         } catch (RuntimeException e) {
             context.release();
             throw e;
         }
 
+        if (request.scroll() != null) {
+            context.readerLease(true);
+            indexShard.searchService().onNewReaderLease(context);
+        }
         return context;
     }
 
+    /**
+     * The ratio of busy search threads to the number of threads that can actually run in parallel.
+     */
+    private double searchPoolUtilization() {
+        Executor executor = threadPool.executor(ThreadPool.Names.SEARCH);
+        if (!(executor instanceof ThreadPoolExecutor)) {
+            return 0;
+        }
+        ThreadPoolExecutor searchExecutor = (ThreadPoolExecutor) executor;
+        int capacity = Math.min(searchExecutor.getMaximumPoolSize(), Runtime.getRuntime().availableProcessors());
+        return ((double) searchExecutor.getActiveCount()) / capacity;
+    }
+
     public void freeContext(long id) {
         SearchContext context = activeContexts.remove(id);
         if (context == null) {
@@ -518,6 +573,10 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
 
     private void freeContext(SearchContext context) {
         activeContexts.remove(context.id());
+        if (context.readerLease()) {
+            context.readerLease(false);
+            context.indexShard().searchService().onFreeReaderLease(context);
+        }
         context.release();
     }
 
@@ -613,8 +672,10 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
     }
 
     private void processScroll(InternalScrollSearchRequest request, SearchContext context) {
-        // process scroll
-        context.from(context.from() + context.size());
+        // process scroll, when searching after the last emitted doc each page starts at the top of the remaining docs
+        if (!context.scrollSearchAfter()) {
+            context.from(context.from() + context.size());
+        }
         context.scroll(request.scroll());
         // update the context keep alive based on the new scroll value
         if (request.scroll() != null && request.scroll().keepAlive() != null) {
@@ -622,6 +683,37 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
         }
     }
 
+    /**
+     * Records the last doc of this shard that was returned, the docs to load are the prefix of the shard top
+     * docs that made it into the page.
+     */
+    private void updateLastEmittedDoc(SearchContext context) {
+        if (!context.scrollSearchAfter() || context.docIdsToLoadSize() == 0) {
+            return;
+        }
+        int lastDocId = context.docIdsToLoad()[context.docIdsToLoadFrom() + context.docIdsToLoadSize() - 1];
+        for (ScoreDoc scoreDoc : context.queryResult().topDocs().scoreDocs) {
+            if (scoreDoc.doc == lastDocId) {
+                context.lastEmittedDoc(copyOf(scoreDoc));
+                return;
+            }
+        }
+    }
+
+    private static ScoreDoc copyOf(ScoreDoc scoreDoc) {
+        if (!(scoreDoc instanceof FieldDoc)) {
+            return new ScoreDoc(scoreDoc.doc, scoreDoc.score);
+        }
+        // sort values might be reused by the comparators, keep our own copy
+        Object[] fields = ((FieldDoc) scoreDoc).fields.clone();
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] instanceof BytesRef) {
+                fields[i] = BytesRef.deepCopyOf((BytesRef) fields[i]);
+            }
+        }
+        return new FieldDoc(scoreDoc.doc, scoreDoc.score, fields);
+    }
+
     class SearchWarmer implements IndicesWarmer.Listener {
 
         @Override
@@ -661,6 +753,85 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
         }
     }
 
+    class FieldDataWarmer implements IndicesWarmer.Listener {
+
+        @Override
+        public String executor() {
+            return ThreadPool.Names.WARMER;
+        }
+
+        @Override
+        public void warm(final IndexShard indexShard, IndexMetaData indexMetaData, IndicesWarmer.WarmerContext warmerContext) {
+            IndexService indexService = indicesService.indexService(indexShard.shardId().index().name());
+            if (indexService == null) {
+                return;
+            }
+            Map<String, FieldMapper> warmUp = new HashMap<String, FieldMapper>();
+            for (DocumentMapper docMapper : indexService.mapperService()) {
+                for (FieldMapper fieldMapper : docMapper.mappers()) {
+                    FieldDataType fieldDataType = fieldMapper.fieldDataType();
+                    if (fieldDataType != null && fieldDataType.isEagerlyLoaded()) {
+                        warmUp.put(fieldMapper.names().indexName(), fieldMapper);
+                    }
+                }
+            }
+            List<AtomicReaderContext> leaves = warmerContext.newSearcher().reader().leaves();
+            if (warmUp.isEmpty() || leaves.isEmpty()) {
+                return;
+            }
+
+            final Queue<Runnable> tasks = ConcurrentCollections.newQueue();
+            final CountDownLatch latch = new CountDownLatch(warmUp.size() * leaves.size());
+            for (final FieldMapper fieldMapper : warmUp.values()) {
+                final IndexFieldData indexFieldData = indexService.fieldData().getForField(fieldMapper);
+                for (final AtomicReaderContext context : leaves) {
+                    tasks.add(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                long now = System.nanoTime();
+                                // segments that are already loaded are served from the field data cache
+                                indexFieldData.load(context);
+                                indexShard.warmerService().onFieldDataWarmed(fieldMapper.names().fullName(), System.nanoTime() - now);
+                            } catch (Throwable t) {
+                                indexShard.warmerService().logger().warn("failed to warm-up field data for [{}]", t, fieldMapper.names().fullName());
+                            } finally {
+                                latch.countDown();
+                            }
+                        }
+                    });
+                }
+            }
+
+            // segments are loaded in parallel on the warmer pool, with this thread draining the tasks as well so
+            // warming completes even when the pool is busy warming other shards
+            Runnable drain = new Runnable() {
+                @Override
+                public void run() {
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+                }
+            };
+            int helpers = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()) - 1;
+            for (int i = 0; i < helpers; i++) {
+                try {
+                    threadPool.executor(ThreadPool.Names.WARMER).execute(drain);
+                } catch (Throwable t) {
+                    // rejected, we will load it on this thread
+                    break;
+                }
+            }
+            drain.run();
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     class CleanContextOnIndicesLifecycleListener extends IndicesLifecycle.Listener {
 
         @Override
@@ -93,6 +93,9 @@ public class SearchSourceBuilder implements ToXContent {
 
     private Float minScore;
 
+    private int sliceId = -1;
+    private int sliceMax = -1;
+
     private long timeoutInMillis = -1;
 
     private List<String> fieldNames;
@@ -265,6 +268,16 @@ public class SearchSourceBuilder implements ToXContent {
         return this;
     }
 
+    /**
+     * Restricts the search to one of <tt>max</tt> disjoint slices of the docs (based on their uid), so a scan
+     * of the whole index can be split across several consumers each scrolling its own slice.
+     */
+    public SearchSourceBuilder slice(int id, int max) {
+        this.sliceId = id;
+        this.sliceMax = max;
+        return this;
+    }
+
     /**
      * Should each {@link org.elasticsearch.search.SearchHit} be returned with an
      * explanation of the hit (ranking).
@@ -626,6 +639,13 @@ public class SearchSourceBuilder implements ToXContent {
             builder.field("min_score", minScore);
         }
 
+        if (sliceMax != -1) {
+            builder.startObject("slice");
+            builder.field("id", sliceId);
+            builder.field("max", sliceMax);
+            builder.endObject();
+        }
+
         if (version != null) {
             builder.field("version", version);
         }
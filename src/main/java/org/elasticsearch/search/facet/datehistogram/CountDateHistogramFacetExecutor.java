@@ -72,7 +72,7 @@ public class CountDateHistogramFacetExecutor extends FacetExecutor {
 
         @Override
         public void executePost(List<ContextDocIdSet> docSets) throws IOException {
-            DateHistogramProc histoProc = new DateHistogramProc(counts, tzRounding);
+            DateHistogramProc histoProc = new DateHistogramProc(counts, tzRounding.cached());
             for (ContextDocIdSet docSet : docSets) {
                 LongValues values = indexFieldData.load(docSet.context).getLongValues();
                 DocIdSetIterator it = docSet.docSet.iterator();
@@ -90,7 +90,7 @@ public class CountDateHistogramFacetExecutor extends FacetExecutor {
         private final DateHistogramProc histoProc;
 
         public Collector() {
-            this.histoProc = new DateHistogramProc(counts, tzRounding);
+            this.histoProc = new DateHistogramProc(counts, tzRounding.cached());
         }
 
         @Override
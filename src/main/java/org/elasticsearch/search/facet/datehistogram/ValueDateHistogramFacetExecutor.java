@@ -74,7 +74,7 @@ public class ValueDateHistogramFacetExecutor extends FacetExecutor {
 
         @Override
         public void executePost(List<ContextDocIdSet> docSets) throws IOException {
-            DateHistogramProc histoProc = new DateHistogramProc(tzRounding, ValueDateHistogramFacetExecutor.this.entries);
+            DateHistogramProc histoProc = new DateHistogramProc(tzRounding.cached(), ValueDateHistogramFacetExecutor.this.entries);
             for (ContextDocIdSet docSet : docSets) {
                 LongValues keyValues = keyIndexFieldData.load(docSet.context).getLongValues();
                 histoProc.valueValues = valueIndexFieldData.load(docSet.context).getDoubleValues();
@@ -94,7 +94,7 @@ public class ValueDateHistogramFacetExecutor extends FacetExecutor {
         private LongValues keyValues;
 
         public Collector() {
-            this.histoProc = new DateHistogramProc(tzRounding, entries);
+            this.histoProc = new DateHistogramProc(tzRounding.cached(), entries);
         }
 
         @Override
@@ -76,7 +76,7 @@ public class ValueScriptDateHistogramFacetExecutor extends FacetExecutor {
 
         @Override
         public void executePost(List<ContextDocIdSet> docSets) throws IOException {
-            DateHistogramProc histoProc = new DateHistogramProc(tzRounding, valueScript, ValueScriptDateHistogramFacetExecutor.this.entries);
+            DateHistogramProc histoProc = new DateHistogramProc(tzRounding.cached(), valueScript, ValueScriptDateHistogramFacetExecutor.this.entries);
             for (ContextDocIdSet entry : docSets) {
                 LongValues keyValues = keyIndexFieldData.load(entry.context).getLongValues();
                 valueScript.setNextReader(entry.context);
@@ -95,7 +95,7 @@ public class ValueScriptDateHistogramFacetExecutor extends FacetExecutor {
         private LongValues keyValues;
 
         public Collector() {
-            histoProc = new DateHistogramProc(tzRounding, valueScript, entries);
+            histoProc = new DateHistogramProc(tzRounding.cached(), valueScript, entries);
         }
 
         @Override
@@ -23,9 +23,11 @@ import com.google.common.collect.ImmutableMap;
 import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.index.ReaderUtil;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.text.StringAndBytesText;
 import org.elasticsearch.common.text.Text;
+import org.elasticsearch.index.cache.source.SourceCache;
 import org.elasticsearch.index.fieldvisitor.CustomFieldsVisitor;
 import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
 import org.elasticsearch.index.fieldvisitor.JustUidFieldsVisitor;
@@ -137,10 +139,22 @@ public class FetchPhase implements SearchPhase {
             }
         }
 
+        // when only the uid and the source are needed, the source is read through the source cache instead of the
+        // stored fields, partial and extracted fields read it through the lookup, which uses the same cache
+        SourceCache sourceCache = null;
+        if (fieldsVisitor instanceof UidAndSourceFieldsVisitor && context.sourceCache() != null) {
+            sourceCache = context.sourceCache();
+            fieldsVisitor = new JustUidFieldsVisitor();
+        }
+
         InternalSearchHit[] hits = new InternalSearchHit[context.docIdsToLoadSize()];
         for (int index = 0; index < context.docIdsToLoadSize(); index++) {
             int docId = context.docIdsToLoad()[context.docIdsToLoadFrom() + index];
 
+            int readerIndex = ReaderUtil.subIndex(docId, context.searcher().getIndexReader().leaves());
+            AtomicReaderContext subReaderContext = context.searcher().getIndexReader().leaves().get(readerIndex);
+            int subDoc = docId - subReaderContext.docBase;
+
             loadStoredFields(context, fieldsVisitor, docId);
             fieldsVisitor.postProcess(context.mapperService());
 
@@ -159,14 +173,14 @@ public class FetchPhase implements SearchPhase {
             } else {
                 typeText = documentMapper.typeText();
             }
-            InternalSearchHit searchHit = new InternalSearchHit(docId, fieldsVisitor.uid().id(), typeText, sourceRequested ? fieldsVisitor.source() : null, searchFields);
+            BytesReference source = null;
+            if (sourceRequested) {
+                source = sourceCache != null ? loadCachedSource(context, sourceCache, subReaderContext, subDoc) : fieldsVisitor.source();
+            }
+            InternalSearchHit searchHit = new InternalSearchHit(docId, fieldsVisitor.uid().id(), typeText, source, searchFields);
 
             hits[index] = searchHit;
 
-            int readerIndex = ReaderUtil.subIndex(docId, context.searcher().getIndexReader().leaves());
-            AtomicReaderContext subReaderContext = context.searcher().getIndexReader().leaves().get(readerIndex);
-            int subDoc = docId - subReaderContext.docBase;
-
             // go over and extract fields that are not mapped / stored
             context.lookup().setNextReader(subReaderContext);
             context.lookup().setNextDocId(subDoc);
@@ -174,6 +188,10 @@ public class FetchPhase implements SearchPhase {
                 context.lookup().source().setNextSource(new BytesArray(searchHit.source()));
             }
             if (extractFieldNames != null) {
+                if (extractFieldNames.size() > 1) {
+                    // parsing the source once is cheaper than streaming it for each field
+                    context.lookup().source().parseSource();
+                }
                 for (String extractFieldName : extractFieldNames) {
                     Object value = context.lookup().source().extractValue(extractFieldName);
                     if (value != null) {
@@ -209,6 +227,14 @@ public class FetchPhase implements SearchPhase {
         context.fetchResult().hits(new InternalSearchHits(hits, context.queryResult().topDocs().totalHits, context.queryResult().topDocs().getMaxScore()));
     }
 
+    private BytesReference loadCachedSource(SearchContext context, SourceCache sourceCache, AtomicReaderContext subReaderContext, int subDoc) {
+        try {
+            return sourceCache.source(subReaderContext.reader(), subDoc);
+        } catch (IOException e) {
+            throw new FetchPhaseExecutionException(context, "Failed to fetch the source of doc id [" + (subReaderContext.docBase + subDoc) + "]", e);
+        }
+    }
+
     private void loadStoredFields(SearchContext context, FieldsVisitor fieldVisitor, int docId) {
         fieldVisitor.reset();
         try {
@@ -182,7 +182,7 @@ public class HighlightBuilder implements ToXContent {
 
     /**
      * Set type of highlighter to use. Supported types
-     * are <tt>highlighter</tt> and <tt>fast-vector-highlighter</tt>.
+     * are <tt>highlighter</tt>, <tt>fast-vector-highlighter</tt> and <tt>postings</tt>.
      */
     public HighlightBuilder highlighterType(String highlighterType) {
         this.highlighterType = highlighterType;
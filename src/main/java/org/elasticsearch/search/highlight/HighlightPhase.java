@@ -24,10 +24,14 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.index.FieldInfo.IndexOptions;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.highlight.*;
 import org.apache.lucene.search.highlight.Formatter;
 import org.apache.lucene.search.vectorhighlight.*;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.ElasticSearchIllegalArgumentException;
 import org.elasticsearch.common.component.AbstractComponent;
@@ -44,12 +48,14 @@ import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.search.SearchParseElement;
 import org.elasticsearch.search.fetch.FetchPhaseExecutionException;
 import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.highlight.postings.PostingsHighlighter;
 import org.elasticsearch.search.highlight.vectorhighlight.SourceScoreOrderFragmentsBuilder;
 import org.elasticsearch.search.highlight.vectorhighlight.SourceSimpleFragmentsBuilder;
 import org.elasticsearch.search.internal.InternalSearchHit;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.lookup.SearchLookup;
 
+import java.io.IOException;
 import java.util.*;
 
 import static com.google.common.collect.Maps.newHashMap;
@@ -136,10 +142,17 @@ public class HighlightPhase extends AbstractComponent implements FetchSubPhase {
                     }
                 }
                 boolean useFastVectorHighlighter;
+                boolean usePostingsHighlighter = false;
                 if (field.highlighterType() == null) {
                     // if we can do highlighting using Term Vectors, use FastVectorHighlighter, otherwise, use the
                     // slower plain highlighter
                     useFastVectorHighlighter = mapper.fieldType().storeTermVectors() && mapper.fieldType().storeTermVectorOffsets() && mapper.fieldType().storeTermVectorPositions();
+                } else if (field.highlighterType().equals("postings") || field.highlighterType().equals("postings-highlighter")) {
+                    if (mapper.fieldType().indexOptions() != IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS) {
+                        throw new ElasticSearchIllegalArgumentException("the field [" + fieldName + "] should be indexed with index_options [offsets] to be used with the postings highlighter");
+                    }
+                    useFastVectorHighlighter = false;
+                    usePostingsHighlighter = true;
                 } else if (field.highlighterType().equals("fast-vector-highlighter") || field.highlighterType().equals("fvh")) {
                     if (!(mapper.fieldType().storeTermVectors() && mapper.fieldType().storeTermVectorOffsets() && mapper.fieldType().storeTermVectorPositions())) {
                         throw new ElasticSearchIllegalArgumentException("the field [" + fieldName + "] should be indexed with term vector with position offsets to be used with fast vector highlighter");
@@ -150,7 +163,35 @@ public class HighlightPhase extends AbstractComponent implements FetchSubPhase {
                 } else {
                     throw new ElasticSearchIllegalArgumentException("unknown highlighter type [" + field.highlighterType() + "] for the field [" + fieldName + "]");
                 }
-                if (!useFastVectorHighlighter) {
+                if (usePostingsHighlighter) {
+                    MapperHighlightEntry entry = cache.mappers.get(mapper);
+                    if (entry == null) {
+                        if (cache.queryTerms == null) {
+                            try {
+                                // we use top level reader to rewrite the query against all readers, caching the terms across hits
+                                cache.queryTerms = extractTerms(context.parsedQuery().query(), hitContext.topLevelReader());
+                            } catch (IOException e) {
+                                throw new FetchPhaseExecutionException(context, "Failed to highlight field [" + fieldName + "]", e);
+                            }
+                        }
+                        entry = new MapperHighlightEntry();
+                        entry.postingsHighlighter = new PostingsHighlighter(field.preTags(), field.postTags(), encoder);
+                        entry.postingsTerms = fieldTerms(cache.queryTerms, mapper.names().indexName(), field.requireFieldMatch());
+                        cache.mappers.put(mapper, entry);
+                    }
+
+                    List<Object> textsToHighlight = loadFieldValues(context, hitContext, mapper, fieldName);
+                    try {
+                        String[] fragments = entry.postingsHighlighter.highlight(hitContext.reader(), hitContext.docId(), mapper.names().indexName(),
+                                entry.postingsTerms, textsToHighlight, field.numberOfFragments(), field.scoreOrdered());
+                        if (fragments.length > 0) {
+                            HighlightField highlightField = new HighlightField(fieldName, StringText.convertFromStringArray(fragments));
+                            highlightFields.put(highlightField.name(), highlightField);
+                        }
+                    } catch (Exception e) {
+                        throw new FetchPhaseExecutionException(context, "Failed to highlight field [" + fieldName + "]", e);
+                    }
+                } else if (!useFastVectorHighlighter) {
                     MapperHighlightEntry entry = cache.mappers.get(mapper);
                     if (entry == null) {
                         // Don't use the context.query() since it might be rewritten, and we need to pass the non rewritten queries to
@@ -183,21 +224,7 @@ public class HighlightPhase extends AbstractComponent implements FetchSubPhase {
                         cache.mappers.put(mapper, entry);
                     }
 
-                    List<Object> textsToHighlight;
-                    if (mapper.fieldType().stored()) {
-                        try {
-                            CustomFieldsVisitor fieldVisitor = new CustomFieldsVisitor(ImmutableSet.of(mapper.names().indexName()), false);
-                            hitContext.reader().document(hitContext.docId(), fieldVisitor);
-                            textsToHighlight = fieldVisitor.fields().get(mapper.names().indexName());
-                        } catch (Exception e) {
-                            throw new FetchPhaseExecutionException(context, "Failed to highlight field [" + fieldName + "]", e);
-                        }
-                    } else {
-                        SearchLookup lookup = context.lookup();
-                        lookup.setNextReader(hitContext.readerContext());
-                        lookup.setNextDocId(hitContext.docId());
-                        textsToHighlight = lookup.source().extractRawValues(mapper.names().sourcePath());
-                    }
+                    List<Object> textsToHighlight = loadFieldValues(context, hitContext, mapper, fieldName);
 
                     // a HACK to make highlighter do highlighting, even though its using the single frag list builder
                     int numberOfFragments = field.numberOfFragments() == 0 ? 1 : field.numberOfFragments();
@@ -336,17 +363,62 @@ public class HighlightPhase extends AbstractComponent implements FetchSubPhase {
         hitContext.hit().highlightFields(highlightFields);
     }
 
+    private List<Object> loadFieldValues(SearchContext context, HitContext hitContext, FieldMapper mapper, String fieldName) {
+        if (mapper.fieldType().stored()) {
+            try {
+                CustomFieldsVisitor fieldVisitor = new CustomFieldsVisitor(ImmutableSet.of(mapper.names().indexName()), false);
+                hitContext.reader().document(hitContext.docId(), fieldVisitor);
+                return fieldVisitor.fields().get(mapper.names().indexName());
+            } catch (Exception e) {
+                throw new FetchPhaseExecutionException(context, "Failed to highlight field [" + fieldName + "]", e);
+            }
+        } else {
+            SearchLookup lookup = context.lookup();
+            lookup.setNextReader(hitContext.readerContext());
+            lookup.setNextDocId(hitContext.docId());
+            return lookup.source().extractRawValues(mapper.names().sourcePath());
+        }
+    }
+
+    private static Set<Term> extractTerms(Query query, IndexReader reader) throws IOException {
+        Query rewritten = query;
+        for (Query rewrittenQuery = query.rewrite(reader); rewrittenQuery != rewritten; rewrittenQuery = rewritten.rewrite(reader)) {
+            rewritten = rewrittenQuery;
+        }
+        Set<Term> terms = new TreeSet<Term>();
+        try {
+            rewritten.extractTerms(terms);
+        } catch (UnsupportedOperationException e) {
+            // the query doesn't expose its terms, nothing to highlight
+        }
+        return terms;
+    }
+
+    private static BytesRef[] fieldTerms(Set<Term> queryTerms, String field, boolean requireFieldMatch) {
+        Set<BytesRef> terms = new TreeSet<BytesRef>();
+        for (Term term : queryTerms) {
+            if (!requireFieldMatch || term.field().equals(field)) {
+                terms.add(term.bytes());
+            }
+        }
+        return terms.toArray(new BytesRef[terms.size()]);
+    }
+
     static class MapperHighlightEntry {
         public FragListBuilder fragListBuilder;
         public FragmentsBuilder fragmentsBuilder;
 
         public Highlighter highlighter;
+
+        public PostingsHighlighter postingsHighlighter;
+        public BytesRef[] postingsTerms;
     }
 
     static class HighlighterEntry {
         public FastVectorHighlighter fvh;
         public FieldQuery noFieldMatchFieldQuery;
         public FieldQuery fieldMatchFieldQuery;
+        public Set<Term> queryTerms;
         public Map<FieldMapper, MapperHighlightEntry> mappers = Maps.newHashMap();
     }
 }
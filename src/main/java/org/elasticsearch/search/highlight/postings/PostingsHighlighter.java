@@ -0,0 +1,378 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.highlight.postings;
+
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.DocsAndPositionsEnum;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.highlight.Encoder;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.PriorityQueue;
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.common.Strings;
+
+import java.io.IOException;
+import java.text.BreakIterator;
+import java.text.CharacterIterator;
+import java.text.StringCharacterIterator;
+import java.util.*;
+
+/**
+ * Highlights a field using the offsets stored in its postings (<tt>index_options: offsets</tt>), so the field
+ * text does not need to be analyzed again and no term vectors are needed. The text is split into sentences,
+ * the sentences holding query terms are scored with BM25 (treating each sentence as a document) and the best
+ * ones are returned as fragments.
+ */
+public class PostingsHighlighter {
+
+    /**
+     * Values of multi valued fields are joined with this char (a paragraph separator, so sentences never span
+     * values), the offsets of the next value are shifted by the default offset gap of one.
+     */
+    public static final char MULTI_VALUE_SEPARATOR = '\u2029';
+
+    // BM25 parameters, the pivot is the average sentence length in chars
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PIVOT = 87f;
+
+    private final String[] preTags;
+    private final String[] postTags;
+    private final Encoder encoder;
+
+    public PostingsHighlighter(String[] preTags, String[] postTags, Encoder encoder) {
+        this.preTags = preTags;
+        this.postTags = postTags;
+        this.encoder = encoder;
+    }
+
+    /**
+     * Returns up to <tt>numberOfFragments</tt> highlighted sentences of the field values, in text order unless
+     * <tt>scoreOrdered</tt> is set. When <tt>numberOfFragments</tt> is <tt>0</tt>, each value holding a query
+     * term is returned highlighted as a whole. Returns an empty array when no term matches.
+     *
+     * @param reader the segment reader holding the doc
+     * @param docId  the doc id within the segment
+     * @param field  the indexed field name
+     * @param terms  the query terms to highlight
+     * @param values the field values, as they were indexed
+     */
+    public String[] highlight(AtomicReader reader, int docId, String field, BytesRef[] terms, List<Object> values,
+                              int numberOfFragments, boolean scoreOrdered) throws IOException {
+        if (values == null || values.isEmpty()) {
+            return Strings.EMPTY_ARRAY;
+        }
+        Terms fieldTerms = reader.terms(field);
+        if (fieldTerms == null) {
+            return Strings.EMPTY_ARRAY;
+        }
+
+        List<Match> matches = new ArrayList<Match>();
+        TermsEnum termsEnum = fieldTerms.iterator(null);
+        DocsAndPositionsEnum docsAndPositions = null;
+        float[] weights = new float[terms.length];
+        int maxDoc = reader.maxDoc();
+        for (int i = 0; i < terms.length; i++) {
+            if (!termsEnum.seekExact(terms[i], true)) {
+                continue;
+            }
+            docsAndPositions = termsEnum.docsAndPositions(null, docsAndPositions, DocsAndPositionsEnum.FLAG_OFFSETS);
+            if (docsAndPositions == null) {
+                throw new ElasticSearchIllegalArgumentException("field [" + field + "] was indexed without offsets, can't highlight it using the postings highlighter");
+            }
+            if (docsAndPositions.advance(docId) != docId) {
+                continue;
+            }
+            int docFreq = termsEnum.docFreq();
+            weights[i] = (float) Math.log(1 + (maxDoc - docFreq + 0.5) / (docFreq + 0.5));
+            int freq = docsAndPositions.freq();
+            for (int j = 0; j < freq; j++) {
+                docsAndPositions.nextPosition();
+                int startOffset = docsAndPositions.startOffset();
+                if (startOffset == -1) {
+                    throw new ElasticSearchIllegalArgumentException("field [" + field + "] was indexed without offsets, can't highlight it using the postings highlighter");
+                }
+                matches.add(new Match(startOffset, docsAndPositions.endOffset(), i));
+            }
+        }
+        if (matches.isEmpty()) {
+            return Strings.EMPTY_ARRAY;
+        }
+        Collections.sort(matches);
+
+        String text = join(values);
+        BreakIterator breakIterator;
+        if (numberOfFragments == 0) {
+            breakIterator = new ValueBreakIterator();
+            numberOfFragments = values.size();
+        } else {
+            breakIterator = BreakIterator.getSentenceInstance(Locale.ROOT);
+        }
+        breakIterator.setText(text);
+
+        PassageQueue queue = new PassageQueue(numberOfFragments);
+        Passage current = null;
+        int[] termFreqs = new int[terms.length];
+        for (Match match : matches) {
+            if (match.startOffset >= text.length() || match.endOffset > text.length()) {
+                // the text doesn't match the indexed one (for example the source was filtered), stop here
+                break;
+            }
+            if (current == null || match.startOffset >= current.endOffset) {
+                if (current != null) {
+                    queue.insertWithOverflow(current.score(weights, termFreqs));
+                    Arrays.fill(termFreqs, 0);
+                }
+                int endOffset = breakIterator.following(match.startOffset);
+                if (endOffset == BreakIterator.DONE) {
+                    endOffset = text.length();
+                }
+                int startOffset = breakIterator.previous();
+                if (startOffset == BreakIterator.DONE) {
+                    startOffset = 0;
+                }
+                current = new Passage(startOffset, endOffset);
+            }
+            if (match.endOffset > current.endOffset) {
+                // the match spans several sentences, extend the passage to hold it
+                current.endOffset = breakIterator.following(match.endOffset - 1);
+                if (current.endOffset == BreakIterator.DONE) {
+                    current.endOffset = text.length();
+                }
+            }
+            current.add(match);
+            termFreqs[match.term]++;
+        }
+        if (current != null) {
+            queue.insertWithOverflow(current.score(weights, termFreqs));
+        }
+
+        Passage[] passages = new Passage[queue.size()];
+        for (int i = passages.length - 1; i >= 0; i--) {
+            passages[i] = queue.pop();
+        }
+        if (!scoreOrdered) {
+            Arrays.sort(passages, new Comparator<Passage>() {
+                @Override
+                public int compare(Passage o1, Passage o2) {
+                    return o1.startOffset - o2.startOffset;
+                }
+            });
+        }
+        String[] fragments = new String[passages.length];
+        for (int i = 0; i < passages.length; i++) {
+            fragments[i] = format(text, passages[i]);
+        }
+        return fragments;
+    }
+
+    private String format(String text, Passage passage) {
+        StringBuilder sb = new StringBuilder();
+        int offset = passage.startOffset;
+        for (Match match : passage.matches) {
+            if (match.startOffset < offset) {
+                // overlapping match, for example a synonym on the same token
+                continue;
+            }
+            sb.append(encoder.encodeText(trim(text, offset, match.startOffset, passage)));
+            int tag = match.term % preTags.length;
+            sb.append(preTags[tag]);
+            sb.append(encoder.encodeText(text.substring(match.startOffset, match.endOffset)));
+            sb.append(postTags[tag < postTags.length ? tag : 0]);
+            offset = match.endOffset;
+        }
+        sb.append(encoder.encodeText(trim(text, offset, passage.endOffset, passage)));
+        return sb.toString();
+    }
+
+    /**
+     * Returns the text between the offsets, whitespace at the start and the end of the passage is dropped.
+     */
+    private static String trim(String text, int startOffset, int endOffset, Passage passage) {
+        if (startOffset == passage.startOffset) {
+            while (startOffset < endOffset && Character.isWhitespace(text.charAt(startOffset))) {
+                startOffset++;
+            }
+        }
+        if (endOffset == passage.endOffset) {
+            while (endOffset > startOffset && Character.isWhitespace(text.charAt(endOffset - 1))) {
+                endOffset--;
+            }
+        }
+        return text.substring(startOffset, endOffset);
+    }
+
+    private static String join(List<Object> values) {
+        if (values.size() == 1) {
+            return values.get(0).toString();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                sb.append(MULTI_VALUE_SEPARATOR);
+            }
+            sb.append(values.get(i).toString());
+        }
+        return sb.toString();
+    }
+
+    static class Match implements Comparable<Match> {
+        final int startOffset;
+        final int endOffset;
+        final int term;
+
+        Match(int startOffset, int endOffset, int term) {
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+            this.term = term;
+        }
+
+        @Override
+        public int compareTo(Match o) {
+            if (startOffset != o.startOffset) {
+                return startOffset < o.startOffset ? -1 : 1;
+            }
+            return endOffset < o.endOffset ? -1 : (endOffset == o.endOffset ? 0 : 1);
+        }
+    }
+
+    static class Passage {
+        final int startOffset;
+        int endOffset;
+        final List<Match> matches = new ArrayList<Match>();
+        float score;
+
+        Passage(int startOffset, int endOffset) {
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+        }
+
+        void add(Match match) {
+            matches.add(match);
+        }
+
+        Passage score(float[] weights, int[] termFreqs) {
+            int length = endOffset - startOffset;
+            float norm = B * length / PIVOT;
+            float score = 0;
+            for (int i = 0; i < termFreqs.length; i++) {
+                if (termFreqs[i] > 0) {
+                    score += weights[i] * (termFreqs[i] * (K1 + 1)) / (termFreqs[i] + K1 * (1 - B + norm));
+                }
+            }
+            // favor passages closer to the start of the text
+            this.score = score * (float) (1 + 1 / Math.log(PIVOT + startOffset));
+            return this;
+        }
+    }
+
+    static class PassageQueue extends PriorityQueue<Passage> {
+
+        PassageQueue(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        protected boolean lessThan(Passage a, Passage b) {
+            if (a.score == b.score) {
+                return a.startOffset > b.startOffset;
+            }
+            return a.score < b.score;
+        }
+    }
+
+    /**
+     * Breaks the text on {@link #MULTI_VALUE_SEPARATOR}, so each passage is a whole value.
+     */
+    static class ValueBreakIterator extends BreakIterator {
+
+        private String text;
+        private int current;
+
+        @Override
+        public int first() {
+            return current = 0;
+        }
+
+        @Override
+        public int last() {
+            return current = text.length();
+        }
+
+        @Override
+        public int next(int n) {
+            int result = current;
+            for (int i = 0; i < n; i++) {
+                result = next();
+            }
+            return result;
+        }
+
+        @Override
+        public int next() {
+            if (current >= text.length()) {
+                return DONE;
+            }
+            int index = text.indexOf(MULTI_VALUE_SEPARATOR, current);
+            return current = index == -1 ? text.length() : index + 1;
+        }
+
+        @Override
+        public int previous() {
+            if (current == 0) {
+                return DONE;
+            }
+            int index = text.lastIndexOf(MULTI_VALUE_SEPARATOR, current - 2);
+            return current = index + 1;
+        }
+
+        @Override
+        public int following(int offset) {
+            current = offset;
+            return next();
+        }
+
+        @Override
+        public int current() {
+            return current;
+        }
+
+        @Override
+        public CharacterIterator getText() {
+            return new StringCharacterIterator(text);
+        }
+
+        @Override
+        public void setText(CharacterIterator newText) {
+            StringBuilder sb = new StringBuilder();
+            for (char c = newText.first(); c != CharacterIterator.DONE; c = newText.next()) {
+                sb.append(c);
+            }
+            setText(sb.toString());
+        }
+
+        @Override
+        public void setText(String newText) {
+            this.text = newText;
+            this.current = 0;
+        }
+    }
+}
@@ -22,6 +22,8 @@ package org.elasticsearch.search.internal;
 import com.google.common.collect.ImmutableList;
 import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.search.*;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.lucene.MinimumScoreCollector;
 import org.elasticsearch.common.lucene.MultiCollector;
 import org.elasticsearch.common.lucene.search.AndFilter;
@@ -34,6 +36,12 @@ import org.elasticsearch.search.dfs.CachedDfSource;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  *
@@ -57,6 +65,10 @@ public class ContextIndexSearcher extends IndexSearcher {
     private boolean enableMainDocIdSetCollector;
     private DocIdSetCollector mainDocIdSetCollector;
 
+    private Executor parallelExecutor;
+    private int parallelSlices;
+    private boolean parallelDisabled;
+
     public ContextIndexSearcher(SearchContext searchContext, Engine.Searcher searcher) {
         super(searcher.reader());
         this.searchContext = searchContext;
@@ -93,6 +105,24 @@ public class ContextIndexSearcher extends IndexSearcher {
         this.enableMainDocIdSetCollector = true;
     }
 
+    /**
+     * Allows the main query top docs to be collected concurrently, by splitting the segments of the shard
+     * into up to <tt>slices</tt> slices that are searched on the provided executor and merged.
+     */
+    public void enableParallelSearch(Executor executor, int slices) {
+        this.parallelExecutor = executor;
+        this.parallelSlices = slices;
+    }
+
+    /**
+     * Forces this search to run sequentially, even if parallel search gets enabled. Scripts share the
+     * {@link org.elasticsearch.search.lookup.SearchLookup} of the search context, which moves from segment to
+     * segment and can't be used from concurrent slices.
+     */
+    public void disableParallelSearch() {
+        this.parallelDisabled = true;
+    }
+
     public void inStage(Stage stage) {
         this.currentState = stage;
     }
@@ -155,6 +185,188 @@ public class ContextIndexSearcher extends IndexSearcher {
         return super.search(query, combinedFilter(filter), n);
     }
 
+    /**
+     * Returns the top docs of the query that come after the provided doc, allowing to continue a scroll
+     * without collecting the docs of the previous pages again.
+     */
+    public TopDocs searchAfter(ScoreDoc after, Query query, int n) throws IOException {
+        return super.searchAfter(after, query, combinedFilter(null), n);
+    }
+
+    /**
+     * Same as {@link #searchAfter(ScoreDoc, Query, int)}, for sorted searches.
+     */
+    public TopFieldDocs searchAfter(FieldDoc after, Query query, int n, Sort sort, boolean doDocScores, boolean doMaxScore) throws IOException {
+        return search(createNormalizedWeight(wrapFilter(query, null)), after, n, sort, true, doDocScores, doMaxScore);
+    }
+
+    @Override
+    protected TopDocs search(final Weight weight, final ScoreDoc after, int nDocs) throws IOException {
+        final List<List<AtomicReaderContext>> slices = parallelSlices();
+        if (slices == null) {
+            return super.search(weight, after, nDocs);
+        }
+        final int numHits = Math.min(nDocs, Math.max(1, getIndexReader().maxDoc()));
+        List<Callable<? extends TopDocs>> callables = new ArrayList<Callable<? extends TopDocs>>(slices.size());
+        for (final List<AtomicReaderContext> slice : slices) {
+            callables.add(new Callable<TopDocs>() {
+                @Override
+                public TopDocs call() throws Exception {
+                    return ContextIndexSearcher.super.search(slice, weight, after, numHits);
+                }
+            });
+        }
+        return TopDocs.merge(null, numHits, searchSlices(callables));
+    }
+
+    @Override
+    protected TopFieldDocs search(final Weight weight, final FieldDoc after, int nDocs, final Sort sort,
+                                  final boolean fillFields, final boolean doDocScores, final boolean doMaxScore) throws IOException {
+        final List<List<AtomicReaderContext>> slices = parallelSlices();
+        if (slices == null || !fillFields) {
+            // we need the sort values of each slice to merge them
+            return super.search(weight, after, nDocs, sort, fillFields, doDocScores, doMaxScore);
+        }
+        final int numHits = Math.min(nDocs, Math.max(1, getIndexReader().maxDoc()));
+        List<Callable<? extends TopDocs>> callables = new ArrayList<Callable<? extends TopDocs>>(slices.size());
+        for (final List<AtomicReaderContext> slice : slices) {
+            callables.add(new Callable<TopFieldDocs>() {
+                @Override
+                public TopFieldDocs call() throws Exception {
+                    return ContextIndexSearcher.super.search(slice, weight, after, numHits, sort, true, doDocScores, doMaxScore);
+                }
+            });
+        }
+        return (TopFieldDocs) TopDocs.merge(sort, numHits, searchSlices(callables));
+    }
+
+    /**
+     * Returns the slices to search concurrently, or <tt>null</tt> if the current search should not be
+     * executed in parallel. Only the main query top docs are collected concurrently, and only when no
+     * other main query collectors (facets, doc id set collection) are registered and no script is used
+     * since those are not safe to share across threads.
+     */
+    private List<List<AtomicReaderContext>> parallelSlices() {
+        if (parallelExecutor == null || parallelDisabled || currentState != Stage.MAIN_QUERY || enableMainDocIdSetCollector
+                || (queryCollectors != null && !queryCollectors.isEmpty())) {
+            return null;
+        }
+        int numSlices = Math.min(parallelSlices, leafContexts.size());
+        if (numSlices < 2) {
+            return null;
+        }
+        // slices are contiguous so ties are still broken by doc id when merging
+        List<List<AtomicReaderContext>> slices = new ArrayList<List<AtomicReaderContext>>(numSlices);
+        int perSlice = leafContexts.size() / numSlices;
+        int remainder = leafContexts.size() % numSlices;
+        int from = 0;
+        for (int i = 0; i < numSlices; i++) {
+            int to = from + perSlice + (i < remainder ? 1 : 0);
+            slices.add(leafContexts.subList(from, to));
+            from = to;
+        }
+        return slices;
+    }
+
+    private TopDocs[] searchSlices(List<Callable<? extends TopDocs>> callables) throws IOException {
+        List<SliceTask<? extends TopDocs>> tasks = new ArrayList<SliceTask<? extends TopDocs>>(callables.size());
+        TopDocs[] results = new TopDocs[callables.size()];
+        boolean success = false;
+        try {
+            for (int i = 1; i < callables.size(); i++) {
+                SliceTask<? extends TopDocs> task = newTask(callables.get(i));
+                tasks.add(task);
+                parallelExecutor.execute(task);
+            }
+            // search the first slice on the current thread
+            results[0] = callables.get(0).call();
+            for (int i = 0; i < tasks.size(); i++) {
+                results[i + 1] = tasks.get(i).get();
+            }
+            success = true;
+        } catch (ExecutionException e) {
+            throw rethrow(ExceptionsHelper.unwrapCause(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElasticSearchException("interrupted while searching slices", e);
+        } catch (Exception e) {
+            throw rethrow(e);
+        } finally {
+            if (!success) {
+                // the context is released once we return, so wait for the slices already being searched
+                for (SliceTask<? extends TopDocs> task : tasks) {
+                    task.abort();
+                }
+            }
+        }
+        return results;
+    }
+
+    private static <T extends TopDocs> SliceTask<T> newTask(Callable<T> callable) {
+        return new SliceTask<T>(callable);
+    }
+
+    /**
+     * A slice search that can be aborted before it starts, and otherwise waited for until it is done.
+     */
+    private static class SliceTask<T> extends FutureTask<T> {
+
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        SliceTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                super.run();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        /**
+         * Prevents the slice from being searched if it hasn't started yet, or waits for it to be done,
+         * ignoring its result.
+         */
+        void abort() {
+            if (started.compareAndSet(false, true)) {
+                cancel(false);
+                return;
+            }
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static IOException rethrow(Throwable t) {
+        if (t instanceof IOException) {
+            return (IOException) t;
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IOException(t.getMessage(), t);
+    }
+
     @Override
     public void search(List<AtomicReaderContext> leaves, Weight weight, Collector collector) throws IOException {
         if (searchContext.timeoutInMillis() != -1) {
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 import org.elasticsearch.ElasticSearchException;
 import org.elasticsearch.action.search.SearchType;
@@ -37,6 +38,7 @@ import org.elasticsearch.index.analysis.AnalysisService;
 import org.elasticsearch.index.cache.docset.DocSetCache;
 import org.elasticsearch.index.cache.filter.FilterCache;
 import org.elasticsearch.index.cache.id.IdCache;
+import org.elasticsearch.index.cache.source.SourceCache;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.mapper.FieldMapper;
@@ -61,6 +63,7 @@ import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.rescore.RescoreSearchContext;
 import org.elasticsearch.search.scan.ScanContext;
+import org.elasticsearch.search.scan.SliceFilter;
 import org.elasticsearch.search.suggest.SuggestionSearchContext;
 
 import java.util.ArrayList;
@@ -131,6 +134,14 @@ public class SearchContext implements Releasable {
 
     private Scroll scroll;
 
+    private boolean scrollSearchAfter;
+
+    private ScoreDoc lastEmittedDoc;
+
+    private boolean readerLease;
+
+    private SliceFilter slice;
+
     private boolean explain;
 
     private boolean version = false; // by default, we don't return versions
@@ -238,6 +249,9 @@ public class SearchContext implements Releasable {
                 parsedQuery(new ParsedQuery(new XFilteredQuery(query(), filterCache().cache(searchFilter)), parsedQuery()));
             }
         }
+        if (slice != null && slice.max() > 1) {
+            parsedQuery(new ParsedQuery(new XFilteredQuery(query(), filterCache().cache(slice)), parsedQuery()));
+        }
     }
 
     public long id() {
@@ -295,6 +309,55 @@ public class SearchContext implements Releasable {
         return this;
     }
 
+    /**
+     * Returns <tt>true</tt> if the next pages of the scroll are executed by searching after the last doc
+     * emitted by this shard instead of collecting all the docs of the previous pages again.
+     */
+    public boolean scrollSearchAfter() {
+        return this.scrollSearchAfter;
+    }
+
+    public SearchContext scrollSearchAfter(boolean scrollSearchAfter) {
+        this.scrollSearchAfter = scrollSearchAfter;
+        return this;
+    }
+
+    /**
+     * The last doc of this shard that was returned to the user when scrolling, the next page starts after it.
+     */
+    @Nullable
+    public ScoreDoc lastEmittedDoc() {
+        return this.lastEmittedDoc;
+    }
+
+    public SearchContext lastEmittedDoc(@Nullable ScoreDoc lastEmittedDoc) {
+        this.lastEmittedDoc = lastEmittedDoc;
+        return this;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this context holds on to its reader across requests (scroll), and is
+     * accounted for in the search stats reader leases.
+     */
+    public boolean readerLease() {
+        return this.readerLease;
+    }
+
+    public SearchContext readerLease(boolean readerLease) {
+        this.readerLease = readerLease;
+        return this;
+    }
+
+    @Nullable
+    public SliceFilter slice() {
+        return this.slice;
+    }
+
+    public SearchContext slice(SliceFilter slice) {
+        this.slice = slice;
+        return this;
+    }
+
     public SearchContextFacets facets() {
         return facets;
     }
@@ -394,6 +457,15 @@ public class SearchContext implements Releasable {
         return indexService.cache().idCache();
     }
 
+    /**
+     * The cache to load the source of the documents through, <tt>null</tt> if this search shouldn't use it.
+     */
+    @Nullable
+    public SourceCache sourceCache() {
+        // scans go over each document once, caching their source would only evict the hot documents
+        return searchType == SearchType.SCAN ? null : indexService.cache().source();
+    }
+
     public long timeoutInMillis() {
         return timeoutInMillis;
     }
@@ -572,7 +644,7 @@ public class SearchContext implements Releasable {
     public SearchLookup lookup() {
         // TODO: The types should take into account the parsing context in QueryParserContext...
         if (searchLookup == null) {
-            searchLookup = new SearchLookup(mapperService(), fieldData(), request.types());
+            searchLookup = new SearchLookup(mapperService(), fieldData(), sourceCache(), request.types());
         }
         return searchLookup;
     }
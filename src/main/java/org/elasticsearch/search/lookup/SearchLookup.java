@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableMap;
 import org.apache.lucene.index.AtomicReaderContext;
 import org.apache.lucene.search.Scorer;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.cache.source.SourceCache;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.mapper.MapperService;
 
@@ -40,8 +41,12 @@ public class SearchLookup {
     final ImmutableMap<String, Object> asMap;
 
     public SearchLookup(MapperService mapperService, IndexFieldDataService fieldDataService, @Nullable String[] types) {
+        this(mapperService, fieldDataService, null, types);
+    }
+
+    public SearchLookup(MapperService mapperService, IndexFieldDataService fieldDataService, @Nullable SourceCache sourceCache, @Nullable String[] types) {
         docMap = new DocLookup(mapperService, fieldDataService, types);
-        sourceLookup = new SourceLookup();
+        sourceLookup = new SourceLookup(sourceCache);
         fieldsLookup = new FieldsLookup(mapperService, types);
         asMap = ImmutableMap.<String, Object>of("doc", docMap, "_doc", docMap, "_source", sourceLookup, "_fields", fieldsLookup);
     }
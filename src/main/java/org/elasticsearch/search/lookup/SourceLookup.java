@@ -23,12 +23,18 @@ import com.google.common.collect.ImmutableMap;
 import org.apache.lucene.index.AtomicReader;
 import org.apache.lucene.index.AtomicReaderContext;
 import org.elasticsearch.ElasticSearchParseException;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.common.xcontent.support.XContentStreamValues;
+import org.elasticsearch.index.cache.source.SourceCache;
 import org.elasticsearch.index.fieldvisitor.JustSourceFieldsVisitor;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,38 +45,114 @@ import java.util.Set;
 // TODO: If we are processing it in the per hit fetch phase, we cna initialize it with a source if it was loaded..
 public class SourceLookup implements Map {
 
+    @Nullable
+    private final SourceCache sourceCache;
+
     private AtomicReader reader;
 
     private int docId = -1;
 
+    /**
+     * How many times the source of a single document is streamed for a path selective lookup before it is
+     * parsed into a map once and reused for the remaining lookups.
+     */
+    private static final int MAX_STREAMED_LOOKUPS = 3;
+
     private BytesReference sourceAsBytes;
+    private boolean sourceLoaded;
+    private boolean sourceUncompressed;
     private Map<String, Object> source;
 
+    private int streamedLookups;
+    private Map<String, Object> streamedFields;
+
+    public SourceLookup() {
+        this(null);
+    }
+
+    /**
+     * @param sourceCache if set, the uncompressed source of the documents is loaded from / cached in it
+     */
+    public SourceLookup(@Nullable SourceCache sourceCache) {
+        this.sourceCache = sourceCache;
+    }
+
     public Map<String, Object> source() {
         return source;
     }
 
+    /**
+     * Parses the source of the current doc into a map, so the lookups that follow are served from it instead of
+     * streaming the source. Callers about to look up several paths should call it first, rather than streaming the
+     * source for each of them.
+     */
+    public void parseSource() {
+        loadSourceIfNeeded();
+    }
+
     private Map<String, Object> loadSourceIfNeeded() {
         if (source != null) {
             return source;
         }
+        BytesReference sourceAsBytes = loadSourceBytesIfNeeded();
+        if (sourceAsBytes == null) {
+            this.source = ImmutableMap.of();
+        } else {
+            this.source = sourceAsMap(sourceAsBytes);
+        }
+        return this.source;
+    }
+
+    private BytesReference loadSourceBytesIfNeeded() {
         if (sourceAsBytes != null) {
-            source = sourceAsMap(sourceAsBytes);
-            return source;
+            if (!sourceUncompressed && sourceCache != null && reader != null && docId != -1) {
+                // the source was provided by the caller for the current doc, reuse a cached uncompressed copy of it
+                try {
+                    this.sourceAsBytes = sourceCache.uncompress(reader, docId, sourceAsBytes);
+                } catch (Exception e) {
+                    throw new ElasticSearchParseException("failed to parse / load source", e);
+                }
+                this.sourceUncompressed = true;
+            }
+            return sourceAsBytes;
+        }
+        if (sourceLoaded) {
+            return null;
         }
         try {
-            JustSourceFieldsVisitor sourceFieldVisitor = new JustSourceFieldsVisitor();
-            reader.document(docId, sourceFieldVisitor);
-            BytesReference source = sourceFieldVisitor.source();
-            if (source == null) {
-                this.source = ImmutableMap.of();
+            if (sourceCache != null) {
+                this.sourceAsBytes = sourceCache.source(reader, docId);
+                this.sourceUncompressed = true;
             } else {
-                this.source = sourceAsMap(source);
+                JustSourceFieldsVisitor sourceFieldVisitor = new JustSourceFieldsVisitor();
+                reader.document(docId, sourceFieldVisitor);
+                this.sourceAsBytes = sourceFieldVisitor.source();
             }
+            this.sourceLoaded = true;
         } catch (Exception e) {
             throw new ElasticSearchParseException("failed to parse / load source", e);
         }
-        return this.source;
+        return this.sourceAsBytes;
+    }
+
+    /**
+     * Returns a parser over the source if path selective lookups should stream it, or <tt>null</tt> if they
+     * should go through the source map instead.
+     */
+    private XContentParser streamingParser() {
+        if (source != null || streamedLookups >= MAX_STREAMED_LOOKUPS) {
+            return null;
+        }
+        BytesReference sourceAsBytes = loadSourceBytesIfNeeded();
+        if (sourceAsBytes == null) {
+            return null;
+        }
+        streamedLookups++;
+        try {
+            return XContentHelper.createParser(sourceAsBytes);
+        } catch (IOException e) {
+            throw new ElasticSearchParseException("failed to parse source", e);
+        }
     }
 
     public static Map<String, Object> sourceAsMap(BytesReference source) throws ElasticSearchParseException {
@@ -86,9 +168,8 @@ public class SourceLookup implements Map {
             return;
         }
         this.reader = context.reader();
-        this.source = null;
-        this.sourceAsBytes = null;
         this.docId = -1;
+        reset();
     }
 
     public void setNextDocId(int docId) {
@@ -96,16 +177,27 @@ public class SourceLookup implements Map {
             return;
         }
         this.docId = docId;
+        reset();
+    }
+
+    private void reset() {
         this.sourceAsBytes = null;
+        this.sourceLoaded = false;
+        this.sourceUncompressed = false;
         this.source = null;
+        this.streamedLookups = 0;
+        this.streamedFields = null;
     }
 
     public void setNextSource(BytesReference source) {
         this.sourceAsBytes = source;
+        this.sourceUncompressed = false;
+        this.streamedFields = null;
     }
 
     public void setNextSource(Map<String, Object> source) {
         this.source = source;
+        this.streamedFields = null;
     }
 
     /**
@@ -113,20 +205,72 @@ public class SourceLookup implements Map {
      * handle path expression where an array/list is navigated within.
      */
     public List<Object> extractRawValues(String path) {
-        return XContentMapValues.extractRawValues(path, loadSourceIfNeeded());
+        XContentParser parser = streamingParser();
+        if (parser == null) {
+            return XContentMapValues.extractRawValues(path, loadSourceIfNeeded());
+        }
+        try {
+            return XContentStreamValues.extractRawValues(path, parser);
+        } catch (IOException e) {
+            throw new ElasticSearchParseException("failed to parse source", e);
+        } finally {
+            parser.close();
+        }
     }
 
     public Object filter(String[] includes, String[] excludes) {
-        return XContentMapValues.filter(loadSourceIfNeeded(), includes, excludes);
+        XContentParser parser = streamingParser();
+        if (parser == null) {
+            return XContentMapValues.filter(loadSourceIfNeeded(), includes, excludes);
+        }
+        try {
+            return XContentStreamValues.filter(parser, includes, excludes);
+        } catch (IOException e) {
+            throw new ElasticSearchParseException("failed to parse source", e);
+        } finally {
+            parser.close();
+        }
     }
 
     public Object extractValue(String path) {
-        return XContentMapValues.extractValue(path, loadSourceIfNeeded());
+        XContentParser parser = streamingParser();
+        if (parser == null) {
+            return XContentMapValues.extractValue(path, loadSourceIfNeeded());
+        }
+        try {
+            return XContentStreamValues.extractValue(path, parser);
+        } catch (IOException e) {
+            throw new ElasticSearchParseException("failed to parse source", e);
+        } finally {
+            parser.close();
+        }
     }
 
     @Override
     public Object get(Object key) {
-        return loadSourceIfNeeded().get(key);
+        if (streamedFields != null && streamedFields.containsKey(key)) {
+            return streamedFields.get(key);
+        }
+        if (!(key instanceof String)) {
+            return loadSourceIfNeeded().get(key);
+        }
+        // scripts usually only access a few fields of the source, so stream them out instead of parsing it all
+        XContentParser parser = streamingParser();
+        if (parser == null) {
+            return loadSourceIfNeeded().get(key);
+        }
+        try {
+            Object value = XContentStreamValues.extractField((String) key, parser);
+            if (streamedFields == null) {
+                streamedFields = new HashMap<String, Object>(MAX_STREAMED_LOOKUPS);
+            }
+            streamedFields.put((String) key, value);
+            return value;
+        } catch (IOException e) {
+            throw new ElasticSearchParseException("failed to parse source", e);
+        } finally {
+            parser.close();
+        }
     }
 
     @Override
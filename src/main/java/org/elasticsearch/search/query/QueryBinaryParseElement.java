@@ -19,7 +19,7 @@
 
 package org.elasticsearch.search.query;
 
-import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.search.SearchParseElement;
 import org.elasticsearch.search.internal.SearchContext;
@@ -32,11 +32,6 @@ public class QueryBinaryParseElement implements SearchParseElement {
     @Override
     public void parse(XContentParser parser, SearchContext context) throws Exception {
         byte[] querySource = parser.binaryValue();
-        XContentParser qSourceParser = XContentFactory.xContent(querySource).createParser(querySource);
-        try {
-            context.parsedQuery(context.queryParserService().parse(qSourceParser));
-        } finally {
-            qSourceParser.close();
-        }
+        context.parsedQuery(context.queryParserService().parseCached(new BytesArray(querySource)));
     }
 }
\ No newline at end of file
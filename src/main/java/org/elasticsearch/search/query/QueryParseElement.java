@@ -30,6 +30,6 @@ public class QueryParseElement implements SearchParseElement {
 
     @Override
     public void parse(XContentParser parser, SearchContext context) throws Exception {
-        context.parsedQuery(context.queryParserService().parse(parser));
+        context.parsedQuery(context.queryParserService().parseCached(parser));
     }
 }
\ No newline at end of file
@@ -20,6 +20,7 @@
 package org.elasticsearch.search.query;
 
 import com.google.common.collect.ImmutableMap;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TotalHitCountCollector;
@@ -33,6 +34,7 @@ import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.rescore.RescorePhase;
 import org.elasticsearch.search.rescore.RescoreSearchContext;
+import org.elasticsearch.search.scan.SliceParseElement;
 import org.elasticsearch.search.sort.SortParseElement;
 import org.elasticsearch.search.sort.TrackScoresParseElement;
 import org.elasticsearch.search.suggest.SuggestPhase;
@@ -74,6 +76,7 @@ public class QueryPhase implements SearchPhase {
                 .put("min_score", new MinScoreParseElement())
                 .put("minScore", new MinScoreParseElement())
                 .put("timeout", new TimeoutParseElement())
+                .put("slice", new SliceParseElement())
                 .putAll(facetPhase.parseElements())
                 .putAll(suggestPhase.parseElements())
                 .putAll(rescorePhase.parseElements());
@@ -125,14 +128,23 @@ public class QueryPhase implements SearchPhase {
             } else if (searchContext.searchType() == SearchType.SCAN) {
                 topDocs = searchContext.scanContext().execute(searchContext);
             } else if (searchContext.sort() != null) {
-                topDocs = searchContext.searcher().search(query, null, numDocs, searchContext.sort(),
-                        searchContext.trackScores(), searchContext.trackScores());
+                if (searchContext.lastEmittedDoc() != null) {
+                    topDocs = searchContext.searcher().searchAfter((FieldDoc) searchContext.lastEmittedDoc(), query, numDocs, searchContext.sort(),
+                            searchContext.trackScores(), searchContext.trackScores());
+                } else {
+                    topDocs = searchContext.searcher().search(query, null, numDocs, searchContext.sort(),
+                            searchContext.trackScores(), searchContext.trackScores());
+                }
             } else {
                 if (searchContext.rescore() != null) {
                     rescore = true;
                     numDocs = Math.max(searchContext.rescore().window(), numDocs);
                 }
-                topDocs = searchContext.searcher().search(query, numDocs);
+                if (searchContext.lastEmittedDoc() != null) {
+                    topDocs = searchContext.searcher().searchAfter(searchContext.lastEmittedDoc(), query, numDocs);
+                } else {
+                    topDocs = searchContext.searcher().search(query, numDocs);
+                }
             }
             searchContext.queryResult().topDocs(topDocs);
         } catch (Exception e) {
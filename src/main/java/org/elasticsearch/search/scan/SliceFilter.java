@@ -0,0 +1,111 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.scan;
+
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.BitsFilteredDocIdSet;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+import org.elasticsearch.index.mapper.internal.UidFieldMapper;
+
+import java.io.IOException;
+
+/**
+ * Matches the docs that belong to one slice out of <tt>max</tt>, based on the hash of their <tt>_uid</tt>. Since
+ * the uid of a doc never changes, the slices are disjoint and cover all the docs regardless of the segments the
+ * reader of each slice sees, allowing several consumers to scan an index in parallel.
+ */
+public class SliceFilter extends Filter {
+
+    private final int id;
+
+    private final int max;
+
+    public SliceFilter(int id, int max) {
+        this.id = id;
+        this.max = max;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public int max() {
+        return max;
+    }
+
+    @Override
+    public DocIdSet getDocIdSet(AtomicReaderContext context, Bits acceptDocs) throws IOException {
+        Terms terms = context.reader().terms(UidFieldMapper.NAME);
+        if (terms == null) {
+            return null;
+        }
+        FixedBitSet result = null;
+        TermsEnum termsEnum = terms.iterator(null);
+        DocsEnum docsEnum = null;
+        for (BytesRef uid = termsEnum.next(); uid != null; uid = termsEnum.next()) {
+            if (slice(uid) != id) {
+                continue;
+            }
+            docsEnum = termsEnum.docs(null, docsEnum, 0);
+            for (int docId = docsEnum.nextDoc(); docId != DocsEnum.NO_MORE_DOCS; docId = docsEnum.nextDoc()) {
+                if (result == null) {
+                    result = new FixedBitSet(context.reader().maxDoc());
+                }
+                result.set(docId);
+            }
+        }
+        return BitsFilteredDocIdSet.wrap(result, acceptDocs);
+    }
+
+    /**
+     * DJB hash of the uid bytes, same as the default routing hash function, so the slice of a doc is the
+     * same on every node (unlike {@link BytesRef#hashCode()} which is seeded per JVM).
+     */
+    int slice(BytesRef uid) {
+        int hash = 5381;
+        for (int i = uid.offset; i < uid.offset + uid.length; i++) {
+            hash = ((hash << 5) + hash) + uid.bytes[i];
+        }
+        return (hash & 0x7fffffff) % max;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        SliceFilter that = (SliceFilter) o;
+        return id == that.id && max == that.max;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * id + max;
+    }
+
+    @Override
+    public String toString() {
+        return "slice(" + id + "/" + max + ")";
+    }
+}
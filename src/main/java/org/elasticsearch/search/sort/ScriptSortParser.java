@@ -78,6 +78,8 @@ public class ScriptSortParser implements SortParser {
         if (type == null) {
             throw new SearchParseException(context, "_script sorting requires setting the type of the script");
         }
+        // the script uses the lookup of the search context, which can't be shared by concurrent slices
+        context.searcher().disableParallelSearch();
         SearchScript searchScript = context.scriptService().search(context.lookup(), scriptLang, script, params);
         FieldComparatorSource fieldComparatorSource;
         if ("string".equals(type)) {
@@ -66,6 +66,7 @@ public class ThreadPool extends AbstractComponent {
         public static final String INDEX = "index";
         public static final String BULK = "bulk";
         public static final String SEARCH = "search";
+        public static final String SEARCH_SLICE = "search_slice";
         public static final String PERCOLATE = "percolate";
         public static final String MANAGEMENT = "management";
         public static final String FLUSH = "flush";
@@ -73,6 +74,7 @@ public class ThreadPool extends AbstractComponent {
         public static final String CACHE = "cache";
         public static final String REFRESH = "refresh";
         public static final String SNAPSHOT = "snapshot";
+        public static final String WARMER = "warmer";
     }
 
     static {
@@ -107,6 +109,7 @@ public class ThreadPool extends AbstractComponent {
                 .put(Names.BULK, settingsBuilder().put("type", "cached").build())
                 .put(Names.GET, settingsBuilder().put("type", "cached").build())
                 .put(Names.SEARCH, settingsBuilder().put("type", "cached").build())
+                .put(Names.SEARCH_SLICE, settingsBuilder().put("type", "scaling").put("keep_alive", "5m").put("size", Runtime.getRuntime().availableProcessors()).build())
                 .put(Names.PERCOLATE, settingsBuilder().put("type", "cached").build())
                 .put(Names.MANAGEMENT, settingsBuilder().put("type", "scaling").put("keep_alive", "5m").put("size", 5).build())
                 .put(Names.FLUSH, settingsBuilder().put("type", "scaling").put("keep_alive", "5m").put("size", 10).build())
@@ -114,6 +117,7 @@ public class ThreadPool extends AbstractComponent {
                 .put(Names.REFRESH, settingsBuilder().put("type", "scaling").put("keep_alive", "5m").put("size", 10).build())
                 .put(Names.CACHE, settingsBuilder().put("type", "scaling").put("keep_alive", "5m").put("size", 4).build())
                 .put(Names.SNAPSHOT, settingsBuilder().put("type", "scaling").put("keep_alive", "5m").put("size", 5).build())
+                .put(Names.WARMER, settingsBuilder().put("type", "scaling").put("keep_alive", "5m").put("size", 5).build())
                 .build();
 
         Map<String, ExecutorHolder> executors = Maps.newHashMap();
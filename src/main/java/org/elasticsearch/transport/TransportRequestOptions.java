@@ -34,17 +34,30 @@ public class TransportRequestOptions {
     }
 
     public static enum Type {
-        LOW,
-        MED,
-        HIGH;
+        RECOVERY,
+        BULK,
+        REG,
+        STATE,
+        PING;
 
         public static Type fromString(String type) {
-            if ("low".equalsIgnoreCase(type)) {
-                return LOW;
+            if ("bulk".equalsIgnoreCase(type)) {
+                return BULK;
+            } else if ("reg".equalsIgnoreCase(type)) {
+                return REG;
+            } else if ("state".equalsIgnoreCase(type)) {
+                return STATE;
+            } else if ("recovery".equalsIgnoreCase(type)) {
+                return RECOVERY;
+            } else if ("ping".equalsIgnoreCase(type)) {
+                return PING;
+            } else if ("low".equalsIgnoreCase(type)) {
+                // pre 0.21 connection class names
+                return BULK;
             } else if ("med".equalsIgnoreCase(type)) {
-                return MED;
+                return REG;
             } else if ("high".equalsIgnoreCase(type)) {
-                return HIGH;
+                return PING;
             } else {
                 throw new ElasticSearchIllegalArgumentException("failed to match transport type for [" + type + "]");
             }
@@ -55,7 +68,7 @@ public class TransportRequestOptions {
 
     private boolean compress;
 
-    private Type type = Type.MED;
+    private Type type = Type.REG;
 
     public TransportRequestOptions withTimeout(long timeout) {
         return withTimeout(TimeValue.timeValueMillis(timeout));
@@ -79,27 +92,67 @@ public class TransportRequestOptions {
     /**
      * A request that requires very low latency. Usually reserved for ping requests with very small payload.
      */
-    public TransportRequestOptions withHighType() {
-        this.type = Type.HIGH;
+    public TransportRequestOptions withPingType() {
+        this.type = Type.PING;
+        return this;
+    }
+
+    /**
+     * Cluster state publishing, kept on its own connections so it is not delayed by regular requests.
+     */
+    public TransportRequestOptions withStateType() {
+        this.type = Type.STATE;
         return this;
     }
 
     /**
      * The typical requests flows go through this one.
      */
-    public TransportRequestOptions withMedType() {
-        this.type = Type.MED;
+    public TransportRequestOptions withRegType() {
+        this.type = Type.REG;
         return this;
     }
 
     /**
      * Batch oriented (big payload) based requests use this one.
      */
-    public TransportRequestOptions withLowType() {
-        this.type = Type.LOW;
+    public TransportRequestOptions withBulkType() {
+        this.type = Type.BULK;
         return this;
     }
 
+    /**
+     * Recovery file chunks and translog operations use this one.
+     */
+    public TransportRequestOptions withRecoveryType() {
+        this.type = Type.RECOVERY;
+        return this;
+    }
+
+    /**
+     * @deprecated use {@link #withPingType()}
+     */
+    @Deprecated
+    public TransportRequestOptions withHighType() {
+        return withPingType();
+    }
+
+    /**
+     * @deprecated use {@link #withRegType()}
+     */
+    @Deprecated
+    public TransportRequestOptions withMedType() {
+        return withRegType();
+    }
+
+    /**
+     * @deprecated use {@link #withBulkType()}
+     */
+    @Deprecated
+    public TransportRequestOptions withLowType() {
+        return withBulkType();
+    }
+
     public TimeValue timeout() {
         return this.timeout;
     }
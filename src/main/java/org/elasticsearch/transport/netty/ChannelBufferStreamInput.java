@@ -53,6 +53,11 @@ public class ChannelBufferStreamInput extends StreamInput {
 
     @Override
     public BytesReference readBytesReference(int length) throws IOException {
+        if (length > available()) {
+            throw new EOFException();
+        }
+        // slice the buffer instead of copying it, netty does not reuse the buffers it hands to us, so the
+        // slice is safe to keep around (for example, as the source of an index request)
         ChannelBufferBytesReference ref = new ChannelBufferBytesReference(buffer.slice(buffer.readerIndex(), length));
         buffer.skipBytes(length);
         return ref;
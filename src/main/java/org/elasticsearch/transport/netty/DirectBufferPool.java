@@ -0,0 +1,127 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.transport.netty;
+
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct {@link ByteBuffer}s, grouped into size classes that grow by a factor of 4 from the
+ * minimum size up to the maximum size. Buffers larger than the maximum size are not pooled, and the
+ * total amount of idle pooled memory is bounded.
+ */
+public class DirectBufferPool {
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final long maxPooledBytes;
+
+    private final Queue<ByteBuffer>[] pools;
+
+    private final AtomicLong pooledBytes = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public DirectBufferPool(ByteSizeValue minSize, ByteSizeValue maxSize, ByteSizeValue maxPooledBytes) {
+        this.minSize = (int) minSize.bytes();
+        this.maxPooledBytes = maxPooledBytes.bytes();
+        int classes = 1;
+        long size = this.minSize;
+        while (size * 4 <= maxSize.bytes()) {
+            size *= 4;
+            classes++;
+        }
+        this.maxSize = (int) size;
+        this.pools = new Queue[classes];
+        for (int i = 0; i < pools.length; i++) {
+            pools[i] = ConcurrentCollections.newQueue();
+        }
+    }
+
+    public int minSize() {
+        return this.minSize;
+    }
+
+    public int maxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * The number of bytes currently held by idle buffers in the pool.
+     */
+    public long pooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /**
+     * Acquires a cleared direct buffer with a capacity of at least the provided size, or <tt>null</tt>
+     * if the size is bigger than the largest size class.
+     */
+    public ByteBuffer acquire(int size) {
+        int sizeClass = sizeClass(size);
+        if (sizeClass == -1) {
+            return null;
+        }
+        ByteBuffer buffer = pools[sizeClass].poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(minSize << (2 * sizeClass));
+        }
+        pooledBytes.addAndGet(-buffer.capacity());
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer acquired from this pool. Heap buffers and buffers that do not match a size class
+     * are simply dropped.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        int sizeClass = sizeClass(buffer.capacity());
+        if (sizeClass == -1 || (minSize << (2 * sizeClass)) != buffer.capacity()) {
+            return;
+        }
+        if (pooledBytes.addAndGet(buffer.capacity()) > maxPooledBytes) {
+            pooledBytes.addAndGet(-buffer.capacity());
+            return;
+        }
+        pools[sizeClass].add(buffer);
+    }
+
+    private int sizeClass(int size) {
+        if (size > maxSize) {
+            return -1;
+        }
+        int sizeClass = 0;
+        int classSize = minSize;
+        while (classSize < size) {
+            classSize <<= 2;
+            sizeClass++;
+        }
+        return sizeClass;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.transport.netty;
+
+import org.elasticsearch.common.Bytes;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link StreamOutput} that serializes into direct buffers taken from a {@link DirectBufferPool}, so the
+ * resulting {@link ChannelBuffer} can be written to the socket without first being copied off heap. Once
+ * the content outgrows the largest size class, it moves to a heap buffer.
+ * <p/>
+ * The buffer must be handed back using {@link #release()} once the write has completed.
+ */
+public class DirectBufferStreamOutput extends StreamOutput {
+
+    private final DirectBufferPool pool;
+
+    private ByteBuffer buffer;
+
+    public DirectBufferStreamOutput(DirectBufferPool pool) {
+        this.pool = pool;
+        this.buffer = pool.acquire(pool.minSize());
+    }
+
+    @Override
+    public boolean seekPositionSupported() {
+        return true;
+    }
+
+    @Override
+    public long position() throws IOException {
+        return buffer.position();
+    }
+
+    @Override
+    public void seek(long position) throws IOException {
+        if (position > Integer.MAX_VALUE) {
+            throw new UnsupportedOperationException();
+        }
+        ensureCapacity((int) position);
+        buffer.position((int) position);
+    }
+
+    public void skip(int length) throws IOException {
+        seek(buffer.position() + length);
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+        ensureCapacity(buffer.position() + 1);
+        buffer.put(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        ensureCapacity(buffer.position() + length);
+        buffer.put(b, offset, length);
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= buffer.capacity()) {
+            return;
+        }
+        ByteBuffer newBuffer = pool.acquire(Math.max(size, buffer.capacity() * 2));
+        if (newBuffer == null) {
+            newBuffer = ByteBuffer.allocate(Bytes.oversize(size, 1));
+        }
+        buffer.flip();
+        newBuffer.put(buffer);
+        pool.release(buffer);
+        buffer = newBuffer;
+    }
+
+    /**
+     * The content written so far, sharing the underlying buffer.
+     */
+    public ChannelBuffer channelBuffer() {
+        ByteBuffer content = buffer.duplicate();
+        content.flip();
+        return ChannelBuffers.wrappedBuffer(content);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // nothing to do here
+    }
+
+    @Override
+    public void close() throws IOException {
+        // nothing to do here, the buffer is handed back with #release
+    }
+
+    @Override
+    public void reset() throws IOException {
+        buffer.clear();
+    }
+
+    /**
+     * Returns the underlying buffer to the pool, the stream can't be used afterwards.
+     */
+    public void release() {
+        ByteBuffer buffer = this.buffer;
+        this.buffer = null;
+        pool.release(buffer);
+    }
+}
@@ -29,6 +29,7 @@ import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.CachedStreamOutput;
+import org.elasticsearch.common.io.stream.HandlesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.netty.NettyStaticSetup;
 import org.elasticsearch.common.netty.OpenChannelsHandler;
@@ -39,6 +40,7 @@ import org.elasticsearch.common.transport.BoundTransportAddress;
 import org.elasticsearch.common.transport.InetSocketTransportAddress;
 import org.elasticsearch.common.transport.PortsRange;
 import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.monitor.jvm.JvmInfo;
@@ -82,9 +84,12 @@ import static org.elasticsearch.common.util.concurrent.ConcurrentCollections.new
 import static org.elasticsearch.common.util.concurrent.EsExecutors.daemonThreadFactory;
 
 /**
- * There are 3 types of connections per node, low/med/high. Low if for batch oriented APIs (like recovery or
- * batch) with high payload that will cause regular request. (like search or single index) to take
- * longer. Med is for the typical search / single doc index. And High is for ping type requests (like FD).
+ * There are 5 types of connections per node, recovery/bulk/reg/state/ping. Recovery is for file chunks and
+ * translog operations sent while recovering shards, bulk is for batch oriented APIs with high payload,
+ * both of which would otherwise cause regular requests (like search or single index) to wait behind them.
+ * Reg is for the typical search / single doc index. State is for publishing the cluster state, and ping
+ * is for ping type requests (like FD). Each type gets its own set of channels, so a large message of one
+ * type never delays a small message of another type on the same socket.
  */
 public class NettyTransport extends AbstractLifecycleComponent<Transport> implements Transport {
 
@@ -121,13 +126,17 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
     final ByteSizeValue tcpReceiveBufferSize;
     final ReceiveBufferSizePredictorFactory receiveBufferSizePredictorFactory;
 
-    final int connectionsPerNodeLow;
-    final int connectionsPerNodeMed;
-    final int connectionsPerNodeHigh;
+    final int connectionsPerNodeRecovery;
+    final int connectionsPerNodeBulk;
+    final int connectionsPerNodeReg;
+    final int connectionsPerNodeState;
+    final int connectionsPerNodePing;
 
     final ByteSizeValue maxCumulationBufferCapacity;
     final int maxCompositeBufferComponents;
 
+    final DirectBufferPool directBufferPool;
+
     private final ThreadPool threadPool;
 
     private volatile OpenChannelsHandler serverOpenChannels;
@@ -188,13 +197,27 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
         this.reuseAddress = componentSettings.getAsBoolean("reuse_address", settings.getAsBoolean(TCP_REUSE_ADDRESS, NetworkUtils.defaultReuseAddress()));
         this.tcpSendBufferSize = componentSettings.getAsBytesSize("tcp_send_buffer_size", settings.getAsBytesSize(TCP_SEND_BUFFER_SIZE, TCP_DEFAULT_SEND_BUFFER_SIZE));
         this.tcpReceiveBufferSize = componentSettings.getAsBytesSize("tcp_receive_buffer_size", settings.getAsBytesSize(TCP_RECEIVE_BUFFER_SIZE, TCP_DEFAULT_RECEIVE_BUFFER_SIZE));
-        this.connectionsPerNodeLow = componentSettings.getAsInt("connections_per_node.low", settings.getAsInt("transport.connections_per_node.low", 2));
-        this.connectionsPerNodeMed = componentSettings.getAsInt("connections_per_node.med", settings.getAsInt("transport.connections_per_node.med", 6));
-        this.connectionsPerNodeHigh = componentSettings.getAsInt("connections_per_node.high", settings.getAsInt("transport.connections_per_node.high", 1));
+        // the legacy low/med/high settings are used as defaults for the connection types that replaced them
+        int legacyLow = componentSettings.getAsInt("connections_per_node.low", settings.getAsInt("transport.connections_per_node.low", -1));
+        int legacyMed = componentSettings.getAsInt("connections_per_node.med", settings.getAsInt("transport.connections_per_node.med", -1));
+        int legacyHigh = componentSettings.getAsInt("connections_per_node.high", settings.getAsInt("transport.connections_per_node.high", -1));
+        this.connectionsPerNodeRecovery = componentSettings.getAsInt("connections_per_node.recovery", settings.getAsInt("transport.connections_per_node.recovery", legacyLow != -1 ? legacyLow : 2));
+        this.connectionsPerNodeBulk = componentSettings.getAsInt("connections_per_node.bulk", settings.getAsInt("transport.connections_per_node.bulk", legacyLow != -1 ? legacyLow : 3));
+        this.connectionsPerNodeReg = componentSettings.getAsInt("connections_per_node.reg", settings.getAsInt("transport.connections_per_node.reg", legacyMed != -1 ? legacyMed : 6));
+        this.connectionsPerNodeState = componentSettings.getAsInt("connections_per_node.state", settings.getAsInt("transport.connections_per_node.state", legacyHigh != -1 ? legacyHigh : 1));
+        this.connectionsPerNodePing = componentSettings.getAsInt("connections_per_node.ping", settings.getAsInt("transport.connections_per_node.ping", legacyHigh != -1 ? legacyHigh : 1));
 
         this.maxCumulationBufferCapacity = componentSettings.getAsBytesSize("max_cumulation_buffer_capacity", null);
         this.maxCompositeBufferComponents = componentSettings.getAsInt("max_composite_buffer_components", -1);
 
+        if (componentSettings.getAsBoolean("direct_buffers.enabled", true)) {
+            this.directBufferPool = new DirectBufferPool(componentSettings.getAsBytesSize("direct_buffers.min_size", new ByteSizeValue(4, ByteSizeUnit.KB)),
+                    componentSettings.getAsBytesSize("direct_buffers.max_size", new ByteSizeValue(1, ByteSizeUnit.MB)),
+                    componentSettings.getAsBytesSize("direct_buffers.pool_size", new ByteSizeValue(32, ByteSizeUnit.MB)));
+        } else {
+            this.directBufferPool = null;
+        }
+
         long defaultReceiverPredictor = 512 * 1024;
         if (JvmInfo.jvmInfo().mem().directMemoryMax().bytes() > 0) {
             // we can guess a better default...
@@ -211,8 +234,8 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
             receiveBufferSizePredictorFactory = new AdaptiveReceiveBufferSizePredictorFactory((int) receivePredictorMin.bytes(), (int) receivePredictorMin.bytes(), (int) receivePredictorMax.bytes());
         }
 
-        logger.debug("using worker_count[{}], port[{}], bind_host[{}], publish_host[{}], compress[{}], connect_timeout[{}], connections_per_node[{}/{}/{}], receive_predictor[{}->{}]",
-                workerCount, port, bindHost, publishHost, compress, connectTimeout, connectionsPerNodeLow, connectionsPerNodeMed, connectionsPerNodeHigh, receivePredictorMin, receivePredictorMax);
+        logger.debug("using worker_count[{}], port[{}], bind_host[{}], publish_host[{}], compress[{}], connect_timeout[{}], connections_per_node[{}/{}/{}/{}/{}], receive_predictor[{}->{}]",
+                workerCount, port, bindHost, publishHost, compress, connectTimeout, connectionsPerNodeRecovery, connectionsPerNodeBulk, connectionsPerNodeReg, connectionsPerNodeState, connectionsPerNodePing, receivePredictorMin, receivePredictorMax);
     }
 
     public Settings settings() {
@@ -519,13 +542,39 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
             options.withCompress(true);
         }
 
-        CachedStreamOutput.Entry cachedEntry = CachedStreamOutput.popEntry();
-
         byte status = 0;
         status = TransportStatus.setRequest(status);
-
         if (options.compress()) {
             status = TransportStatus.setCompress(status);
+        }
+
+        if (directBufferPool != null) {
+            DirectBufferStreamOutput out = new DirectBufferStreamOutput(directBufferPool);
+            boolean written = false;
+            try {
+                out.skip(NettyHeader.HEADER_SIZE);
+                StreamOutput stream = new HandlesStreamOutput(options.compress() ? CompressorFactory.defaultCompressor().streamOutput(out) : out);
+                stream.setVersion(node.version());
+                stream.writeString(action);
+                request.writeTo(stream);
+                stream.close();
+
+                ChannelBuffer buffer = out.channelBuffer();
+                NettyHeader.writeHeader(buffer, requestId, status, node.version());
+                ChannelFuture future = targetChannel.write(buffer);
+                written = true;
+                future.addListener(new DirectBufferReleaseListener(out));
+            } finally {
+                if (!written) {
+                    // failed to serialize or write the message, the buffer would otherwise never go back to the pool
+                    out.release();
+                }
+            }
+            return;
+        }
+
+        CachedStreamOutput.Entry cachedEntry = CachedStreamOutput.popEntry();
+        if (options.compress()) {
             cachedEntry.bytes().skip(NettyHeader.HEADER_SIZE);
             StreamOutput stream = cachedEntry.handles(CompressorFactory.defaultCompressor());
             stream.setVersion(node.version());
@@ -599,7 +648,7 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
                     if (light) {
                         nodeChannels = connectToChannelsLight(node);
                     } else {
-                        nodeChannels = new NodeChannels(new Channel[connectionsPerNodeLow], new Channel[connectionsPerNodeMed], new Channel[connectionsPerNodeHigh]);
+                        nodeChannels = new NodeChannels(new Channel[connectionsPerNodeRecovery], new Channel[connectionsPerNodeBulk], new Channel[connectionsPerNodeReg], new Channel[connectionsPerNodeState], new Channel[connectionsPerNodePing]);
                         try {
                             connectToChannels(nodeChannels, node);
                         } catch (Exception e) {
@@ -640,76 +689,33 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
         Channel[] channels = new Channel[1];
         channels[0] = connect.getChannel();
         channels[0].getCloseFuture().addListener(new ChannelCloseListener(node));
-        return new NodeChannels(channels, channels, channels);
+        return new NodeChannels(channels, channels, channels, channels, channels);
     }
 
     private void connectToChannels(NodeChannels nodeChannels, DiscoveryNode node) {
-        ChannelFuture[] connectLow = new ChannelFuture[nodeChannels.low.length];
-        ChannelFuture[] connectMed = new ChannelFuture[nodeChannels.med.length];
-        ChannelFuture[] connectHigh = new ChannelFuture[nodeChannels.high.length];
+        ChannelFuture[] connectRecovery = new ChannelFuture[nodeChannels.recovery.length];
+        ChannelFuture[] connectBulk = new ChannelFuture[nodeChannels.bulk.length];
+        ChannelFuture[] connectReg = new ChannelFuture[nodeChannels.reg.length];
+        ChannelFuture[] connectState = new ChannelFuture[nodeChannels.state.length];
+        ChannelFuture[] connectPing = new ChannelFuture[nodeChannels.ping.length];
         InetSocketAddress address = ((InetSocketTransportAddress) node.address()).address();
-        for (int i = 0; i < connectLow.length; i++) {
-            connectLow[i] = clientBootstrap.connect(address);
-        }
-        for (int i = 0; i < connectMed.length; i++) {
-            connectMed[i] = clientBootstrap.connect(address);
-        }
-        for (int i = 0; i < connectHigh.length; i++) {
-            connectHigh[i] = clientBootstrap.connect(address);
-        }
+        connect(connectRecovery, address);
+        connect(connectBulk, address);
+        connect(connectReg, address);
+        connect(connectState, address);
+        connect(connectPing, address);
 
         try {
-            for (int i = 0; i < connectLow.length; i++) {
-                connectLow[i].awaitUninterruptibly((long) (connectTimeout.millis() * 1.5));
-                if (!connectLow[i].isSuccess()) {
-                    throw new ConnectTransportException(node, "connect_timeout[" + connectTimeout + "]", connectLow[i].getCause());
-                }
-                nodeChannels.low[i] = connectLow[i].getChannel();
-                nodeChannels.low[i].getCloseFuture().addListener(new ChannelCloseListener(node));
-            }
-
-            for (int i = 0; i < connectMed.length; i++) {
-                connectMed[i].awaitUninterruptibly((long) (connectTimeout.millis() * 1.5));
-                if (!connectMed[i].isSuccess()) {
-                    throw new ConnectTransportException(node, "connect_timeout[" + connectTimeout + "]", connectMed[i].getCause());
-                }
-                nodeChannels.med[i] = connectMed[i].getChannel();
-                nodeChannels.med[i].getCloseFuture().addListener(new ChannelCloseListener(node));
-            }
+            awaitConnected(connectRecovery, nodeChannels.recovery, node);
+            awaitConnected(connectBulk, nodeChannels.bulk, node);
+            awaitConnected(connectReg, nodeChannels.reg, node);
+            awaitConnected(connectState, nodeChannels.state, node);
+            awaitConnected(connectPing, nodeChannels.ping, node);
 
-            for (int i = 0; i < connectHigh.length; i++) {
-                connectHigh[i].awaitUninterruptibly((long) (connectTimeout.millis() * 1.5));
-                if (!connectHigh[i].isSuccess()) {
-                    throw new ConnectTransportException(node, "connect_timeout[" + connectTimeout + "]", connectHigh[i].getCause());
-                }
-                nodeChannels.high[i] = connectHigh[i].getChannel();
-                nodeChannels.high[i].getCloseFuture().addListener(new ChannelCloseListener(node));
-            }
-
-            if (nodeChannels.low.length == 0) {
-                if (nodeChannels.med.length > 0) {
-                    nodeChannels.low = nodeChannels.med;
-                } else {
-                    nodeChannels.low = nodeChannels.high;
-                }
-            }
-            if (nodeChannels.med.length == 0) {
-                if (nodeChannels.high.length > 0) {
-                    nodeChannels.med = nodeChannels.high;
-                } else {
-                    nodeChannels.med = nodeChannels.low;
-                }
-            }
-            if (nodeChannels.high.length == 0) {
-                if (nodeChannels.med.length > 0) {
-                    nodeChannels.high = nodeChannels.med;
-                } else {
-                    nodeChannels.high = nodeChannels.low;
-                }
-            }
+            nodeChannels.fillEmptyTypes();
         } catch (RuntimeException e) {
             // clean the futures
-            for (ChannelFuture future : ImmutableList.<ChannelFuture>builder().add(connectLow).add(connectMed).add(connectHigh).build()) {
+            for (ChannelFuture future : ImmutableList.<ChannelFuture>builder().add(connectRecovery).add(connectBulk).add(connectReg).add(connectState).add(connectPing).build()) {
                 future.cancel();
                 if (future.getChannel() != null && future.getChannel().isOpen()) {
                     try {
@@ -723,6 +729,23 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
         }
     }
 
+    private void connect(ChannelFuture[] futures, InetSocketAddress address) {
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = clientBootstrap.connect(address);
+        }
+    }
+
+    private void awaitConnected(ChannelFuture[] futures, Channel[] channels, DiscoveryNode node) {
+        for (int i = 0; i < futures.length; i++) {
+            futures[i].awaitUninterruptibly((long) (connectTimeout.millis() * 1.5));
+            if (!futures[i].isSuccess()) {
+                throw new ConnectTransportException(node, "connect_timeout[" + connectTimeout + "]", futures[i].getCause());
+            }
+            channels[i] = futures[i].getChannel();
+            channels[i].getCloseFuture().addListener(new ChannelCloseListener(node));
+        }
+    }
+
     @Override
     public void disconnectFromNode(DiscoveryNode node) {
         synchronized (connectLock(node.id())) {
@@ -771,21 +794,58 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
 
     public static class NodeChannels {
 
-        private Channel[] low;
-        private final AtomicInteger lowCounter = new AtomicInteger();
-        private Channel[] med;
-        private final AtomicInteger medCounter = new AtomicInteger();
-        private Channel[] high;
-        private final AtomicInteger highCounter = new AtomicInteger();
+        private Channel[] recovery;
+        private final AtomicInteger recoveryCounter = new AtomicInteger();
+        private Channel[] bulk;
+        private final AtomicInteger bulkCounter = new AtomicInteger();
+        private Channel[] reg;
+        private final AtomicInteger regCounter = new AtomicInteger();
+        private Channel[] state;
+        private final AtomicInteger stateCounter = new AtomicInteger();
+        private Channel[] ping;
+        private final AtomicInteger pingCounter = new AtomicInteger();
+
+        public NodeChannels(Channel[] recovery, Channel[] bulk, Channel[] reg, Channel[] state, Channel[] ping) {
+            this.recovery = recovery;
+            this.bulk = bulk;
+            this.reg = reg;
+            this.state = state;
+            this.ping = ping;
+        }
+
+        /**
+         * Types configured with no connections share the channels of the closest type that has some, so
+         * every type can always be sent.
+         */
+        void fillEmptyTypes() {
+            if (reg.length == 0) {
+                reg = firstNonEmpty(bulk, recovery, state, ping);
+            }
+            if (bulk.length == 0) {
+                bulk = firstNonEmpty(recovery, reg);
+            }
+            if (recovery.length == 0) {
+                recovery = firstNonEmpty(bulk, reg);
+            }
+            if (state.length == 0) {
+                state = firstNonEmpty(ping, reg);
+            }
+            if (ping.length == 0) {
+                ping = firstNonEmpty(state, reg);
+            }
+        }
 
-        public NodeChannels(Channel[] low, Channel[] med, Channel[] high) {
-            this.low = low;
-            this.med = med;
-            this.high = high;
+        private static Channel[] firstNonEmpty(Channel[]... candidates) {
+            for (Channel[] candidate : candidates) {
+                if (candidate.length > 0) {
+                    return candidate;
+                }
+            }
+            return candidates[candidates.length - 1];
         }
 
         public boolean hasChannel(Channel channel) {
-            return hasChannel(channel, low) || hasChannel(channel, med) || hasChannel(channel, high);
+            return hasChannel(channel, recovery) || hasChannel(channel, bulk) || hasChannel(channel, reg) || hasChannel(channel, state) || hasChannel(channel, ping);
         }
 
         private boolean hasChannel(Channel channel, Channel[] channels) {
@@ -798,20 +858,26 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
         }
 
         public Channel channel(TransportRequestOptions.Type type) {
-            if (type == TransportRequestOptions.Type.MED) {
-                return med[Math.abs(medCounter.incrementAndGet()) % med.length];
-            } else if (type == TransportRequestOptions.Type.HIGH) {
-                return high[Math.abs(highCounter.incrementAndGet()) % high.length];
+            if (type == TransportRequestOptions.Type.REG) {
+                return reg[Math.abs(regCounter.incrementAndGet()) % reg.length];
+            } else if (type == TransportRequestOptions.Type.STATE) {
+                return state[Math.abs(stateCounter.incrementAndGet()) % state.length];
+            } else if (type == TransportRequestOptions.Type.PING) {
+                return ping[Math.abs(pingCounter.incrementAndGet()) % ping.length];
+            } else if (type == TransportRequestOptions.Type.BULK) {
+                return bulk[Math.abs(bulkCounter.incrementAndGet()) % bulk.length];
             } else {
-                return low[Math.abs(lowCounter.incrementAndGet()) % low.length];
+                return recovery[Math.abs(recoveryCounter.incrementAndGet()) % recovery.length];
             }
         }
 
         public synchronized void close() {
             List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
-            closeChannelsAndWait(low, futures);
-            closeChannelsAndWait(med, futures);
-            closeChannelsAndWait(high, futures);
+            closeChannelsAndWait(recovery, futures);
+            closeChannelsAndWait(bulk, futures);
+            closeChannelsAndWait(reg, futures);
+            closeChannelsAndWait(state, futures);
+            closeChannelsAndWait(ping, futures);
             for (ChannelFuture future : futures) {
                 future.awaitUninterruptibly();
             }
@@ -844,4 +910,18 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
         }
     }
 
+    public static class DirectBufferReleaseListener implements ChannelFutureListener {
+
+        private final DirectBufferStreamOutput out;
+
+        public DirectBufferReleaseListener(DirectBufferStreamOutput out) {
+            this.out = out;
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture channelFuture) throws Exception {
+            out.release();
+        }
+    }
+
 }
@@ -24,6 +24,7 @@ import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.ThrowableObjectOutputStream;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.CachedStreamOutput;
+import org.elasticsearch.common.io.stream.HandlesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.transport.*;
 import org.elasticsearch.transport.support.TransportStatus;
@@ -72,13 +73,37 @@ public class NettyTransportChannel implements TransportChannel {
         if (transport.compress) {
             options.withCompress(true);
         }
-        CachedStreamOutput.Entry cachedEntry = CachedStreamOutput.popEntry();
-
         byte status = 0;
         status = TransportStatus.setResponse(status);
-
         if (options.compress()) {
             status = TransportStatus.setCompress(status);
+        }
+
+        if (transport.directBufferPool != null) {
+            DirectBufferStreamOutput out = new DirectBufferStreamOutput(transport.directBufferPool);
+            boolean written = false;
+            try {
+                out.skip(NettyHeader.HEADER_SIZE);
+                StreamOutput stream = new HandlesStreamOutput(options.compress() ? CompressorFactory.defaultCompressor().streamOutput(out) : out);
+                stream.setVersion(version);
+                response.writeTo(stream);
+                stream.close();
+
+                ChannelBuffer buffer = out.channelBuffer();
+                NettyHeader.writeHeader(buffer, requestId, status, version);
+                ChannelFuture future = channel.write(buffer);
+                written = true;
+                future.addListener(new NettyTransport.DirectBufferReleaseListener(out));
+            } finally {
+                if (!written) {
+                    out.release();
+                }
+            }
+            return;
+        }
+
+        CachedStreamOutput.Entry cachedEntry = CachedStreamOutput.popEntry();
+        if (options.compress()) {
             cachedEntry.bytes().skip(NettyHeader.HEADER_SIZE);
             StreamOutput stream = cachedEntry.handles(CompressorFactory.defaultCompressor());
             stream.setVersion(version);
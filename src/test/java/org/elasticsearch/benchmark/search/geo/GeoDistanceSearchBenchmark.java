@@ -138,6 +138,22 @@ public class GeoDistanceSearchBenchmark {
         System.err.println("--> Perf (ARC) - optimize_bbox (indexed) " + (totalTime / NUM_RUNS) + "ms");
 
 
+        System.err.println("--> Warming up (ARC)  - optimize_bbox (grid)");
+        start = System.currentTimeMillis();
+        for (int i = 0; i < NUM_WARM; i++) {
+            run(client, GeoDistance.ARC, "grid");
+        }
+        totalTime = System.currentTimeMillis() - start;
+        System.err.println("--> Warmup (ARC) - optimize_bbox (grid) " + (totalTime / NUM_WARM) + "ms");
+
+        System.err.println("--> Perf (ARC) - optimize_bbox (grid)");
+        start = System.currentTimeMillis();
+        for (int i = 0; i < NUM_RUNS; i++) {
+            run(client, GeoDistance.ARC, "grid");
+        }
+        totalTime = System.currentTimeMillis() - start;
+        System.err.println("--> Perf (ARC) - optimize_bbox (grid) " + (totalTime / NUM_RUNS) + "ms");
+
         System.err.println("--> Warming up (ARC)  - no optimize_bbox");
         start = System.currentTimeMillis();
         for (int i = 0; i < NUM_WARM; i++) {
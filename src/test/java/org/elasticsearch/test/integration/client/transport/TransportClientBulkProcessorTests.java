@@ -0,0 +1,152 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.client.transport;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.transport.TransportClient;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.routing.operation.OperationRouting;
+import org.elasticsearch.common.network.NetworkUtils;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.node.internal.InternalNode;
+import org.elasticsearch.test.integration.AbstractNodesTests;
+import org.elasticsearch.transport.TransportService;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ *
+ */
+public class TransportClientBulkProcessorTests extends AbstractNodesTests {
+
+    private TransportClient client;
+
+    @BeforeClass
+    public void startNodes() throws Exception {
+        startNode("server1");
+        startNode("server2");
+        client("server1").admin().indices().prepareCreate("test")
+                .setSettings(ImmutableSettings.settingsBuilder().put("index.number_of_shards", 4).put("index.number_of_replicas", 0))
+                .execute().actionGet();
+        client("server1").admin().cluster().prepareHealth("test").setWaitForGreenStatus().setWaitForRelocatingShards(0).execute().actionGet();
+
+        TransportAddress server1Address = ((InternalNode) node("server1")).injector().getInstance(TransportService.class).boundAddress().publishAddress();
+        client = new TransportClient(settingsBuilder()
+                .put("cluster.name", "test-cluster-" + NetworkUtils.getLocalAddress().getHostName())
+                .put("client.transport.sniff", true)
+                .put("client.transport.nodes_sampler_interval", "1s")
+                .put("client.transport.routing_aware", true).build());
+        client.addTransportAddress(server1Address);
+        // wait for the client to sample the routing of the index
+        for (int i = 0; i < 100 && client.primaryShardNode("test", "type1", "0", null) == null; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(client.primaryShardNode("test", "type1", "0", null) != null, equalTo(true));
+    }
+
+    @AfterClass
+    public void closeNodes() {
+        client.close();
+        closeAllNodes();
+    }
+
+    @Test
+    public void testPerNodeDispatch() throws Exception {
+        final int numberOfActions = 50;
+        final List<BulkRequest> requests = Collections.synchronizedList(Lists.<BulkRequest>newArrayList());
+        final AtomicInteger failures = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(numberOfActions);
+        BulkProcessor processor = BulkProcessor.builder(client, new BulkProcessor.Listener() {
+            @Override
+            public void beforeBulk(long executionId, BulkRequest request) {
+                requests.add(request);
+            }
+
+            @Override
+            public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+                if (response.hasFailures()) {
+                    failures.incrementAndGet();
+                }
+                for (int i = 0; i < request.numberOfActions(); i++) {
+                    latch.countDown();
+                }
+            }
+
+            @Override
+            public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+                failures.incrementAndGet();
+                for (int i = 0; i < request.numberOfActions(); i++) {
+                    latch.countDown();
+                }
+            }
+        }).setPerNodeDispatch(true).setConcurrentRequests(2).setBulkActions(-1).setBulkSize(new ByteSizeValue(-1)).build();
+
+        for (int i = 0; i < numberOfActions; i++) {
+            processor.add(new IndexRequest("test", "type1", Integer.toString(i)).source("field", "value" + i));
+        }
+        processor.close();
+        assertThat(latch.await(10, TimeUnit.SECONDS), equalTo(true));
+        assertThat(failures.get(), equalTo(0));
+
+        // each bulk request only holds actions of a single node, and each node got its own request
+        ClusterState state = ((InternalNode) node("server1")).injector().getInstance(ClusterService.class).state();
+        OperationRouting operationRouting = ((InternalNode) node("server1")).injector().getInstance(OperationRouting.class);
+        Set<String> nodes = Sets.newHashSet();
+        int actions = 0;
+        for (BulkRequest request : requests) {
+            Set<String> requestNodes = Sets.newHashSet();
+            for (ActionRequest item : request.requests()) {
+                IndexRequest indexRequest = (IndexRequest) item;
+                int shardId = operationRouting.indexShards(state, "test", "type1", indexRequest.id(), null).shardId().id();
+                requestNodes.add(state.routingTable().index("test").shard(shardId).primaryShard().currentNodeId());
+            }
+            assertThat(requestNodes.size(), equalTo(1));
+            nodes.addAll(requestNodes);
+            actions += request.numberOfActions();
+        }
+        assertThat(requests.size(), equalTo(2));
+        assertThat(nodes.size(), equalTo(2));
+        assertThat(actions, equalTo(numberOfActions));
+
+        client("server1").admin().indices().prepareRefresh("test").execute().actionGet();
+        assertThat(client("server1").prepareCount("test").execute().actionGet().getCount(), equalTo((long) numberOfActions));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.gateway.fs;
+
+import com.google.common.collect.Maps;
+import org.elasticsearch.common.io.FileSystemUtils;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.gateway.Gateway;
+import org.elasticsearch.gateway.blobstore.BlobStoreGateway;
+import org.elasticsearch.index.gateway.CommitPoint;
+import org.elasticsearch.index.gateway.IndexShardGatewayService;
+import org.elasticsearch.index.gateway.SnapshotStatus;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.node.internal.InternalNode;
+import org.elasticsearch.test.integration.AbstractNodesTests;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ *
+ */
+public class DuplicateFilesFsIndexGatewayTests extends AbstractNodesTests {
+
+    private final Settings settings = ImmutableSettings.settingsBuilder()
+            .put("gateway.type", "fs")
+            .put("index.number_of_shards", 1)
+            .put("index.number_of_replicas", 0)
+            .put("index.compound_format", false)
+            .put("index.gateway.snapshot_interval", -1)
+            .build();
+
+    @AfterMethod
+    public void closeNodes() throws Exception {
+        node("server1").stop();
+        // since we store (by default) the index snapshot under the gateway, resetting it will reset the index data as well
+        ((InternalNode) node("server1")).injector().getInstance(Gateway.class).reset();
+        closeAllNodes();
+    }
+
+    @BeforeMethod
+    public void buildNode1() throws Exception {
+        buildNode("server1", settings);
+        // since we store (by default) the index snapshot under the gateway, resetting it will reset the index data as well
+        ((InternalNode) node("server1")).injector().getInstance(Gateway.class).reset();
+        closeAllNodes();
+    }
+
+    @Test
+    public void testSameContentIsUploadedOnce() throws Exception {
+        startNode("server1", settings);
+        client("server1").admin().indices().prepareCreate("test").execute().actionGet();
+        client("server1").admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        // two segments holding the same kind of document end up with several files of identical content
+        client("server1").prepareIndex("test", "type1", "1").setSource("field", "value").execute().actionGet();
+        client("server1").admin().indices().prepareFlush().execute().actionGet();
+        client("server1").prepareIndex("test", "type1", "2").setSource("field", "value").execute().actionGet();
+        client("server1").admin().indices().prepareFlush().execute().actionGet();
+        client("server1").admin().indices().prepareGatewaySnapshot("test").execute().actionGet();
+
+        CommitPoint commitPoint = ((BlobStoreGateway) ((InternalNode) node("server1")).injector().getInstance(Gateway.class)).findCommitPoint("test", 0);
+        Map<String, Integer> physicalFilesPerBlob = Maps.newHashMap();
+        for (CommitPoint.FileInfo fileInfo : commitPoint.indexFiles()) {
+            Integer count = physicalFilesPerBlob.get(fileInfo.name());
+            physicalFilesPerBlob.put(fileInfo.name(), count == null ? 1 : count + 1);
+        }
+        assertThat(commitPoint.indexFiles().size(), greaterThan(physicalFilesPerBlob.size()));
+
+        // each distinct content was only uploaded once
+        SnapshotStatus snapshotStatus = ((InternalNode) node("server1")).injector().getInstance(IndicesService.class).indexServiceSafe("test")
+                .shardInjectorSafe(0).getInstance(IndexShardGatewayService.class).snapshotStatus();
+        assertThat(snapshotStatus.stage(), equalTo(SnapshotStatus.Stage.DONE));
+        assertThat(snapshotStatus.index().numberOfFiles(), equalTo(physicalFilesPerBlob.size()));
+
+        // and every physical file is recovered from the shared blobs
+        Environment environment = ((InternalNode) node("server1")).injector().getInstance(Environment.class);
+        closeNode("server1");
+        FileSystemUtils.deleteRecursively(environment.dataWithClusterFiles());
+        startNode("server1", settings);
+        client("server1").admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+        assertThat(client("server1").prepareCount("test").execute().actionGet().getCount(), equalTo(2l));
+        assertThat(client("server1").prepareGet("test", "type1", "1").execute().actionGet().sourceAsString(), equalTo("{\"field\":\"value\"}"));
+        assertThat(client("server1").prepareGet("test", "type1", "2").execute().actionGet().sourceAsString(), equalTo("{\"field\":\"value\"}"));
+    }
+}
@@ -24,8 +24,11 @@ import org.elasticsearch.action.admin.cluster.health.ClusterHealthStatus;
 import org.elasticsearch.action.admin.indices.status.IndexShardStatus;
 import org.elasticsearch.action.admin.indices.status.IndicesStatusResponse;
 import org.elasticsearch.action.admin.indices.status.ShardStatus;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.gateway.Gateway;
@@ -37,6 +40,9 @@ import org.elasticsearch.test.integration.AbstractNodesTests;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
 import static org.elasticsearch.client.Requests.clusterHealthRequest;
 import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
@@ -205,6 +211,74 @@ public class SimpleRecoveryLocalGatewayTests extends AbstractNodesTests {
         }
     }
 
+    @Test
+    public void testConcurrentTranslogReplay() throws Exception {
+        buildNode("node1", settingsBuilder().put("gateway.type", "local").build());
+        cleanAndCloseNodes();
+
+        // small batches replayed on several lanes, and nothing flushed so everything is recovered from the translog
+        Settings settings = settingsBuilder().put("gateway.type", "local")
+                .put("index.number_of_shards", 1)
+                .put("index.number_of_replicas", 0)
+                .put("index.translog.disable_flush", true)
+                .put("index.gateway.local.recovery_concurrency", 4)
+                .put("index.gateway.local.recovery_batch_size", 7)
+                .build();
+        Node node1 = startNode("node1", settings);
+
+        // index, delete and re-index the same ids, so operations on a single id are spread over several batches
+        int numberOfIds = 50;
+        Map<String, Long> versions = newHashMap();
+        Map<String, String> values = newHashMap();
+        int[] modulos = new int[]{1, 3, 2, 5, 7, 4};
+        int operations = 0;
+        for (int round = 0; round < modulos.length; round++) {
+            for (int i = 0; i < numberOfIds; i++) {
+                if (i % modulos[round] != 0) {
+                    continue;
+                }
+                String id = Integer.toString(i);
+                operations++;
+                if (round % 2 == 0) {
+                    String value = "value" + round;
+                    IndexResponse indexResponse = node1.client().prepareIndex("test", "type1", id).setSource("field", value).execute().actionGet();
+                    versions.put(id, indexResponse.getVersion());
+                    values.put(id, value);
+                } else {
+                    node1.client().prepareDelete("test", "type1", id).execute().actionGet();
+                    versions.remove(id);
+                    values.remove(id);
+                }
+            }
+        }
+
+        closeNode("node1");
+        node1 = startNode("node1", settings);
+
+        logger.info("Running Cluster Health (wait for the shards to startup)");
+        ClusterHealthResponse clusterHealth = client("node1").admin().cluster().health(clusterHealthRequest().setWaitForGreenStatus().setWaitForActiveShards(1)).actionGet();
+        logger.info("Done Cluster Health, status " + clusterHealth.getStatus());
+        assertThat(clusterHealth.isTimedOut(), equalTo(false));
+        assertThat(clusterHealth.getStatus(), equalTo(ClusterHealthStatus.GREEN));
+
+        IndicesStatusResponse statusResponse = node1.client().admin().indices().prepareStatus("test").setRecovery(true).execute().actionGet();
+        assertThat(statusResponse.getShards()[0].getGatewayRecoveryStatus().getRecoveredTranslogOperations(), equalTo((long) operations));
+
+        for (int i = 0; i < numberOfIds; i++) {
+            String id = Integer.toString(i);
+            GetResponse getResponse = node1.client().prepareGet("test", "type1", id).execute().actionGet();
+            if (versions.containsKey(id)) {
+                assertThat("doc [" + id + "]", getResponse.isExists(), equalTo(true));
+                assertThat("doc [" + id + "]", getResponse.getVersion(), equalTo(versions.get(id)));
+                assertThat("doc [" + id + "]", getResponse.getSource().get("field").toString(), equalTo(values.get(id)));
+            } else {
+                assertThat("doc [" + id + "]", getResponse.isExists(), equalTo(false));
+            }
+        }
+        node1.client().admin().indices().prepareRefresh().execute().actionGet();
+        assertThat(node1.client().prepareCount("test").setQuery(matchAllQuery()).execute().actionGet().getCount(), equalTo((long) versions.size()));
+    }
+
     @Test
     public void testTwoNodeFirstNodeCleared() throws Exception {
         // clean two nodes
@@ -0,0 +1,146 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.http;
+
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.transport.InetSocketTransportAddress;
+import org.elasticsearch.http.HttpServer;
+import org.elasticsearch.http.HttpServerTransport;
+import org.elasticsearch.http.HttpStats;
+import org.elasticsearch.node.internal.InternalNode;
+import org.elasticsearch.test.integration.AbstractNodesTests;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+/**
+ *
+ */
+public class HttpAdmissionControlTests extends AbstractNodesTests {
+
+    private InetSocketAddress address;
+
+    @BeforeClass
+    public void startNodes() {
+        startNode("server1", ImmutableSettings.settingsBuilder()
+                .put("http.enabled", true)
+                .put("http.admission.enabled", true)
+                .put("http.admission.bulk.max_requests", 0));
+        address = ((InetSocketTransportAddress) ((InternalNode) node("server1")).injector().getInstance(HttpServerTransport.class)
+                .boundAddress().publishAddress()).address();
+    }
+
+    @AfterClass
+    public void closeNodes() {
+        closeAllNodes();
+    }
+
+    @Test
+    public void testInFlightRequestsAreReleased() throws Exception {
+        assertThat(send("PUT", "/test/type1/1", "{\"field\":\"value\"}"), greaterThanOrEqualTo(200));
+        client("server1").admin().cluster().prepareHealth("test").setWaitForYellowStatus().execute().actionGet();
+        assertThat(send("PUT", "/test/type1/2", "{\"field\":\"value\"}"), equalTo(201));
+        assertThat(send("POST", "/test/type1/3/_update", "{\"doc\":{\"field\":\"value\"}}"), equalTo(404));
+        assertThat(send("POST", "/test/type1", "{ not json"), greaterThanOrEqualTo(400));
+        assertNothingInFlight();
+
+        assertThat(send("POST", "/test/_refresh", null), equalTo(200));
+        assertThat(send("GET", "/test/_search", null), equalTo(200));
+        assertThat(send("POST", "/test/_search", "{\"query\":{\"no_such_query\":{}}}"), greaterThanOrEqualTo(400));
+        assertThat(send("GET", "/no_such_index/_search", null), equalTo(404));
+        assertThat(send("GET", "/test/_count", null), equalTo(200));
+        assertNothingInFlight();
+
+        // mappings are not accounted as index requests
+        assertThat(send("PUT", "/test/type1/_mapping", "{\"type1\":{\"properties\":{\"other\":{\"type\":\"string\"}}}}"), equalTo(200));
+        assertThat(stats("index").rejected(), equalTo(0l));
+        assertNothingInFlight();
+    }
+
+    @Test
+    public void testRejectedRequests() throws Exception {
+        long rejected = stats("bulk").rejected();
+        assertThat(send("POST", "/_bulk", "{\"index\":{\"_index\":\"test\",\"_type\":\"type1\"}}\n{\"field\":\"value\"}\n"), equalTo(429));
+        assertThat(stats("bulk").rejected(), equalTo(rejected + 1));
+        assertNothingInFlight();
+    }
+
+    private void assertNothingInFlight() throws InterruptedException {
+        // the request is released right after its response is written, give it a chance to catch up
+        for (int i = 0; i < 50 && inFlightRequests() > 0; i++) {
+            Thread.sleep(100);
+        }
+        for (HttpStats.AdmissionStats stats : httpStats().admission()) {
+            assertThat(stats.category(), stats.inFlightRequests(), equalTo(0l));
+            assertThat(stats.category(), stats.inFlightSize().bytes(), equalTo(0l));
+        }
+    }
+
+    private long inFlightRequests() {
+        long inFlight = 0;
+        for (HttpStats.AdmissionStats stats : httpStats().admission()) {
+            inFlight += stats.inFlightRequests();
+        }
+        return inFlight;
+    }
+
+    private HttpStats.AdmissionStats stats(String category) {
+        for (HttpStats.AdmissionStats stats : httpStats().admission()) {
+            if (stats.category().equals(category)) {
+                return stats;
+            }
+        }
+        throw new AssertionError("no stats for [" + category + "]");
+    }
+
+    private HttpStats httpStats() {
+        return ((InternalNode) node("server1")).injector().getInstance(HttpServer.class).stats();
+    }
+
+    private int send(String method, String path, String body) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", address.getAddress().getHostAddress(), address.getPort(), path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            OutputStream out = connection.getOutputStream();
+            out.write(body.getBytes("UTF-8"));
+            out.close();
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in != null) {
+            logger.info("[{}] [{}] returned [{}] {}", method, path, status, Streams.copyToString(new InputStreamReader(in, "UTF-8")));
+        }
+        connection.disconnect();
+        return status;
+    }
+}
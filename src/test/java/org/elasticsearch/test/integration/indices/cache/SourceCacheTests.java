@@ -0,0 +1,138 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.indices.cache;
+
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.cache.CacheStats;
+import org.elasticsearch.test.integration.AbstractNodesTests;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ */
+public class SourceCacheTests extends AbstractNodesTests {
+
+    private Client client;
+
+    @BeforeClass
+    public void createNodes() throws Exception {
+        startNode("node1", ImmutableSettings.settingsBuilder()
+                .put("index.cache.stats.refresh_interval", 0)
+                .put("indices.cache.source.size", "10mb"));
+        client = getClient();
+    }
+
+    @AfterClass
+    public void closeNodes() {
+        client.close();
+        closeAllNodes();
+    }
+
+    protected Client getClient() {
+        return client("node1");
+    }
+
+    @Test
+    public void testGetAndScanSearch() throws Exception {
+        client.admin().indices().prepareDelete().execute().actionGet();
+        client.admin().indices().prepareCreate("test")
+                .setSettings(ImmutableSettings.settingsBuilder().put("index.number_of_shards", 1).put("index.number_of_replicas", 0))
+                .addMapping("type1", jsonBuilder().startObject().startObject("type1")
+                        .startObject("_source").field("compress", true).endObject()
+                        .endObject().endObject())
+                .execute().actionGet();
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        for (int i = 0; i < 10; i++) {
+            client.prepareIndex("test", "type1", Integer.toString(i)).setSource("field", "value" + i).execute().actionGet();
+        }
+        // make sure realtime gets are served from the segments and not from the translog
+        client.admin().indices().prepareFlush().execute().actionGet();
+
+        // realtime get of the source
+        for (int i = 0; i < 2; i++) {
+            GetResponse getResponse = client.prepareGet("test", "type1", "0").execute().actionGet();
+            assertThat(getResponse.exists(), equalTo(true));
+            assertThat(getResponse.getSource().get("field").toString(), equalTo("value0"));
+        }
+        assertThat(cacheStats().getSourceMissCount(), equalTo(1l));
+        assertThat(cacheStats().getSourceHitCount(), equalTo(1l));
+
+        // non realtime get of the source along with other fields
+        GetResponse getResponse = client.prepareGet("test", "type1", "0").setRealtime(false).setFields("_source", "field").execute().actionGet();
+        assertThat(getResponse.getSource().get("field").toString(), equalTo("value0"));
+        assertThat(getResponse.field("field").getValue().toString(), equalTo("value0"));
+        // once for the source, and once for extracting the field out of it
+        assertThat(cacheStats().getSourceMissCount(), equalTo(1l));
+        assertThat(cacheStats().getSourceHitCount(), equalTo(3l));
+
+        // scans go over each document once, and don't cache their sources
+        SearchResponse searchResponse = client.prepareSearch("test").setSearchType(SearchType.SCAN).setQuery(matchAllQuery())
+                .addScriptField("script_field", "_source.field").setSize(5).setScroll(TimeValue.timeValueMinutes(1)).execute().actionGet();
+        int hits = 0;
+        while (true) {
+            searchResponse = client.prepareSearchScroll(searchResponse.getScrollId()).setScroll(TimeValue.timeValueMinutes(1)).execute().actionGet();
+            assertThat(searchResponse.getFailedShards(), equalTo(0));
+            if (searchResponse.getHits().hits().length == 0) {
+                break;
+            }
+            for (int i = 0; i < searchResponse.getHits().hits().length; i++) {
+                assertThat(searchResponse.getHits().hits()[i].field("script_field").value().toString(), equalTo("value" + searchResponse.getHits().hits()[i].id()));
+            }
+            hits += searchResponse.getHits().hits().length;
+        }
+        assertThat(hits, equalTo(10));
+        assertThat(cacheStats().getSourceMissCount(), equalTo(1l));
+        assertThat(cacheStats().getSourceHitCount(), equalTo(3l));
+
+        // while regular searches do
+        searchResponse = client.prepareSearch("test").setQuery(matchAllQuery()).addScriptField("script_field", "_source.field").setSize(10).execute().actionGet();
+        assertThat(searchResponse.getHits().hits().length, equalTo(10));
+        for (int i = 0; i < searchResponse.getHits().hits().length; i++) {
+            assertThat(searchResponse.getHits().hits()[i].field("script_field").value().toString(), equalTo("value" + searchResponse.getHits().hits()[i].id()));
+        }
+        assertThat(cacheStats().getSourceMissCount(), equalTo(10l));
+        assertThat(cacheStats().getSourceHitCount(), equalTo(4l));
+
+        // the source of the hits is served from the cache as well
+        searchResponse = client.prepareSearch("test").setQuery(matchAllQuery()).setSize(10).execute().actionGet();
+        assertThat(searchResponse.getHits().hits().length, equalTo(10));
+        for (int i = 0; i < searchResponse.getHits().hits().length; i++) {
+            assertThat(searchResponse.getHits().hits()[i].getSource().get("field").toString(), equalTo("value" + searchResponse.getHits().hits()[i].id()));
+        }
+        assertThat(cacheStats().getSourceMissCount(), equalTo(10l));
+        assertThat(cacheStats().getSourceHitCount(), equalTo(14l));
+    }
+
+    private CacheStats cacheStats() {
+        return client.admin().cluster().prepareNodesStats().setIndices(true).execute().actionGet().nodes()[0].getIndices().getCache();
+    }
+}
@@ -23,6 +23,7 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.search.warmer.IndexWarmerMissingException;
 import org.elasticsearch.search.warmer.IndexWarmersMetaData;
 import org.elasticsearch.test.integration.AbstractNodesTests;
@@ -159,4 +160,21 @@ public class SimpleIndicesWarmerTests extends AbstractNodesTests {
         }
     }
 
+    @Test
+    public void eagerFieldDataWarmer() throws Exception {
+        client.admin().indices().prepareDelete().execute().actionGet();
+
+        client.admin().indices().prepareCreate("test")
+                .setSettings(ImmutableSettings.settingsBuilder().put("index.number_of_shards", 1))
+                .addMapping("type1", "{\"type1\":{\"properties\":{\"field\":{\"type\":\"string\",\"index\":\"not_analyzed\",\"fielddata\":\"loading=eager\"}}}}")
+                .execute().actionGet();
+
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        client.prepareIndex("test", "type1", "1").setSource("field", "value1").setRefresh(true).execute().actionGet();
+
+        WarmerStats warmerStats = client.admin().indices().prepareStats("test").setWarmer(true).execute().actionGet().getTotal().getWarmer();
+        assertThat(warmerStats.fieldDataTimeInMillis(), Matchers.notNullValue());
+        assertThat(warmerStats.fieldDataTimeInMillis().containsKey("field"), equalTo(true));
+    }
 }
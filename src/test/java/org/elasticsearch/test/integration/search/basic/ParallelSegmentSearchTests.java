@@ -0,0 +1,134 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.integration.search.basic;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.integration.AbstractNodesTests;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ *
+ */
+public class ParallelSegmentSearchTests extends AbstractNodesTests {
+
+    private Client client;
+
+    @BeforeClass
+    public void createNodes() throws Exception {
+        // always search in parallel, regardless of the search pool utilization
+        startNode("node1", settingsBuilder().put("search.parallel.enabled", true).put("search.parallel.slices", 4).put("search.parallel.max_utilization", 100));
+        client = getClient();
+
+        for (String index : new String[]{"test", "control"}) {
+            client.admin().indices().prepareCreate(index)
+                    .setSettings(settingsBuilder().put("index.number_of_shards", 1).put("index.number_of_replicas", 0)
+                            .put("index.merge.policy.segments_per_tier", 100).put("index.merge.policy.max_merge_at_once", 100))
+                    .execute().actionGet();
+        }
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        for (int i = 0; i < 200; i++) {
+            for (String index : new String[]{"test", "control"}) {
+                client.prepareIndex(index, "type1", Integer.toString(i))
+                        .setSource(jsonBuilder().startObject().field("field", "value" + (i % 7) + " common").field("num", i % 13).endObject())
+                        .execute().actionGet();
+            }
+            if (i % 10 == 9) {
+                // create a new segment for the test index every 10 docs
+                client.admin().indices().prepareRefresh("test").execute().actionGet();
+            }
+        }
+        client.admin().indices().prepareRefresh("test", "control").execute().actionGet();
+        client.admin().indices().prepareOptimize("control").setMaxNumSegments(1).execute().actionGet();
+    }
+
+    @AfterClass
+    public void closeNodes() {
+        client.close();
+        closeAllNodes();
+    }
+
+    protected Client getClient() {
+        return client("node1");
+    }
+
+    @Test
+    public void testScoredResultsMatchSequentialSearch() throws Exception {
+        for (String value : new String[]{"common", "value3", "value5 common"}) {
+            SearchResponse parallel = client.prepareSearch("test").setQuery(matchQuery("field", value)).setSize(50).execute().actionGet();
+            SearchResponse sequential = client.prepareSearch("control").setQuery(matchQuery("field", value)).setSize(50).execute().actionGet();
+            assertThat(parallel.getShardFailures().length, equalTo(0));
+            assertThat(parallel.getHits().totalHits(), equalTo(sequential.getHits().totalHits()));
+            assertThat(parallel.getHits().hits().length, equalTo(sequential.getHits().hits().length));
+            for (int i = 0; i < parallel.getHits().hits().length; i++) {
+                assertThat(parallel.getHits().getAt(i).score(), equalTo(sequential.getHits().getAt(i).score()));
+            }
+        }
+    }
+
+    @Test
+    public void testSortedResultsMatchSequentialSearch() throws Exception {
+        SearchResponse parallel = client.prepareSearch("test").setQuery(matchAllQuery()).addSort("num", SortOrder.DESC).addSort("_uid", SortOrder.ASC)
+                .setSize(30).execute().actionGet();
+        SearchResponse sequential = client.prepareSearch("control").setQuery(matchAllQuery()).addSort("num", SortOrder.DESC).addSort("_uid", SortOrder.ASC)
+                .setSize(30).execute().actionGet();
+        assertThat(parallel.getShardFailures().length, equalTo(0));
+        assertThat(parallel.getHits().totalHits(), equalTo(200l));
+        for (int i = 0; i < 30; i++) {
+            assertThat(parallel.getHits().getAt(i).id(), equalTo(sequential.getHits().getAt(i).id()));
+        }
+    }
+
+    @Test
+    public void testScriptsRunSequentially() throws Exception {
+        // the script lookup is shared by the whole search, so slices must not move it concurrently
+        for (int run = 0; run < 5; run++) {
+            SearchResponse parallel = client.prepareSearch("test").setQuery(customScoreQuery(matchQuery("field", "common")).script("doc['num'].value * 10 + _score"))
+                    .setSize(50).execute().actionGet();
+            SearchResponse sequential = client.prepareSearch("control").setQuery(customScoreQuery(matchQuery("field", "common")).script("doc['num'].value * 10 + _score"))
+                    .setSize(50).execute().actionGet();
+            assertThat(parallel.getShardFailures().length, equalTo(0));
+            assertThat(parallel.getHits().totalHits(), equalTo(sequential.getHits().totalHits()));
+            for (int i = 0; i < parallel.getHits().hits().length; i++) {
+                assertThat(parallel.getHits().getAt(i).score(), equalTo(sequential.getHits().getAt(i).score()));
+            }
+
+            parallel = client.prepareSearch("test").setQuery(matchAllQuery()).addSort(SortBuilders.scriptSort("doc['num'].value", "number").order(SortOrder.DESC))
+                    .addSort("_uid", SortOrder.ASC).setSize(30).execute().actionGet();
+            sequential = client.prepareSearch("control").setQuery(matchAllQuery()).addSort(SortBuilders.scriptSort("doc['num'].value", "number").order(SortOrder.DESC))
+                    .addSort("_uid", SortOrder.ASC).setSize(30).execute().actionGet();
+            assertThat(parallel.getShardFailures().length, equalTo(0));
+            for (int i = 0; i < 30; i++) {
+                assertThat(parallel.getHits().getAt(i).id(), equalTo(sequential.getHits().getAt(i).id()));
+            }
+        }
+    }
+}
@@ -26,6 +26,9 @@ import org.elasticsearch.action.search.ShardSearchFailure;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.service.IndexService;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.node.internal.InternalNode;
 import org.elasticsearch.search.facet.terms.TermsFacet;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortOrder;
@@ -1262,4 +1265,74 @@ public class SimpleChildQuerySearchTests extends AbstractNodesTests {
         }
     }
 
+    @Test
+    public void testParentChildQueriesAreNotCached() throws Exception {
+        client.admin().indices().prepareDelete().execute().actionGet();
+
+        client.admin().indices().prepareCreate("test")
+                .setSettings(
+                        ImmutableSettings.settingsBuilder()
+                                .put("index.number_of_shards", 1)
+                                .put("index.number_of_replicas", 0)
+                ).execute().actionGet();
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+        client.admin().indices().preparePutMapping("test").setType("child").setSource(jsonBuilder().startObject().startObject("type")
+                .startObject("_parent").field("type", "parent").endObject()
+                .endObject().endObject()).execute().actionGet();
+
+        client.prepareIndex("test", "parent", "p1").setSource("p_field", "p_value1").execute().actionGet();
+        client.prepareIndex("test", "child", "c1").setSource("c_field", "red").setParent("p1").execute().actionGet();
+        client.admin().indices().prepareRefresh().execute().actionGet();
+
+        // a plain query is parsed once, and then found in the query parser cache
+        long hits = queryParserCacheHits();
+        for (int i = 0; i < 2; i++) {
+            SearchResponse searchResponse = client.prepareSearch("test").setQuery(termQuery("c_field", "red")).execute().actionGet();
+            assertThat("Failures " + Arrays.toString(searchResponse.getShardFailures()), searchResponse.getShardFailures().length, equalTo(0));
+            assertThat(searchResponse.getHits().totalHits(), equalTo(1l));
+        }
+        assertThat(queryParserCacheHits(), equalTo(hits + 1));
+
+        // parent/child queries keep per search state, and are parsed on every search
+        hits = queryParserCacheHits();
+        for (int i = 0; i < 2; i++) {
+            // add a new parent and child between the searches, the second search must see them
+            client.prepareIndex("test", "parent", "p" + (i + 2)).setSource("p_field", "p_value1").execute().actionGet();
+            client.prepareIndex("test", "child", "c" + (i + 2)).setSource("c_field", "red").setParent("p" + (i + 2)).execute().actionGet();
+            client.admin().indices().prepareRefresh().execute().actionGet();
+
+            SearchResponse searchResponse = client.prepareSearch("test").setQuery(hasChildQuery("child", termQuery("c_field", "red"))).execute().actionGet();
+            assertThat("Failures " + Arrays.toString(searchResponse.getShardFailures()), searchResponse.getShardFailures().length, equalTo(0));
+            assertThat(searchResponse.getHits().totalHits(), equalTo(i + 2l));
+
+            searchResponse = client.prepareSearch("test").setQuery(hasParentQuery("parent", termQuery("p_field", "p_value1"))).execute().actionGet();
+            assertThat("Failures " + Arrays.toString(searchResponse.getShardFailures()), searchResponse.getShardFailures().length, equalTo(0));
+            assertThat(searchResponse.getHits().totalHits(), equalTo(i + 2l));
+
+            searchResponse = client.prepareSearch("test").setQuery(topChildrenQuery("child", termQuery("c_field", "red"))).execute().actionGet();
+            assertThat("Failures " + Arrays.toString(searchResponse.getShardFailures()), searchResponse.getShardFailures().length, equalTo(0));
+            assertThat(searchResponse.getHits().totalHits(), equalTo(i + 2l));
+
+            searchResponse = client.prepareSearch("test").setQuery(filteredQuery(matchAllQuery(), hasChildFilter("child", termQuery("c_field", "red")))).execute().actionGet();
+            assertThat("Failures " + Arrays.toString(searchResponse.getShardFailures()), searchResponse.getShardFailures().length, equalTo(0));
+            assertThat(searchResponse.getHits().totalHits(), equalTo(i + 2l));
+
+            searchResponse = client.prepareSearch("test").setQuery(filteredQuery(matchAllQuery(), hasParentFilter("parent", termQuery("p_field", "p_value1")))).execute().actionGet();
+            assertThat("Failures " + Arrays.toString(searchResponse.getShardFailures()), searchResponse.getShardFailures().length, equalTo(0));
+            assertThat(searchResponse.getHits().totalHits(), equalTo(i + 2l));
+        }
+        assertThat(queryParserCacheHits(), equalTo(hits));
+    }
+
+    private long queryParserCacheHits() {
+        long hits = 0;
+        for (String node : new String[]{"node1", "node2"}) {
+            IndexService indexService = ((InternalNode) node(node)).injector().getInstance(IndicesService.class).indexService("test");
+            if (indexService != null) {
+                hits += indexService.cache().queryParserCache().hitCount();
+            }
+        }
+        return hits;
+    }
+
 }
@@ -1106,6 +1106,53 @@ public class HighlighterSearchTests extends AbstractNodesTests {
         
     }
     
+    @Test
+    public void testPostingsHighlighter() throws Exception {
+        try {
+            client.admin().indices().prepareDelete("test").execute().actionGet();
+        } catch (Exception e) {
+            // ignore
+        }
+
+        client.admin().indices().prepareCreate("test").setSettings(ImmutableSettings.settingsBuilder()
+                .put("index.number_of_shards", 1).put("index.number_of_replicas", 0))
+                .addMapping("type1", jsonBuilder().startObject().startObject("type1").startObject("properties")
+                        .startObject("field1").field("type", "string").field("index_options", "offsets").endObject()
+                        .startObject("field2").field("type", "string").field("index_options", "offsets").endObject()
+                        .endObject().endObject().endObject())
+                .execute().actionGet();
+
+        client.prepareIndex("test", "type1", "1")
+                .setSource(jsonBuilder().startObject()
+                        .field("field1", "This is the first sentence. This is a test sentence. And the last one.")
+                        .field("field2", "this is a test", "no match here", "another test").endObject())
+                .setRefresh(true).execute().actionGet();
+
+        SearchResponse response = client.prepareSearch("test")
+                .setQuery(QueryBuilders.termQuery("field1", "test"))
+                .addHighlightedField(new HighlightBuilder.Field("field1").highlighterType("postings"))
+                .execute().actionGet();
+        assertThat(response.getHits().hits()[0].highlightFields().get("field1").fragments().length, equalTo(1));
+        assertThat(response.getHits().hits()[0].highlightFields().get("field1").fragments()[0].string(), equalTo("This is a <em>test</em> sentence."));
+
+        response = client.prepareSearch("test")
+                .setQuery(QueryBuilders.termQuery("field2", "test"))
+                .addHighlightedField(new HighlightBuilder.Field("field2").numOfFragments(0).highlighterType("postings"))
+                .execute().actionGet();
+        assertThat(response.getHits().hits()[0].highlightFields().get("field2").fragments().length, equalTo(2));
+        assertThat(response.getHits().hits()[0].highlightFields().get("field2").fragments()[0].string(), equalTo("this is a <em>test</em>"));
+        assertThat(response.getHits().hits()[0].highlightFields().get("field2").fragments()[1].string(), equalTo("another <em>test</em>"));
+
+        // indexing offsets doesn't change the default highlighter, the postings highlighter has to be asked for
+        response = client.prepareSearch("test")
+                .setQuery(QueryBuilders.termQuery("field1", "test"))
+                .addHighlightedField("field1")
+                .execute().actionGet();
+        assertThat(response.getHits().hits()[0].highlightFields().get("field1").fragments().length, equalTo(1));
+        assertThat(response.getHits().hits()[0].highlightFields().get("field1").fragments()[0].string(),
+                equalTo("This is the first sentence. This is a <em>test</em> sentence. And the last one."));
+    }
+
     @Test
     public void testPlainHighlightDifferentFragmenter() throws Exception {
         try {
@@ -704,4 +704,46 @@ public class SimpleQueryTests extends AbstractNodesTests {
         assertThat("Failures " + Arrays.toString(searchResponse.getShardFailures()), searchResponse.getShardFailures().length, equalTo(0));
         assertThat(searchResponse.getHits().totalHits(), equalTo(1l));
     }
+
+    @Test
+    public void testTermsLookupFilter() throws Exception {
+        client.admin().indices().prepareDelete().execute().actionGet();
+
+        client.admin().indices().prepareCreate("lookup").setSettings(ImmutableSettings.settingsBuilder().put("index.number_of_shards", 1)).execute().actionGet();
+        client.admin().indices().prepareCreate("test").setSettings(ImmutableSettings.settingsBuilder().put("index.number_of_shards", 1)).execute().actionGet();
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        client.prepareIndex("lookup", "acl", "1").setSource(jsonBuilder().startObject().startObject("acl").array("users", "1", "3").endObject().endObject()).execute().actionGet();
+        client.prepareIndex("test", "type1", "1").setSource("user", "1").execute().actionGet();
+        client.prepareIndex("test", "type1", "2").setSource("user", "2").execute().actionGet();
+        client.prepareIndex("test", "type1", "3").setSource("user", "3").execute().actionGet();
+        client.admin().indices().prepareRefresh().execute().actionGet();
+
+        String[] executions = new String[]{"plain", "sorted", "automaton"};
+        for (String execution : executions) {
+            SearchResponse searchResponse = client.prepareSearch("test")
+                    .setQuery(constantScoreQuery(termsLookupFilter("user").lookupIndex("lookup").lookupType("acl").lookupId("1").lookupPath("acl.users").execution(execution)))
+                    .execute().actionGet();
+            assertThat("Failures " + Arrays.toString(searchResponse.getShardFailures()), searchResponse.getShardFailures().length, equalTo(0));
+            assertThat(searchResponse.getHits().totalHits(), equalTo(2l));
+        }
+
+        // the terms are refreshed once the lookup document changes, even if the very same query was already parsed
+        client.prepareIndex("lookup", "acl", "1").setSource(jsonBuilder().startObject().startObject("acl").array("users", "2").endObject().endObject()).execute().actionGet();
+        for (String execution : executions) {
+            SearchResponse searchResponse = client.prepareSearch("test")
+                    .setQuery(constantScoreQuery(termsLookupFilter("user").lookupIndex("lookup").lookupType("acl").lookupId("1").lookupPath("acl.users").execution(execution)))
+                    .execute().actionGet();
+            assertThat("Failures " + Arrays.toString(searchResponse.getShardFailures()), searchResponse.getShardFailures().length, equalTo(0));
+            assertThat(searchResponse.getHits().totalHits(), equalTo(1l));
+            assertThat(searchResponse.getHits().getAt(0).id(), equalTo("2"));
+        }
+
+        // missing lookup document matches nothing
+        SearchResponse searchResponse = client.prepareSearch("test")
+                .setQuery(constantScoreQuery(termsLookupFilter("user").lookupIndex("lookup").lookupType("acl").lookupId("2").lookupPath("acl.users")))
+                .execute().actionGet();
+        assertThat("Failures " + Arrays.toString(searchResponse.getShardFailures()), searchResponse.getShardFailures().length, equalTo(0));
+        assertThat(searchResponse.getHits().totalHits(), equalTo(0l));
+    }
 }
@@ -34,6 +34,7 @@ import org.testng.annotations.Test;
 import java.util.Set;
 
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -119,4 +120,57 @@ public class SearchScanTests extends AbstractNodesTests {
 
         assertThat(expectedIds, equalTo(ids));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSlicedScan() throws Exception {
+        try {
+            client.admin().indices().prepareDelete("test").execute().actionGet();
+        } catch (Exception e) {
+            // ignore
+        }
+        client.admin().indices().prepareCreate("test").setSettings(ImmutableSettings.settingsBuilder().put("index.number_of_shards", 3)).execute().actionGet();
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        Set<String> expectedIds = Sets.newHashSet();
+        for (int i = 0; i < 500; i++) {
+            String id = Integer.toString(i);
+            expectedIds.add(id);
+            client.prepareIndex("test", "tweet", id).setSource(jsonBuilder().startObject().field("user", "kimchy" + i).endObject()).execute().actionGet();
+            if (i % 100 == 0) {
+                client.admin().indices().prepareRefresh().execute().actionGet();
+            }
+        }
+        client.admin().indices().prepareRefresh().execute().actionGet();
+
+        int slices = 4;
+        Set<String> ids = Sets.newHashSet();
+        for (int slice = 0; slice < slices; slice++) {
+            SearchResponse searchResponse = client.prepareSearch()
+                    .setSearchType(SearchType.SCAN)
+                    .setQuery(matchAllQuery())
+                    .setSlice(slice, slices)
+                    .setSize(17)
+                    .setScroll(TimeValue.timeValueMinutes(2))
+                    .execute().actionGet();
+            long sliceTotal = searchResponse.getHits().totalHits();
+            assertThat(sliceTotal > 0 && sliceTotal < 500, equalTo(true));
+
+            int sliceCount = 0;
+            while (true) {
+                searchResponse = client.prepareSearchScroll(searchResponse.getScrollId()).setScroll(TimeValue.timeValueMinutes(2)).execute().actionGet();
+                assertThat(searchResponse.getHits().totalHits(), equalTo(sliceTotal));
+                if (searchResponse.getHits().hits().length == 0) {
+                    break;
+                }
+                for (SearchHit hit : searchResponse.getHits()) {
+                    // the slices are disjoint
+                    assertThat("duplicate hit " + hit.id(), ids.add(hit.id()), equalTo(true));
+                    sliceCount++;
+                }
+            }
+            assertThat((long) sliceCount, equalTo(sliceTotal));
+        }
+
+        assertThat(ids, equalTo(expectedIds));
+    }
+}
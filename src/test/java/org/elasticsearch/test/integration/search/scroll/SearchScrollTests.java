@@ -31,12 +31,15 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 
 /**
  *
@@ -238,4 +241,46 @@ public class SearchScrollTests extends AbstractNodesTests {
         assertThat(client.prepareCount().setQuery(termQuery("message", "update")).execute().actionGet().getCount(), equalTo(500l));
         assertThat(client.prepareCount().setQuery(termQuery("message", "update")).execute().actionGet().getCount(), equalTo(500l));
     }
+
+    @Test
+    public void testScrollByScoreReturnsEachDocOnce() throws Exception {
+        try {
+            client.admin().indices().prepareDelete("test").execute().actionGet();
+        } catch (Exception e) {
+            // ignore
+        }
+        client.admin().indices().prepareCreate("test").setSettings(ImmutableSettings.settingsBuilder().put("index.number_of_shards", 3)).execute().actionGet();
+        client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+
+        for (int i = 0; i < 100; i++) {
+            client.prepareIndex("test", "type1", Integer.toString(i)).setSource(jsonBuilder().startObject().field("field", i).endObject()).execute().actionGet();
+        }
+
+        client.admin().indices().prepareRefresh().execute().actionGet();
+
+        for (SearchType searchType : new SearchType[]{SearchType.QUERY_THEN_FETCH, SearchType.QUERY_AND_FETCH}) {
+            // all the docs have the same score, the pages are only delimited by the last doc emitted by each shard
+            SearchResponse searchResponse = client.prepareSearch()
+                    .setSearchType(searchType)
+                    .setQuery(matchAllQuery())
+                    .setSize(7)
+                    .setScroll(TimeValue.timeValueMinutes(2))
+                    .execute().actionGet();
+
+            assertThat(client.admin().indices().prepareStats("test").setSearch(true).execute().actionGet()
+                    .getTotal().getSearch().total().getReaderLeases(), greaterThanOrEqualTo(3l));
+
+            Set<String> ids = new HashSet<String>();
+            while (searchResponse.getHits().hits().length > 0) {
+                assertThat(searchResponse.getHits().getTotalHits(), equalTo(100l));
+                for (SearchHit hit : searchResponse.getHits()) {
+                    assertThat("duplicate hit " + hit.id(), ids.add(hit.id()), equalTo(true));
+                }
+                searchResponse = client.prepareSearchScroll(searchResponse.getScrollId())
+                        .setScroll(TimeValue.timeValueMinutes(2))
+                        .execute().actionGet();
+            }
+            assertThat(ids.size(), equalTo(100));
+        }
+    }
 }
@@ -19,8 +19,13 @@
 
 package org.elasticsearch.test.integration.update;
 
+import org.elasticsearch.ElasticSearchIllegalArgumentException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.WriteConsistencyLevel;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthStatus;
+import org.elasticsearch.action.admin.indices.stats.IndicesStats;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
@@ -35,8 +40,13 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
@@ -376,4 +386,139 @@ public class UpdateTests extends AbstractNodesTests {
             assertThat(map2.containsKey("commonkey"), equalTo(true));
         }
     }
+
+    @Test
+    public void testIncrement() throws Exception {
+        createIndex();
+        ClusterHealthResponse clusterHealth = client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+        assertThat(clusterHealth.isTimedOut(), equalTo(false));
+
+        client.prepareIndex("test", "type1", "1").setSource(XContentFactory.jsonBuilder().startObject().field("views", 1).field("stats", new HashMap<String, Object>()).endObject()).execute().actionGet();
+
+        // fire them all at once, so some of them get coalesced
+        List<ListenableActionFuture<UpdateResponse>> responses = new ArrayList<ListenableActionFuture<UpdateResponse>>();
+        for (int i = 0; i < 50; i++) {
+            responses.add(client.prepareUpdate("test", "type1", "1").addIncrement("views", 2).addIncrement("stats.likes", 1).execute());
+        }
+        for (ListenableActionFuture<UpdateResponse> response : responses) {
+            assertThat(response.actionGet().getId(), equalTo("1"));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            GetResponse getResponse = client.prepareGet("test", "type1", "1").execute().actionGet();
+            assertThat(getResponse.sourceAsMap().get("views").toString(), equalTo("101"));
+            assertThat(((Map) getResponse.sourceAsMap().get("stats")).get("likes").toString(), equalTo("50"));
+        }
+
+        IndicesStats stats = client.admin().indices().prepareStats("test").setIndexing(true).execute().actionGet();
+        assertThat(stats.getPrimaries().getIndexing().total().getCounterUpdateCount(), equalTo(50l));
+
+        // missing docs can be created with an upsert
+        client.prepareUpdate("test", "type1", "2")
+                .setUpsert(XContentFactory.jsonBuilder().startObject().field("views", 1).endObject())
+                .addIncrement("views", 1)
+                .execute().actionGet();
+        client.prepareUpdate("test", "type1", "2").addIncrement("views", 1).execute().actionGet();
+        GetResponse getResponse = client.prepareGet("test", "type1", "2").execute().actionGet();
+        assertThat(getResponse.sourceAsMap().get("views").toString(), equalTo("2"));
+
+        try {
+            client.prepareUpdate("test", "type1", "3").addIncrement("views", 1).execute().actionGet();
+            assert false;
+        } catch (DocumentMissingException e) {
+            // all is well
+        }
+    }
+
+    @Test
+    public void testCoalescedIncrementFailuresAreIsolated() throws Exception {
+        createIndex();
+        ClusterHealthResponse clusterHealth = client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+        assertThat(clusterHealth.isTimedOut(), equalTo(false));
+
+        client.prepareIndex("test", "type1", "1").setSource(XContentFactory.jsonBuilder().startObject().field("views", 0).field("title", "x").endObject()).execute().actionGet();
+
+        // mix valid increments, invalid ones and requests with other index options, so they end up in the same batches
+        List<ListenableActionFuture<UpdateResponse>> valid = new ArrayList<ListenableActionFuture<UpdateResponse>>();
+        List<ListenableActionFuture<UpdateResponse>> invalid = new ArrayList<ListenableActionFuture<UpdateResponse>>();
+        for (int i = 0; i < 30; i++) {
+            valid.add(client.prepareUpdate("test", "type1", "1").addIncrement("views", 1).execute());
+            valid.add(client.prepareUpdate("test", "type1", "1").addIncrement("views", 1).setConsistencyLevel(WriteConsistencyLevel.ONE).execute());
+            valid.add(client.prepareUpdate("test", "type1", "1").addIncrement("views", 1).setPercolate("*").execute());
+            if (i % 3 == 0) {
+                // mapped as a string
+                invalid.add(client.prepareUpdate("test", "type1", "1").addIncrement("title", 1).execute());
+                // views is not an object in the source
+                invalid.add(client.prepareUpdate("test", "type1", "1").addIncrement("views.inner", 1).execute());
+            }
+        }
+        for (ListenableActionFuture<UpdateResponse> response : valid) {
+            assertThat(response.actionGet().getId(), equalTo("1"));
+        }
+        for (ListenableActionFuture<UpdateResponse> response : invalid) {
+            try {
+                response.actionGet();
+                assert false : "invalid increment should fail";
+            } catch (ElasticSearchIllegalArgumentException e) {
+                // all is well
+            }
+        }
+
+        for (int i = 0; i < 5; i++) {
+            GetResponse getResponse = client.prepareGet("test", "type1", "1").execute().actionGet();
+            assertThat(getResponse.sourceAsMap().get("views").toString(), equalTo("90"));
+            assertThat(getResponse.sourceAsMap().get("title").toString(), equalTo("x"));
+        }
+    }
+
+    @Test
+    public void testCoalescedIncrementListenersAreNotifiedOnce() throws Exception {
+        createIndex();
+        ClusterHealthResponse clusterHealth = client.admin().cluster().prepareHealth().setWaitForGreenStatus().execute().actionGet();
+        assertThat(clusterHealth.isTimedOut(), equalTo(false));
+
+        // the doc is missing at first, so batches mix upserts that can't be parsed with valid ones and plain increments
+        List<UpdateRequest> requests = new ArrayList<UpdateRequest>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(client.prepareUpdate("test", "type1", "1").setUpsert("{ not json").addIncrement("views", 1).request());
+            requests.add(client.prepareUpdate("test", "type1", "1").setUpsert(jsonBuilder().startObject().field("views", 0).endObject()).addIncrement("views", 1).request());
+            requests.add(client.prepareUpdate("test", "type1", "1").addIncrement("views", 1).request());
+        }
+        final CountDownLatch latch = new CountDownLatch(requests.size());
+        final AtomicInteger[] responses = new AtomicInteger[requests.size()];
+        final AtomicInteger[] failures = new AtomicInteger[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            final int index = i;
+            responses[i] = new AtomicInteger();
+            failures[i] = new AtomicInteger();
+            client.update(requests.get(i), new ActionListener<UpdateResponse>() {
+                @Override
+                public void onResponse(UpdateResponse response) {
+                    responses[index].incrementAndGet();
+                    latch.countDown();
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    failures[index].incrementAndGet();
+                    latch.countDown();
+                }
+            });
+        }
+        assertThat(latch.await(10, TimeUnit.SECONDS), equalTo(true));
+        // give listeners notified twice a chance to show up
+        Thread.sleep(100);
+
+        int succeeded = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(responses[i].get() + failures[i].get(), equalTo(1));
+            succeeded += responses[i].get();
+        }
+        // the first request is part of the batch creating the doc, and its upsert can't be parsed
+        assertThat(failures[0].get(), equalTo(1));
+        assertThat(succeeded, greaterThan(0));
+        // the upsert creating the doc is indexed as is, the increments of all the others are applied
+        GetResponse getResponse = client.prepareGet("test", "type1", "1").execute().actionGet();
+        assertThat(getResponse.sourceAsMap().get("views").toString(), equalTo(Integer.toString(succeeded - 1)));
+    }
 }
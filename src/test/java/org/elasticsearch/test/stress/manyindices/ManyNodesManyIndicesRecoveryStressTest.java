@@ -40,9 +40,11 @@ public class ManyNodesManyIndicesRecoveryStressTest {
         final int FLUSH_AFTER = 1;
 
         final Settings nodeSettings = ImmutableSettings.settingsBuilder()
-                .put("transport.netty.connections_per_node.low", 0)
-                .put("transport.netty.connections_per_node.med", 0)
-                .put("transport.netty.connections_per_node.high", 1)
+                .put("transport.netty.connections_per_node.recovery", 0)
+                .put("transport.netty.connections_per_node.bulk", 0)
+                .put("transport.netty.connections_per_node.reg", 0)
+                .put("transport.netty.connections_per_node.state", 1)
+                .put("transport.netty.connections_per_node.ping", 1)
                 .build();
 
         final Settings indexSettings = ImmutableSettings.settingsBuilder()
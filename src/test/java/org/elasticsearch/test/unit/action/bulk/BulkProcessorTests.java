@@ -0,0 +1,290 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.action.bulk;
+
+import com.google.common.collect.Lists;
+import org.elasticsearch.ElasticSearchException;
+import org.elasticsearch.action.*;
+import org.elasticsearch.action.bulk.*;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.client.AdminClient;
+import org.elasticsearch.client.support.AbstractClient;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ */
+public class BulkProcessorTests {
+
+    private ThreadPool threadPool;
+
+    @BeforeMethod
+    public void setUp() {
+        threadPool = new ThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        threadPool.shutdownNow();
+    }
+
+    @Test
+    public void testRetryRejectedItemsAndMergeResponses() throws Exception {
+        StubClient client = new StubClient(threadPool);
+        // the first attempt rejects the second and fourth action, the retry succeeds
+        client.respond(new EsRejectedExecutionException("rejected"), 1, 3);
+        client.succeed();
+
+        BulkResponse response = executeBulk(client, 5, 2, TimeValue.timeValueMillis(10));
+
+        assertThat(client.requests.size(), equalTo(2));
+        assertThat(ids(client.requests.get(0)), equalTo(Arrays.asList("0", "1", "2", "3", "4")));
+        assertThat(ids(client.requests.get(1)), equalTo(Arrays.asList("1", "3")));
+        assertThat(response.hasFailures(), equalTo(false));
+        assertThat(response.items().length, equalTo(5));
+        for (int i = 0; i < 5; i++) {
+            assertThat(response.items()[i].getItemId(), equalTo(i));
+            assertThat(response.items()[i].getId(), equalTo(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    public void testRetryBacksOffExponentially() throws Exception {
+        StubClient client = new StubClient(threadPool);
+        client.respond(new EsRejectedExecutionException("rejected"), 0);
+        client.respond(new EsRejectedExecutionException("rejected"), 0);
+        client.respond(new EsRejectedExecutionException("rejected"), 0);
+        client.succeed();
+
+        BulkResponse response = executeBulk(client, 1, 3, TimeValue.timeValueMillis(50));
+
+        assertThat(response.hasFailures(), equalTo(false));
+        assertThat(client.requests.size(), equalTo(4));
+        assertThat(client.times.get(1) - client.times.get(0), greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50)));
+        assertThat(client.times.get(2) - client.times.get(1), greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100)));
+        assertThat(client.times.get(3) - client.times.get(2), greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200)));
+    }
+
+    @Test
+    public void testRejectionsFailOnceRetriesAreExhausted() throws Exception {
+        StubClient client = new StubClient(threadPool);
+        client.respond(new EsRejectedExecutionException("rejected"), 0, 2);
+        client.respond(new EsRejectedExecutionException("rejected"), 1);
+
+        BulkResponse response = executeBulk(client, 3, 1, TimeValue.timeValueMillis(10));
+
+        assertThat(client.requests.size(), equalTo(2));
+        assertThat(response.items()[0].isFailed(), equalTo(false));
+        assertThat(response.items()[1].isFailed(), equalTo(false));
+        assertThat(response.items()[2].isFailed(), equalTo(true));
+        assertThat(response.items()[2].getItemId(), equalTo(2));
+        assertThat(response.items()[2].getFailure().getStatus(), equalTo(RestStatus.SERVICE_UNAVAILABLE));
+        assertThat(response.items()[2].getFailure().isRejected(), equalTo(true));
+    }
+
+    @Test
+    public void testOtherFailuresAreNotRetried() throws Exception {
+        StubClient client = new StubClient(threadPool);
+        // the message mentions a rejection, but the exception is what counts
+        client.respond(new ElasticSearchException("EsRejectedExecutionException[rejected]"), 0);
+
+        BulkResponse response = executeBulk(client, 2, 3, TimeValue.timeValueMillis(10));
+
+        assertThat(client.requests.size(), equalTo(1));
+        assertThat(response.items()[0].isFailed(), equalTo(true));
+        assertThat(response.items()[0].getFailure().getStatus(), equalTo(RestStatus.INTERNAL_SERVER_ERROR));
+        assertThat(response.items()[0].getFailure().isRejected(), equalTo(false));
+        assertThat(response.items()[1].isFailed(), equalTo(false));
+    }
+
+    @Test
+    public void testUnavailableShardsAreNotRetried() throws Exception {
+        StubClient client = new StubClient(threadPool);
+        // unavailable shards share the status of rejections, but aren't caused by a full thread pool
+        client.respond(new UnavailableShardsException(new ShardId("test", 0), "primary not active"), 1);
+
+        BulkResponse response = executeBulk(client, 2, 3, TimeValue.timeValueMillis(10));
+
+        assertThat(client.requests.size(), equalTo(1));
+        assertThat(response.items()[0].isFailed(), equalTo(false));
+        assertThat(response.items()[1].isFailed(), equalTo(true));
+        assertThat(response.items()[1].getFailure().getStatus(), equalTo(RestStatus.SERVICE_UNAVAILABLE));
+        assertThat(response.items()[1].getFailure().isRejected(), equalTo(false));
+    }
+
+    @Test
+    public void testFailureDefaultsToInternalServerError() {
+        BulkItemResponse.Failure failure = new BulkItemResponse.Failure("test", "type1", "1", "failed");
+        assertThat(failure.getStatus(), equalTo(RestStatus.INTERNAL_SERVER_ERROR));
+        assertThat(failure.isRejected(), equalTo(false));
+    }
+
+    @Test
+    public void testRejectedRequestIsRetried() throws Exception {
+        StubClient client = new StubClient(threadPool);
+        client.fail(new EsRejectedExecutionException("rejected"));
+        client.succeed();
+
+        BulkResponse response = executeBulk(client, 3, 1, TimeValue.timeValueMillis(10));
+
+        assertThat(client.requests.size(), equalTo(2));
+        assertThat(ids(client.requests.get(1)), equalTo(Arrays.asList("0", "1", "2")));
+        assertThat(response.hasFailures(), equalTo(false));
+        assertThat(response.items().length, equalTo(3));
+    }
+
+    private BulkResponse executeBulk(StubClient client, int numberOfActions, int maxRetries, TimeValue retryBackoff) throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        BulkProcessor processor = BulkProcessor.builder(client, new BulkProcessor.Listener() {
+            @Override
+            public void beforeBulk(long executionId, BulkRequest request) {
+            }
+
+            @Override
+            public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+                result.set(response);
+                latch.countDown();
+            }
+
+            @Override
+            public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+                result.set(failure);
+                latch.countDown();
+            }
+        }).setBulkActions(-1).setBulkSize(new ByteSizeValue(-1)).setBackoff(maxRetries, retryBackoff).build();
+        for (int i = 0; i < numberOfActions; i++) {
+            processor.add(new IndexRequest("test", "type1", Integer.toString(i)).source("field", "value"));
+        }
+        processor.close();
+        assertThat(latch.await(10, TimeUnit.SECONDS), equalTo(true));
+        assertThat(result.get(), instanceOf(BulkResponse.class));
+        return (BulkResponse) result.get();
+    }
+
+    private static List<String> ids(BulkRequest request) {
+        List<String> ids = Lists.newArrayList();
+        for (ActionRequest item : request.requests()) {
+            ids.add(((IndexRequest) item).id());
+        }
+        return ids;
+    }
+
+    /**
+     * A client answering bulk requests with the queued responses, failing the items at the provided positions.
+     */
+    private static class StubClient extends AbstractClient {
+
+        private final ThreadPool threadPool;
+        private final Queue<Object> answers = new ConcurrentLinkedQueue<Object>();
+
+        final List<BulkRequest> requests = Collections.synchronizedList(new ArrayList<BulkRequest>());
+        final List<Long> times = Collections.synchronizedList(new ArrayList<Long>());
+
+        StubClient(ThreadPool threadPool) {
+            this.threadPool = threadPool;
+        }
+
+        void respond(Throwable failure, int... failedPositions) {
+            answers.add(new Object[]{failure, failedPositions});
+        }
+
+        void succeed() {
+            answers.add(new Object[]{null, new int[0]});
+        }
+
+        void fail(Throwable e) {
+            answers.add(e);
+        }
+
+        @Override
+        public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+            times.add(System.nanoTime());
+            requests.add(request);
+            Object answer = answers.poll();
+            if (answer instanceof Throwable) {
+                listener.onFailure((Throwable) answer);
+                return;
+            }
+            Throwable failure = (Throwable) ((Object[]) answer)[0];
+            int[] failedPositions = (int[]) ((Object[]) answer)[1];
+            BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+            for (int i = 0; i < items.length; i++) {
+                IndexRequest indexRequest = (IndexRequest) request.requests().get(i);
+                items[i] = new BulkItemResponse(i, "index", new IndexResponse(indexRequest.index(), indexRequest.type(), indexRequest.id(), 1));
+            }
+            for (int position : failedPositions) {
+                IndexRequest indexRequest = (IndexRequest) request.requests().get(position);
+                items[position] = new BulkItemResponse(position, "index",
+                        new BulkItemResponse.Failure(indexRequest.index(), indexRequest.type(), indexRequest.id(), failure));
+            }
+            listener.onResponse(new BulkResponse(items, 1));
+        }
+
+        @Override
+        public <Request extends ActionRequest, Response extends ActionResponse, RequestBuilder extends ActionRequestBuilder<Request, Response, RequestBuilder>> ActionFuture<Response> execute(Action<Request, Response, RequestBuilder> action, Request request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <Request extends ActionRequest, Response extends ActionResponse, RequestBuilder extends ActionRequestBuilder<Request, Response, RequestBuilder>> void execute(Action<Request, Response, RequestBuilder> action, Request request, ActionListener<Response> listener) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AdminClient admin() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ThreadPool threadPool() {
+            return threadPool;
+        }
+
+        @Override
+        public Settings settings() {
+            return ImmutableSettings.Builder.EMPTY_SETTINGS;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
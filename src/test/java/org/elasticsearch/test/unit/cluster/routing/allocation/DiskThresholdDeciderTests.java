@@ -0,0 +1,191 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.cluster.routing.allocation;
+
+import com.google.common.collect.ImmutableMap;
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ClusterInfoService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.DiskUsage;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.routing.MutableShardRouting;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.allocation.AllocationService;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.cluster.routing.allocation.allocator.ShardsAllocators;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
+import org.elasticsearch.cluster.routing.allocation.decider.DiskThresholdDecider;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.settings.NodeSettingsService;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.cluster.ClusterState.newClusterStateBuilder;
+import static org.elasticsearch.cluster.metadata.IndexMetaData.newIndexMetaDataBuilder;
+import static org.elasticsearch.cluster.metadata.MetaData.newMetaDataBuilder;
+import static org.elasticsearch.cluster.node.DiscoveryNodes.newNodesBuilder;
+import static org.elasticsearch.cluster.routing.RoutingBuilders.routingTable;
+import static org.elasticsearch.cluster.routing.ShardRoutingState.*;
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.elasticsearch.test.unit.cluster.routing.allocation.RoutingAllocationTests.newNode;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@Test
+public class DiskThresholdDeciderTests {
+
+    private final ESLogger logger = Loggers.getLogger(DiskThresholdDeciderTests.class);
+
+    private volatile ClusterInfo clusterInfo = ClusterInfo.EMPTY;
+
+    @Test
+    public void testWatermarks() {
+        Settings settings = settingsBuilder()
+                .put("cluster.routing.allocation.disk.watermark.low", "85%")
+                .put("cluster.routing.allocation.disk.watermark.high", "0.90")
+                .build();
+        AllocationService strategy = new AllocationService(settings,
+                new AllocationDeciders(settings, new NodeSettingsService(settings)),
+                new ShardsAllocators(settings),
+                new ClusterInfoService() {
+                    @Override
+                    public ClusterInfo getClusterInfo() {
+                        return clusterInfo;
+                    }
+
+                    @Override
+                    public void addListener(Listener listener) {
+                    }
+                });
+
+        MetaData metaData = newMetaDataBuilder()
+                .put(newIndexMetaDataBuilder("test").numberOfShards(2).numberOfReplicas(0))
+                .build();
+
+        RoutingTable routingTable = routingTable()
+                .addAsNew(metaData.index("test"))
+                .build();
+
+        ClusterState clusterState = newClusterStateBuilder().metaData(metaData).routingTable(routingTable).build();
+
+        ImmutableMap<ShardId, Long> shardSizes = ImmutableMap.of(new ShardId("test", 0), 10l, new ShardId("test", 1), 10l);
+        clusterInfo = new ClusterInfo(
+                ImmutableMap.of("node1", new DiskUsage("node1", 100, 10), "node2", new DiskUsage("node2", 100, 90)),
+                shardSizes, ImmutableMap.<ShardId, Double>of(), ImmutableMap.<ShardId, Double>of());
+
+        logger.info("start two nodes, node1 is above the low watermark");
+        clusterState = newClusterStateBuilder().state(clusterState).nodes(newNodesBuilder().put(newNode("node1")).put(newNode("node2"))).build();
+        routingTable = strategy.reroute(clusterState).routingTable();
+        clusterState = newClusterStateBuilder().state(clusterState).routingTable(routingTable).build();
+
+        assertThat(clusterState.routingNodes().node("node1").shards().size(), equalTo(0));
+        assertThat(clusterState.routingNodes().node("node2").numberOfShardsWithState(INITIALIZING), equalTo(2));
+
+        logger.info("start the shards");
+        routingTable = strategy.applyStartedShards(clusterState, clusterState.routingNodes().shardsWithState(INITIALIZING)).routingTable();
+        clusterState = newClusterStateBuilder().state(clusterState).routingTable(routingTable).build();
+        assertThat(clusterState.routingNodes().node("node2").numberOfShardsWithState(STARTED), equalTo(2));
+
+        logger.info("node2 goes above the high watermark, add node3 with free disk space");
+        clusterInfo = new ClusterInfo(
+                ImmutableMap.of("node1", new DiskUsage("node1", 100, 10), "node2", new DiskUsage("node2", 100, 5),
+                        "node3", new DiskUsage("node3", 100, 90)),
+                shardSizes, ImmutableMap.<ShardId, Double>of(), ImmutableMap.<ShardId, Double>of());
+        clusterState = newClusterStateBuilder().state(clusterState).nodes(newNodesBuilder().putAll(clusterState.nodes()).put(newNode("node3"))).build();
+        routingTable = strategy.reroute(clusterState).routingTable();
+        clusterState = newClusterStateBuilder().state(clusterState).routingTable(routingTable).build();
+
+        // moving a single shard brings node2 back below the high watermark
+        assertThat(clusterState.routingNodes().node("node1").shards().size(), equalTo(0));
+        assertThat(clusterState.routingNodes().node("node2").numberOfShardsWithState(RELOCATING), equalTo(1));
+        assertThat(clusterState.routingNodes().node("node2").numberOfShardsWithState(STARTED), equalTo(1));
+        assertThat(clusterState.routingNodes().node("node3").numberOfShardsWithState(INITIALIZING), equalTo(1));
+    }
+
+    @Test
+    public void testShardDataOnNode() {
+        Settings settings = settingsBuilder().build();
+        DiskThresholdDecider decider = new DiskThresholdDecider(settings, new NodeSettingsService(settings));
+
+        MetaData metaData = newMetaDataBuilder()
+                .put(newIndexMetaDataBuilder("test").numberOfShards(1).numberOfReplicas(0))
+                .build();
+        RoutingTable routingTable = routingTable()
+                .addAsNew(metaData.index("test"))
+                .build();
+        ClusterState clusterState = newClusterStateBuilder().metaData(metaData).routingTable(routingTable)
+                .nodes(newNodesBuilder().put(newNode("node1"))).build();
+
+        // node1 is at 80%, allocating a new copy of the shard would bring it to 90%
+        ShardId shardId = new ShardId("test", 0);
+        ClusterInfo info = new ClusterInfo(ImmutableMap.of("node1", new DiskUsage("node1", 100, 20)), ImmutableMap.of(shardId, 10l),
+                ImmutableMap.<ShardId, Double>of(), ImmutableMap.<ShardId, Double>of());
+        RoutingAllocation allocation = new RoutingAllocation(new AllocationDeciders(settings, new NodeSettingsService(settings)),
+                clusterState.routingNodes(), clusterState.nodes(), info);
+        MutableShardRouting shard = clusterState.routingNodes().unassigned().get(0);
+        assertThat(decider.canAllocate(shard, clusterState.routingNodes().node("node1"), allocation).type(), equalTo(Decision.Type.NO));
+
+        // the files of the shard are already on node1 and part of its used disk space
+        allocation.addShardDataOnNode(shardId, "node1");
+        assertThat(decider.canAllocate(shard, clusterState.routingNodes().node("node1"), allocation).type(), equalTo(Decision.Type.YES));
+
+        allocation.removeShardDataOnNodes(shardId);
+        assertThat(decider.canAllocate(shard, clusterState.routingNodes().node("node1"), allocation).type(), equalTo(Decision.Type.NO));
+    }
+
+    @Test
+    public void testWatermarkCrossed() {
+        Settings settings = settingsBuilder().build();
+        DiskThresholdDecider decider = new DiskThresholdDecider(settings, new NodeSettingsService(settings));
+
+        ClusterInfo belowLow = diskInfo(50, 20);
+        assertThat(decider.watermarkCrossed(ClusterInfo.EMPTY, ClusterInfo.EMPTY), equalTo(false));
+        assertThat(decider.watermarkCrossed(ClusterInfo.EMPTY, belowLow), equalTo(false));
+        assertThat(decider.watermarkCrossed(belowLow, diskInfo(60, 20)), equalTo(false));
+
+        // node1 goes between the watermarks, and then above the high one
+        ClusterInfo aboveLow = diskInfo(87, 20);
+        ClusterInfo aboveHigh = diskInfo(95, 20);
+        assertThat(decider.watermarkCrossed(belowLow, aboveLow), equalTo(true));
+        assertThat(decider.watermarkCrossed(aboveLow, diskInfo(88, 20)), equalTo(false));
+        assertThat(decider.watermarkCrossed(aboveLow, aboveHigh), equalTo(true));
+        assertThat(decider.watermarkCrossed(belowLow, aboveHigh), equalTo(true));
+
+        // and back below
+        assertThat(decider.watermarkCrossed(aboveHigh, belowLow), equalTo(true));
+
+        // a new node above a watermark
+        assertThat(decider.watermarkCrossed(ClusterInfo.EMPTY, aboveHigh), equalTo(true));
+
+        // disabled, crossing the watermarks doesn't matter
+        decider = new DiskThresholdDecider(settingsBuilder().put("cluster.routing.allocation.disk.threshold_enabled", false).build(),
+                new NodeSettingsService(settings));
+        assertThat(decider.watermarkCrossed(belowLow, aboveHigh), equalTo(false));
+    }
+
+    private static ClusterInfo diskInfo(long node1UsedPercent, long node2UsedPercent) {
+        return new ClusterInfo(
+                ImmutableMap.of("node1", new DiskUsage("node1", 100, 100 - node1UsedPercent), "node2", new DiskUsage("node2", 100, 100 - node2UsedPercent)),
+                ImmutableMap.<ShardId, Long>of(), ImmutableMap.<ShardId, Double>of(), ImmutableMap.<ShardId, Double>of());
+    }
+}
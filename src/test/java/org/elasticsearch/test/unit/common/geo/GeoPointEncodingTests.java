@@ -0,0 +1,71 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.common.geo;
+
+import org.elasticsearch.common.geo.GeoPointEncoding;
+import org.elasticsearch.common.unit.DistanceUnit;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ */
+public class GeoPointEncodingTests {
+
+    @Test
+    public void testParsePrecision() {
+        assertThat(GeoPointEncoding.of("1cm").precisionInMeters(), equalTo(0.01));
+        assertThat(GeoPointEncoding.of("5mm").precisionInMeters(), equalTo(0.005));
+        assertThat(GeoPointEncoding.of("3m").precisionInMeters(), equalTo(3.0));
+        assertThat(GeoPointEncoding.of("2km").precisionInMeters(), equalTo(2000.0));
+        assertThat(GeoPointEncoding.of("10").precisionInMeters(), equalTo(10.0));
+    }
+
+    @Test
+    public void testBitsPerValue() {
+        GeoPointEncoding encoding = GeoPointEncoding.of("1cm");
+        assertThat(encoding.latBits() + encoding.lonBits(), lessThanOrEqualTo(64));
+        encoding = GeoPointEncoding.of("1km");
+        assertThat(encoding.latBits() + encoding.lonBits(), lessThanOrEqualTo(32));
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        Random random = new Random();
+        for (String precision : new String[]{"1mm", "1cm", "1m", "1km"}) {
+            GeoPointEncoding encoding = GeoPointEncoding.of(precision);
+            double maxError = encoding.precisionInMeters() / (DistanceUnit.KILOMETERS.getDistancePerDegree() * 1000);
+            for (int i = 0; i < 1000; i++) {
+                double lat = random.nextDouble() * 180 - 90;
+                double lon = random.nextDouble() * 360 - 180;
+                assertThat(Math.abs(encoding.decodeLat(encoding.encodeLat(lat)) - lat), lessThanOrEqualTo(maxError));
+                assertThat(Math.abs(encoding.decodeLon(encoding.encodeLon(lon)) - lon), lessThanOrEqualTo(maxError));
+            }
+            assertThat(encoding.decodeLat(encoding.encodeLat(90)), equalTo(90.0));
+            assertThat(encoding.decodeLat(encoding.encodeLat(-90)), equalTo(-90.0));
+            assertThat(encoding.decodeLon(encoding.encodeLon(180)), equalTo(180.0));
+            assertThat(encoding.decodeLon(encoding.encodeLon(-180)), equalTo(-180.0));
+        }
+    }
+}
@@ -25,13 +25,20 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.*;
 import org.apache.lucene.queries.TermsFilter;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.search.AutomatonTermsFilter;
+import org.elasticsearch.common.lucene.search.SortedTermsFilter;
 import org.elasticsearch.common.lucene.search.TermFilter;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.nullValue;
@@ -112,4 +119,55 @@ public class TermsFilterTests {
         reader.close();
         rd.close();
     }
+
+    @Test
+    public void testSortedAndAutomatonTermsFilter() throws Exception {
+        String fieldName = "field1";
+        Directory rd = new RAMDirectory();
+        IndexWriter w = new IndexWriter(rd, new IndexWriterConfig(Lucene.VERSION, new KeywordAnalyzer()));
+        for (int i = 0; i < 100; i++) {
+            Document doc = new Document();
+            int term = i * 10; //terms are units of 10;
+            doc.add(new Field(fieldName, "" + term, StringField.TYPE_NOT_STORED));
+            w.addDocument(doc);
+            if ((i % 40) == 0) {
+                w.commit();
+            }
+        }
+        AtomicReader reader = new SlowCompositeReaderWrapper(DirectoryReader.open(w, true));
+        w.close();
+
+        BytesRef[][] termSets = new BytesRef[][]{
+                new BytesRef[]{new BytesRef("19")},
+                new BytesRef[]{new BytesRef("20"), new BytesRef("19")},
+                new BytesRef[]{new BytesRef("19"), new BytesRef("20"), new BytesRef("10"), new BytesRef("20")},
+                new BytesRef[]{new BytesRef("00"), new BytesRef("0"), new BytesRef("990"), new BytesRef("999"), new BytesRef("55"), new BytesRef("550")}
+        };
+        int[] expected = new int[]{0, 1, 2, 3};
+        for (int i = 0; i < termSets.length; i++) {
+            assertThat(count(new SortedTermsFilter(fieldName, termSets[i]).getDocIdSet(reader.getContext(), reader.getLiveDocs())), equalTo(expected[i]));
+            assertThat(count(new AutomatonTermsFilter(fieldName, termSets[i]).getDocIdSet(reader.getContext(), reader.getLiveDocs())), equalTo(expected[i]));
+        }
+
+        assertThat(new SortedTermsFilter(fieldName, new BytesRef[]{new BytesRef("1"), new BytesRef("2")}),
+                equalTo(new SortedTermsFilter(fieldName, new BytesRef[]{new BytesRef("2"), new BytesRef("1"), new BytesRef("2")})));
+
+        reader.close();
+        rd.close();
+    }
+
+    private static int count(DocIdSet docIdSet) throws IOException {
+        if (docIdSet == null) {
+            return 0;
+        }
+        DocIdSetIterator iterator = docIdSet.iterator();
+        if (iterator == null) {
+            return 0;
+        }
+        int count = 0;
+        while (iterator.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+            count++;
+        }
+        return count;
+    }
 }
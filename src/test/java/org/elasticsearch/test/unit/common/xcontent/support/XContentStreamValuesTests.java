@@ -0,0 +1,118 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.common.xcontent.support;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.common.xcontent.support.XContentStreamValues;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ */
+@Test
+public class XContentStreamValuesTests {
+
+    private static String source() throws Exception {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+                .field("test1", "value1")
+                .field("test2", "value2")
+                .field("something_else", "value3")
+                .startObject("obj1")
+                .field("field1", "value4")
+                .startArray("arr1").value(1).value(2).endArray()
+                .startObject("obj2").field("field2", "value5").endObject()
+                .endObject()
+                .startArray("arr2")
+                .startObject().field("field3", "value6").field("other", 1).endObject()
+                .startObject().field("field3", "value7").endObject()
+                .nullValue()
+                .endArray()
+                .field("dotted.field", "value8")
+                .nullField("null_field")
+                .endObject();
+        return builder.string();
+    }
+
+    private static XContentParser parser(String source) throws Exception {
+        return XContentFactory.xContent(XContentType.JSON).createParser(source);
+    }
+
+    @Test
+    public void testExtractValue() throws Exception {
+        String source = source();
+        Map<String, Object> map = parser(source).mapAndClose();
+        for (String path : new String[]{"test1", "obj1", "obj1.field1", "obj1.arr1", "obj1.obj2.field2", "arr2.field3", "arr2",
+                "dotted.field", "null_field", "missing", "obj1.missing", "test1.missing", ""}) {
+            assertThat(path, XContentStreamValues.extractValue(path, parser(source)), equalTo(XContentMapValues.extractValue(path, map)));
+        }
+        assertThat(XContentStreamValues.extractValue("obj1.obj2.field2", parser(source)), equalTo((Object) "value5"));
+        assertThat(XContentStreamValues.extractValue("dotted.field", parser(source)), equalTo((Object) "value8"));
+    }
+
+    @Test
+    public void testExtractRawValues() throws Exception {
+        String source = source();
+        Map<String, Object> map = parser(source).mapAndClose();
+        for (String path : new String[]{"test1", "obj1", "obj1.field1", "obj1.arr1", "obj1.obj2.field2", "arr2.field3", "arr2",
+                "dotted.field", "null_field", "missing", "test1.missing", ""}) {
+            assertThat(path, XContentStreamValues.extractRawValues(path, parser(source)), equalTo(XContentMapValues.extractRawValues(path, map)));
+        }
+        List<Object> values = XContentStreamValues.extractRawValues("arr2.field3", parser(source));
+        assertThat(values.size(), equalTo(2));
+        assertThat(values.get(0).toString(), equalTo("value6"));
+        assertThat(values.get(1).toString(), equalTo("value7"));
+    }
+
+    @Test
+    public void testExtractField() throws Exception {
+        String source = source();
+        assertThat(XContentStreamValues.extractField("test2", parser(source)), equalTo((Object) "value2"));
+        assertThat(XContentStreamValues.extractField("dotted.field", parser(source)), equalTo((Object) "value8"));
+        assertThat(XContentStreamValues.extractField("obj1", parser(source)), equalTo(parser(source).mapAndClose().get("obj1")));
+        assertThat(XContentStreamValues.extractField("missing", parser(source)), nullValue());
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        String source = source();
+        Map<String, Object> map = parser(source).mapAndClose();
+        String[][] includes = new String[][]{Strings.EMPTY_ARRAY, {"test1"}, {"test*"}, {"obj1.*"}, {"obj1.obj2.*"}, {"arr2.field3"}, {"*.field*"}};
+        String[][] excludes = new String[][]{Strings.EMPTY_ARRAY, {"test1"}, {"obj1.arr1"}, {"arr2.other"}};
+        for (String[] include : includes) {
+            for (String[] exclude : excludes) {
+                assertThat(XContentStreamValues.filter(parser(source), include, exclude), equalTo(XContentMapValues.filter(map, include, exclude)));
+            }
+        }
+
+        Map<String, Object> filter = XContentStreamValues.filter(parser(source), new String[]{"test*"}, new String[]{"test2"});
+        assertThat(filter.size(), equalTo(1));
+        assertThat(filter.get("test1").toString(), equalTo("value1"));
+    }
+}
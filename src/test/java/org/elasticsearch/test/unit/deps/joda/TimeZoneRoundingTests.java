@@ -77,6 +77,38 @@ public class TimeZoneRoundingTests {
         assertThat(tzRounding.calc(utc("2009-02-03T01:01:01")), equalTo(time("2009-02-03T01:00:00", DateTimeZone.forOffsetHours(+2))));
     }
 
+    @Test
+    public void testCachedRounding() {
+        DateTimeZone tz = DateTimeZone.forID("America/New_York");
+        TimeZoneRounding[] roundings = new TimeZoneRounding[]{
+                TimeZoneRounding.builder(chronology().monthOfYear()).build(),
+                TimeZoneRounding.builder(chronology().weekOfWeekyear()).postOffset(-TimeValue.timeValueHours(24).millis()).build(),
+                TimeZoneRounding.builder(chronology().hourOfDay()).preZone(tz).build(),
+                TimeZoneRounding.builder(chronology().hourOfDay()).preZone(tz).postZone(tz).build(),
+                TimeZoneRounding.builder(chronology().dayOfMonth()).preZone(tz).build(),
+                TimeZoneRounding.builder(chronology().monthOfYear()).preZone(tz).postZone(tz).build(),
+                TimeZoneRounding.builder(TimeValue.timeValueMinutes(90)).preZone(tz).build(),
+                TimeZoneRounding.builder(TimeValue.timeValueHours(48)).preZone(tz).postZone(tz).build()
+        };
+        // walk back and forth over a year of values spanning both DST transitions
+        long start = utc("2012-01-01T00:00:00");
+        long end = utc("2013-01-01T00:00:00");
+        long step = TimeValue.timeValueMinutes(7).millis() + 13;
+        for (TimeZoneRounding rounding : roundings) {
+            TimeZoneRounding cached = rounding.cached();
+            for (long time = start; time < end; time += step) {
+                assertThat(cached.calc(time), equalTo(rounding.calc(time)));
+            }
+            for (long time = end; time > start; time -= step) {
+                assertThat(cached.calc(time), equalTo(rounding.calc(time)));
+            }
+            for (long time = start - step; time < end; time += 1000 * step) {
+                assertThat(cached.calc(time), equalTo(rounding.calc(time)));
+                assertThat(cached.calc(-time), equalTo(rounding.calc(-time)));
+            }
+        }
+    }
+
     private static Chronology chronology() {
         return ISOChronology.getInstanceUTC();
     }
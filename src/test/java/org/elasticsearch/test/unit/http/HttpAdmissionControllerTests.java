@@ -0,0 +1,251 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.http;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.http.HttpAdmissionController;
+import org.elasticsearch.http.HttpStats;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.support.AbstractRestRequest;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.elasticsearch.http.HttpAdmissionController.Category.*;
+import static org.elasticsearch.rest.RestRequest.Method.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ *
+ */
+public class HttpAdmissionControllerTests {
+
+    @Test
+    public void testCategory() {
+        HttpAdmissionController controller = new TestAdmissionController(ImmutableSettings.settingsBuilder().put("http.admission.enabled", true).build());
+
+        assertThat(controller.category(request(POST, "/_bulk")), equalTo(BULK));
+        assertThat(controller.category(request(POST, "/test/_bulk")), equalTo(BULK));
+        assertThat(controller.category(request(PUT, "/test/type1/_bulk")), equalTo(BULK));
+
+        assertThat(controller.category(request(GET, "/test/_search")), equalTo(SEARCH));
+        assertThat(controller.category(request(POST, "/test/type1/_search")), equalTo(SEARCH));
+        assertThat(controller.category(request(GET, "/_search/scroll/abc")), equalTo(SEARCH));
+        assertThat(controller.category(request(POST, "/_msearch")), equalTo(SEARCH));
+        assertThat(controller.category(request(GET, "/test/_count")), equalTo(SEARCH));
+        assertThat(controller.category(request(POST, "/test/type1/_percolate")), equalTo(SEARCH));
+
+        assertThat(controller.category(request(POST, "/test/type1")), equalTo(INDEX));
+        assertThat(controller.category(request(PUT, "/test/type1/1")), equalTo(INDEX));
+        assertThat(controller.category(request(PUT, "/test/type1/1/_create")), equalTo(INDEX));
+        assertThat(controller.category(request(POST, "/test/type1/1/_update")), equalTo(INDEX));
+
+        // admin and read APIs are not subject to admission control
+        assertThat(controller.category(request(PUT, "/test/type1/_mapping")), nullValue());
+        assertThat(controller.category(request(POST, "/test/type1/_mapping")), nullValue());
+        assertThat(controller.category(request(PUT, "/test/_settings")), nullValue());
+        assertThat(controller.category(request(POST, "/test/_refresh")), nullValue());
+        assertThat(controller.category(request(PUT, "/test")), nullValue());
+        assertThat(controller.category(request(POST, "/_cluster/nodes/_shutdown")), nullValue());
+        assertThat(controller.category(request(GET, "/test/type1/1")), nullValue());
+        assertThat(controller.category(request(DELETE, "/test/type1/1")), nullValue());
+        assertThat(controller.category(request(POST, "/test/type1/1/_mlt")), nullValue());
+    }
+
+    @Test
+    public void testDisabled() {
+        HttpAdmissionController controller = new TestAdmissionController(ImmutableSettings.Builder.EMPTY_SETTINGS);
+        assertThat(controller.category(request(POST, "/_bulk")), nullValue());
+        assertThat(controller.stats(), nullValue());
+    }
+
+    @Test
+    public void testAcquireAndRelease() {
+        HttpAdmissionController controller = new TestAdmissionController(ImmutableSettings.settingsBuilder()
+                .put("http.admission.enabled", true)
+                .put("http.admission.bulk.max_requests", 2)
+                .put("http.admission.bulk.max_bytes", "100b")
+                .build());
+
+        assertThat(controller.tryAcquire(BULK, 10), equalTo(true));
+        assertThat(controller.tryAcquire(BULK, 20), equalTo(true));
+        assertThat(stats(controller, BULK).inFlightRequests(), equalTo(2l));
+        assertThat(stats(controller, BULK).inFlightSize().bytes(), equalTo(30l));
+
+        // over the max requests
+        assertThat(controller.tryAcquire(BULK, 10), equalTo(false));
+        assertThat(stats(controller, BULK).inFlightRequests(), equalTo(2l));
+        assertThat(stats(controller, BULK).inFlightSize().bytes(), equalTo(30l));
+        assertThat(stats(controller, BULK).rejected(), equalTo(1l));
+
+        // other categories are accounted on their own
+        assertThat(controller.tryAcquire(SEARCH, 10), equalTo(true));
+        assertThat(stats(controller, SEARCH).inFlightRequests(), equalTo(1l));
+
+        controller.release(BULK, 20);
+        assertThat(stats(controller, BULK).inFlightRequests(), equalTo(1l));
+        assertThat(stats(controller, BULK).inFlightSize().bytes(), equalTo(10l));
+
+        // over the max bytes
+        assertThat(controller.tryAcquire(BULK, 100), equalTo(false));
+        assertThat(stats(controller, BULK).rejected(), equalTo(2l));
+
+        controller.release(BULK, 10);
+        controller.release(SEARCH, 10);
+        assertThat(stats(controller, BULK).inFlightRequests(), equalTo(0l));
+        assertThat(stats(controller, BULK).inFlightSize().bytes(), equalTo(0l));
+        assertThat(stats(controller, SEARCH).inFlightRequests(), equalTo(0l));
+
+        // a single request bigger than the max bytes is still admitted when nothing else is in flight
+        assertThat(controller.tryAcquire(BULK, 200), equalTo(true));
+        controller.release(BULK, 200);
+    }
+
+    @Test
+    public void testLimitsUnderHeapPressure() {
+        TestAdmissionController controller = new TestAdmissionController(ImmutableSettings.settingsBuilder()
+                .put("http.admission.enabled", true)
+                .put("http.admission.heap_pressure_threshold", 0.8)
+                .put("http.admission.search.max_requests", 10)
+                .build());
+
+        controller.heapPressure = 0.5;
+        assertThat(stats(controller, SEARCH).maxRequests(), equalTo(10l));
+
+        // half way between the threshold and the full heap
+        controller.heapPressure = 0.9;
+        assertThat(stats(controller, SEARCH).maxRequests(), equalTo(5l));
+        for (int i = 0; i < 5; i++) {
+            assertThat(controller.tryAcquire(SEARCH, 0), equalTo(true));
+        }
+        assertThat(controller.tryAcquire(SEARCH, 0), equalTo(false));
+        assertThat(stats(controller, SEARCH).rejected(), equalTo(1l));
+
+        // once the pressure goes down, the full limits apply again
+        controller.heapPressure = 0.7;
+        assertThat(controller.tryAcquire(SEARCH, 0), equalTo(true));
+
+        // nothing is admitted on a full heap
+        controller.heapPressure = 1;
+        assertThat(stats(controller, SEARCH).maxRequests(), equalTo(0l));
+        for (int i = 0; i < 6; i++) {
+            controller.release(SEARCH, 0);
+        }
+        assertThat(controller.tryAcquire(SEARCH, 0), equalTo(false));
+    }
+
+    private static HttpStats.AdmissionStats stats(HttpAdmissionController controller, HttpAdmissionController.Category category) {
+        for (HttpStats.AdmissionStats stats : controller.stats()) {
+            if (stats.category().equals(category.categoryName())) {
+                return stats;
+            }
+        }
+        throw new AssertionError("no stats for [" + category.categoryName() + "]");
+    }
+
+    private static RestRequest request(RestRequest.Method method, String path) {
+        return new TestRestRequest(method, path);
+    }
+
+    static class TestAdmissionController extends HttpAdmissionController {
+
+        volatile double heapPressure = -1;
+
+        TestAdmissionController(Settings settings) {
+            super(settings, null);
+        }
+
+        @Override
+        protected double heapPressure() {
+            return heapPressure;
+        }
+    }
+
+    static class TestRestRequest extends AbstractRestRequest {
+
+        private final Method method;
+        private final String path;
+
+        TestRestRequest(Method method, String path) {
+            this.method = method;
+            this.path = path;
+        }
+
+        @Override
+        public Method method() {
+            return method;
+        }
+
+        @Override
+        public String uri() {
+            return path;
+        }
+
+        @Override
+        public String rawPath() {
+            return path;
+        }
+
+        @Override
+        public boolean hasContent() {
+            return false;
+        }
+
+        @Override
+        public boolean contentUnsafe() {
+            return false;
+        }
+
+        @Override
+        public BytesReference content() {
+            return null;
+        }
+
+        @Override
+        public String header(String name) {
+            return null;
+        }
+
+        @Override
+        public boolean hasParam(String key) {
+            return false;
+        }
+
+        @Override
+        public String param(String key) {
+            return null;
+        }
+
+        @Override
+        public String param(String key, String defaultValue) {
+            return defaultValue;
+        }
+
+        @Override
+        public Map<String, String> params() {
+            return Collections.emptyMap();
+        }
+    }
+}
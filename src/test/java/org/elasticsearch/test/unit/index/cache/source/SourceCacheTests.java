@@ -0,0 +1,93 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.cache.source;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.cache.source.SourceCache;
+import org.elasticsearch.index.mapper.internal.SourceFieldMapper;
+import org.elasticsearch.indices.cache.source.IndicesSourceCache;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.common.settings.ImmutableSettings.Builder.EMPTY_SETTINGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ */
+public class SourceCacheTests {
+
+    @Test
+    public void testCompressedSourceIsCached() throws Exception {
+        ThreadPool threadPool = new ThreadPool(EMPTY_SETTINGS, null);
+        IndicesSourceCache indicesSourceCache = new IndicesSourceCache(ImmutableSettings.settingsBuilder().put("indices.cache.source.size", "1mb").build(), threadPool);
+        SourceCache sourceCache = new SourceCache(new Index("test"), EMPTY_SETTINGS, indicesSourceCache);
+
+        Directory dir = new RAMDirectory();
+        IndexWriter indexWriter = new IndexWriter(dir, new IndexWriterConfig(Lucene.VERSION, Lucene.STANDARD_ANALYZER));
+        byte[] plain = "{\"field\":\"value\"}".getBytes("UTF-8");
+        Document document = new Document();
+        document.add(new StoredField(SourceFieldMapper.NAME, CompressorFactory.defaultCompressor().compress(plain, 0, plain.length)));
+        indexWriter.addDocument(document);
+        document = new Document();
+        document.add(new StoredField(SourceFieldMapper.NAME, plain));
+        indexWriter.addDocument(document);
+        indexWriter.commit();
+
+        DirectoryReader reader = DirectoryReader.open(dir);
+        AtomicReader atomicReader = reader.leaves().get(0).reader();
+
+        BytesReference source = sourceCache.source(atomicReader, 0);
+        assertThat(source.toUtf8(), equalTo("{\"field\":\"value\"}"));
+        assertThat(sourceCache.missCount(), equalTo(1l));
+        assertThat(sourceCache.hitCount(), equalTo(0l));
+        assertThat(sourceCache.sizeInBytes(), greaterThan(0l));
+
+        assertThat(sourceCache.source(atomicReader, 0), sameInstance(source));
+        assertThat(sourceCache.hitCount(), equalTo(1l));
+
+        // uncompressed sources are returned as is and never cached
+        assertThat(sourceCache.source(atomicReader, 1).toUtf8(), equalTo("{\"field\":\"value\"}"));
+        assertThat(sourceCache.uncompress(atomicReader, 1, new BytesArray(plain)).toUtf8(), equalTo("{\"field\":\"value\"}"));
+        assertThat(sourceCache.missCount(), equalTo(1l));
+        assertThat(indicesSourceCache.cache().size(), equalTo(1l));
+
+        sourceCache.clear("test");
+        reader.close();
+        indexWriter.close();
+        indicesSourceCache.close();
+        assertThat(sourceCache.sizeInBytes(), equalTo(0l));
+        threadPool.shutdown();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.engine.robin;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.index.engine.robin.RecentWritesBuffer;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ */
+public class RecentWritesBufferTests {
+
+    @Test
+    public void testAddAndRead() {
+        RecentWritesBuffer buffer = new RecentWritesBuffer(100);
+        long pos1 = buffer.add(new BytesArray("aaaaaaaaaa"));
+        long pos2 = buffer.add(new BytesArray("bbbbbbbbbb"));
+        assertThat(buffer.read(pos1, 10).toUtf8(), equalTo("aaaaaaaaaa"));
+        assertThat(buffer.read(pos2, 10).toUtf8(), equalTo("bbbbbbbbbb"));
+
+        // a sliced reference is written from its offset
+        BytesReference sliced = new BytesArray("xxcccccyy").slice(2, 5);
+        long pos3 = buffer.add(sliced);
+        assertThat(buffer.read(pos3, 5).toUtf8(), equalTo("ccccc"));
+    }
+
+    @Test
+    public void testTooBig() {
+        RecentWritesBuffer buffer = new RecentWritesBuffer(100);
+        assertThat(buffer.add(new BytesArray(new byte[26])), equalTo(-1l));
+    }
+
+    @Test
+    public void testOverwrittenOnWrap() {
+        RecentWritesBuffer buffer = new RecentWritesBuffer(100);
+        long first = buffer.add(new BytesArray("0123456789012345678901234"));
+        long last = first;
+        for (int i = 0; i < 3; i++) {
+            last = buffer.add(new BytesArray("abcdefghijabcdefghijabcde"));
+        }
+        assertThat(buffer.read(first, 25).toUtf8(), equalTo("0123456789012345678901234"));
+        // wraps around, and overwrites the first entry
+        long wrapped = buffer.add(new BytesArray("zzzzzzzzzz"));
+        assertThat(buffer.read(first, 25), nullValue());
+        assertThat(buffer.read(last, 25).toUtf8(), equalTo("abcdefghijabcdefghijabcde"));
+        assertThat(buffer.read(wrapped, 10).toUtf8(), equalTo("zzzzzzzzzz"));
+    }
+
+    @Test
+    public void testClear() {
+        RecentWritesBuffer buffer = new RecentWritesBuffer(100);
+        long pos = buffer.add(new BytesArray("aaaaaaaaaa"));
+        buffer.clear();
+        assertThat(buffer.read(pos, 10), nullValue());
+        // the buffer is reused, but the entries added before clearing stay unreadable
+        long next = buffer.add(new BytesArray("bbbbbbbbbb"));
+        assertThat(buffer.read(next, 10).toUtf8(), equalTo("bbbbbbbbbb"));
+        assertThat(buffer.read(pos, 10), nullValue());
+    }
+}
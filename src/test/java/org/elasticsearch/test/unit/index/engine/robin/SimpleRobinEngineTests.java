@@ -19,19 +19,37 @@
 
 package org.elasticsearch.test.unit.index.engine.robin;
 
+import org.apache.lucene.document.Document;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.uid.UidField;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.analysis.AnalysisService;
 import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.robin.RobinEngine;
+import org.elasticsearch.index.get.GetStats;
 import org.elasticsearch.index.indexing.ShardIndexingService;
 import org.elasticsearch.index.indexing.slowlog.ShardSlowLogIndexingService;
+import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.settings.IndexSettingsService;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.store.ram.RamDirectoryService;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.fs.FsTranslog;
 import org.elasticsearch.test.unit.index.engine.AbstractSimpleEngineTests;
+import org.testng.annotations.Test;
+
+import java.io.File;
 
 import static org.elasticsearch.common.settings.ImmutableSettings.Builder.EMPTY_SETTINGS;
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
 
 /**
  *
@@ -39,8 +57,133 @@ import static org.elasticsearch.common.settings.ImmutableSettings.Builder.EMPTY_
 public class SimpleRobinEngineTests extends AbstractSimpleEngineTests {
 
     protected Engine createEngine(Store store, Translog translog) {
-        IndexSettingsService indexSettingsService = new IndexSettingsService(shardId.index(), EMPTY_SETTINGS);
-        return new RobinEngine(shardId, EMPTY_SETTINGS, threadPool, indexSettingsService, new ShardIndexingService(shardId, EMPTY_SETTINGS, new ShardSlowLogIndexingService(shardId, EMPTY_SETTINGS, indexSettingsService)), null, store, createSnapshotDeletionPolicy(), translog, createMergePolicy(), createMergeScheduler(),
+        return createEngine(EMPTY_SETTINGS, store, translog);
+    }
+
+    private Engine createEngine(Settings settings, Store store, Translog translog) {
+        IndexSettingsService indexSettingsService = new IndexSettingsService(shardId.index(), settings);
+        return new RobinEngine(shardId, settings, threadPool, indexSettingsService, new ShardIndexingService(shardId, settings, new ShardSlowLogIndexingService(shardId, settings, indexSettingsService)), null, store, createSnapshotDeletionPolicy(), translog, createMergePolicy(), createMergeScheduler(),
                 new AnalysisService(shardId.index()), new SimilarityService(shardId.index()), new CodecService(shardId.index()));
     }
+
+    private Engine createRecentWritesEngine(String bufferSize) throws Exception {
+        Store store = new Store(shardId, EMPTY_SETTINGS, null, new RamDirectoryService(shardId, EMPTY_SETTINGS));
+        store.deleteContent();
+        Translog translog = new FsTranslog(shardId, EMPTY_SETTINGS, new File("work/fs-translog/recent-writes"));
+        Engine engine = createEngine(settingsBuilder().put("index.engine.robin.realtime_get_buffer_size", bufferSize).build(), store, translog);
+        engine.start();
+        return engine;
+    }
+
+    private void index(Engine engine, String id, BytesReference source) {
+        Document document = new Document();
+        document.add(new UidField("_uid", id, 0));
+        ParsedDocument doc = new ParsedDocument(id, id, "test", null, -1, -1, document, Lucene.STANDARD_ANALYZER, source, false);
+        engine.index(new Engine.Index(null, newUid(id), doc));
+    }
+
+    private static BytesReference source(int length, int value) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) value;
+        }
+        return new BytesArray(bytes);
+    }
+
+    @Test
+    public void testRealtimeGetFromRecentWrites() throws Exception {
+        Engine engine = createRecentWritesEngine("1kb");
+        try {
+            index(engine, "1", source(100, 1));
+
+            Engine.GetResult getResult = engine.get(new Engine.Get(true, newUid("1")));
+            assertThat(getResult.exists(), equalTo(true));
+            assertThat(getResult.fromRecentWrites(), equalTo(true));
+            assertThat(getResult.source().source.toBytesArray(), equalTo(source(100, 1).toBytesArray()));
+
+            // not asking for the source never touches the buffer
+            getResult = engine.get(new Engine.Get(true, newUid("1")).loadSource(false));
+            assertThat(getResult.exists(), equalTo(true));
+            assertThat(getResult.fromRecentWrites(), equalTo(false));
+            assertThat(getResult.source(), nullValue());
+
+            // an update is served with its own source
+            index(engine, "1", source(50, 2));
+            getResult = engine.get(new Engine.Get(true, newUid("1")));
+            assertThat(getResult.fromRecentWrites(), equalTo(true));
+            assertThat(getResult.version(), equalTo(2l));
+            assertThat(getResult.source().source.toBytesArray(), equalTo(source(50, 2).toBytesArray()));
+
+            // once flushed, the document is loaded from the index
+            engine.flush(new Engine.Flush());
+            getResult = engine.get(new Engine.Get(true, newUid("1")));
+            assertThat(getResult.exists(), equalTo(true));
+            assertThat(getResult.fromRecentWrites(), equalTo(false));
+            assertThat(getResult.source(), nullValue());
+            getResult.release();
+        } finally {
+            engine.close();
+        }
+    }
+
+    @Test
+    public void testRealtimeGetFallsBackToTranslog() throws Exception {
+        Engine engine = createRecentWritesEngine("1kb");
+        try {
+            // more than a quarter of the buffer, never buffered
+            index(engine, "1", source(300, 1));
+            Engine.GetResult getResult = engine.get(new Engine.Get(true, newUid("1")));
+            assertThat(getResult.exists(), equalTo(true));
+            assertThat(getResult.fromRecentWrites(), equalTo(false));
+            assertThat(getResult.source().source.toBytesArray(), equalTo(source(300, 1).toBytesArray()));
+
+            // wrap the buffer around, the first entries get overwritten
+            for (int i = 2; i <= 10; i++) {
+                index(engine, Integer.toString(i), source(200, i));
+            }
+            getResult = engine.get(new Engine.Get(true, newUid("2")));
+            assertThat(getResult.fromRecentWrites(), equalTo(false));
+            assertThat(getResult.source().source.toBytesArray(), equalTo(source(200, 2).toBytesArray()));
+
+            getResult = engine.get(new Engine.Get(true, newUid("10")));
+            assertThat(getResult.fromRecentWrites(), equalTo(true));
+            assertThat(getResult.source().source.toBytesArray(), equalTo(source(200, 10).toBytesArray()));
+        } finally {
+            engine.close();
+        }
+    }
+
+    @Test
+    public void testRecentWritesDisabled() throws Exception {
+        Engine engine = createRecentWritesEngine("0");
+        try {
+            index(engine, "1", source(10, 1));
+            Engine.GetResult getResult = engine.get(new Engine.Get(true, newUid("1")));
+            assertThat(getResult.exists(), equalTo(true));
+            assertThat(getResult.fromRecentWrites(), equalTo(false));
+            assertThat(getResult.source().source.toBytesArray(), equalTo(source(10, 1).toBytesArray()));
+        } finally {
+            engine.close();
+        }
+    }
+
+    @Test
+    public void testRecentWritesGetStats() throws Exception {
+        GetStats stats = new GetStats(1, 1, 0, 0, 0, 3, 1);
+        assertThat(stats.getRecentWritesHitCount(), equalTo(3l));
+        assertThat(stats.getRecentWritesMissCount(), equalTo(1l));
+        assertThat(stats.getRecentWritesHitRatio(), equalTo(0.75d));
+        assertThat(new GetStats().getRecentWritesHitRatio(), equalTo(0d));
+
+        stats.add(new GetStats(1, 1, 0, 0, 0, 1, 3));
+        assertThat(stats.getRecentWritesHitCount(), equalTo(4l));
+        assertThat(stats.getRecentWritesMissCount(), equalTo(4l));
+        assertThat(stats.getRecentWritesHitRatio(), equalTo(0.5d));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        stats.writeTo(out);
+        GetStats read = GetStats.readGetStats(new BytesStreamInput(out.bytes()));
+        assertThat(read.getRecentWritesHitCount(), equalTo(4l));
+        assertThat(read.getRecentWritesMissCount(), equalTo(4l));
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.fielddata;
+
+import org.apache.lucene.document.*;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.index.fielddata.*;
+import org.elasticsearch.index.fielddata.ordinals.Ordinals;
+import org.elasticsearch.index.fielddata.plain.DocValuesBytesAtomicFieldData;
+import org.elasticsearch.index.fielddata.plain.DocValuesNumericAtomicFieldData;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.core.NumberFieldMapper;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ */
+public class DocValuesFieldDataTests extends AbstractFieldDataTests {
+
+    @Override
+    protected FieldDataType getFieldDataType() {
+        return new FieldDataType("long", ImmutableSettings.builder().put("format", "doc_values"));
+    }
+
+    @Test
+    public void testNumericWithMissing() throws Exception {
+        Document d = new Document();
+        d.add(new LongField("value", 2, Field.Store.NO));
+        d.add(new PackedLongDocValuesField("value", 2));
+        d.add(new ByteDocValuesField(NumberFieldMapper.docValuesMarkerName("value"), (byte) 1));
+        writer.addDocument(d);
+
+        d = new Document();
+        d.add(new StringField("_id", "2", Field.Store.NO));
+        writer.addDocument(d);
+
+        d = new Document();
+        d.add(new LongField("value", 3, Field.Store.NO));
+        d.add(new PackedLongDocValuesField("value", 3));
+        d.add(new ByteDocValuesField(NumberFieldMapper.docValuesMarkerName("value"), (byte) 1));
+        writer.addDocument(d);
+
+        // same as the doc values default, only the marker tells it apart from a missing value
+        d = new Document();
+        d.add(new LongField("value", 0, Field.Store.NO));
+        d.add(new PackedLongDocValuesField("value", 0));
+        d.add(new ByteDocValuesField(NumberFieldMapper.docValuesMarkerName("value"), (byte) 1));
+        writer.addDocument(d);
+
+        IndexNumericFieldData indexFieldData = getForField("value");
+        AtomicNumericFieldData fieldData = indexFieldData.load(refreshReader());
+        assertThat(fieldData, instanceOf(DocValuesNumericAtomicFieldData.class));
+        assertThat(fieldData.isMultiValued(), equalTo(false));
+
+        LongValues longValues = fieldData.getLongValues();
+        assertThat(longValues.hasValue(0), equalTo(true));
+        assertThat(longValues.hasValue(1), equalTo(false));
+        assertThat(longValues.hasValue(2), equalTo(true));
+        assertThat(longValues.getValue(0), equalTo(2l));
+        assertThat(longValues.getValueMissing(1, -1), equalTo(-1l));
+        assertThat(longValues.getValue(2), equalTo(3l));
+        assertThat(longValues.getIter(1).hasNext(), equalTo(false));
+        assertThat(longValues.hasValue(3), equalTo(true));
+        assertThat(longValues.getValueMissing(3, -1), equalTo(0l));
+
+        DoubleValues doubleValues = fieldData.getDoubleValues();
+        assertThat(doubleValues.getValue(0), equalTo(2d));
+        assertThat(doubleValues.getValueMissing(1, -1), equalTo(-1d));
+
+        assertThat(fieldData.getStringValues().getValue(2), equalTo("3"));
+    }
+
+    @Test
+    public void testNumericFallsBackWithoutDocValues() throws Exception {
+        Document d = new Document();
+        d.add(new LongField("value", 4, Field.Store.NO));
+        writer.addDocument(d);
+
+        IndexNumericFieldData indexFieldData = getForField("value");
+        AtomicNumericFieldData fieldData = indexFieldData.load(refreshReader());
+        assertThat(fieldData, not(instanceOf(DocValuesNumericAtomicFieldData.class)));
+        assertThat(fieldData.getLongValues().getValue(0), equalTo(4l));
+    }
+
+    @Test
+    public void testStringOrdinals() throws Exception {
+        Document d = new Document();
+        d.add(new StringField("value", "b", Field.Store.NO));
+        d.add(new SortedBytesDocValuesField("value", new BytesRef("b")));
+        writer.addDocument(d);
+
+        d = new Document();
+        d.add(new StringField("_id", "2", Field.Store.NO));
+        writer.addDocument(d);
+
+        d = new Document();
+        d.add(new StringField("value", "a", Field.Store.NO));
+        d.add(new SortedBytesDocValuesField("value", new BytesRef("a")));
+        writer.addDocument(d);
+
+        IndexFieldData.WithOrdinals indexFieldData = ifdService.getForField(new FieldMapper.Names("value"),
+                new FieldDataType("string", ImmutableSettings.builder().put("format", "doc_values")));
+        AtomicFieldData.WithOrdinals fieldData = indexFieldData.load(refreshReader());
+        assertThat(fieldData, instanceOf(DocValuesBytesAtomicFieldData.class));
+        assertThat(fieldData.isValuesOrdered(), equalTo(true));
+
+        BytesValues.WithOrdinals bytesValues = fieldData.getBytesValues();
+        Ordinals.Docs ordinals = bytesValues.ordinals();
+        assertThat(ordinals.getNumOrds(), equalTo(2));
+        assertThat(ordinals.getOrd(0), equalTo(2));
+        assertThat(ordinals.getOrd(1), equalTo(0));
+        assertThat(ordinals.getOrd(2), equalTo(1));
+
+        assertThat(bytesValues.getValue(0), equalTo(new BytesRef("b")));
+        assertThat(bytesValues.hasValue(1), equalTo(false));
+        assertThat(bytesValues.getValue(1), nullValue());
+        assertThat(bytesValues.getValueByOrd(1), equalTo(new BytesRef("a")));
+
+        StringValues stringValues = fieldData.getStringValues();
+        assertThat(stringValues.getValue(2), equalTo("a"));
+        assertThat(fieldData.getHashedBytesValues().getValue(0).bytes, equalTo(new BytesRef("b")));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.fielddata;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Filter;
+import org.elasticsearch.common.geo.GeoDistance;
+import org.elasticsearch.common.geo.GeoPoint;
+import org.elasticsearch.index.fielddata.*;
+import org.elasticsearch.index.search.geo.GeoDistanceFilter;
+import org.elasticsearch.index.search.geo.GeoPolygonFilter;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ */
+public class GeoPointCellIndexTests extends AbstractFieldDataTests {
+
+    private static final int NUM_DOCS = 5000;
+
+    @Override
+    protected FieldDataType getFieldDataType() {
+        return new FieldDataType("geo_point");
+    }
+
+    private AtomicReaderContext fillRandomPoints(Random random) throws Exception {
+        for (int i = 0; i < NUM_DOCS; i++) {
+            Document d = new Document();
+            d.add(new StringField("_id", Integer.toString(i), Field.Store.NO));
+            // leave some docs without a point, and give others a couple of them
+            int numPoints = random.nextInt(10) == 0 ? 0 : (random.nextInt(5) == 0 ? 2 : 1);
+            for (int j = 0; j < numPoints; j++) {
+                double lat = random.nextDouble() * 180 - 90;
+                double lon = random.nextDouble() * 360 - 180;
+                d.add(new StringField("value", lat + "," + lon, Field.Store.NO));
+            }
+            writer.addDocument(d);
+        }
+        return refreshReader();
+    }
+
+    @Test
+    public void testManyCells() throws Exception {
+        AtomicReaderContext context = fillRandomPoints(new Random(0));
+        AtomicGeoPointFieldData fieldData = this.<IndexGeoPointFieldData>getForField("value").load(context);
+
+        long sizeBeforeCellIndex = fieldData.getMemorySizeInBytes();
+        assertThat(fieldData.getCellIndexMemorySizeInBytes(), equalTo(0l));
+
+        GeoPointCellIndex cellIndex = fieldData.getCellIndex();
+        assertThat(cellIndex.latBits(), greaterThan(1));
+        assertThat(fieldData.getCellIndex(), sameInstance(cellIndex));
+
+        // the cell index is accounted for once built
+        assertThat(fieldData.getCellIndexMemorySizeInBytes(), equalTo(cellIndex.getMemorySizeInBytes()));
+        assertThat(fieldData.getMemorySizeInBytes(), equalTo(sizeBeforeCellIndex + cellIndex.getMemorySizeInBytes()));
+
+        // each doc is in the cells of its points, and the docs of a cell are sorted
+        GeoPointValues values = fieldData.getGeoPointValues();
+        int numEntries = 0;
+        for (int row = 0; row < cellIndex.latCells(); row++) {
+            for (int column = 0; column < cellIndex.lonCells(); column++) {
+                int cell = cellIndex.cell(row, column);
+                int previousDoc = -1;
+                for (int i = cellIndex.cellStart(cell); i < cellIndex.cellEnd(cell); i++) {
+                    int doc = cellIndex.doc(i);
+                    assertThat(doc, greaterThan(previousDoc));
+                    previousDoc = doc;
+                    boolean found = false;
+                    for (GeoPointValues.Iter iter = values.getIterSafe(doc); iter.hasNext(); ) {
+                        GeoPoint point = iter.next();
+                        if (cellIndex.row(point.lat()) == row && cellIndex.column(point.lon()) == column) {
+                            found = true;
+                        }
+                    }
+                    assertThat(found, equalTo(true));
+                    numEntries++;
+                }
+            }
+        }
+        int expectedEntries = 0;
+        for (int doc = 0; doc < NUM_DOCS; doc++) {
+            List<Integer> cells = new ArrayList<Integer>();
+            for (GeoPointValues.Iter iter = values.getIterSafe(doc); iter.hasNext(); ) {
+                GeoPoint point = iter.next();
+                Integer cell = cellIndex.cell(cellIndex.row(point.lat()), cellIndex.column(point.lon()));
+                if (!cells.contains(cell)) {
+                    cells.add(cell);
+                }
+            }
+            expectedEntries += cells.size();
+        }
+        assertThat(numEntries, equalTo(expectedEntries));
+    }
+
+    @Test
+    public void testDistanceFilterWithManyCells() throws Exception {
+        Random random = new Random(1);
+        AtomicReaderContext context = fillRandomPoints(random);
+        IndexGeoPointFieldData indexFieldData = getForField("value");
+
+        for (int i = 0; i < 50; i++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+            double distance = 10 + random.nextDouble() * 2000;
+            List<Integer> expected = docs(new GeoDistanceFilter(lat, lon, distance, GeoDistance.ARC, indexFieldData, null, "none"), context);
+            List<Integer> grid = docs(new GeoDistanceFilter(lat, lon, distance, GeoDistance.ARC, indexFieldData, null, "grid"), context);
+            assertThat(lat + "," + lon + " " + distance, grid, equalTo(expected));
+        }
+    }
+
+    @Test
+    public void testPolygonFilterWithManyCells() throws Exception {
+        AtomicReaderContext context = fillRandomPoints(new Random(2));
+        IndexGeoPointFieldData indexFieldData = getForField("value");
+
+        GeoPoint[][] polygons = new GeoPoint[][]{
+                // a triangle spanning many cells
+                {new GeoPoint(-60, -120), new GeoPoint(70, -10), new GeoPoint(-10, 150), new GeoPoint(-60, -120)},
+                // a concave polygon, with cells fully inside, fully outside and crossing its border
+                {new GeoPoint(0, 0), new GeoPoint(60, 0), new GeoPoint(60, 60), new GeoPoint(30, 30), new GeoPoint(0, 60), new GeoPoint(0, 0)},
+                // a polygon smaller than a single cell
+                {new GeoPoint(10, 10), new GeoPoint(10.5, 10), new GeoPoint(10.5, 10.5), new GeoPoint(10, 10.5), new GeoPoint(10, 10)}
+        };
+        for (GeoPoint[] polygon : polygons) {
+            List<Integer> expected = docs(new GeoPolygonFilter(polygon, indexFieldData, "none"), context);
+            List<Integer> grid = docs(new GeoPolygonFilter(polygon, indexFieldData, "grid"), context);
+            assertThat(grid, equalTo(expected));
+        }
+        // the first two polygons are large enough to match some of the random points
+        assertThat(docs(new GeoPolygonFilter(polygons[0], indexFieldData, "grid"), context).isEmpty(), equalTo(false));
+        assertThat(docs(new GeoPolygonFilter(polygons[1], indexFieldData, "grid"), context).isEmpty(), equalTo(false));
+    }
+
+    private static List<Integer> docs(Filter filter, AtomicReaderContext context) throws Exception {
+        List<Integer> docs = new ArrayList<Integer>();
+        DocIdSet docIdSet = filter.getDocIdSet(context, null);
+        if (docIdSet == null) {
+            return docs;
+        }
+        DocIdSetIterator iterator = docIdSet.iterator();
+        if (iterator == null) {
+            return docs;
+        }
+        for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+            docs.add(doc);
+        }
+        return docs;
+    }
+}
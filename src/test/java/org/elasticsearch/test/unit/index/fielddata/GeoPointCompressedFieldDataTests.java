@@ -0,0 +1,255 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.fielddata;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Filter;
+import org.elasticsearch.common.geo.GeoDistance;
+import org.elasticsearch.common.geo.GeoHashUtils;
+import org.elasticsearch.common.geo.GeoPoint;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.unit.DistanceUnit;
+import org.elasticsearch.index.fielddata.AtomicGeoPointFieldData;
+import org.elasticsearch.index.fielddata.FieldDataType;
+import org.elasticsearch.index.fielddata.GeoPointValues;
+import org.elasticsearch.index.fielddata.IndexGeoPointFieldData;
+import org.elasticsearch.index.fielddata.plain.GeoPointCompressedAtomicFieldData;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.search.geo.GeoDistanceFilter;
+import org.elasticsearch.index.search.geo.InMemoryGeoBoundingBoxFilter;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ */
+public class GeoPointCompressedFieldDataTests extends AbstractFieldDataTests {
+
+    // 1cm is well below 1e-6 degrees
+    private static final double DELTA = 0.000001;
+
+    @Override
+    protected FieldDataType getFieldDataType() {
+        return new FieldDataType("geo_point", ImmutableSettings.builder().put("format", "compressed"));
+    }
+
+    private void addDocument(String... points) throws Exception {
+        Document d = new Document();
+        d.add(new StringField("_id", Integer.toString(writer.numDocs()), Field.Store.NO));
+        for (String point : points) {
+            d.add(new StringField("value", point, Field.Store.NO));
+        }
+        writer.addDocument(d);
+    }
+
+    private void fillSingleValueWithMissing() throws Exception {
+        addDocument("40.7143528,-74.0059731");
+        addDocument();
+        addDocument("40.759011,-73.9844722");
+    }
+
+    private void fillMultiValueWithMissing() throws Exception {
+        addDocument("40.7143528,-74.0059731");
+        addDocument();
+        addDocument("40.718266,-74.007819", "51.5073509,-0.1277583");
+        addDocument("-33.8674869,151.2069902");
+    }
+
+    @Test
+    public void testSingleValueAllSet() throws Exception {
+        addDocument("40.7143528,-74.0059731");
+        addDocument("-33.8674869,151.2069902");
+        AtomicGeoPointFieldData fieldData = this.<IndexGeoPointFieldData>getForField("value").load(refreshReader());
+
+        assertThat(fieldData, instanceOf(GeoPointCompressedAtomicFieldData.Single.class));
+        assertThat(fieldData.getNumDocs(), equalTo(2));
+        assertThat(fieldData.isMultiValued(), equalTo(false));
+
+        GeoPointValues values = fieldData.getGeoPointValues();
+        assertThat(values.isMultiValued(), equalTo(false));
+        assertThat(values.hasValue(0), equalTo(true));
+        assertThat(values.hasValue(1), equalTo(true));
+        assertPoint(values.getValue(0), 40.7143528, -74.0059731);
+        assertPoint(values.getValueSafe(1), -33.8674869, 151.2069902);
+        assertThat(fieldData.getStringValues().getValue(0), equalTo(GeoHashUtils.encode(40.7143528, -74.0059731)));
+    }
+
+    @Test
+    public void testSingleValueWithMissing() throws Exception {
+        fillSingleValueWithMissing();
+        AtomicGeoPointFieldData fieldData = this.<IndexGeoPointFieldData>getForField("value").load(refreshReader());
+
+        assertThat(fieldData, instanceOf(GeoPointCompressedAtomicFieldData.Single.class));
+        assertThat(fieldData.getNumDocs(), equalTo(3));
+
+        GeoPointValues values = fieldData.getGeoPointValues();
+        assertThat(values.hasValue(0), equalTo(true));
+        assertThat(values.hasValue(1), equalTo(false));
+        assertThat(values.hasValue(2), equalTo(true));
+
+        assertPoint(values.getValue(0), 40.7143528, -74.0059731);
+        assertThat(values.getValue(1), nullValue());
+        assertThat(values.getValueSafe(1), nullValue());
+        assertPoint(values.getValue(2), 40.759011, -73.9844722);
+
+        assertThat(points(values, 0).size(), equalTo(1));
+        assertThat(points(values, 1).size(), equalTo(0));
+        assertThat(values.getValues(1).size(), equalTo(0));
+        assertThat(values.getValues(2).size(), equalTo(1));
+    }
+
+    @Test
+    public void testMultiValueWithMissing() throws Exception {
+        fillMultiValueWithMissing();
+        AtomicGeoPointFieldData fieldData = this.<IndexGeoPointFieldData>getForField("value").load(refreshReader());
+
+        assertThat(fieldData, instanceOf(GeoPointCompressedAtomicFieldData.WithOrdinals.class));
+        assertThat(fieldData.getNumDocs(), equalTo(4));
+        assertThat(fieldData.isMultiValued(), equalTo(true));
+
+        GeoPointValues values = fieldData.getGeoPointValues();
+        assertThat(values.isMultiValued(), equalTo(true));
+        assertThat(values.hasValue(0), equalTo(true));
+        assertThat(values.hasValue(1), equalTo(false));
+        assertThat(values.hasValue(2), equalTo(true));
+        assertThat(values.hasValue(3), equalTo(true));
+
+        List<GeoPoint> points = points(values, 0);
+        assertThat(points.size(), equalTo(1));
+        assertPoint(points.get(0), 40.7143528, -74.0059731);
+
+        assertThat(points(values, 1).size(), equalTo(0));
+        assertThat(values.getValue(1), nullValue());
+
+        points = points(values, 2);
+        assertThat(points.size(), equalTo(2));
+        assertPoint(points.get(0), 40.718266, -74.007819);
+        assertPoint(points.get(1), 51.5073509, -0.1277583);
+        assertThat(values.getValues(2).size(), equalTo(2));
+
+        points = points(values, 3);
+        assertThat(points.size(), equalTo(1));
+        assertPoint(points.get(0), -33.8674869, 151.2069902);
+    }
+
+    @Test
+    public void testDistanceFilter() throws Exception {
+        fillMultiValueWithMissing();
+        AtomicReaderContext context = refreshReader();
+        IndexGeoPointFieldData indexFieldData = getForField("value");
+
+        // only the documents with a point in lower Manhattan
+        for (String optimizeBbox : new String[]{"none", "memory", "grid"}) {
+            Filter filter = new GeoDistanceFilter(40.7143528, -74.0059731, 1, GeoDistance.ARC, indexFieldData, null, optimizeBbox);
+            assertThat(optimizeBbox, docs(filter, context), equalTo(Arrays.asList(0, 2)));
+        }
+
+        // the decoded points are within the precision of the original ones
+        GeoPointValues values = indexFieldData.load(context).getGeoPointValues();
+        GeoPoint point = values.getValue(0);
+        assertThat(GeoDistance.ARC.calculate(40.7143528, -74.0059731, point.lat(), point.lon(), DistanceUnit.KILOMETERS), lessThan(0.00001));
+
+        // and the distance between them is kept
+        double distance = GeoDistance.ARC.calculate(40.7143528, -74.0059731, 51.5073509, -0.1277583, DistanceUnit.KILOMETERS);
+        List<GeoPoint> points = points(values, 2);
+        assertThat(GeoDistance.ARC.calculate(point.lat(), point.lon(), points.get(1).lat(), points.get(1).lon(), DistanceUnit.KILOMETERS), closeTo(distance, 0.001));
+    }
+
+    @Test
+    public void testBoundingBoxFilter() throws Exception {
+        fillMultiValueWithMissing();
+        AtomicReaderContext context = refreshReader();
+        IndexGeoPointFieldData indexFieldData = getForField("value");
+
+        Filter filter = new InMemoryGeoBoundingBoxFilter(new GeoPoint(41, -75), new GeoPoint(40, -73), indexFieldData);
+        assertThat(docs(filter, context), equalTo(Arrays.asList(0, 2)));
+
+        filter = new InMemoryGeoBoundingBoxFilter(new GeoPoint(52, -1), new GeoPoint(51, 1), indexFieldData);
+        assertThat(docs(filter, context), equalTo(Arrays.asList(2)));
+
+        // crossing the date line
+        filter = new InMemoryGeoBoundingBoxFilter(new GeoPoint(-33, 150), new GeoPoint(-34, -170), indexFieldData);
+        assertThat(docs(filter, context), equalTo(Arrays.asList(3)));
+    }
+
+    @Test
+    public void testMemorySize() throws Exception {
+        // field data is cached per field name, so each format is loaded from its own field
+        for (int i = 0; i < 100; i++) {
+            String point = (i % 90) + ".123456," + (i % 180) + ".654321";
+            Document d = new Document();
+            d.add(new StringField("value", point, Field.Store.NO));
+            d.add(new StringField("array_value", point, Field.Store.NO));
+            d.add(new StringField("low_precision_value", point, Field.Store.NO));
+            writer.addDocument(d);
+        }
+        AtomicReaderContext context = refreshReader();
+
+        long compressed = this.<IndexGeoPointFieldData>getForField("value").load(context).getMemorySizeInBytes();
+        long array = ifdService.<IndexGeoPointFieldData>getForField(new FieldMapper.Names("array_value"), new FieldDataType("geo_point", ImmutableSettings.builder().put("format", "array")))
+                .load(context).getMemorySizeInBytes();
+        long lowPrecision = ifdService.<IndexGeoPointFieldData>getForField(new FieldMapper.Names("low_precision_value"), new FieldDataType("geo_point", ImmutableSettings.builder().put("format", "compressed").put("precision", "1km")))
+                .load(context).getMemorySizeInBytes();
+
+        assertThat(compressed, greaterThan(0l));
+        assertThat(compressed, lessThan(array));
+        assertThat(lowPrecision, lessThan(compressed));
+    }
+
+    private static void assertPoint(GeoPoint point, double lat, double lon) {
+        assertThat(point, notNullValue());
+        assertThat(point.lat(), closeTo(lat, DELTA));
+        assertThat(point.lon(), closeTo(lon, DELTA));
+    }
+
+    private static List<GeoPoint> points(GeoPointValues values, int docId) {
+        List<GeoPoint> points = new ArrayList<GeoPoint>();
+        for (GeoPointValues.Iter iter = values.getIterSafe(docId); iter.hasNext(); ) {
+            points.add(iter.next());
+        }
+        return points;
+    }
+
+    private static List<Integer> docs(Filter filter, AtomicReaderContext context) throws Exception {
+        List<Integer> docs = new ArrayList<Integer>();
+        DocIdSet docIdSet = filter.getDocIdSet(context, null);
+        if (docIdSet == null) {
+            return docs;
+        }
+        DocIdSetIterator iterator = docIdSet.iterator();
+        if (iterator == null) {
+            return docs;
+        }
+        for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+            docs.add(doc);
+        }
+        return docs;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.fielddata;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongField;
+import org.apache.lucene.document.StringField;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.index.fielddata.FieldDataType;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData;
+import org.elasticsearch.index.fielddata.LongValues;
+import org.elasticsearch.index.fielddata.plain.PackedArrayAtomicFieldData;
+import org.elasticsearch.index.fielddata.util.PackedLongArray;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Runs the long field data tests with the <tt>packed</tt> format, plus its specific encodings.
+ */
+public class PackedLongFieldDataTests extends LongFieldDataTests {
+
+    @Override
+    protected FieldDataType getFieldDataType() {
+        return new FieldDataType("long", ImmutableSettings.builder().put("format", "packed"));
+    }
+
+    @Test
+    public void testPackedLongArray() throws Exception {
+        // timestamps rounded to the second, increasing over time
+        long[] values = new long[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1365000000000l + (i * 60 + (i % 7)) * 1000l;
+        }
+        PackedLongArray packed = PackedLongArray.pack(values, 0f);
+        assertThat(packed.size(), equalTo(values.length));
+        for (int i = 0; i < values.length; i++) {
+            assertThat(packed.get(i), equalTo(values[i]));
+        }
+        assertThat(packed.ramBytesUsed(), lessThan(values.length * 4l));
+
+        values = new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE, -1};
+        packed = PackedLongArray.pack(values, 0f);
+        for (int i = 0; i < values.length; i++) {
+            assertThat(packed.get(i), equalTo(values[i]));
+        }
+
+        values = new long[]{-5, -5, -5};
+        packed = PackedLongArray.pack(values, 0f);
+        for (int i = 0; i < values.length; i++) {
+            assertThat(packed.get(i), equalTo(values[i]));
+        }
+    }
+
+    @Test
+    public void testSparse() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            Document d = new Document();
+            d.add(new StringField("_id", Integer.toString(i), Field.Store.NO));
+            if (i % 100 == 7) {
+                d.add(new LongField("value", -i, Field.Store.NO));
+            }
+            writer.addDocument(d);
+        }
+
+        IndexNumericFieldData indexFieldData = getForField("value");
+        PackedArrayAtomicFieldData fieldData = (PackedArrayAtomicFieldData) indexFieldData.load(refreshReader());
+        assertThat(fieldData, instanceOf(PackedArrayAtomicFieldData.Sparse.class));
+        assertThat(fieldData.getMemorySavedInBytes(), greaterThan(0l));
+
+        LongValues longValues = fieldData.getLongValues();
+        for (int i = 0; i < 1000; i++) {
+            if (i % 100 == 7) {
+                assertThat(longValues.hasValue(i), equalTo(true));
+                assertThat(longValues.getValue(i), equalTo((long) -i));
+            } else {
+                assertThat(longValues.hasValue(i), equalTo(false));
+                assertThat(longValues.getValueMissing(i, 42), equalTo(42l));
+                // like the array format, and not the value of the next doc with a value
+                assertThat(longValues.getValue(i), equalTo(0l));
+            }
+        }
+        assertThat(fieldData.getDoubleValues().getValue(107), equalTo(-107d));
+        assertThat(fieldData.getDoubleValues().getValue(150), equalTo(0d));
+        assertThat(fieldData.getDoubleValues().getValue(999), equalTo(0d));
+        assertThat(fieldData.getStringValues().getValue(207), equalTo("-207"));
+
+        assertThat(ifdService.stats().getMemorySavedInBytes(), equalTo(fieldData.getMemorySavedInBytes()));
+    }
+
+    @Test
+    public void testMissingValues() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            Document d = new Document();
+            d.add(new StringField("_id", Integer.toString(i), Field.Store.NO));
+            if (i != 3) {
+                d.add(new LongField("value", 1000 + i, Field.Store.NO));
+                d.add(new LongField("multi_value", 1000 + i, Field.Store.NO));
+                d.add(new LongField("multi_value", 2000 + i, Field.Store.NO));
+            }
+            writer.addDocument(d);
+        }
+        refreshReader();
+
+        PackedArrayAtomicFieldData fieldData = (PackedArrayAtomicFieldData) this.<IndexNumericFieldData>getForField("value").load(readerContext);
+        assertThat(fieldData, instanceOf(PackedArrayAtomicFieldData.Single.class));
+        assertThat(fieldData.getLongValues().hasValue(3), equalTo(false));
+        assertThat(fieldData.getLongValues().getValue(3), equalTo(0l));
+        assertThat(fieldData.getLongValues().getValue(4), equalTo(1004l));
+        assertThat(fieldData.getDoubleValues().getValue(3), equalTo(0d));
+
+        fieldData = (PackedArrayAtomicFieldData) this.<IndexNumericFieldData>getForField("multi_value").load(readerContext);
+        assertThat(fieldData, instanceOf(PackedArrayAtomicFieldData.WithOrdinals.class));
+        assertThat(fieldData.getLongValues().hasValue(3), equalTo(false));
+        assertThat(fieldData.getLongValues().getValue(3), equalTo(0l));
+        assertThat(fieldData.getLongValues().getValue(4), equalTo(1004l));
+        assertThat(fieldData.getDoubleValues().getValue(3), equalTo(0d));
+    }
+}
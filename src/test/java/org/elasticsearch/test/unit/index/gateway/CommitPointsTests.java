@@ -24,12 +24,14 @@ import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.index.gateway.CommitPoint;
 import org.elasticsearch.index.gateway.CommitPoints;
+import org.elasticsearch.index.store.StoreFileMetaData;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 
 /**
@@ -74,4 +76,32 @@ public class CommitPointsTests {
             assertThat(desCp.translogFiles().get(i).checksum(), nullValue());
         }
     }
+
+    @Test
+    public void testFindSameIndexFile() throws Exception {
+        ArrayList<CommitPoint.FileInfo> indexFiles1 = Lists.newArrayList();
+        indexFiles1.add(new CommitPoint.FileInfo("__1", "_1.cfs", 100, "ck1"));
+        ArrayList<CommitPoint.FileInfo> indexFiles2 = Lists.newArrayList();
+        indexFiles2.add(new CommitPoint.FileInfo("__2", "_2.cfs", 200, "ck2"));
+        indexFiles2.add(new CommitPoint.FileInfo("__3", "_3.cfs", 300, null));
+
+        CommitPoints commitPoints = new CommitPoints(Lists.newArrayList(
+                new CommitPoint(1, "commit-1", CommitPoint.Type.GENERATED, indexFiles1, new ArrayList<CommitPoint.FileInfo>()),
+                new CommitPoint(2, "commit-2", CommitPoint.Type.SAVED, indexFiles2, new ArrayList<CommitPoint.FileInfo>())));
+
+        // same content under a different physical name
+        CommitPoint.FileInfo fileInfo = commitPoints.findSameIndexFile(new StoreFileMetaData("_5.cfs", 200, "ck2"));
+        assertThat(fileInfo, notNullValue());
+        assertThat(fileInfo.name(), equalTo("__2"));
+
+        fileInfo = commitPoints.findSameIndexFile(new StoreFileMetaData("_1.cfs", 100, "ck1"));
+        assertThat(fileInfo, notNullValue());
+        assertThat(fileInfo.name(), equalTo("__1"));
+
+        // different checksum or length
+        assertThat(commitPoints.findSameIndexFile(new StoreFileMetaData("_1.cfs", 100, "ck2")), nullValue());
+        assertThat(commitPoints.findSameIndexFile(new StoreFileMetaData("_1.cfs", 101, "ck1")), nullValue());
+        // no checksum, can't tell if it is the same
+        assertThat(commitPoints.findSameIndexFile(new StoreFileMetaData("_3.cfs", 300, null)), nullValue());
+    }
 }
@@ -19,6 +19,8 @@
 
 package org.elasticsearch.test.unit.index.mapper.numeric;
 
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexableField;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.index.mapper.DocumentMapper;
@@ -27,6 +29,7 @@ import org.elasticsearch.index.mapper.MapperParsingException;
 import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.core.DoubleFieldMapper;
 import org.elasticsearch.index.mapper.core.LongFieldMapper;
+import org.elasticsearch.index.mapper.core.NumberFieldMapper;
 import org.elasticsearch.index.mapper.core.StringFieldMapper;
 import org.elasticsearch.test.unit.index.mapper.MapperTests;
 import org.testng.annotations.Test;
@@ -144,4 +147,56 @@ public class SimpleNumericTests {
         }
     }
 
+    public void testDocValues() throws Exception {
+        String mapping = XContentFactory.jsonBuilder().startObject().startObject("type")
+                .startObject("properties")
+                    .startObject("long").field("type", "long").field("fielddata", "format=doc_values").endObject()
+                    .startObject("double").field("type", "double").field("fielddata", "format=doc_values").endObject()
+                    .startObject("int").field("type", "integer").endObject()
+                .endObject()
+                .endObject().endObject().string();
+
+        DocumentMapper defaultMapper = MapperTests.newParser().parse(mapping);
+
+        ParsedDocument doc = defaultMapper.parse("type", "1", XContentFactory.jsonBuilder()
+                .startObject()
+                .field("long", 10)
+                .field("double", 1.5)
+                .field("int", 3)
+                .endObject()
+                .bytes());
+
+        IndexableField docValues = docValuesField(doc, "long");
+        assertThat(docValues.fieldType().docValueType(), equalTo(DocValues.Type.VAR_INTS));
+        assertThat(docValues.numericValue().longValue(), equalTo(10l));
+        assertThat(docValuesField(doc, NumberFieldMapper.docValuesMarkerName("long")).numericValue().intValue(), equalTo(1));
+
+        docValues = docValuesField(doc, "double");
+        assertThat(docValues.fieldType().docValueType(), equalTo(DocValues.Type.FLOAT_64));
+        assertThat(docValues.numericValue().doubleValue(), equalTo(1.5d));
+        assertThat(docValuesField(doc, NumberFieldMapper.docValuesMarkerName("double")), notNullValue());
+
+        assertThat(docValuesField(doc, "int"), nullValue());
+        assertThat(docValuesField(doc, NumberFieldMapper.docValuesMarkerName("int")), nullValue());
+
+        try {
+            defaultMapper.parse("type", "1", XContentFactory.jsonBuilder()
+                    .startObject()
+                    .array("long", 1, 2)
+                    .endObject()
+                    .bytes());
+            assert false : "doc values should reject multiple values";
+        } catch (MapperParsingException e) {
+            // all is well
+        }
+    }
+
+    private static IndexableField docValuesField(ParsedDocument doc, String name) {
+        for (IndexableField field : doc.rootDoc().getFields(name)) {
+            if (field.fieldType().docValueType() != null) {
+                return field;
+            }
+        }
+        return null;
+    }
 }
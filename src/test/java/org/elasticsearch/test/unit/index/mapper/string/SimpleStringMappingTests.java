@@ -19,9 +19,13 @@
 
 package org.elasticsearch.test.unit.index.mapper.string;
 
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.MapperParsingException;
 import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.test.unit.index.mapper.MapperTests;
 import org.testng.annotations.Test;
@@ -119,4 +123,63 @@ public class SimpleStringMappingTests {
         assertThat(doc.rootDoc().getField("field").fieldType().omitNorms(), equalTo(false));
         assertThat(doc.rootDoc().getField("field").fieldType().indexOptions(), equalTo(FieldInfo.IndexOptions.DOCS_AND_FREQS));
     }
+
+    @Test
+    public void testDocValuesOnlyOnNotAnalyzed() throws Exception {
+        String mapping = XContentFactory.jsonBuilder().startObject().startObject("type")
+                .startObject("properties").startObject("field").field("type", "string").field("fielddata", "format=doc_values").endObject().endObject()
+                .endObject().endObject().string();
+
+        try {
+            MapperTests.newParser().parse(mapping);
+            assert false : "doc values should be rejected on analyzed strings";
+        } catch (MapperParsingException e) {
+            assertThat(e.getMessage(), containsString("not_analyzed"));
+        }
+
+        mapping = XContentFactory.jsonBuilder().startObject().startObject("type")
+                .startObject("properties").startObject("field").field("type", "string").field("index", "not_analyzed").field("fielddata", "format=doc_values").endObject().endObject()
+                .endObject().endObject().string();
+
+        DocumentMapper defaultMapper = MapperTests.newParser().parse(mapping);
+
+        ParsedDocument doc = defaultMapper.parse("type", "1", XContentFactory.jsonBuilder()
+                .startObject()
+                .field("field", "1234")
+                .endObject()
+                .bytes());
+
+        IndexableField docValues = docValuesField(doc, "field");
+        assertThat(docValues, notNullValue());
+        assertThat(docValues.fieldType().docValueType(), equalTo(DocValues.Type.BYTES_VAR_SORTED));
+        assertThat(docValues.binaryValue(), equalTo(new BytesRef("1234")));
+
+        // empty strings read as missing, so they are not written
+        doc = defaultMapper.parse("type", "1", XContentFactory.jsonBuilder()
+                .startObject()
+                .field("field", "")
+                .endObject()
+                .bytes());
+        assertThat(docValuesField(doc, "field"), nullValue());
+
+        try {
+            defaultMapper.parse("type", "1", XContentFactory.jsonBuilder()
+                    .startObject()
+                    .array("field", "1", "2")
+                    .endObject()
+                    .bytes());
+            assert false : "doc values should reject multiple values";
+        } catch (MapperParsingException e) {
+            // all is well
+        }
+    }
+
+    private static IndexableField docValuesField(ParsedDocument doc, String name) {
+        for (IndexableField field : doc.rootDoc().getFields(name)) {
+            if (field.fieldType().docValueType() != null) {
+                return field;
+            }
+        }
+        return null;
+    }
 }
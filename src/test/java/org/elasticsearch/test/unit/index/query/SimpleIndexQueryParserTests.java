@@ -29,6 +29,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.NumericUtils;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.inject.AbstractModule;
 import org.elasticsearch.common.inject.Injector;
 import org.elasticsearch.common.inject.ModulesBuilder;
@@ -39,6 +40,9 @@ import org.elasticsearch.common.lucene.search.function.FunctionScoreQuery;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.SettingsModule;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexNameModule;
 import org.elasticsearch.index.analysis.AnalysisModule;
@@ -345,6 +349,80 @@ public class SimpleIndexQueryParserTests {
         assertThat((double) firstQ.getBoost(), closeTo(1.2, 0.00001));
     }
 
+    @Test
+    public void testParseCached() throws IOException {
+        IndexQueryParserService queryParser = queryParser();
+        ParsedQuery parsedQuery = queryParser.parseCached(termQuery("name.first", "shay").buildAsBytes());
+        assertThat(parsedQuery.query(), instanceOf(TermQuery.class));
+        assertThat(queryParser.parseCached(termQuery("name.first", "shay").buildAsBytes()), sameInstance(parsedQuery));
+        ParsedQuery otherParsedQuery = queryParser.parseCached(termQuery("name.first", "banon").buildAsBytes());
+        assertThat(otherParsedQuery, not(sameInstance(parsedQuery)));
+        assertThat(((TermQuery) otherParsedQuery.query()).getTerm(), equalTo(new Term("name.first", "banon")));
+    }
+
+    @Test
+    public void testParseCachedFromParser() throws IOException {
+        IndexQueryParserService queryParser = queryParser();
+        // the query is sliced out of a larger source that doesn't start at the beginning of the array
+        byte[] source = "xx{\"from\":0,\"query\":{\"term\":{\"name.first\":\"kimchy\"}},\"size\":3}".getBytes("UTF-8");
+        XContentParser parser = XContentFactory.xContent(XContentType.JSON).createParser(new BytesArray(source, 2, source.length - 2));
+        ParsedQuery parsedQuery = parseQueryField(queryParser, parser);
+        assertThat(((TermQuery) parsedQuery.query()).getTerm(), equalTo(new Term("name.first", "kimchy")));
+        // the parser is moved past the query
+        assertThat(parser.currentToken(), equalTo(XContentParser.Token.END_OBJECT));
+        assertThat(parser.nextToken(), equalTo(XContentParser.Token.FIELD_NAME));
+        assertThat(parser.currentName(), equalTo("size"));
+        parser.close();
+
+        // the same query within another request is a cache hit
+        parser = XContentFactory.xContent(XContentType.JSON).createParser(new BytesArray("{\"query\":{\"term\":{\"name.first\":\"kimchy\"}}}"));
+        assertThat(parseQueryField(queryParser, parser), sameInstance(parsedQuery));
+        parser.close();
+
+        // formatted differently, the query is parsed again
+        parser = XContentFactory.xContent(XContentType.JSON).createParser(new BytesArray("{\"query\" : { \"term\" : { \"name.first\" : \"kimchy\" } } }"));
+        ParsedQuery otherParsedQuery = parseQueryField(queryParser, parser);
+        assertThat(otherParsedQuery, not(sameInstance(parsedQuery)));
+        assertThat(((TermQuery) otherParsedQuery.query()).getTerm(), equalTo(new Term("name.first", "kimchy")));
+        parser.close();
+    }
+
+    private ParsedQuery parseQueryField(IndexQueryParserService queryParser, XContentParser parser) throws IOException {
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token == XContentParser.Token.FIELD_NAME && "query".equals(parser.currentName())) {
+                parser.nextToken();
+                return queryParser.parseCached(parser);
+            }
+        }
+        throw new AssertionError("no query in the source");
+    }
+
+    @Test
+    public void testParseCachedSkipsQueriesRelativeToNow() throws IOException {
+        IndexQueryParserService queryParser = queryParser();
+        BytesReference source = rangeQuery("birthDate").from("now-1d").to("now").buildAsBytes();
+        ParsedQuery parsedQuery = queryParser.parseCached(source);
+        assertThat(queryParser.parseCached(source), not(sameInstance(parsedQuery)));
+    }
+
+    @Test
+    public void testParseCachedAfterMappingChange() throws IOException {
+        IndexQueryParserService queryParser = queryParser();
+        BytesReference source = termQuery("cached_age", 34).buildAsBytes();
+        ParsedQuery parsedQuery = queryParser.parseCached(source);
+        assertThat(parsedQuery.query(), instanceOf(TermQuery.class));
+        assertThat(queryParser.parseCached(source), sameInstance(parsedQuery));
+
+        // once the field is mapped, the query is parsed again against the new mapping
+        injector.getInstance(MapperService.class).merge("cached_type",
+                "{\"cached_type\":{\"properties\":{\"cached_age\":{\"type\":\"long\"}}}}", true);
+        ParsedQuery otherParsedQuery = queryParser.parseCached(source);
+        assertThat(otherParsedQuery, not(sameInstance(parsedQuery)));
+        assertThat(otherParsedQuery.query(), instanceOf(NumericRangeQuery.class));
+        assertThat(queryParser.parseCached(source), sameInstance(otherParsedQuery));
+    }
+
     @Test
     public void testTermQueryBuilder() throws IOException {
         IndexQueryParserService queryParser = queryParser();
@@ -0,0 +1,106 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.index.translog.fs;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.io.FileSystemUtils;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogStreams;
+import org.elasticsearch.index.translog.fs.MappedTranslogReader;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ */
+public class MappedTranslogReaderTests {
+
+    private final File dir = new File("data/mapped-translog");
+
+    @AfterClass
+    public void cleanup() {
+        FileSystemUtils.deleteRecursively(dir, true);
+    }
+
+    private File writeTranslog(String name, int numberOfOperations, boolean truncateLast) throws Exception {
+        dir.mkdirs();
+        File file = new File(dir, name);
+        BytesStreamOutput out = new BytesStreamOutput();
+        for (int i = 0; i < numberOfOperations; i++) {
+            BytesStreamOutput op = new BytesStreamOutput();
+            TranslogStreams.writeTranslogOperation(op, new Translog.Index("test", Integer.toString(i), new byte[]{(byte) i, 1, 2, 3}));
+            out.writeInt(op.size());
+            op.bytes().writeTo(out);
+        }
+        if (truncateLast) {
+            out.writeInt(100);
+            out.writeByte((byte) 1);
+        }
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            fos.write(out.bytes().toBytes());
+        } finally {
+            fos.close();
+        }
+        return file;
+    }
+
+    @Test
+    public void testReadAll() throws Exception {
+        File file = writeTranslog("translog-1", 10, false);
+        MappedTranslogReader reader = new MappedTranslogReader(file);
+        try {
+            for (int i = 0; i < 10; i++) {
+                Translog.Index index = (Translog.Index) reader.next();
+                assertThat(index.id(), equalTo(Integer.toString(i)));
+                assertThat(index.source().toBytesArray(), equalTo(new BytesArray(new byte[]{(byte) i, 1, 2, 3})));
+            }
+            assertThat(reader.next(), nullValue());
+            assertThat(reader.position(), equalTo(reader.length()));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testTruncatedLastOperationAndSmallChunks() throws Exception {
+        File file = writeTranslog("translog-2", 20, true);
+        // chunks smaller than an operation, so operations cross chunk boundaries
+        MappedTranslogReader reader = new MappedTranslogReader(file, 7);
+        try {
+            List<Translog.Operation> batch = reader.nextBatch(15);
+            assertThat(batch.size(), equalTo(15));
+            batch = reader.nextBatch(15);
+            assertThat(batch.size(), equalTo(5));
+            assertThat(((Translog.Index) batch.get(4)).id(), equalTo("19"));
+            assertThat(reader.nextBatch(15).size(), equalTo(0));
+        } finally {
+            reader.close();
+        }
+    }
+}
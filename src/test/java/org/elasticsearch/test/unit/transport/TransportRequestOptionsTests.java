@@ -0,0 +1,45 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.transport;
+
+import org.elasticsearch.transport.TransportRequestOptions;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.transport.TransportRequestOptions.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ *
+ */
+public class TransportRequestOptionsTests {
+
+    @Test
+    public void testDeprecatedTypes() {
+        assertThat(options().withLowType().type(), equalTo(TransportRequestOptions.Type.BULK));
+        assertThat(options().withMedType().type(), equalTo(TransportRequestOptions.Type.REG));
+        assertThat(options().withHighType().type(), equalTo(TransportRequestOptions.Type.PING));
+
+        // same mapping as the pre 0.21 connection class names
+        assertThat(options().withLowType().type(), equalTo(TransportRequestOptions.Type.fromString("low")));
+        assertThat(options().withMedType().type(), equalTo(TransportRequestOptions.Type.fromString("med")));
+        assertThat(options().withHighType().type(), equalTo(TransportRequestOptions.Type.fromString("high")));
+    }
+}
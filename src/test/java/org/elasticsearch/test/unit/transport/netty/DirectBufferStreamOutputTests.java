@@ -0,0 +1,121 @@
+/*
+ * Licensed to ElasticSearch and Shay Banon under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. ElasticSearch licenses this
+ * file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.test.unit.transport.netty;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ChannelBufferBytesReference;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.transport.netty.ChannelBufferStreamInput;
+import org.elasticsearch.transport.netty.DirectBufferPool;
+import org.elasticsearch.transport.netty.DirectBufferStreamOutput;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ *
+ */
+@Test
+public class DirectBufferStreamOutputTests {
+
+    private DirectBufferPool newPool() {
+        return new DirectBufferPool(new ByteSizeValue(16), new ByteSizeValue(1, ByteSizeUnit.KB), new ByteSizeValue(1, ByteSizeUnit.MB));
+    }
+
+    @Test
+    public void testPoolSizeClasses() {
+        DirectBufferPool pool = newPool();
+        assertThat(pool.maxSize(), equalTo(1024));
+
+        ByteBuffer buffer = pool.acquire(17);
+        assertThat(buffer.isDirect(), equalTo(true));
+        assertThat(buffer.capacity(), equalTo(64));
+        pool.release(buffer);
+        assertThat(pool.pooledBytes(), equalTo(64l));
+
+        assertThat(pool.acquire(60), sameInstance(buffer));
+        assertThat(pool.pooledBytes(), equalTo(0l));
+        assertThat(pool.acquire(1025), nullValue());
+    }
+
+    @Test
+    public void testWriteAndReadBack() throws Exception {
+        DirectBufferPool pool = newPool();
+        DirectBufferStreamOutput out = new DirectBufferStreamOutput(pool);
+        out.skip(4);
+        out.writeString("hello");
+        out.writeVInt(42);
+        byte[] payload = new byte[2000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        out.writeBytesReference(new BytesArray(payload));
+        out.writeLong(-1);
+
+        ChannelBuffer buffer = out.channelBuffer();
+        buffer.setInt(0, 7);
+        assertThat(buffer.readInt(), equalTo(7));
+
+        StreamInput in = new ChannelBufferStreamInput(buffer);
+        assertThat(in.readString(), equalTo("hello"));
+        assertThat(in.readVInt(), equalTo(42));
+        BytesReference ref = in.readBytesReference();
+        assertThat(ref, instanceOf(ChannelBufferBytesReference.class));
+        assertThat(ref.length(), equalTo(payload.length));
+        assertThat(ref.toBytes(), equalTo(payload));
+        assertThat(ref.slice(10, 5).get(0), equalTo((byte) 10));
+        assertThat(in.readLong(), equalTo(-1l));
+
+        out.release();
+    }
+
+    @Test
+    public void testNonZeroReaderIndex() throws Exception {
+        DirectBufferPool pool = newPool();
+        DirectBufferStreamOutput out = new DirectBufferStreamOutput(pool);
+        byte[] payload = new byte[20];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        out.writeBytes(payload);
+
+        // the header has been read off the buffer
+        ChannelBuffer buffer = out.channelBuffer();
+        buffer.readerIndex(5);
+        BytesReference ref = new ChannelBufferBytesReference(buffer);
+        assertThat(ref.length(), equalTo(15));
+        assertThat(ref.get(0), equalTo((byte) 5));
+        assertThat(ref.toBytes()[0], equalTo((byte) 5));
+
+        BytesReference slice = ref.slice(2, 4);
+        assertThat(slice.length(), equalTo(4));
+        assertThat(slice.toBytes(), equalTo(new byte[]{7, 8, 9, 10}));
+        assertThat(slice.slice(1, 2).toBytes(), equalTo(new byte[]{8, 9}));
+
+        out.release();
+    }
+}